@@ -0,0 +1,49 @@
+package com.alice.education.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * JDBC batching defaults. Entities use pooled sequence ids, so Hibernate can
+ * group inserts and updates; MySQL additionally needs the driver to rewrite
+ * batches into multi-row statements. Lazy associations are also loaded in
+ * batches. Explicit properties still take precedence.
+ */
+@Configuration
+public class JpaConfig {
+
+    private static final int BATCH_SIZE = 50;
+
+    @Bean
+    public HibernatePropertiesCustomizer batchingHibernatePropertiesCustomizer() {
+        return properties -> {
+            properties.putIfAbsent("hibernate.jdbc.batch_size", BATCH_SIZE);
+            properties.putIfAbsent("hibernate.order_inserts", true);
+            properties.putIfAbsent("hibernate.order_updates", true);
+            properties.putIfAbsent("hibernate.jdbc.batch_versioned_data", true);
+            // pooled-lo: the stored value is the first id of the next block, which
+            // lets SequenceIdAllocator reserve ranges from the same tables
+            properties.putIfAbsent("hibernate.id.optimizer.pooled.preferred", "pooled-lo");
+            // Lazy to-one and collection loads of a list page are fetched in batches
+            properties.putIfAbsent("hibernate.default_batch_fetch_size", BATCH_SIZE);
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor batchRewritingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                        && !dataSource.getDataSourceProperties().containsKey("rewriteBatchedStatements")) {
+                    dataSource.addDataSourceProperty("rewriteBatchedStatements", "true");
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.alice.education.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * The scheduler of the {@code @Scheduled} jobs. Spring's default has a single
+ * thread, on which the nightly item-analysis rebuild would hold up the
+ * flushes of grade syncs, item statistics and exam sessions; each job still
+ * never overlaps itself.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    @Value("${app.scheduling.pool-size:4}")
+    private int poolSize;
+
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduling-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+}
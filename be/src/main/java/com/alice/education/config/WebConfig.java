@@ -1,15 +1,32 @@
 package com.alice.education.config;
 
+import java.util.concurrent.Callable;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.alice.education.service.ExportService;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+        @Value("${app.export.timeout-ms:600000}")
+        private long exportTimeoutMs;
+
+        @Value("${app.export.threads:4}")
+        private int exportThreads;
+
         @Override
-        public void addResourceHandlers(@NonNull ResourceHandlerRegistry registry) {
+        public void addResourceHandlers(ResourceHandlerRegistry registry) {
                 registry.addResourceHandler("/uploads/**")
                                 .addResourceLocations("file:uploads/");
                 registry.addResourceHandler("/chapter/**")
@@ -19,4 +36,35 @@ public class WebConfig implements WebMvcConfigurer {
                                 .addResourceLocations("classpath:/static/img/avatar/",
                                                 "file:src/main/resources/static/img/avatar/");
         }
-}
\ No newline at end of file
+
+        // Streamed exports run on their own pool, not the mail executor
+        @Bean(name = "exportTaskExecutor")
+        public ThreadPoolTaskExecutor exportTaskExecutor() {
+                ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+                executor.setCorePoolSize(exportThreads);
+                executor.setMaxPoolSize(exportThreads);
+                executor.setQueueCapacity(100);
+                executor.setThreadNamePrefix("export-");
+                return executor;
+        }
+
+        // Exports may take longer than the default async request timeout, which
+        // still applies to every other async response
+        @Override
+        public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(exportTaskExecutor());
+                configurer.registerCallableInterceptors(exportTimeout());
+        }
+
+        CallableProcessingInterceptor exportTimeout() {
+                return new CallableProcessingInterceptor() {
+                        @Override
+                        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                                if (request instanceof AsyncWebRequest asyncRequest && request.getAttribute(
+                                                ExportService.EXPORT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+                                        asyncRequest.setTimeout(exportTimeoutMs);
+                                }
+                        }
+                };
+        }
+}
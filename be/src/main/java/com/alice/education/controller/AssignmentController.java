@@ -13,15 +13,24 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.alice.education.dto.ApiResponse;
 import com.alice.education.dto.AssignmentRequest;
 import com.alice.education.dto.AssignmentResponse;
+import com.alice.education.dto.CursorPageResponse;
+import com.alice.education.dto.ItemAnalysisResponse;
+import com.alice.education.dto.RegradeStatusResponse;
+import com.alice.education.dto.StudentWorkItemResponse;
 import com.alice.education.dto.SubmissionResponse;
 import com.alice.education.dto.SubmitAssignmentRequest;
 import com.alice.education.service.AssignmentService;
 import com.alice.education.service.AssignmentSubmissionService;
+import com.alice.education.service.ExportFormat;
+import com.alice.education.service.ExportService;
+import com.alice.education.service.ItemAnalysisService;
+import com.alice.education.service.RegradeService;
 
 import jakarta.validation.Valid;
 
@@ -36,6 +45,15 @@ public class AssignmentController {
     @Autowired
     private AssignmentSubmissionService submissionService;
 
+    @Autowired
+    private ItemAnalysisService itemAnalysisService;
+
+    @Autowired
+    private RegradeService regradeService;
+
+    @Autowired
+    private ExportService exportService;
+
     @PostMapping
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<ApiResponse<AssignmentResponse>> createAssignment(
@@ -70,6 +88,26 @@ public class AssignmentController {
         }
     }
 
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPageResponse<AssignmentResponse>>> getAssignmentPage(
+            @RequestParam(required = false) Long subjectId,
+            @RequestParam(required = false) Long teacherId,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String schoolYear,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPageResponse<AssignmentResponse> page = assignmentService.getAssignmentPage(subjectId, teacherId, active, schoolYear,
+                    sort, direction, cursor, size);
+            return ApiResponse.success("Lấy danh sách bài tập thành công", page);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
     @GetMapping("/my")
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<ApiResponse<List<AssignmentResponse>>> getMyAssignments() {
@@ -83,9 +121,9 @@ public class AssignmentController {
 
     @GetMapping("/enrolled")
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<ApiResponse<List<AssignmentResponse>>> getEnrolledAssignments() {
+    public ResponseEntity<ApiResponse<List<StudentWorkItemResponse>>> getEnrolledAssignments() {
         try {
-            List<AssignmentResponse> responses = assignmentService.getEnrolledAssignments();
+            List<StudentWorkItemResponse> responses = assignmentService.getEnrolledAssignments();
             return ApiResponse.success("Lấy bài tập đã đăng ký thành công", responses);
         } catch (Exception e) {
             return ApiResponse.error(e.getMessage());
@@ -162,6 +200,44 @@ public class AssignmentController {
         }
     }
 
+    @GetMapping("/{id}/submissions/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<ApiResponse<CursorPageResponse<SubmissionResponse>>> getSubmissionPage(
+            @PathVariable Long id,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPageResponse<SubmissionResponse> page = submissionService.getSubmissionPage(id, sort, direction, cursor, size);
+            return ApiResponse.success("Lấy danh sách bài nộp thành công", page);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/submissions/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> exportSubmissions(@PathVariable Long id,
+                                               @RequestParam(required = false) String format) {
+        try {
+            return exportService.assignmentSubmissions(id, ExportFormat.of(format)).toResponse();
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/submissions/{submissionId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<ApiResponse<SubmissionResponse>> getSubmissionDetail(@PathVariable Long submissionId) {
+        try {
+            SubmissionResponse response = submissionService.getSubmissionDetail(submissionId);
+            return ApiResponse.success("Lấy bài nộp thành công", response);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}/my-submissions")
     @PreAuthorize("hasRole('CUSTOMER')")
     public ResponseEntity<ApiResponse<List<SubmissionResponse>>> getMySubmissions(@PathVariable Long id) {
@@ -172,4 +248,48 @@ public class AssignmentController {
             return ApiResponse.error(e.getMessage());
         }
     }
+
+    @GetMapping("/{id}/item-analysis")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<ApiResponse<ItemAnalysisResponse>> getItemAnalysis(@PathVariable Long id) {
+        try {
+            ItemAnalysisResponse response = itemAnalysisService.getAssignmentAnalysis(id);
+            return ApiResponse.success("Lấy thống kê câu hỏi thành công", response);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/item-analysis/rebuild")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<ApiResponse<ItemAnalysisResponse>> rebuildItemAnalysis(@PathVariable Long id) {
+        try {
+            ItemAnalysisResponse response = itemAnalysisService.rebuildAssignment(id);
+            return ApiResponse.success("Tính lại thống kê câu hỏi thành công", response);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/regrade")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<ApiResponse<RegradeStatusResponse>> startRegrade(@PathVariable Long id) {
+        try {
+            RegradeStatusResponse response = regradeService.start(RegradeService.Kind.ASSIGNMENT, id);
+            return ApiResponse.success("Đã bắt đầu chấm lại bài", response);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/regrade")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<ApiResponse<RegradeStatusResponse>> getRegradeStatus(@PathVariable Long id) {
+        try {
+            RegradeStatusResponse response = regradeService.getStatus(RegradeService.Kind.ASSIGNMENT, id);
+            return ApiResponse.success("Lấy trạng thái chấm lại thành công", response);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
 }
@@ -17,6 +17,7 @@ import com.alice.education.dto.AccountResponse;
 import com.alice.education.dto.ApiResponse;
 import com.alice.education.dto.AuthResponse;
 import com.alice.education.dto.ChangePasswordRequest;
+import com.alice.education.dto.CursorPageResponse;
 import com.alice.education.dto.ForgotPasswordRequest;
 import com.alice.education.dto.LoginRequest;
 import com.alice.education.dto.MessageResponse;
@@ -184,6 +185,23 @@ public class AuthController {
         }
     }
 
+    @GetMapping("/students/page")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPageResponse<StudentResponse>>> getStudentPage(
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPageResponse<StudentResponse> page = authService.getStudentPage(active, q, sort, direction, cursor, size);
+            return ApiResponse.success("Lấy danh sách học sinh thành công!", page);
+        } catch (Exception e) {
+            return ApiResponse.error("Đã xảy ra lỗi: " + e.getMessage());
+        }
+    }
+
     @PutMapping("/profile")
     public ResponseEntity<ApiResponse<AccountResponse>> updateProfile(
             @Valid @RequestBody ProfileUpdateRequest request) {
@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
@@ -19,6 +20,7 @@ import org.springframework.web.multipart.MultipartFile;
 import com.alice.education.dto.ApiResponse;
 import com.alice.education.dto.ChapterRequest;
 import com.alice.education.dto.ChapterResponse;
+import com.alice.education.dto.CursorPageResponse;
 import com.alice.education.service.ChapterService;
 
 import jakarta.validation.Valid;
@@ -66,6 +68,23 @@ public class ChapterController {
         }
     }
 
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER', 'CUSTOMER')")
+    public ResponseEntity<ApiResponse<CursorPageResponse<ChapterResponse>>> getChapterPage(
+            @RequestParam(required = false) Long textbookId,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPageResponse<ChapterResponse> page = chapterService.getChapterPage(textbookId, active, sort, direction, cursor, size);
+            return ApiResponse.success("Chapters retrieved successfully", page);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
     @GetMapping("/textbook/{textbookId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER', 'CUSTOMER')")
     public ResponseEntity<ApiResponse<List<ChapterResponse>>> getChaptersByTextbook(@PathVariable Long textbookId) {
@@ -20,6 +20,7 @@ import com.alice.education.dto.AddStudentRequest;
 import com.alice.education.dto.ApiResponse;
 import com.alice.education.dto.ClassroomRequest;
 import com.alice.education.dto.ClassroomResponse;
+import com.alice.education.dto.CursorPageResponse;
 import com.alice.education.dto.EnrollRequest;
 import com.alice.education.dto.StudentInClassResponse;
 import com.alice.education.service.ClassroomService;
@@ -68,6 +69,27 @@ public class ClassroomController {
         }
     }
 
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER', 'CUSTOMER')")
+    public ResponseEntity<ApiResponse<CursorPageResponse<ClassroomResponse>>> getClassroomPage(
+            @RequestParam(required = false) Long subjectId,
+            @RequestParam(required = false) Long teacherId,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String schoolYear,
+            @RequestParam(required = false) String gradeLevel,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPageResponse<ClassroomResponse> page = classroomService.getClassroomPage(subjectId, teacherId, active, schoolYear,
+                    gradeLevel, sort, direction, cursor, size);
+            return ApiResponse.success("Classrooms retrieved successfully", page);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
     @GetMapping("/my-classrooms")
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<ApiResponse<List<ClassroomResponse>>> getMyClassrooms() {
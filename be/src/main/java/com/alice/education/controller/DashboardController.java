@@ -1,15 +1,19 @@
 package com.alice.education.controller;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.alice.education.dto.ApiResponse;
 import com.alice.education.dto.DashboardStatsResponse;
+import com.alice.education.dto.GradeDistributionResponse;
 import com.alice.education.service.DashboardService;
 
 @RestController
@@ -30,4 +34,22 @@ public class DashboardController {
             return ApiResponse.error(e.getMessage());
         }
     }
+
+    @GetMapping("/grade-analytics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<GradeDistributionResponse>>> getGradeAnalytics(
+            @RequestParam(required = false) Long subjectId,
+            @RequestParam(required = false) String gradeLevel,
+            @RequestParam(required = false) String schoolYear,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "5") double passScore,
+            @RequestParam(defaultValue = "5") int top) {
+        try {
+            List<GradeDistributionResponse> distributions =
+                    dashboardService.getGradeAnalytics(subjectId, gradeLevel, schoolYear, type, passScore, top);
+            return ApiResponse.success("Lấy thống kê điểm thành công!", distributions);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
 }
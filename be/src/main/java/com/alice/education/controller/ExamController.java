@@ -12,16 +12,29 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.alice.education.dto.ApiResponse;
+import com.alice.education.dto.CursorPageResponse;
 import com.alice.education.dto.ExamRequest;
 import com.alice.education.dto.ExamResponse;
+import com.alice.education.dto.ExamSessionResponse;
 import com.alice.education.dto.ExamSubmissionResponse;
+import com.alice.education.dto.ItemAnalysisResponse;
+import com.alice.education.dto.RegradeStatusResponse;
+import com.alice.education.dto.StudentWorkItemResponse;
 import com.alice.education.dto.SubmitExamRequest;
+import com.alice.education.model.GradeType;
 import com.alice.education.service.ExamService;
+import com.alice.education.service.ExamSessionService;
 import com.alice.education.service.ExamSubmissionService;
+import com.alice.education.service.ExportFormat;
+import com.alice.education.service.ExportService;
+import com.alice.education.service.ItemAnalysisService;
+import com.alice.education.service.RegradeService;
 
 import jakarta.validation.Valid;
 
@@ -36,6 +49,18 @@ public class ExamController {
     @Autowired
     private ExamSubmissionService examSubmissionService;
 
+    @Autowired
+    private ExamSessionService examSessionService;
+
+    @Autowired
+    private ItemAnalysisService itemAnalysisService;
+
+    @Autowired
+    private RegradeService regradeService;
+
+    @Autowired
+    private ExportService exportService;
+
     @PostMapping
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<ApiResponse<ExamResponse>> createExam(
@@ -70,6 +95,27 @@ public class ExamController {
         }
     }
 
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPageResponse<ExamResponse>>> getExamPage(
+            @RequestParam(required = false) Long subjectId,
+            @RequestParam(required = false) Long teacherId,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) String schoolYear,
+            @RequestParam(required = false) GradeType examType,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPageResponse<ExamResponse> page = examService.getExamPage(subjectId, teacherId, active, schoolYear, examType,
+                    sort, direction, cursor, size);
+            return ApiResponse.success("Lấy danh sách bài kiểm tra thành công", page);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
     @GetMapping("/my")
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<ApiResponse<List<ExamResponse>>> getMyExams() {
@@ -83,9 +129,9 @@ public class ExamController {
 
     @GetMapping("/enrolled")
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<ApiResponse<List<ExamResponse>>> getEnrolledExams() {
+    public ResponseEntity<ApiResponse<List<StudentWorkItemResponse>>> getEnrolledExams() {
         try {
-            List<ExamResponse> responses = examService.getEnrolledExams();
+            List<StudentWorkItemResponse> responses = examService.getEnrolledExams();
             return ApiResponse.success("Lấy bài kiểm tra đã đăng ký thành công", responses);
         } catch (Exception e) {
             return ApiResponse.error(e.getMessage());
@@ -138,13 +184,38 @@ public class ExamController {
         }
     }
 
+    @PostMapping("/{id}/session")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public ResponseEntity<ApiResponse<ExamSessionResponse>> startSession(@PathVariable Long id) {
+        try {
+            ExamSessionResponse response = examSessionService.startSession(id);
+            return ApiResponse.success("Bắt đầu làm bài thành công", response);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @PutMapping("/sessions/{sessionId}/answers")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public ResponseEntity<ApiResponse<ExamSessionResponse>> autosave(
+            @PathVariable Long sessionId,
+            @RequestBody SubmitExamRequest request) {
+        try {
+            ExamSessionResponse response = examSessionService.autosave(sessionId, request);
+            return ApiResponse.success("Đã lưu bài làm", response);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
     @PostMapping("/{id}/submit")
     @PreAuthorize("hasRole('CUSTOMER')")
     public ResponseEntity<ApiResponse<ExamSubmissionResponse>> submitExam(
             @PathVariable Long id,
-            @RequestBody SubmitExamRequest request) {
+            @RequestBody SubmitExamRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
-            ExamSubmissionResponse response = examSubmissionService.submitExam(id, request);
+            ExamSubmissionResponse response = examSubmissionService.submitExam(id, request, idempotencyKey);
             return ApiResponse.success("Nộp bài kiểm tra thành công", response);
         } catch (Exception e) {
             return ApiResponse.error(e.getMessage());
@@ -172,4 +243,97 @@ public class ExamController {
             return ApiResponse.error(e.getMessage());
         }
     }
+
+    @GetMapping("/{id}/submissions/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<ApiResponse<CursorPageResponse<ExamSubmissionResponse>>> getSubmissionPage(
+            @PathVariable Long id,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPageResponse<ExamSubmissionResponse> page = examSubmissionService.getSubmissionPage(id, sort, direction, cursor, size);
+            return ApiResponse.success("Lấy tất cả bài nộp thành công", page);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/submissions/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> exportSubmissions(@PathVariable Long id,
+                                               @RequestParam(required = false) String format) {
+        try {
+            return exportService.examSubmissions(id, ExportFormat.of(format)).toResponse();
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/submissions/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> exportSchoolYearSubmissions(@RequestParam String schoolYear,
+                                                         @RequestParam(required = false) String format) {
+        try {
+            return exportService.schoolYearSubmissions(schoolYear, ExportFormat.of(format)).toResponse();
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/submissions/{submissionId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<ApiResponse<ExamSubmissionResponse>> getSubmissionDetail(@PathVariable Long submissionId) {
+        try {
+            ExamSubmissionResponse response = examSubmissionService.getSubmissionDetail(submissionId);
+            return ApiResponse.success("Lấy bài nộp thành công", response);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/item-analysis")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<ApiResponse<ItemAnalysisResponse>> getItemAnalysis(@PathVariable Long id) {
+        try {
+            ItemAnalysisResponse response = itemAnalysisService.getExamAnalysis(id);
+            return ApiResponse.success("Lấy thống kê câu hỏi thành công", response);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/item-analysis/rebuild")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<ApiResponse<ItemAnalysisResponse>> rebuildItemAnalysis(@PathVariable Long id) {
+        try {
+            ItemAnalysisResponse response = itemAnalysisService.rebuildExam(id);
+            return ApiResponse.success("Tính lại thống kê câu hỏi thành công", response);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/regrade")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<ApiResponse<RegradeStatusResponse>> startRegrade(@PathVariable Long id) {
+        try {
+            RegradeStatusResponse response = regradeService.start(RegradeService.Kind.EXAM, id);
+            return ApiResponse.success("Đã bắt đầu chấm lại bài", response);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/regrade")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<ApiResponse<RegradeStatusResponse>> getRegradeStatus(@PathVariable Long id) {
+        try {
+            RegradeStatusResponse response = regradeService.getStatus(RegradeService.Kind.EXAM, id);
+            return ApiResponse.success("Lấy trạng thái chấm lại thành công", response);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
 }
@@ -1,6 +1,9 @@
 package com.alice.education.controller;
 
 import com.alice.education.dto.*;
+import com.alice.education.service.ExportFormat;
+import com.alice.education.service.ExportService;
+import com.alice.education.service.GradeConflictException;
 import com.alice.education.service.GradeService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -15,11 +18,47 @@ public class GradeController {
     @Autowired
     private GradeService gradeService;
 
+    @Autowired
+    private ExportService exportService;
+
     @GetMapping("/classroom/{classroomId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
-    public ResponseEntity<ApiResponse<GradeBookResponse>> getGradeBook(@PathVariable Long classroomId) {
+    public ResponseEntity<?> getGradeBook(@PathVariable Long classroomId) {
         try {
-            return ApiResponse.success("Lấy bảng điểm thành công", gradeService.getGradeBook(classroomId));
+            return gradeService.getGradeBookResponse(classroomId).toResponse();
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/classroom/{classroomId}/matrix")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> getGradeBookMatrix(@PathVariable Long classroomId) {
+        try {
+            return gradeService.getGradeBookMatrixResponse(classroomId).toResponse();
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/classroom/{classroomId}/changes")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<ApiResponse<GradeBookDeltaResponse>> getGradeBookChanges(@PathVariable Long classroomId,
+                                                                                  @RequestParam long since) {
+        try {
+            return ApiResponse.success("Lấy thay đổi bảng điểm thành công",
+                gradeService.getGradeBookChanges(classroomId, since));
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/classroom/{classroomId}/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<?> exportGradeBook(@PathVariable Long classroomId,
+                                             @RequestParam(required = false) String format) {
+        try {
+            return exportService.gradeBook(classroomId, ExportFormat.of(format)).toResponse();
         } catch (Exception e) {
             return ApiResponse.error(e.getMessage());
         }
@@ -27,9 +66,9 @@ public class GradeController {
 
     @GetMapping("/classroom/{classroomId}/my")
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<ApiResponse<GradeBookResponse>> getMyGradeBook(@PathVariable Long classroomId) {
+    public ResponseEntity<?> getMyGradeBook(@PathVariable Long classroomId) {
         try {
-            return ApiResponse.success("Lấy bảng điểm thành công", gradeService.getMyGradeBook(classroomId));
+            return gradeService.getMyGradeBookResponse(classroomId).toResponse();
         } catch (Exception e) {
             return ApiResponse.error(e.getMessage());
         }
@@ -58,6 +97,60 @@ public class GradeController {
         }
     }
 
+    @PutMapping("/classroom/{classroomId}/cells")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<ApiResponse<BulkGradeUpdateResponse>> bulkUpdateGrades(
+            @PathVariable Long classroomId,
+            @RequestBody BulkGradeUpdateRequest request) {
+        try {
+            return ApiResponse.success("Cập nhật điểm thành công", gradeService.bulkUpdateGrades(classroomId, request));
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @PostMapping("/classroom/{classroomId}/finalize")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<ApiResponse<GradeBookResponse>> finalizeGradeBook(@PathVariable Long classroomId) {
+        try {
+            return ApiResponse.success("Chốt bảng điểm thành công", gradeService.finalizeGradeBook(classroomId));
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @PostMapping("/classroom/{classroomId}/reopen")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<ApiResponse<GradeBookResponse>> reopenGradeBook(@PathVariable Long classroomId) {
+        try {
+            return ApiResponse.success("Mở lại bảng điểm thành công", gradeService.reopenGradeBook(classroomId));
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @PostMapping("/classroom/{classroomId}/summaries/rebuild")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<ApiResponse<Void>> rebuildSummaries(@PathVariable Long classroomId) {
+        try {
+            gradeService.rebuildSummaries(classroomId);
+            return ApiResponse.success("Tính lại điểm trung bình thành công");
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @PostMapping("/summaries/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> rebuildAllSummaries() {
+        try {
+            gradeService.rebuildAllSummaries();
+            return ApiResponse.success("Tính lại điểm trung bình thành công");
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
     @PutMapping("/{gradeId}")
     @PreAuthorize("hasRole('TEACHER')")
     public ResponseEntity<ApiResponse<GradeEntryResponse>> updateGrade(
@@ -65,6 +158,8 @@ public class GradeController {
             @RequestBody UpdateGradeRequest request) {
         try {
             return ApiResponse.success("Cập nhật điểm thành công", gradeService.updateGrade(gradeId, request));
+        } catch (GradeConflictException e) {
+            return ApiResponse.conflict(e.getMessage(), e.getCurrent());
         } catch (Exception e) {
             return ApiResponse.error(e.getMessage());
         }
@@ -0,0 +1,50 @@
+package com.alice.education.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.alice.education.dto.ApiResponse;
+import com.alice.education.dto.QuestionResponse;
+import com.alice.education.service.QuestionBankService;
+
+@RestController
+@RequestMapping("/api/questions")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class QuestionController {
+
+    @Autowired
+    private QuestionBankService questionBankService;
+
+    @GetMapping("/bank")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<ApiResponse<List<QuestionResponse>>> getMyBank(
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer size) {
+        try {
+            List<QuestionResponse> response = questionBankService.getMyBank(before, size);
+            return ApiResponse.success("Lấy ngân hàng câu hỏi thành công", response);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/versions")
+    @PreAuthorize("hasRole('TEACHER')")
+    public ResponseEntity<ApiResponse<List<QuestionResponse>>> getVersions(@PathVariable Long id) {
+        try {
+            List<QuestionResponse> response = questionBankService.getVersions(id);
+            return ApiResponse.success("Lấy các phiên bản câu hỏi thành công", response);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+}
@@ -17,6 +17,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.alice.education.dto.ApiResponse;
+import com.alice.education.dto.CursorPageResponse;
 import com.alice.education.dto.TextbookRequest;
 import com.alice.education.dto.TextbookResponse;
 import com.alice.education.service.TextbookService;
@@ -64,6 +65,25 @@ public class TextbookController {
         }
     }
 
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER', 'CUSTOMER')")
+    public ResponseEntity<ApiResponse<CursorPageResponse<TextbookResponse>>> getTextbookPage(
+            @RequestParam(required = false) Long subjectId,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) Integer grade,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            CursorPageResponse<TextbookResponse> page = textbookService.getTextbookPage(subjectId, active, grade,
+                    sort, direction, cursor, size);
+            return ApiResponse.success("Textbooks retrieved successfully", page);
+        } catch (Exception e) {
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
     @GetMapping("/subject/{subjectId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER', 'CUSTOMER')")
     public ResponseEntity<ApiResponse<List<TextbookResponse>>> getTextbooksBySubject(@PathVariable Long subjectId) {
@@ -5,6 +5,8 @@ public class AddGradeColumnRequest {
     private String name;
     private String type;
     private Long examId;
+    private Long assignmentId;
+    private String formula;
 
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
@@ -14,4 +16,10 @@ public class AddGradeColumnRequest {
 
     public Long getExamId() { return examId; }
     public void setExamId(Long examId) { this.examId = examId; }
+
+    public Long getAssignmentId() { return assignmentId; }
+    public void setAssignmentId(Long assignmentId) { this.assignmentId = assignmentId; }
+
+    public String getFormula() { return formula; }
+    public void setFormula(String formula) { this.formula = formula; }
 }
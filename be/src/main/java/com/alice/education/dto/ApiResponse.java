@@ -51,6 +51,10 @@ public class ApiResponse<T> {
         return ResponseEntity.status(status).body(new ApiResponse<>(false, message, null));
     }
     
+    public static <T> ResponseEntity<ApiResponse<T>> conflict(String message, T data) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse<>(false, message, data));
+    }
+    
     public static <T> ResponseEntity<ApiResponse<T>> unauthorized(String message) {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body(new ApiResponse<>(false, message, null));
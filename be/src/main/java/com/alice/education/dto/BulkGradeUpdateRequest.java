@@ -0,0 +1,11 @@
+package com.alice.education.dto;
+
+import java.util.List;
+
+public class BulkGradeUpdateRequest {
+
+    private List<GradeCellRequest> cells;
+
+    public List<GradeCellRequest> getCells() { return cells; }
+    public void setCells(List<GradeCellRequest> cells) { this.cells = cells; }
+}
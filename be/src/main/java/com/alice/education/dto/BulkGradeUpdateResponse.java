@@ -0,0 +1,19 @@
+package com.alice.education.dto;
+
+import java.util.List;
+
+public class BulkGradeUpdateResponse {
+
+    private int updated;
+    private int failed;
+    private List<GradeCellResult> results;
+
+    public int getUpdated() { return updated; }
+    public void setUpdated(int updated) { this.updated = updated; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public List<GradeCellResult> getResults() { return results; }
+    public void setResults(List<GradeCellResult> results) { this.results = results; }
+}
@@ -0,0 +1,37 @@
+package com.alice.education.dto;
+
+/** One classroom's scores within a grade distribution. */
+public class ClassroomScoreResponse {
+
+    private Long classroomId;
+    private String classroomName;
+    private int scoreCount;
+    private Double mean;
+    private Double passRate;
+
+    public ClassroomScoreResponse() {
+    }
+
+    public ClassroomScoreResponse(Long classroomId, String classroomName, int scoreCount, Double mean, Double passRate) {
+        this.classroomId = classroomId;
+        this.classroomName = classroomName;
+        this.scoreCount = scoreCount;
+        this.mean = mean;
+        this.passRate = passRate;
+    }
+
+    public Long getClassroomId() { return classroomId; }
+    public void setClassroomId(Long classroomId) { this.classroomId = classroomId; }
+
+    public String getClassroomName() { return classroomName; }
+    public void setClassroomName(String classroomName) { this.classroomName = classroomName; }
+
+    public int getScoreCount() { return scoreCount; }
+    public void setScoreCount(int scoreCount) { this.scoreCount = scoreCount; }
+
+    public Double getMean() { return mean; }
+    public void setMean(Double mean) { this.mean = mean; }
+
+    public Double getPassRate() { return passRate; }
+    public void setPassRate(Double passRate) { this.passRate = passRate; }
+}
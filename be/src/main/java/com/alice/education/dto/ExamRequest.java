@@ -16,6 +16,7 @@ public class ExamRequest {
     private String description;
 
     private String dueDate;
+    private String startDate;
 
     @NotNull(message = "Thời gian làm bài không được để trống")
     private Integer duration;
@@ -33,6 +34,9 @@ public class ExamRequest {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 
+    public String getStartDate() { return startDate; }
+    public void setStartDate(String startDate) { this.startDate = startDate; }
+
     public String getDueDate() { return dueDate; }
     public void setDueDate(String dueDate) { this.dueDate = dueDate; }
 
@@ -9,6 +9,7 @@ public class ExamResponse {
     private String title;
     private String description;
     private LocalDateTime dueDate;
+    private LocalDateTime startDate;
     private Integer duration;
     private com.alice.education.model.GradeType examType;
     private Boolean isActive;
@@ -33,6 +34,9 @@ public class ExamResponse {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 
+    public LocalDateTime getStartDate() { return startDate; }
+    public void setStartDate(LocalDateTime startDate) { this.startDate = startDate; }
+
     public LocalDateTime getDueDate() { return dueDate; }
     public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
 
@@ -0,0 +1,39 @@
+package com.alice.education.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.alice.education.model.ExamSessionStatus;
+
+public class ExamSessionResponse {
+
+    private Long id;
+    private Long examId;
+    private ExamSessionStatus status;
+    private LocalDateTime startedAt;
+    private LocalDateTime expiresAt;
+    private long remainingSeconds;
+    // Saved answers, only returned when a session is started or resumed
+    private List<SubmissionAnswerRequest> answers;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getExamId() { return examId; }
+    public void setExamId(Long examId) { this.examId = examId; }
+
+    public ExamSessionStatus getStatus() { return status; }
+    public void setStatus(ExamSessionStatus status) { this.status = status; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public long getRemainingSeconds() { return remainingSeconds; }
+    public void setRemainingSeconds(long remainingSeconds) { this.remainingSeconds = remainingSeconds; }
+
+    public List<SubmissionAnswerRequest> getAnswers() { return answers; }
+    public void setAnswers(List<SubmissionAnswerRequest> answers) { this.answers = answers; }
+}
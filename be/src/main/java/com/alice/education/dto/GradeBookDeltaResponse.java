@@ -0,0 +1,39 @@
+package com.alice.education.dto;
+
+import java.util.List;
+
+/**
+ * Changes to a gradebook since a version the client holds. When {@code full}
+ * is set the changes cannot be given as cells (columns or roster changed, or
+ * the log no longer reaches back) and the client reloads the gradebook;
+ * otherwise {@code cells} holds the changed cells, formula cells included,
+ * {@code students} the new totals of the students concerned (without grades)
+ * and {@code stats} the class statistics.
+ */
+public class GradeBookDeltaResponse {
+
+    private Long classroomId;
+    private long version;
+    private boolean full;
+    private List<GradeCellChangeResponse> cells;
+    private List<StudentGradeRowResponse> students;
+    private GradeBookStatsResponse stats;
+
+    public Long getClassroomId() { return classroomId; }
+    public void setClassroomId(Long classroomId) { this.classroomId = classroomId; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public boolean isFull() { return full; }
+    public void setFull(boolean full) { this.full = full; }
+
+    public List<GradeCellChangeResponse> getCells() { return cells; }
+    public void setCells(List<GradeCellChangeResponse> cells) { this.cells = cells; }
+
+    public List<StudentGradeRowResponse> getStudents() { return students; }
+    public void setStudents(List<StudentGradeRowResponse> students) { this.students = students; }
+
+    public GradeBookStatsResponse getStats() { return stats; }
+    public void setStats(GradeBookStatsResponse stats) { this.stats = stats; }
+}
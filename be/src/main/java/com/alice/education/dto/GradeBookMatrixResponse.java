@@ -0,0 +1,146 @@
+package com.alice.education.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.JacksonSerializable;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.jsontype.TypeSerializer;
+
+/**
+ * The gradebook as dense arrays: cell (row, column) is at
+ * {@code row * columnCount + column}, an empty cell has a NaN score and
+ * grade id 0, and a student without scores a NaN weighted sum.
+ *
+ * Serialized straight from the arrays as the columns header plus one row per
+ * student, whose {@code scores} and {@code gradeIds} follow the column order:
+ * <pre>
+ * {"classroomId":1,"classroomName":"10A1","version":42,"finalizedAt":null,"columns":[...],
+ *  "rows":[{"studentId":7,"studentName":"...","username":"...",
+ *           "scores":[8.5,null],"gradeIds":[31,null],
+ *           "weightedSum":25.5,"weightTotal":3,"average":8.5}],
+ *  "stats":{...}}
+ * </pre>
+ */
+public class GradeBookMatrixResponse extends JacksonSerializable.Base {
+
+    private final Long classroomId;
+    private final String classroomName;
+    private final List<GradeColumnResponse> columns;
+    private final long[] studentIds;
+    private final String[] studentNames;
+    private final String[] usernames;
+    private final double[] scores;
+    private final long[] gradeIds;
+    private final double[] weightedSums;
+    private final int[] weightTotals;
+    private final double[] averages;
+    private GradeBookStatsResponse stats;
+    private long version;
+    private LocalDateTime finalizedAt;
+
+    public GradeBookMatrixResponse(Long classroomId, String classroomName, List<GradeColumnResponse> columns,
+                                   long[] studentIds, String[] studentNames, String[] usernames,
+                                   double[] scores, long[] gradeIds,
+                                   double[] weightedSums, int[] weightTotals, double[] averages) {
+        this.classroomId = classroomId;
+        this.classroomName = classroomName;
+        this.columns = columns;
+        this.studentIds = studentIds;
+        this.studentNames = studentNames;
+        this.usernames = usernames;
+        this.scores = scores;
+        this.gradeIds = gradeIds;
+        this.weightedSums = weightedSums;
+        this.weightTotals = weightTotals;
+        this.averages = averages;
+    }
+
+    public Long getClassroomId() { return classroomId; }
+
+    public String getClassroomName() { return classroomName; }
+
+    public List<GradeColumnResponse> getColumns() { return columns; }
+
+    public int getRowCount() { return studentIds.length; }
+
+    public long getStudentId(int row) { return studentIds[row]; }
+
+    public String getStudentName(int row) { return studentNames[row]; }
+
+    public String getUsername(int row) { return usernames[row]; }
+
+    public Double getScore(int row, int column) {
+        double score = scores[row * columns.size() + column];
+        return Double.isNaN(score) ? null : score;
+    }
+
+    public Long getGradeId(int row, int column) {
+        long gradeId = gradeIds[row * columns.size() + column];
+        return gradeId == 0 ? null : gradeId;
+    }
+
+    public Double getWeightedSum(int row) { return Double.isNaN(weightedSums[row]) ? null : weightedSums[row]; }
+
+    public Integer getWeightTotal(int row) { return Double.isNaN(weightedSums[row]) ? null : weightTotals[row]; }
+
+    public Double getAverage(int row) { return Double.isNaN(averages[row]) ? null : averages[row]; }
+
+    public double[] getAverages() { return averages; }
+
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+
+    public LocalDateTime getFinalizedAt() { return finalizedAt; }
+    public void setFinalizedAt(LocalDateTime finalizedAt) { this.finalizedAt = finalizedAt; }
+
+    public GradeBookStatsResponse getStats() { return stats; }
+    public void setStats(GradeBookStatsResponse stats) { this.stats = stats; }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializationContext ctxt) {
+        int columnCount = columns.size();
+        gen.writeStartObject();
+        gen.writeNumberProperty("classroomId", classroomId);
+        gen.writeStringProperty("classroomName", classroomName);
+        gen.writeNumberProperty("version", version);
+        gen.writePOJOProperty("finalizedAt", finalizedAt);
+        gen.writePOJOProperty("columns", columns);
+        gen.writeArrayPropertyStart("rows");
+        for (int row = 0; row < studentIds.length; row++) {
+            gen.writeStartObject();
+            gen.writeNumberProperty("studentId", studentIds[row]);
+            gen.writeStringProperty("studentName", studentNames[row]);
+            gen.writeStringProperty("username", usernames[row]);
+            gen.writeArrayPropertyStart("scores");
+            for (int i = row * columnCount, end = i + columnCount; i < end; i++) {
+                if (Double.isNaN(scores[i])) gen.writeNull(); else gen.writeNumber(scores[i]);
+            }
+            gen.writeEndArray();
+            gen.writeArrayPropertyStart("gradeIds");
+            for (int i = row * columnCount, end = i + columnCount; i < end; i++) {
+                if (gradeIds[i] == 0) gen.writeNull(); else gen.writeNumber(gradeIds[i]);
+            }
+            gen.writeEndArray();
+            if (Double.isNaN(weightedSums[row])) {
+                gen.writeNullProperty("weightedSum");
+                gen.writeNullProperty("weightTotal");
+                gen.writeNullProperty("average");
+            } else {
+                gen.writeNumberProperty("weightedSum", weightedSums[row]);
+                gen.writeNumberProperty("weightTotal", weightTotals[row]);
+                gen.writeNumberProperty("average", averages[row]);
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writePOJOProperty("stats", stats);
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializationContext ctxt, TypeSerializer typeSer) {
+        serialize(gen, ctxt);
+    }
+}
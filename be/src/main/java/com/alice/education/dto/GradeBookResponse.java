@@ -1,13 +1,17 @@
 package com.alice.education.dto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public class GradeBookResponse {
 
     private Long classroomId;
     private String classroomName;
+    private Long version;
+    private LocalDateTime finalizedAt;
     private List<GradeColumnResponse> columns;
     private List<StudentGradeRowResponse> rows;
+    private GradeBookStatsResponse stats;
 
     public Long getClassroomId() { return classroomId; }
     public void setClassroomId(Long classroomId) { this.classroomId = classroomId; }
@@ -15,9 +19,18 @@ public class GradeBookResponse {
     public String getClassroomName() { return classroomName; }
     public void setClassroomName(String classroomName) { this.classroomName = classroomName; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public LocalDateTime getFinalizedAt() { return finalizedAt; }
+    public void setFinalizedAt(LocalDateTime finalizedAt) { this.finalizedAt = finalizedAt; }
+
     public List<GradeColumnResponse> getColumns() { return columns; }
     public void setColumns(List<GradeColumnResponse> columns) { this.columns = columns; }
 
     public List<StudentGradeRowResponse> getRows() { return rows; }
     public void setRows(List<StudentGradeRowResponse> rows) { this.rows = rows; }
+
+    public GradeBookStatsResponse getStats() { return stats; }
+    public void setStats(GradeBookStatsResponse stats) { this.stats = stats; }
 }
@@ -0,0 +1,50 @@
+package com.alice.education.dto;
+
+/**
+ * Class-level semester average statistics. The bands follow the report-card
+ * classification: excellent >= 8.0, good >= 6.5, average >= 5.0, weak >= 3.5,
+ * poor below.
+ */
+public class GradeBookStatsResponse {
+
+    private int studentCount;
+    private int gradedCount;
+    private Double classAverage;
+    private Double highest;
+    private Double lowest;
+    private int excellentCount;
+    private int goodCount;
+    private int averageCount;
+    private int weakCount;
+    private int poorCount;
+
+    public int getStudentCount() { return studentCount; }
+    public void setStudentCount(int studentCount) { this.studentCount = studentCount; }
+
+    public int getGradedCount() { return gradedCount; }
+    public void setGradedCount(int gradedCount) { this.gradedCount = gradedCount; }
+
+    public Double getClassAverage() { return classAverage; }
+    public void setClassAverage(Double classAverage) { this.classAverage = classAverage; }
+
+    public Double getHighest() { return highest; }
+    public void setHighest(Double highest) { this.highest = highest; }
+
+    public Double getLowest() { return lowest; }
+    public void setLowest(Double lowest) { this.lowest = lowest; }
+
+    public int getExcellentCount() { return excellentCount; }
+    public void setExcellentCount(int excellentCount) { this.excellentCount = excellentCount; }
+
+    public int getGoodCount() { return goodCount; }
+    public void setGoodCount(int goodCount) { this.goodCount = goodCount; }
+
+    public int getAverageCount() { return averageCount; }
+    public void setAverageCount(int averageCount) { this.averageCount = averageCount; }
+
+    public int getWeakCount() { return weakCount; }
+    public void setWeakCount(int weakCount) { this.weakCount = weakCount; }
+
+    public int getPoorCount() { return poorCount; }
+    public void setPoorCount(int poorCount) { this.poorCount = poorCount; }
+}
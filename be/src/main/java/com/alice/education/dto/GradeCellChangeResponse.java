@@ -0,0 +1,37 @@
+package com.alice.education.dto;
+
+/** A gradebook cell as of a delta; a null score is an emptied cell. */
+public class GradeCellChangeResponse {
+
+    private Long studentId;
+    private Long columnId;
+    private Long gradeId;
+    private Double score;
+    private Long version;
+
+    public GradeCellChangeResponse() {
+    }
+
+    public GradeCellChangeResponse(Long studentId, Long columnId, Long gradeId, Double score, Long version) {
+        this.studentId = studentId;
+        this.columnId = columnId;
+        this.gradeId = gradeId;
+        this.score = score;
+        this.version = version;
+    }
+
+    public Long getStudentId() { return studentId; }
+    public void setStudentId(Long studentId) { this.studentId = studentId; }
+
+    public Long getColumnId() { return columnId; }
+    public void setColumnId(Long columnId) { this.columnId = columnId; }
+
+    public Long getGradeId() { return gradeId; }
+    public void setGradeId(Long gradeId) { this.gradeId = gradeId; }
+
+    public Double getScore() { return score; }
+    public void setScore(Double score) { this.score = score; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
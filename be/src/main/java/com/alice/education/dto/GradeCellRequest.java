@@ -0,0 +1,22 @@
+package com.alice.education.dto;
+
+public class GradeCellRequest {
+
+    private Long studentId;
+    private Long columnId;
+    private Double score;
+    // Gradebook version the client's copy of the cell comes from; null skips the check
+    private Long expectedVersion;
+
+    public Long getStudentId() { return studentId; }
+    public void setStudentId(Long studentId) { this.studentId = studentId; }
+
+    public Long getColumnId() { return columnId; }
+    public void setColumnId(Long columnId) { this.columnId = columnId; }
+
+    public Double getScore() { return score; }
+    public void setScore(Double score) { this.score = score; }
+
+    public Long getExpectedVersion() { return expectedVersion; }
+    public void setExpectedVersion(Long expectedVersion) { this.expectedVersion = expectedVersion; }
+}
@@ -0,0 +1,39 @@
+package com.alice.education.dto;
+
+public class GradeCellResult {
+
+    private Long studentId;
+    private Long columnId;
+    private Long gradeId;
+    private Double score;
+    private Long version;
+    private boolean success;
+    private String message;
+    // The cell was changed by someone else since the expected version; score,
+    // gradeId and version are then the cell's current ones
+    private boolean conflict;
+
+    public Long getStudentId() { return studentId; }
+    public void setStudentId(Long studentId) { this.studentId = studentId; }
+
+    public Long getColumnId() { return columnId; }
+    public void setColumnId(Long columnId) { this.columnId = columnId; }
+
+    public Long getGradeId() { return gradeId; }
+    public void setGradeId(Long gradeId) { this.gradeId = gradeId; }
+
+    public Double getScore() { return score; }
+    public void setScore(Double score) { this.score = score; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public boolean isConflict() { return conflict; }
+    public void setConflict(boolean conflict) { this.conflict = conflict; }
+}
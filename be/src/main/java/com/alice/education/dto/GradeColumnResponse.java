@@ -7,6 +7,10 @@ public class GradeColumnResponse {
     private String type;
     private Integer orderNumber;
     private Boolean isCustom;
+    private Integer coefficient;
+    private Long examId;
+    private Long assignmentId;
+    private String formula;
 
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -22,4 +26,16 @@ public class GradeColumnResponse {
 
     public Boolean getIsCustom() { return isCustom; }
     public void setIsCustom(Boolean isCustom) { this.isCustom = isCustom; }
+
+    public Integer getCoefficient() { return coefficient; }
+    public void setCoefficient(Integer coefficient) { this.coefficient = coefficient; }
+
+    public Long getExamId() { return examId; }
+    public void setExamId(Long examId) { this.examId = examId; }
+
+    public Long getAssignmentId() { return assignmentId; }
+    public void setAssignmentId(Long assignmentId) { this.assignmentId = assignmentId; }
+
+    public String getFormula() { return formula; }
+    public void setFormula(String formula) { this.formula = formula; }
 }
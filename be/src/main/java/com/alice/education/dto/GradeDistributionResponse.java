@@ -0,0 +1,73 @@
+package com.alice.education.dto;
+
+import java.util.List;
+
+/**
+ * Score distribution of one (subject, grade level, grade type) group across
+ * classrooms. {@code histogram[i]} counts the scores in [i, i + 1), the last
+ * bucket including 10; percentiles are nearest-rank to 0.01, and pass rates
+ * are the percentage of scores at or above the pass score.
+ */
+public class GradeDistributionResponse {
+
+    private Long subjectId;
+    private String subjectName;
+    private String gradeLevel;
+    private String type;
+    private int classroomCount;
+    private int scoreCount;
+    private Double mean;
+    private Double passRate;
+    private Double p10;
+    private Double p25;
+    private Double median;
+    private Double p75;
+    private Double p90;
+    private int[] histogram;
+    private List<ClassroomScoreResponse> topClassrooms;
+
+    public Long getSubjectId() { return subjectId; }
+    public void setSubjectId(Long subjectId) { this.subjectId = subjectId; }
+
+    public String getSubjectName() { return subjectName; }
+    public void setSubjectName(String subjectName) { this.subjectName = subjectName; }
+
+    public String getGradeLevel() { return gradeLevel; }
+    public void setGradeLevel(String gradeLevel) { this.gradeLevel = gradeLevel; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public int getClassroomCount() { return classroomCount; }
+    public void setClassroomCount(int classroomCount) { this.classroomCount = classroomCount; }
+
+    public int getScoreCount() { return scoreCount; }
+    public void setScoreCount(int scoreCount) { this.scoreCount = scoreCount; }
+
+    public Double getMean() { return mean; }
+    public void setMean(Double mean) { this.mean = mean; }
+
+    public Double getPassRate() { return passRate; }
+    public void setPassRate(Double passRate) { this.passRate = passRate; }
+
+    public Double getP10() { return p10; }
+    public void setP10(Double p10) { this.p10 = p10; }
+
+    public Double getP25() { return p25; }
+    public void setP25(Double p25) { this.p25 = p25; }
+
+    public Double getMedian() { return median; }
+    public void setMedian(Double median) { this.median = median; }
+
+    public Double getP75() { return p75; }
+    public void setP75(Double p75) { this.p75 = p75; }
+
+    public Double getP90() { return p90; }
+    public void setP90(Double p90) { this.p90 = p90; }
+
+    public int[] getHistogram() { return histogram; }
+    public void setHistogram(int[] histogram) { this.histogram = histogram; }
+
+    public List<ClassroomScoreResponse> getTopClassrooms() { return topClassrooms; }
+    public void setTopClassrooms(List<ClassroomScoreResponse> topClassrooms) { this.topClassrooms = topClassrooms; }
+}
@@ -5,6 +5,7 @@ public class GradeEntryResponse {
     private Long gradeId;
     private Long columnId;
     private Double score;
+    private Long version;
 
     public Long getGradeId() { return gradeId; }
     public void setGradeId(Long gradeId) { this.gradeId = gradeId; }
@@ -14,4 +15,7 @@ public class GradeEntryResponse {
 
     public Double getScore() { return score; }
     public void setScore(Double score) { this.score = score; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
@@ -0,0 +1,19 @@
+package com.alice.education.dto;
+
+import java.util.List;
+
+public class ItemAnalysisResponse {
+
+    private Long id;
+    private String title;
+    private List<QuestionAnalysisResponse> questions;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public List<QuestionAnalysisResponse> getQuestions() { return questions; }
+    public void setQuestions(List<QuestionAnalysisResponse> questions) { this.questions = questions; }
+}
@@ -0,0 +1,55 @@
+package com.alice.education.dto;
+
+public class QuestionAnalysisResponse {
+
+    private Long questionId;
+    private String content;
+    private String correctAnswer;
+    private Long responses;
+    private Long correctCount;
+    // 0–100, null before the first response
+    private Double percentCorrect;
+    private Long countA;
+    private Long countB;
+    private Long countC;
+    private Long countD;
+    private Long countBlank;
+    // Point-biserial correlation (-1..1) of the item with the submission score
+    private Double discrimination;
+
+    public Long getQuestionId() { return questionId; }
+    public void setQuestionId(Long questionId) { this.questionId = questionId; }
+
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+
+    public String getCorrectAnswer() { return correctAnswer; }
+    public void setCorrectAnswer(String correctAnswer) { this.correctAnswer = correctAnswer; }
+
+    public Long getResponses() { return responses; }
+    public void setResponses(Long responses) { this.responses = responses; }
+
+    public Long getCorrectCount() { return correctCount; }
+    public void setCorrectCount(Long correctCount) { this.correctCount = correctCount; }
+
+    public Double getPercentCorrect() { return percentCorrect; }
+    public void setPercentCorrect(Double percentCorrect) { this.percentCorrect = percentCorrect; }
+
+    public Long getCountA() { return countA; }
+    public void setCountA(Long countA) { this.countA = countA; }
+
+    public Long getCountB() { return countB; }
+    public void setCountB(Long countB) { this.countB = countB; }
+
+    public Long getCountC() { return countC; }
+    public void setCountC(Long countC) { this.countC = countC; }
+
+    public Long getCountD() { return countD; }
+    public void setCountD(Long countD) { this.countD = countD; }
+
+    public Long getCountBlank() { return countBlank; }
+    public void setCountBlank(Long countBlank) { this.countBlank = countBlank; }
+
+    public Double getDiscrimination() { return discrimination; }
+    public void setDiscrimination(Double discrimination) { this.discrimination = discrimination; }
+}
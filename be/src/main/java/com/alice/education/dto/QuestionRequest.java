@@ -5,6 +5,9 @@ import jakarta.validation.constraints.Pattern;
 
 public class QuestionRequest {
 
+    // Bank question this one is based on; null for a new question
+    private Long id;
+
     @NotBlank
     private String content;
 
@@ -28,6 +31,9 @@ public class QuestionRequest {
 
     public QuestionRequest() {}
 
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
     public String getContent() { return content; }
     public void setContent(String content) { this.content = content; }
 
@@ -10,6 +10,8 @@ public class QuestionResponse {
     private String optionD;
     private String correctAnswer;
     private Integer orderNumber;
+    private Long lineageId;
+    private Integer version;
 
     public QuestionResponse() {}
 
@@ -36,4 +38,10 @@ public class QuestionResponse {
 
     public Integer getOrderNumber() { return orderNumber; }
     public void setOrderNumber(Integer orderNumber) { this.orderNumber = orderNumber; }
+
+    public Long getLineageId() { return lineageId; }
+    public void setLineageId(Long lineageId) { this.lineageId = lineageId; }
+
+    public Integer getVersion() { return version; }
+    public void setVersion(Integer version) { this.version = version; }
 }
@@ -0,0 +1,49 @@
+package com.alice.education.dto;
+
+import java.time.LocalDateTime;
+
+public class RegradeStatusResponse {
+
+    // RUNNING, DONE or FAILED
+    private String state;
+    private Long ownerId;
+    private long total;
+    private long processed;
+    private long changed;
+    // Submissions left out because their answers were not written yet
+    private long skipped;
+    private int gradesUpdated;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+
+    public Long getOwnerId() { return ownerId; }
+    public void setOwnerId(Long ownerId) { this.ownerId = ownerId; }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+
+    public long getProcessed() { return processed; }
+    public void setProcessed(long processed) { this.processed = processed; }
+
+    public long getChanged() { return changed; }
+    public void setChanged(long changed) { this.changed = changed; }
+
+    public long getSkipped() { return skipped; }
+    public void setSkipped(long skipped) { this.skipped = skipped; }
+
+    public int getGradesUpdated() { return gradesUpdated; }
+    public void setGradesUpdated(int gradesUpdated) { this.gradesUpdated = gradesUpdated; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -8,6 +8,9 @@ public class StudentGradeRowResponse {
     private String studentName;
     private String username;
     private List<GradeEntryResponse> grades;
+    private Double weightedSum;
+    private Integer weightTotal;
+    private Double average;
 
     public Long getStudentId() { return studentId; }
     public void setStudentId(Long studentId) { this.studentId = studentId; }
@@ -20,4 +23,13 @@ public class StudentGradeRowResponse {
 
     public List<GradeEntryResponse> getGrades() { return grades; }
     public void setGrades(List<GradeEntryResponse> grades) { this.grades = grades; }
+
+    public Double getWeightedSum() { return weightedSum; }
+    public void setWeightedSum(Double weightedSum) { this.weightedSum = weightedSum; }
+
+    public Integer getWeightTotal() { return weightTotal; }
+    public void setWeightTotal(Integer weightTotal) { this.weightTotal = weightTotal; }
+
+    public Double getAverage() { return average; }
+    public void setAverage(Double average) { this.average = average; }
 }
@@ -0,0 +1,61 @@
+package com.alice.education.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An assignment or exam in a student's work feed, without questions.
+ */
+public class StudentWorkItemResponse {
+
+    private Long id;
+    private String title;
+    private LocalDateTime dueDate;
+    private Boolean isActive;
+    // Exams only
+    private Integer duration;
+    private com.alice.education.model.GradeType examType;
+    private List<Long> classroomIds = new ArrayList<>();
+    private List<String> classroomNames = new ArrayList<>();
+    private int totalQuestions;
+    private Boolean hasSubmitted;
+    private long submissionCount;
+    private Double bestScore;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public LocalDateTime getDueDate() { return dueDate; }
+    public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
+
+    public Boolean getIsActive() { return isActive; }
+    public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+
+    public Integer getDuration() { return duration; }
+    public void setDuration(Integer duration) { this.duration = duration; }
+
+    public com.alice.education.model.GradeType getExamType() { return examType; }
+    public void setExamType(com.alice.education.model.GradeType examType) { this.examType = examType; }
+
+    public List<Long> getClassroomIds() { return classroomIds; }
+    public void setClassroomIds(List<Long> classroomIds) { this.classroomIds = classroomIds; }
+
+    public List<String> getClassroomNames() { return classroomNames; }
+    public void setClassroomNames(List<String> classroomNames) { this.classroomNames = classroomNames; }
+
+    public int getTotalQuestions() { return totalQuestions; }
+    public void setTotalQuestions(int totalQuestions) { this.totalQuestions = totalQuestions; }
+
+    public Boolean getHasSubmitted() { return hasSubmitted; }
+    public void setHasSubmitted(Boolean hasSubmitted) { this.hasSubmitted = hasSubmitted; }
+
+    public long getSubmissionCount() { return submissionCount; }
+    public void setSubmissionCount(long submissionCount) { this.submissionCount = submissionCount; }
+
+    public Double getBestScore() { return bestScore; }
+    public void setBestScore(Double bestScore) { this.bestScore = bestScore; }
+}
@@ -3,7 +3,12 @@ package com.alice.education.dto;
 public class UpdateGradeRequest {
 
     private Double score;
+    // Gradebook version the client's copy of the cell comes from; null skips the check
+    private Long expectedVersion;
 
     public Double getScore() { return score; }
     public void setScore(Double score) { this.score = score; }
+
+    public Long getExpectedVersion() { return expectedVersion; }
+    public void setExpectedVersion(Long expectedVersion) { this.expectedVersion = expectedVersion; }
 }
@@ -0,0 +1,32 @@
+package com.alice.education.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Question lineages, in position order, of an answer key that answers were
+ * packed against, so packed answers stay readable after the questions of their
+ * exam or assignment changed.
+ */
+@Entity
+@Table(name = "answer_key_layouts")
+public class AnswerKeyLayout {
+
+    @Id
+    @Column(name = "hash")
+    private Long hash;
+
+    // Comma separated lineage ids
+    @Column(name = "lineage_ids", nullable = false, columnDefinition = "TEXT")
+    private String lineageIds;
+
+    public AnswerKeyLayout() {}
+
+    public Long getHash() { return hash; }
+    public void setHash(Long hash) { this.hash = hash; }
+
+    public String getLineageIds() { return lineageIds; }
+    public void setLineageIds(String lineageIds) { this.lineageIds = lineageIds; }
+}
@@ -16,22 +16,30 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
 @Entity
-@Table(name = "assignments")
+@Table(name = "assignments", indexes = {
+        @Index(name = "idx_assignments_teacher_created", columnList = "teacher_id, created_at"),
+        @Index(name = "idx_assignments_teacher_title", columnList = "teacher_id, title, id"),
+        @Index(name = "idx_assignments_active_created", columnList = "is_active, created_at"),
+        @Index(name = "idx_assignments_active_title", columnList = "is_active, title, id")
+})
 public class Assignment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assignment_id")
+    @SequenceGenerator(name = "assignment_id", sequenceName = "assignments_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -55,7 +63,7 @@ public class Assignment {
 
     @OneToMany(mappedBy = "assignment", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("orderNumber ASC")
-    private List<Question> questions = new ArrayList<>();
+    private List<AssignmentQuestion> questionLinks = new ArrayList<>();
 
     // null = không yêu cầu điểm chuẩn
     @Column(name = "passing_score")
@@ -101,8 +109,8 @@ public class Assignment {
     public Account getTeacher() { return teacher; }
     public void setTeacher(Account teacher) { this.teacher = teacher; }
 
-    public List<Question> getQuestions() { return questions; }
-    public void setQuestions(List<Question> questions) { this.questions = questions; }
+    public List<AssignmentQuestion> getQuestionLinks() { return questionLinks; }
+    public void setQuestionLinks(List<AssignmentQuestion> questionLinks) { this.questionLinks = questionLinks; }
 
     public Double getPassingScore() { return passingScore; }
     public void setPassingScore(Double passingScore) { this.passingScore = passingScore; }
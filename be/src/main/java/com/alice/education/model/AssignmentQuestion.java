@@ -0,0 +1,64 @@
+package com.alice.education.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Position of a bank question in an assignment.
+ */
+@Entity
+@Table(name = "assignment_questions",
+       uniqueConstraints = @UniqueConstraint(name = "uk_assignment_questions_assignment_question",
+                                             columnNames = {"assignment_id", "question_id"}),
+       indexes = @Index(name = "idx_assignment_questions_question", columnList = "question_id"))
+public class AssignmentQuestion implements QuestionLink {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assignment_question_id")
+    @SequenceGenerator(name = "assignment_question_id", sequenceName = "assignment_questions_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "assignment_id", nullable = false)
+    private Assignment assignment;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "question_id", nullable = false)
+    private Question question;
+
+    @Column(name = "order_number", nullable = false)
+    private Integer orderNumber;
+
+    public AssignmentQuestion() {}
+
+    public AssignmentQuestion(Assignment assignment, Question question, Integer orderNumber) {
+        this.assignment = assignment;
+        this.question = question;
+        this.orderNumber = orderNumber;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Assignment getAssignment() { return assignment; }
+    public void setAssignment(Assignment assignment) { this.assignment = assignment; }
+
+    @Override
+    public Question getQuestion() { return question; }
+    public void setQuestion(Question question) { this.question = question; }
+
+    @Override
+    public Integer getOrderNumber() { return orderNumber; }
+    @Override
+    public void setOrderNumber(Integer orderNumber) { this.orderNumber = orderNumber; }
+}
@@ -17,6 +17,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
@@ -24,7 +25,8 @@ import jakarta.persistence.Table;
 public class AssignmentSubmission {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assignment_submission_id")
+    @SequenceGenerator(name = "assignment_submission_id", sequenceName = "assignment_submissions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -48,6 +50,15 @@ public class AssignmentSubmission {
     @Column(name = "submitted_at", nullable = false)
     private LocalDateTime submittedAt;
 
+    // Selected answers packed 3 bits per key position (see PackedAnswers); null
+    // for submissions stored as answer rows
+    @Column(name = "answer_data", length = 512)
+    private byte[] answerData;
+
+    // AnswerKey.fingerprint() of the key the answers were packed against
+    @Column(name = "answer_key_hash")
+    private Long answerKeyHash;
+
     @OneToMany(mappedBy = "submission", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<SubmissionAnswer> answers = new ArrayList<>();
 
@@ -82,6 +93,12 @@ public class AssignmentSubmission {
     public LocalDateTime getSubmittedAt() { return submittedAt; }
     public void setSubmittedAt(LocalDateTime submittedAt) { this.submittedAt = submittedAt; }
 
+    public byte[] getAnswerData() { return answerData; }
+    public void setAnswerData(byte[] answerData) { this.answerData = answerData; }
+
+    public Long getAnswerKeyHash() { return answerKeyHash; }
+    public void setAnswerKeyHash(Long answerKeyHash) { this.answerKeyHash = answerKeyHash; }
+
     public List<SubmissionAnswer> getAnswers() { return answers; }
     public void setAnswers(List<SubmissionAnswer> answers) { this.answers = answers; }
 
@@ -11,19 +11,25 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 @Entity
-@Table(name = "chapters")
+@Table(name = "chapters", indexes = {
+        @Index(name = "idx_chapters_active_created", columnList = "is_active, created_at"),
+        @Index(name = "idx_chapters_active_title", columnList = "is_active, title, id")
+})
 public class Chapter {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chapter_id")
+    @SequenceGenerator(name = "chapter_id", sequenceName = "chapters_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -12,6 +12,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.NotNull;
@@ -22,7 +23,8 @@ import jakarta.validation.constraints.NotNull;
 public class ClassStudent {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "class_student_id")
+    @SequenceGenerator(name = "class_student_id", sequenceName = "class_students_seq", allocationSize = 50)
     private Long id;
     
     @NotNull
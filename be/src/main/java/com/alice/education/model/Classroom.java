@@ -14,20 +14,29 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 @Entity
-@Table(name = "classrooms")
+@Table(name = "classrooms", indexes = {
+        @Index(name = "idx_classrooms_subject_year", columnList = "subject_id, school_year"),
+        @Index(name = "idx_classrooms_teacher_created", columnList = "teacher_id, created_at"),
+        @Index(name = "idx_classrooms_teacher_name", columnList = "teacher_id, name, id"),
+        @Index(name = "idx_classrooms_year_created", columnList = "school_year, created_at"),
+        @Index(name = "idx_classrooms_year_name", columnList = "school_year, name, id")
+})
 public class Classroom {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "classroom_id")
+    @SequenceGenerator(name = "classroom_id", sequenceName = "classrooms_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank
@@ -18,22 +18,30 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
 @Entity
-@Table(name = "exams")
+@Table(name = "exams", indexes = {
+        @Index(name = "idx_exams_teacher_created", columnList = "teacher_id, created_at"),
+        @Index(name = "idx_exams_teacher_title", columnList = "teacher_id, title, id"),
+        @Index(name = "idx_exams_active_created", columnList = "is_active, created_at"),
+        @Index(name = "idx_exams_active_title", columnList = "is_active, title, id")
+})
 public class Exam {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exam_id")
+    @SequenceGenerator(name = "exam_id", sequenceName = "exams_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -56,6 +64,17 @@ public class Exam {
     @Column(name = "due_date")
     private LocalDateTime dueDate;
 
+    // Opens automatically at this time when set
+    @Column(name = "start_date")
+    private LocalDateTime startDate;
+
+    // When the deadline timers last opened / closed the exam
+    @Column(name = "opened_at")
+    private LocalDateTime openedAt;
+
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
     @Column(name = "is_active")
     private Boolean isActive = true;
 
@@ -65,7 +84,7 @@ public class Exam {
 
     @OneToMany(mappedBy = "exam", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("orderNumber ASC")
-    private List<Question> questions = new ArrayList<>();
+    private List<ExamQuestion> questionLinks = new ArrayList<>();
 
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
@@ -104,14 +123,23 @@ public class Exam {
     public LocalDateTime getDueDate() { return dueDate; }
     public void setDueDate(LocalDateTime dueDate) { this.dueDate = dueDate; }
 
+    public LocalDateTime getStartDate() { return startDate; }
+    public void setStartDate(LocalDateTime startDate) { this.startDate = startDate; }
+
+    public LocalDateTime getOpenedAt() { return openedAt; }
+    public void setOpenedAt(LocalDateTime openedAt) { this.openedAt = openedAt; }
+
+    public LocalDateTime getClosedAt() { return closedAt; }
+    public void setClosedAt(LocalDateTime closedAt) { this.closedAt = closedAt; }
+
     public Boolean getIsActive() { return isActive; }
     public void setIsActive(Boolean isActive) { this.isActive = isActive; }
 
     public Account getTeacher() { return teacher; }
     public void setTeacher(Account teacher) { this.teacher = teacher; }
 
-    public List<Question> getQuestions() { return questions; }
-    public void setQuestions(List<Question> questions) { this.questions = questions; }
+    public List<ExamQuestion> getQuestionLinks() { return questionLinks; }
+    public void setQuestionLinks(List<ExamQuestion> questionLinks) { this.questionLinks = questionLinks; }
 
     public Set<Classroom> getClassrooms() { return classrooms; }
     public void setClassrooms(Set<Classroom> classrooms) { this.classrooms = classrooms; }
@@ -0,0 +1,64 @@
+package com.alice.education.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Position of a bank question in an exam.
+ */
+@Entity
+@Table(name = "exam_questions",
+       uniqueConstraints = @UniqueConstraint(name = "uk_exam_questions_exam_question",
+                                             columnNames = {"exam_id", "question_id"}),
+       indexes = @Index(name = "idx_exam_questions_question", columnList = "question_id"))
+public class ExamQuestion implements QuestionLink {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exam_question_id")
+    @SequenceGenerator(name = "exam_question_id", sequenceName = "exam_questions_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "exam_id", nullable = false)
+    private Exam exam;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "question_id", nullable = false)
+    private Question question;
+
+    @Column(name = "order_number", nullable = false)
+    private Integer orderNumber;
+
+    public ExamQuestion() {}
+
+    public ExamQuestion(Exam exam, Question question, Integer orderNumber) {
+        this.exam = exam;
+        this.question = question;
+        this.orderNumber = orderNumber;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Exam getExam() { return exam; }
+    public void setExam(Exam exam) { this.exam = exam; }
+
+    @Override
+    public Question getQuestion() { return question; }
+    public void setQuestion(Question question) { this.question = question; }
+
+    @Override
+    public Integer getOrderNumber() { return orderNumber; }
+    @Override
+    public void setOrderNumber(Integer orderNumber) { this.orderNumber = orderNumber; }
+}
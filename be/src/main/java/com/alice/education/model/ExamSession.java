@@ -0,0 +1,87 @@
+package com.alice.education.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * A student's in-progress exam attempt. Autosaved answers live in memory and
+ * are written here in batches, so the attempt survives a browser crash and
+ * can be submitted by the server when its time is up.
+ */
+@Entity
+@Table(name = "exam_sessions",
+       uniqueConstraints = @UniqueConstraint(name = "uk_exam_sessions_exam_student",
+                                             columnNames = {"exam_id", "student_id"}),
+       indexes = @Index(name = "idx_exam_sessions_status_expires", columnList = "status, expires_at"))
+public class ExamSession {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exam_session_id")
+    @SequenceGenerator(name = "exam_session_id", sequenceName = "exam_sessions_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "exam_id", nullable = false)
+    private Exam exam;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    private Account student;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private ExamSessionStatus status = ExamSessionStatus.IN_PROGRESS;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Last flushed autosave, "questionId:answer" pairs separated by commas
+    @Column(name = "answers", columnDefinition = "TEXT")
+    private String answers;
+
+    @Column(name = "saved_at")
+    private LocalDateTime savedAt;
+
+    public ExamSession() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Exam getExam() { return exam; }
+    public void setExam(Exam exam) { this.exam = exam; }
+
+    public Account getStudent() { return student; }
+    public void setStudent(Account student) { this.student = student; }
+
+    public ExamSessionStatus getStatus() { return status; }
+    public void setStatus(ExamSessionStatus status) { this.status = status; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public String getAnswers() { return answers; }
+    public void setAnswers(String answers) { this.answers = answers; }
+
+    public LocalDateTime getSavedAt() { return savedAt; }
+    public void setSavedAt(LocalDateTime savedAt) { this.savedAt = savedAt; }
+}
@@ -0,0 +1,7 @@
+package com.alice.education.model;
+
+public enum ExamSessionStatus {
+    IN_PROGRESS,
+    SUBMITTED,
+    EXPIRED
+}
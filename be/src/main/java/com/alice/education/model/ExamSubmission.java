@@ -17,14 +17,19 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 @Entity
-@Table(name = "exam_submissions")
+@Table(name = "exam_submissions",
+       uniqueConstraints = @UniqueConstraint(name = "uk_exam_submissions_exam_student",
+                                             columnNames = {"exam_id", "student_id"}))
 public class ExamSubmission {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exam_submission_id")
+    @SequenceGenerator(name = "exam_submission_id", sequenceName = "exam_submissions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -48,6 +53,19 @@ public class ExamSubmission {
     @Column(name = "submitted_at", nullable = false)
     private LocalDateTime submittedAt;
 
+    // Client-supplied Idempotency-Key of the request that created this submission
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
+    // Selected answers packed 3 bits per key position (see PackedAnswers); null
+    // for submissions stored as answer rows
+    @Column(name = "answer_data", length = 512)
+    private byte[] answerData;
+
+    // AnswerKey.fingerprint() of the key the answers were packed against
+    @Column(name = "answer_key_hash")
+    private Long answerKeyHash;
+
     @OneToMany(mappedBy = "submission", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ExamSubmissionAnswer> answers = new ArrayList<>();
 
@@ -79,9 +97,18 @@ public class ExamSubmission {
     public Double getScore() { return score; }
     public void setScore(Double score) { this.score = score; }
 
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+
     public LocalDateTime getSubmittedAt() { return submittedAt; }
     public void setSubmittedAt(LocalDateTime submittedAt) { this.submittedAt = submittedAt; }
 
+    public byte[] getAnswerData() { return answerData; }
+    public void setAnswerData(byte[] answerData) { this.answerData = answerData; }
+
+    public Long getAnswerKeyHash() { return answerKeyHash; }
+    public void setAnswerKeyHash(Long answerKeyHash) { this.answerKeyHash = answerKeyHash; }
+
     public List<ExamSubmissionAnswer> getAnswers() { return answers; }
     public void setAnswers(List<ExamSubmissionAnswer> answers) { this.answers = answers; }
 
@@ -14,6 +14,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
@@ -21,7 +22,8 @@ import jakarta.persistence.Table;
 public class GradeColumn {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "grade_column_id")
+    @SequenceGenerator(name = "grade_column_id", sequenceName = "grade_columns_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -41,6 +43,21 @@ public class GradeColumn {
     @Column(name = "is_custom")
     private Boolean isCustom = false;
 
+    // Exam whose best scores fill this column as submissions arrive and when it closes
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "source_exam_id")
+    private Exam sourceExam;
+
+    // Assignment whose best scores fill this column as submissions arrive
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "source_assignment_id")
+    private Assignment sourceAssignment;
+
+    // Formula computing this column from the others when the gradebook is read;
+    // such a column stores no cells and does not count in the semester average
+    @Column(name = "formula", length = 500)
+    private String formula;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -63,6 +80,15 @@ public class GradeColumn {
     public Boolean getIsCustom() { return isCustom; }
     public void setIsCustom(Boolean isCustom) { this.isCustom = isCustom; }
 
+    public Exam getSourceExam() { return sourceExam; }
+    public void setSourceExam(Exam sourceExam) { this.sourceExam = sourceExam; }
+
+    public Assignment getSourceAssignment() { return sourceAssignment; }
+    public void setSourceAssignment(Assignment sourceAssignment) { this.sourceAssignment = sourceAssignment; }
+
+    public String getFormula() { return formula; }
+    public void setFormula(String formula) { this.formula = formula; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
@@ -1,8 +1,20 @@
 package com.alice.education.model;
 
+/**
+ * Kinds of grade columns, with the coefficient their scores carry in the
+ * semester average.
+ */
 public enum GradeType {
-    QUIZ_15,
-    TEST_45,
-    MIDTERM,
-    FINAL
+    QUIZ_15(1),
+    TEST_45(2),
+    MIDTERM(2),
+    FINAL(3);
+
+    private final int coefficient;
+
+    GradeType(int coefficient) {
+        this.coefficient = coefficient;
+    }
+
+    public int getCoefficient() { return coefficient; }
 }
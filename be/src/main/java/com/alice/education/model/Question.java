@@ -1,22 +1,37 @@
 package com.alice.education.model;
 
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 
+/**
+ * A question of the shared question bank. Exams and assignments reference
+ * questions through {@link ExamQuestion} / {@link AssignmentQuestion} links, so
+ * one question can be reused by several of them.
+ */
 @Entity
-@Table(name = "questions")
+@Table(name = "questions", indexes = {
+        @Index(name = "idx_questions_lineage_version", columnList = "lineage_id, version"),
+        @Index(name = "idx_questions_created_by", columnList = "created_by, id")
+})
 public class Question {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "question_id")
+    @SequenceGenerator(name = "question_id", sequenceName = "questions_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -44,16 +59,21 @@ public class Question {
     @Column(name = "correct_answer", nullable = false, length = 1)
     private String correctAnswer;
 
-    @Column(name = "order_number")
-    private Integer orderNumber;
+    // Versions of one question share the lineage id; a version is never
+    // changed once written, an edit creates the next one
+    @Column(name = "lineage_id", nullable = false)
+    private Long lineageId;
 
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "assignment_id")
-    private Assignment assignment;
+    @Column(name = "version", nullable = false)
+    private Integer version = 1;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "exam_id")
-    private Exam exam;
+    @JoinColumn(name = "created_by")
+    private Account createdBy;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
 
     public Question() {}
 
@@ -79,12 +99,15 @@ public class Question {
     public String getCorrectAnswer() { return correctAnswer; }
     public void setCorrectAnswer(String correctAnswer) { this.correctAnswer = correctAnswer; }
 
-    public Integer getOrderNumber() { return orderNumber; }
-    public void setOrderNumber(Integer orderNumber) { this.orderNumber = orderNumber; }
+    public Long getLineageId() { return lineageId; }
+    public void setLineageId(Long lineageId) { this.lineageId = lineageId; }
+
+    public Integer getVersion() { return version; }
+    public void setVersion(Integer version) { this.version = version; }
 
-    public Assignment getAssignment() { return assignment; }
-    public void setAssignment(Assignment assignment) { this.assignment = assignment; }
+    public Account getCreatedBy() { return createdBy; }
+    public void setCreatedBy(Account createdBy) { this.createdBy = createdBy; }
 
-    public Exam getExam() { return exam; }
-    public void setExam(Exam exam) { this.exam = exam; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
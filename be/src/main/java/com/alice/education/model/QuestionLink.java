@@ -0,0 +1,13 @@
+package com.alice.education.model;
+
+/**
+ * A numbered reference from an exam or assignment to a bank question.
+ */
+public interface QuestionLink {
+
+    Question getQuestion();
+
+    Integer getOrderNumber();
+
+    void setOrderNumber(Integer orderNumber);
+}
@@ -0,0 +1,86 @@
+package com.alice.education.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Running item-analysis totals of one question, maintained incrementally from
+ * submissions. Every submission contributes one response per question of the
+ * exam/assignment, blank if the question was not answered.
+ */
+@Entity
+@Table(name = "question_stats")
+public class QuestionStat {
+
+    @Id
+    @Column(name = "question_id")
+    private Long questionId;
+
+    @Column(name = "responses", nullable = false)
+    private Long responses = 0L;
+
+    @Column(name = "correct_count", nullable = false)
+    private Long correctCount = 0L;
+
+    @Column(name = "count_a", nullable = false)
+    private Long countA = 0L;
+
+    @Column(name = "count_b", nullable = false)
+    private Long countB = 0L;
+
+    @Column(name = "count_c", nullable = false)
+    private Long countC = 0L;
+
+    @Column(name = "count_d", nullable = false)
+    private Long countD = 0L;
+
+    @Column(name = "count_blank", nullable = false)
+    private Long countBlank = 0L;
+
+    // Sums of the submission scores of all respondents, for the discrimination index
+    @Column(name = "score_sum", nullable = false)
+    private Double scoreSum = 0.0;
+
+    @Column(name = "score_sq_sum", nullable = false)
+    private Double scoreSqSum = 0.0;
+
+    @Column(name = "correct_score_sum", nullable = false)
+    private Double correctScoreSum = 0.0;
+
+    public QuestionStat() {}
+
+    public Long getQuestionId() { return questionId; }
+    public void setQuestionId(Long questionId) { this.questionId = questionId; }
+
+    public Long getResponses() { return responses; }
+    public void setResponses(Long responses) { this.responses = responses; }
+
+    public Long getCorrectCount() { return correctCount; }
+    public void setCorrectCount(Long correctCount) { this.correctCount = correctCount; }
+
+    public Long getCountA() { return countA; }
+    public void setCountA(Long countA) { this.countA = countA; }
+
+    public Long getCountB() { return countB; }
+    public void setCountB(Long countB) { this.countB = countB; }
+
+    public Long getCountC() { return countC; }
+    public void setCountC(Long countC) { this.countC = countC; }
+
+    public Long getCountD() { return countD; }
+    public void setCountD(Long countD) { this.countD = countD; }
+
+    public Long getCountBlank() { return countBlank; }
+    public void setCountBlank(Long countBlank) { this.countBlank = countBlank; }
+
+    public Double getScoreSum() { return scoreSum; }
+    public void setScoreSum(Double scoreSum) { this.scoreSum = scoreSum; }
+
+    public Double getScoreSqSum() { return scoreSqSum; }
+    public void setScoreSqSum(Double scoreSqSum) { this.scoreSqSum = scoreSqSum; }
+
+    public Double getCorrectScoreSum() { return correctScoreSum; }
+    public void setCorrectScoreSum(Double correctScoreSum) { this.correctScoreSum = correctScoreSum; }
+}
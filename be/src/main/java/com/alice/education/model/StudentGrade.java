@@ -12,6 +12,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 
@@ -21,7 +22,8 @@ import jakarta.persistence.UniqueConstraint;
 public class StudentGrade {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_grade_id")
+    @SequenceGenerator(name = "student_grade_id", sequenceName = "student_grades_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -39,6 +41,10 @@ public class StudentGrade {
     @Column(name = "score")
     private Double score;
 
+    // Gradebook version that last wrote the cell
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
@@ -58,6 +64,9 @@ public class StudentGrade {
     public Double getScore() { return score; }
     public void setScore(Double score) { this.score = score; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 }
@@ -0,0 +1,74 @@
+package com.alice.education.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/**
+ * Running semester-average totals of one student in one classroom: the sum of
+ * the student's scores times their column coefficients and the sum of those
+ * coefficients. Maintained by delta on every grade write, so the average is
+ * read, never recomputed, when a gradebook is shown.
+ */
+@Entity
+@Table(name = "student_grade_summaries")
+@IdClass(StudentGradeSummary.Key.class)
+public class StudentGradeSummary {
+
+    @Id
+    @Column(name = "classroom_id")
+    private Long classroomId;
+
+    @Id
+    @Column(name = "student_id")
+    private Long studentId;
+
+    @Column(name = "weighted_sum", nullable = false)
+    private Double weightedSum = 0.0;
+
+    @Column(name = "weight_total", nullable = false)
+    private Integer weightTotal = 0;
+
+    public StudentGradeSummary() {}
+
+    public Long getClassroomId() { return classroomId; }
+    public void setClassroomId(Long classroomId) { this.classroomId = classroomId; }
+
+    public Long getStudentId() { return studentId; }
+    public void setStudentId(Long studentId) { this.studentId = studentId; }
+
+    public Double getWeightedSum() { return weightedSum; }
+    public void setWeightedSum(Double weightedSum) { this.weightedSum = weightedSum; }
+
+    public Integer getWeightTotal() { return weightTotal; }
+    public void setWeightTotal(Integer weightTotal) { this.weightTotal = weightTotal; }
+
+    public static class Key implements Serializable {
+
+        private Long classroomId;
+        private Long studentId;
+
+        public Key() {}
+
+        public Key(Long classroomId, Long studentId) {
+            this.classroomId = classroomId;
+            this.studentId = studentId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && Objects.equals(classroomId, k.classroomId)
+                    && Objects.equals(studentId, k.studentId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(classroomId, studentId);
+        }
+    }
+}
@@ -14,20 +14,26 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 
 @Entity
-@Table(name = "textbooks")
+@Table(name = "textbooks", indexes = {
+        @Index(name = "idx_textbooks_subject_active_created", columnList = "subject_id, is_active, created_at"),
+        @Index(name = "idx_textbooks_subject_active_title", columnList = "subject_id, is_active, title, id")
+})
 public class Textbook {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "textbook_id")
+    @SequenceGenerator(name = "textbook_id", sequenceName = "textbooks_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
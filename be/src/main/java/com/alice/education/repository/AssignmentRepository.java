@@ -1,15 +1,56 @@
 package com.alice.education.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.alice.education.model.Assignment;
 
 @Repository
-public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
+public interface AssignmentRepository extends JpaRepository<Assignment, Long>, JpaSpecificationExecutor<Assignment> {
+    // List-view rows: header columns and the question count, no entities
+    String SUMMARY = "SELECT new com.alice.education.repository.AssignmentSummary(" +
+            "a.id, a.title, a.description, a.dueDate, a.isActive, " +
+            "t.id, t.fullName, a.createdAt, a.updatedAt, " +
+            "(SELECT COUNT(l) FROM AssignmentQuestion l WHERE l.assignment = a)) " +
+            "FROM Assignment a JOIN a.teacher t";
+
     List<Assignment> findByTeacherId(Long teacherId);
     List<Assignment> findByClassroomsId(Long classroomId);
     List<Assignment> findByIsActiveTrue();
+
+    @Query(SUMMARY)
+    List<AssignmentSummary> findAllSummaries();
+
+    @Query(SUMMARY + " WHERE t.id = :teacherId")
+    List<AssignmentSummary> findSummariesByTeacherId(Long teacherId);
+
+    @Query(SUMMARY + " WHERE EXISTS (SELECT c FROM Assignment o JOIN o.classrooms c WHERE o = a AND c.id = :classroomId)")
+    List<AssignmentSummary> findSummariesByClassroomId(Long classroomId);
+
+    // (ownerId, classroomId, classroomName) for the given assignments
+    @Query("SELECT a.id, c.id, c.name FROM Assignment a JOIN a.classrooms c WHERE a.id IN :ids")
+    List<Object[]> findClassroomsByIds(Collection<Long> ids);
+
+    @Query("SELECT a.isActive, a.dueDate, a.title FROM Assignment a WHERE a.id = :id")
+    List<Object[]> findStatusById(Long id);
+
+    @Query("SELECT a.teacher.id FROM Assignment a WHERE a.id = :id")
+    Optional<Long> findTeacherIdById(Long id);
+
+    // Student work feed: one row per (active assignment, enrolled classroom) with
+    // the question count, the student's submission count and best score.
+    @Query("SELECT a.id, a.title, a.dueDate, c.id, c.name, " +
+           "(SELECT COUNT(l) FROM AssignmentQuestion l WHERE l.assignment = a), " +
+           "(SELECT COUNT(s) FROM AssignmentSubmission s WHERE s.assignment = a AND s.student = st), " +
+           "(SELECT MAX(s.score) FROM AssignmentSubmission s WHERE s.assignment = a AND s.student = st) " +
+           "FROM Assignment a JOIN a.classrooms c JOIN ClassStudent cs ON cs.classroom = c JOIN cs.student st " +
+           "WHERE st.username = :username AND cs.isActive = true AND a.isActive = true AND a.dueDate IS NOT NULL " +
+           "ORDER BY a.dueDate, a.id, c.id")
+    List<Object[]> findStudentFeed(String username);
 }
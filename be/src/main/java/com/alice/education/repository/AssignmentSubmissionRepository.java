@@ -1,17 +1,55 @@
 package com.alice.education.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.alice.education.model.AssignmentSubmission;
 
+import jakarta.persistence.QueryHint;
+
 public interface AssignmentSubmissionRepository extends JpaRepository<AssignmentSubmission, Long> {
 
+    @EntityGraph(attributePaths = {"assignment", "student", "answers", "answers.question"})
     List<AssignmentSubmission> findAllByAssignment_IdAndStudent_UsernameOrderByCreatedAtDesc(
             Long assignmentId, String username);
 
-    boolean existsByAssignment_IdAndStudent_Username(Long assignmentId, String username);
+    // Which of the given assignments the student has submitted at least once
+    @Query("SELECT DISTINCT s.assignment.id FROM AssignmentSubmission s WHERE s.student.username = :username AND s.assignment.id IN :assignmentIds")
+    List<Long> findSubmittedAssignmentIds(String username, Collection<Long> assignmentIds);
 
     List<AssignmentSubmission> findAllByAssignment_IdOrderByCreatedAtDesc(Long assignmentId);
+
+    @Query("SELECT s FROM AssignmentSubmission s JOIN FETCH s.assignment JOIN FETCH s.student " +
+           "LEFT JOIN FETCH s.answers a LEFT JOIN FETCH a.question WHERE s.id = :id")
+    Optional<AssignmentSubmission> findDetailById(Long id);
+
+    boolean existsByAssignment_Id(Long assignmentId);
+
+    // (studentId, best score) per student who submitted the assignment
+    @Query("SELECT s.student.id, MAX(s.score) FROM AssignmentSubmission s WHERE s.assignment.id = :assignmentId " +
+           "GROUP BY s.student.id")
+    List<Object[]> findBestScoresByAssignmentId(Long assignmentId);
+
+    // Export rows, streamed from the driver: (studentName, username, correctCount, totalCount, score, submittedAt)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT st.fullName, st.username, s.correctCount, s.totalCount, s.score, s.submittedAt " +
+           "FROM AssignmentSubmission s JOIN s.student st WHERE s.assignment.id = :assignmentId " +
+           "ORDER BY s.submittedAt, s.id")
+    Stream<Object[]> streamExportRows(Long assignmentId);
+
+    // Export rows of a school year, with the assignment title first; teacherId null for every teacher
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT a.title, st.fullName, st.username, s.correctCount, s.totalCount, s.score, s.submittedAt " +
+           "FROM AssignmentSubmission s JOIN s.assignment a JOIN s.student st " +
+           "WHERE EXISTS (SELECT c.id FROM Assignment x JOIN x.classrooms c WHERE x = a AND c.schoolYear = :schoolYear) " +
+           "AND (:teacherId IS NULL OR a.teacher.id = :teacherId) ORDER BY a.id, s.id")
+    Stream<Object[]> streamSchoolYearExportRows(String schoolYear, Long teacherId);
 }
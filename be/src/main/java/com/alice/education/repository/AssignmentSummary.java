@@ -0,0 +1,20 @@
+package com.alice.education.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * List-view projection of an assignment, selected by JPQL constructor
+ * expression so list endpoints never load questions or classroom entities.
+ */
+public record AssignmentSummary(
+        Long id,
+        String title,
+        String description,
+        LocalDateTime dueDate,
+        Boolean isActive,
+        Long teacherId,
+        String teacherName,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        long questionCount
+) {}
@@ -1,5 +1,6 @@
 package com.alice.education.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,9 +26,25 @@ public interface ClassStudentRepository extends JpaRepository<ClassStudent, Long
     @Query("SELECT cs FROM ClassStudent cs WHERE cs.classroom.id = :classroomId AND cs.isActive = true")
     List<ClassStudent> findActiveStudentsByClassroomId(Long classroomId);
 
+    @Query("SELECT cs.student.id FROM ClassStudent cs WHERE cs.classroom.id = :classroomId AND cs.isActive = true")
+    List<Long> findActiveStudentIdsByClassroomId(Long classroomId);
+
     @Query("SELECT cs FROM ClassStudent cs WHERE cs.student.id = :studentId AND cs.isActive = true")
     List<ClassStudent> findActiveByStudentId(Long studentId);
 
+    // (studentId, classroomName) for the exam's classrooms the given students belong to
+    @Query("SELECT cs.student.id, c.name FROM Exam e JOIN e.classrooms c JOIN ClassStudent cs ON cs.classroom = c " +
+           "WHERE e.id = :examId AND cs.student.id IN :studentIds ORDER BY cs.id")
+    List<Object[]> findClassroomNamesForExam(Long examId, Collection<Long> studentIds);
+
+    @Query("SELECT cs.student.id, c.name FROM Assignment a JOIN a.classrooms c JOIN ClassStudent cs ON cs.classroom = c " +
+           "WHERE a.id = :assignmentId AND cs.student.id IN :studentIds ORDER BY cs.id")
+    List<Object[]> findClassroomNamesForAssignment(Long assignmentId, Collection<Long> studentIds);
+
+    @Query("SELECT cs.classroom.id, COUNT(cs) FROM ClassStudent cs " +
+           "WHERE cs.classroom.id IN :classroomIds AND cs.isActive = true GROUP BY cs.classroom.id")
+    List<Object[]> countActiveByClassroomIds(Collection<Long> classroomIds);
+
     long countByClassroomId(Long classroomId);
     
     long countByClassroomIdAndIsActive(Long classroomId, Boolean isActive);
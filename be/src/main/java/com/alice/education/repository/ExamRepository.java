@@ -1,15 +1,66 @@
 package com.alice.education.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.alice.education.model.Exam;
 
 @Repository
-public interface ExamRepository extends JpaRepository<Exam, Long> {
+public interface ExamRepository extends JpaRepository<Exam, Long>, JpaSpecificationExecutor<Exam> {
+    // List-view rows: header columns and the question count, no entities
+    String SUMMARY = "SELECT new com.alice.education.repository.ExamSummary(" +
+            "e.id, e.title, e.description, e.dueDate, e.duration, e.examType, e.isActive, " +
+            "t.id, t.fullName, e.createdAt, e.updatedAt, " +
+            "(SELECT COUNT(l) FROM ExamQuestion l WHERE l.exam = e)) " +
+            "FROM Exam e JOIN e.teacher t";
+
     List<Exam> findByTeacherId(Long teacherId);
     List<Exam> findByClassroomsId(Long classroomId);
     List<Exam> findByIsActiveTrue();
+
+    @Query(SUMMARY)
+    List<ExamSummary> findAllSummaries();
+
+    @Query(SUMMARY + " WHERE t.id = :teacherId")
+    List<ExamSummary> findSummariesByTeacherId(Long teacherId);
+
+    @Query(SUMMARY + " WHERE EXISTS (SELECT c FROM Exam o JOIN o.classrooms c WHERE o = e AND c.id = :classroomId)")
+    List<ExamSummary> findSummariesByClassroomId(Long classroomId);
+
+    // (ownerId, classroomId, classroomName) for the given exams
+    @Query("SELECT e.id, c.id, c.name FROM Exam e JOIN e.classrooms c WHERE e.id IN :ids")
+    List<Object[]> findClassroomsByIds(Collection<Long> ids);
+
+    // (id, startDate) of exams waiting to be opened by their start date timer
+    @Query("SELECT e.id, e.startDate FROM Exam e WHERE e.isActive = false AND e.startDate IS NOT NULL " +
+           "AND (e.openedAt IS NULL OR e.openedAt < e.startDate)")
+    List<Object[]> findPendingOpens();
+
+    // (id, dueDate) of open exams not yet closed for their current due date
+    @Query("SELECT e.id, e.dueDate FROM Exam e WHERE e.isActive = true AND e.dueDate IS NOT NULL " +
+           "AND (e.closedAt IS NULL OR e.closedAt < e.dueDate)")
+    List<Object[]> findPendingCloses();
+
+    @Query("SELECT e.isActive, e.dueDate, e.title FROM Exam e WHERE e.id = :id")
+    List<Object[]> findStatusById(Long id);
+
+    @Query("SELECT e.teacher.id FROM Exam e WHERE e.id = :id")
+    Optional<Long> findTeacherIdById(Long id);
+
+    // Student work feed: one row per (active exam, enrolled classroom) with the
+    // question count, the student's submission count and best score.
+    @Query("SELECT e.id, e.title, e.dueDate, e.duration, e.examType, c.id, c.name, " +
+           "(SELECT COUNT(l) FROM ExamQuestion l WHERE l.exam = e), " +
+           "(SELECT COUNT(s) FROM ExamSubmission s WHERE s.exam = e AND s.student = st), " +
+           "(SELECT MAX(s.score) FROM ExamSubmission s WHERE s.exam = e AND s.student = st) " +
+           "FROM Exam e JOIN e.classrooms c JOIN ClassStudent cs ON cs.classroom = c JOIN cs.student st " +
+           "WHERE st.username = :username AND cs.isActive = true AND e.isActive = true AND e.dueDate IS NOT NULL " +
+           "ORDER BY e.dueDate, e.id, c.id")
+    List<Object[]> findStudentFeed(String username);
 }
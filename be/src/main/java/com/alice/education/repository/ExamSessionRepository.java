@@ -0,0 +1,29 @@
+package com.alice.education.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.alice.education.model.ExamSession;
+import com.alice.education.model.ExamSessionStatus;
+
+@Repository
+public interface ExamSessionRepository extends JpaRepository<ExamSession, Long> {
+
+    Optional<ExamSession> findByExam_IdAndStudent_Id(Long examId, Long studentId);
+
+    @Query("SELECT s FROM ExamSession s JOIN FETCH s.student WHERE s.id = :id")
+    Optional<ExamSession> findWithStudentById(Long id);
+
+    // (id, expiresAt) of the sessions still running, to rebuild their expiry timers
+    @Query("SELECT s.id, s.expiresAt FROM ExamSession s WHERE s.status = :status")
+    List<Object[]> findTimersByStatus(ExamSessionStatus status);
+
+    @Modifying
+    @Query("DELETE FROM ExamSession s WHERE s.exam.id = :examId")
+    void deleteByExamId(Long examId);
+}
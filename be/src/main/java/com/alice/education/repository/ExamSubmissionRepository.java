@@ -1,16 +1,54 @@
 package com.alice.education.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import com.alice.education.model.ExamSubmission;
 
+import jakarta.persistence.QueryHint;
+
 public interface ExamSubmissionRepository extends JpaRepository<ExamSubmission, Long> {
 
+    @EntityGraph(attributePaths = {"exam", "student", "answers", "answers.question"})
     List<ExamSubmission> findAllByExam_IdAndStudent_UsernameOrderByCreatedAtDesc(Long examId, String username);
 
-    boolean existsByExam_IdAndStudent_Username(Long examId, String username);
+    // Which of the given exams the student has submitted at least once
+    @Query("SELECT DISTINCT s.exam.id FROM ExamSubmission s WHERE s.student.username = :username AND s.exam.id IN :examIds")
+    List<Long> findSubmittedExamIds(String username, Collection<Long> examIds);
+
+    Optional<ExamSubmission> findByExam_IdAndStudent_Id(Long examId, Long studentId);
 
     List<ExamSubmission> findAllByExam_IdOrderByCreatedAtDesc(Long examId);
+
+    // (studentId, best score) per student who submitted the exam
+    @Query("SELECT s.student.id, MAX(s.score) FROM ExamSubmission s WHERE s.exam.id = :examId GROUP BY s.student.id")
+    List<Object[]> findBestScoresByExamId(Long examId);
+
+    @Query("SELECT s FROM ExamSubmission s JOIN FETCH s.exam JOIN FETCH s.student " +
+           "LEFT JOIN FETCH s.answers a LEFT JOIN FETCH a.question WHERE s.id = :id")
+    Optional<ExamSubmission> findDetailById(Long id);
+
+    boolean existsByExam_Id(Long examId);
+
+    // Export rows, streamed from the driver: (studentName, username, correctCount, totalCount, score, submittedAt)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT st.fullName, st.username, s.correctCount, s.totalCount, s.score, s.submittedAt " +
+           "FROM ExamSubmission s JOIN s.student st WHERE s.exam.id = :examId ORDER BY s.submittedAt, s.id")
+    Stream<Object[]> streamExportRows(Long examId);
+
+    // Export rows of a school year, with the exam title first; teacherId null for every teacher
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT e.title, st.fullName, st.username, s.correctCount, s.totalCount, s.score, s.submittedAt " +
+           "FROM ExamSubmission s JOIN s.exam e JOIN s.student st " +
+           "WHERE EXISTS (SELECT c.id FROM Exam x JOIN x.classrooms c WHERE x = e AND c.schoolYear = :schoolYear) " +
+           "AND (:teacherId IS NULL OR e.teacher.id = :teacherId) ORDER BY e.id, s.id")
+    Stream<Object[]> streamSchoolYearExportRows(String schoolYear, Long teacherId);
 }
@@ -0,0 +1,24 @@
+package com.alice.education.repository;
+
+import java.time.LocalDateTime;
+
+import com.alice.education.model.GradeType;
+
+/**
+ * List-view projection of an exam, selected by JPQL constructor expression so
+ * list endpoints never load questions or classroom entities.
+ */
+public record ExamSummary(
+        Long id,
+        String title,
+        String description,
+        LocalDateTime dueDate,
+        Integer duration,
+        GradeType examType,
+        Boolean isActive,
+        Long teacherId,
+        String teacherName,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        long questionCount
+) {}
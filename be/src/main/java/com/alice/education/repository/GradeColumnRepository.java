@@ -3,6 +3,8 @@ package com.alice.education.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.alice.education.model.GradeColumn;
@@ -15,4 +17,12 @@ public interface GradeColumnRepository extends JpaRepository<GradeColumn, Long>
     List<GradeColumn> findByClassroomId(Long classroomId);
 
     int countByClassroomId(Long classroomId);
+
+    @Modifying
+    @Query("UPDATE GradeColumn c SET c.sourceExam = null WHERE c.sourceExam.id = :examId")
+    void clearSourceExam(Long examId);
+
+    @Modifying
+    @Query("UPDATE GradeColumn c SET c.sourceAssignment = null WHERE c.sourceAssignment.id = :assignmentId")
+    void clearSourceAssignment(Long assignmentId);
 }
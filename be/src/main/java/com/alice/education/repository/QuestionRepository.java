@@ -1,14 +1,53 @@
 package com.alice.education.repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.alice.education.model.Question;
 
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Long> {
-    List<Question> findByAssignmentIdOrderByOrderNumberAsc(Long assignmentId);
-    List<Question> findByExamIdOrderByOrderNumberAsc(Long examId);
+
+    @Query("SELECT q.id, q.lineageId, q.correctAnswer FROM ExamQuestion l JOIN l.question q WHERE l.exam.id = :examId")
+    List<Object[]> findAnswerKeyByExamId(Long examId);
+
+    @Query("SELECT q.id, q.lineageId, q.correctAnswer FROM AssignmentQuestion l JOIN l.question q " +
+           "WHERE l.assignment.id = :assignmentId")
+    List<Object[]> findAnswerKeyByAssignmentId(Long assignmentId);
+
+    @Query("SELECT q.id, q.content FROM ExamQuestion l JOIN l.question q WHERE l.exam.id = :examId")
+    List<Object[]> findContentsByExamId(Long examId);
+
+    @Query("SELECT q.id, q.content FROM AssignmentQuestion l JOIN l.question q WHERE l.assignment.id = :assignmentId")
+    List<Object[]> findContentsByAssignmentId(Long assignmentId);
+
+    @Query("SELECT l.question.id FROM ExamQuestion l WHERE l.exam.id = :examId")
+    List<Long> findIdsByExamId(Long examId);
+
+    @Query("SELECT l.question.id FROM AssignmentQuestion l WHERE l.assignment.id = :assignmentId")
+    List<Long> findIdsByAssignmentId(Long assignmentId);
+
+    @Query("SELECT l.exam.id, COUNT(l) FROM ExamQuestion l WHERE l.exam.id IN :examIds GROUP BY l.exam.id")
+    List<Object[]> countByExamIds(Collection<Long> examIds);
+
+    @Query("SELECT l.assignment.id, COUNT(l) FROM AssignmentQuestion l WHERE l.assignment.id IN :assignmentIds " +
+            "GROUP BY l.assignment.id")
+    List<Object[]> countByAssignmentIds(Collection<Long> assignmentIds);
+
+    // (lineageId, highest version) of each given lineage
+    @Query("SELECT q.lineageId, MAX(q.version) FROM Question q WHERE q.lineageId IN :lineageIds GROUP BY q.lineageId")
+    List<Object[]> findLatestVersions(Collection<Long> lineageIds);
+
+    // Latest version of each lineage the teacher wrote, newest first
+    @Query("SELECT q FROM Question q WHERE q.createdBy.id = :teacherId AND q.id < :beforeId " +
+           "AND q.version = (SELECT MAX(v.version) FROM Question v WHERE v.lineageId = q.lineageId) " +
+           "ORDER BY q.id DESC")
+    List<Question> findBankPage(Long teacherId, Long beforeId, Limit limit);
+
+    List<Question> findByLineageIdOrderByVersionDesc(Long lineageId);
 }
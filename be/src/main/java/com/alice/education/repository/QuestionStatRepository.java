@@ -0,0 +1,21 @@
+package com.alice.education.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import com.alice.education.model.QuestionStat;
+
+public interface QuestionStatRepository extends JpaRepository<QuestionStat, Long> {
+
+    // (questionId, content, correctAnswer, stat or null) in question order
+    @Query("SELECT q.id, q.content, q.correctAnswer, qs FROM ExamQuestion l JOIN l.question q " +
+           "LEFT JOIN QuestionStat qs ON qs.questionId = q.id WHERE l.exam.id = :examId ORDER BY l.orderNumber, q.id")
+    List<Object[]> findAnalysisByExamId(Long examId);
+
+    @Query("SELECT q.id, q.content, q.correctAnswer, qs FROM AssignmentQuestion l JOIN l.question q " +
+           "LEFT JOIN QuestionStat qs ON qs.questionId = q.id WHERE l.assignment.id = :assignmentId " +
+           "ORDER BY l.orderNumber, q.id")
+    List<Object[]> findAnalysisByAssignmentId(Long assignmentId);
+}
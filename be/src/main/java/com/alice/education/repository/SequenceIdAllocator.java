@@ -0,0 +1,51 @@
+package com.alice.education.repository;
+
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reserves id ranges from the same sequence tables Hibernate uses for entity
+ * ids, for rows written with plain JDBC. With the pooled-lo optimizer the
+ * stored value is the next free id, so reserving n ids is a single
+ * read-and-advance in its own short transaction, exactly like Hibernate does.
+ */
+@Repository
+public class SequenceIdAllocator {
+
+    private static final Set<String> SEQUENCES = Set.of(
+            "exam_submissions_seq", "exam_submission_answers_seq",
+            "assignment_submissions_seq", "submission_answers_seq",
+            "student_grades_seq", "questions_seq");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public SequenceIdAllocator(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Returns the first id of a freshly reserved range [first, first + count).
+     */
+    public long reserve(String sequence, int count) {
+        if (!SEQUENCES.contains(sequence)) {
+            throw new IllegalArgumentException("Unknown sequence: " + sequence);
+        }
+        Long first = transactionTemplate.execute(status -> {
+            Long next = jdbcTemplate.queryForObject(
+                    "SELECT next_val FROM " + sequence + " FOR UPDATE", Long.class);
+            jdbcTemplate.update("UPDATE " + sequence + " SET next_val = ?", next + count);
+            return next;
+        });
+        return first;
+    }
+}
@@ -1,13 +1,23 @@
 package com.alice.education.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.alice.education.model.GradeColumn;
 import com.alice.education.model.StudentGrade;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface StudentGradeRepository extends JpaRepository<StudentGrade, Long> {
 
@@ -18,4 +28,33 @@ public interface StudentGradeRepository extends JpaRepository<StudentGrade, Long
     List<StudentGrade> findByGradeColumnId(Long gradeColumnId);
 
     void deleteByGradeColumn(GradeColumn gradeColumn);
+
+    // Cells of the given active students in the grade columns filled from the
+    // exam, empty ones included: (columnId, classroomId, studentId, score)
+    @Query("SELECT c.id, c.classroom.id, cs.student.id, g.score FROM GradeColumn c " +
+           "JOIN ClassStudent cs ON cs.classroom = c.classroom AND cs.isActive = true " +
+           "LEFT JOIN StudentGrade g ON g.gradeColumn = c AND g.student = cs.student " +
+           "WHERE c.sourceExam.id = :examId AND cs.student.id IN :studentIds")
+    List<Object[]> findExamLinkedCells(Long examId, Collection<Long> studentIds);
+
+    @Query("SELECT c.id, c.classroom.id, cs.student.id, g.score FROM GradeColumn c " +
+           "JOIN ClassStudent cs ON cs.classroom = c.classroom AND cs.isActive = true " +
+           "LEFT JOIN StudentGrade g ON g.gradeColumn = c AND g.student = cs.student " +
+           "WHERE c.sourceAssignment.id = :assignmentId AND cs.student.id IN :studentIds")
+    List<Object[]> findAssignmentLinkedCells(Long assignmentId, Collection<Long> studentIds);
+
+    @Query("SELECT g.classroom.id FROM StudentGrade g WHERE g.id = :id")
+    Optional<Long> findClassroomIdById(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT g FROM StudentGrade g JOIN FETCH g.gradeColumn WHERE g.id = :id")
+    Optional<StudentGrade> findByIdForUpdate(Long id);
+
+    // Gradebook cells of the active students, one row per (student, cell), grouped
+    // by student: (studentId, studentName, username, columnId, score)
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT st.id, st.fullName, st.username, g.gradeColumn.id, g.score FROM ClassStudent cs " +
+           "JOIN cs.student st LEFT JOIN StudentGrade g ON g.student = st AND g.classroom = cs.classroom " +
+           "WHERE cs.classroom.id = :classroomId AND cs.isActive = true ORDER BY st.fullName, st.id")
+    Stream<Object[]> streamGradeBookCells(Long classroomId);
 }
@@ -0,0 +1,17 @@
+package com.alice.education.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.alice.education.model.StudentGradeSummary;
+
+@Repository
+public interface StudentGradeSummaryRepository extends JpaRepository<StudentGradeSummary, StudentGradeSummary.Key> {
+
+    List<StudentGradeSummary> findByClassroomId(Long classroomId);
+
+    Optional<StudentGradeSummary> findByClassroomIdAndStudentId(Long classroomId, Long studentId);
+}
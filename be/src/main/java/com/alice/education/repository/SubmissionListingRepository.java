@@ -0,0 +1,79 @@
+package com.alice.education.repository;
+
+import java.util.List;
+
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Keyset-paginated summary rows of exam or assignment submissions.
+ *
+ * Rows are plain projections (no answers, no lazy associations):
+ * id, studentId, studentName, correctCount, totalCount, score, submittedAt, createdAt.
+ * Pages are ordered by the sort key and then by id, and the next page starts
+ * strictly after the (key, id) pair of the last row, so no OFFSET is scanned.
+ */
+@Repository
+public class SubmissionListingRepository {
+
+    public enum Source {
+        EXAM("ExamSubmission", "exam"),
+        ASSIGNMENT("AssignmentSubmission", "assignment");
+
+        private final String entity;
+        private final String owner;
+
+        Source(String entity, String owner) {
+            this.entity = entity;
+            this.owner = owner;
+        }
+    }
+
+    public enum SortKey {
+        TIME("submittedAt"),
+        SCORE("score");
+
+        private final String property;
+
+        SortKey(String property) {
+            this.property = property;
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Returns up to {@code limit} rows after the given keyset position
+     * ({@code afterValue == null} for the first page, {@code limit <= 0} for all rows).
+     */
+    public List<Object[]> findPage(Source source, Long ownerId, SortKey sort, boolean descending,
+                                   Object afterValue, Long afterId, int limit) {
+        String key = "s." + sort.property;
+        String cmp = descending ? "<" : ">";
+        String dir = descending ? " DESC" : " ASC";
+
+        StringBuilder jpql = new StringBuilder()
+                .append("SELECT s.id, st.id, st.fullName, s.correctCount, s.totalCount, s.score, ")
+                .append("s.submittedAt, s.createdAt FROM ").append(source.entity).append(" s ")
+                .append("JOIN s.student st WHERE s.").append(source.owner).append(".id = :ownerId");
+        if (afterValue != null) {
+            jpql.append(" AND (").append(key).append(' ').append(cmp).append(" :afterValue OR (")
+                    .append(key).append(" = :afterValue AND s.id ").append(cmp).append(" :afterId))");
+        }
+        jpql.append(" ORDER BY ").append(key).append(dir).append(", s.id").append(dir);
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+                .setParameter("ownerId", ownerId);
+        if (afterValue != null) {
+            query.setParameter("afterValue", afterValue).setParameter("afterId", afterId);
+        }
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultList();
+    }
+}
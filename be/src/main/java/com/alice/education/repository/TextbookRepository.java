@@ -3,12 +3,13 @@ package com.alice.education.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 import com.alice.education.model.Textbook;
 
 @Repository
-public interface TextbookRepository extends JpaRepository<Textbook, Long> {
+public interface TextbookRepository extends JpaRepository<Textbook, Long>, JpaSpecificationExecutor<Textbook> {
 
     List<Textbook> findBySubjectId(Long subjectId);
 
@@ -0,0 +1,148 @@
+package com.alice.education.service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Immutable, compiled answer key of one exam or assignment.
+ *
+ * Positions are ordered by question lineage, so an edited question (a new
+ * version of the same lineage) keeps its position. The current version ids and
+ * the correct answers (0 = A .. 3 = D) are parallel arrays; a sorted copy of
+ * the version ids maps submitted question ids to positions, so grading a
+ * submission is a binary search plus a byte compare per answer, without
+ * touching any entity.
+ */
+public final class AnswerKey {
+
+    public static final byte NO_ANSWER = -1;
+
+    private static final String[] LETTERS = {"A", "B", "C", "D"};
+
+    private final long[] lineageIds;
+    private final long[] questionIds;
+    private final byte[] correctAnswers;
+    private final long[] sortedQuestionIds;
+    private final int[] positions;
+    private final boolean active;
+    private final LocalDateTime dueDate;
+    private final String title;
+    private final long fingerprint;
+
+    private AnswerKey(long[] lineageIds, long[] questionIds, byte[] correctAnswers, boolean active,
+                      LocalDateTime dueDate, String title) {
+        this.lineageIds = lineageIds;
+        this.questionIds = questionIds;
+        this.correctAnswers = correctAnswers;
+        this.active = active;
+        this.dueDate = dueDate;
+        this.title = title;
+        this.fingerprint = fingerprint(lineageIds);
+
+        int n = questionIds.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(questionIds[a], questionIds[b]));
+        sortedQuestionIds = new long[n];
+        positions = new int[n];
+        for (int i = 0; i < n; i++) {
+            sortedQuestionIds[i] = questionIds[order[i]];
+            positions[i] = order[i];
+        }
+    }
+
+    /**
+     * Builds a key from unsorted (questionId, lineageId, correctAnswer) rows.
+     */
+    static AnswerKey compile(long[] ids, long[] lineages, String[] answers, boolean active, LocalDateTime dueDate,
+                             String title) {
+        int n = ids.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Long.compare(lineages[a], lineages[b]));
+        long[] lineageIds = new long[n];
+        long[] questionIds = new long[n];
+        byte[] packed = new byte[n];
+        for (int i = 0; i < n; i++) {
+            lineageIds[i] = lineages[order[i]];
+            questionIds[i] = ids[order[i]];
+            packed[i] = encode(answers[order[i]]);
+        }
+        return new AnswerKey(lineageIds, questionIds, packed, active, dueDate, title);
+    }
+
+    public int size() { return questionIds.length; }
+
+    public boolean isActive() { return active; }
+
+    public LocalDateTime getDueDate() { return dueDate; }
+
+    public String getTitle() { return title; }
+
+    /**
+     * Identifies the key's positions (FNV-1a over the sorted lineage ids).
+     * Packed answers are decoded directly only with a key of the same
+     * fingerprint; see {@link AnswerKeyLayouts}.
+     */
+    public long fingerprint() { return fingerprint; }
+
+    /** Position of the question version in the key, or a negative value if it is not part of it. */
+    public int indexOf(long questionId) {
+        int i = Arrays.binarySearch(sortedQuestionIds, questionId);
+        return i >= 0 ? positions[i] : -1;
+    }
+
+    /** Position of the question lineage in the key, or a negative value if it is not part of it. */
+    public int indexOfLineage(long lineageId) {
+        return Arrays.binarySearch(lineageIds, lineageId);
+    }
+
+    public long lineageIdAt(int index) { return lineageIds[index]; }
+
+    public long questionIdAt(int index) { return questionIds[index]; }
+
+    public byte correctAnswerAt(int index) { return correctAnswers[index]; }
+
+    public boolean isCorrect(int index, byte selected) {
+        return selected != NO_ANSWER && correctAnswers[index] == selected;
+    }
+
+    /**
+     * Grades answers already resolved to key positions. {@code selected[i]} is the
+     * encoded choice for question {@code i}, or {@link #NO_ANSWER}.
+     */
+    public int countCorrect(byte[] selected) {
+        int correct = 0;
+        for (int i = 0; i < correctAnswers.length; i++) {
+            if (selected[i] != NO_ANSWER && selected[i] == correctAnswers[i]) correct++;
+        }
+        return correct;
+    }
+
+    /** Score on the 0.0–10.0 scale, rounded to two decimals. */
+    public double score(int correctCount) {
+        int total = questionIds.length;
+        return total > 0 ? Math.round((double) correctCount / total * 10 * 100.0) / 100.0 : 0.0;
+    }
+
+    private static long fingerprint(long[] ids) {
+        long h = 0xcbf29ce484222325L;
+        for (long id : ids) {
+            for (int shift = 0; shift < 64; shift += 8) {
+                h ^= (id >>> shift) & 0xff;
+                h *= 0x100000001b3L;
+            }
+        }
+        return h;
+    }
+
+    public static byte encode(String answer) {
+        if (answer == null || answer.length() != 1) return NO_ANSWER;
+        int c = answer.charAt(0) - 'A';
+        return c >= 0 && c < 4 ? (byte) c : NO_ANSWER;
+    }
+
+    public static String decode(byte answer) {
+        return answer >= 0 && answer < 4 ? LETTERS[answer] : null;
+    }
+}
@@ -0,0 +1,148 @@
+package com.alice.education.service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.alice.education.repository.AssignmentRepository;
+import com.alice.education.repository.ExamRepository;
+import com.alice.education.repository.QuestionRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Caches one compiled {@link AnswerKey} per exam and per assignment.
+ *
+ * Keys are compiled on first use from a projection query (no Question entities
+ * are loaded) and evicted whenever the owning exam/assignment is updated,
+ * toggled or deleted. Each map holds at most {@code max-entries} keys, the
+ * least recently used going first. Compiling runs outside the maps' lock, so
+ * a slow query holds up only its own exam; two concurrent misses may both
+ * compile the same key.
+ */
+@Component
+public class AnswerKeyCache {
+
+    @Value("${app.answer-key-cache.max-entries:5000}")
+    private int maxEntries;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+
+    private Map<Long, AnswerKey> examKeys;
+    private Map<Long, AnswerKey> assignmentKeys;
+
+    // Bumped on every eviction; a key compiled before it is not cached.
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        examKeys = lru();
+        assignmentKeys = lru();
+    }
+
+    public AnswerKey getExamKey(Long examId) {
+        return get(examKeys, examId, this::compileExamKey);
+    }
+
+    public AnswerKey getAssignmentKey(Long assignmentId) {
+        return get(assignmentKeys, assignmentId, this::compileAssignmentKey);
+    }
+
+    public void evictExam(Long examId) {
+        evict(examKeys, examId);
+    }
+
+    public void evictAssignment(Long assignmentId) {
+        evict(assignmentKeys, assignmentId);
+    }
+
+    private AnswerKey get(Map<Long, AnswerKey> cache, Long id, Function<Long, AnswerKey> compiler) {
+        AnswerKey key = cache.get(id);
+        if (key != null) {
+            return key;
+        }
+        long gen = generation.get();
+        key = compiler.apply(id);
+        // Checked under the map's lock, which evictions take to remove
+        synchronized (cache) {
+            if (generation.get() == gen) {
+                cache.put(id, key);
+            }
+        }
+        return key;
+    }
+
+    private Map<Long, AnswerKey> lru() {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, AnswerKey> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    private AnswerKey compileExamKey(Long examId) {
+        List<Object[]> header = examRepository.findStatusById(examId);
+        if (header.isEmpty()) {
+            throw new RuntimeException("Bài kiểm tra không tồn tại");
+        }
+        Object[] status = header.get(0);
+        return compile(questionRepository.findAnswerKeyByExamId(examId),
+                Boolean.TRUE.equals(status[0]), (LocalDateTime) status[1], (String) status[2]);
+    }
+
+    private AnswerKey compileAssignmentKey(Long assignmentId) {
+        List<Object[]> header = assignmentRepository.findStatusById(assignmentId);
+        if (header.isEmpty()) {
+            throw new RuntimeException("Bài tập không tồn tại");
+        }
+        Object[] status = header.get(0);
+        return compile(questionRepository.findAnswerKeyByAssignmentId(assignmentId),
+                Boolean.TRUE.equals(status[0]), (LocalDateTime) status[1], (String) status[2]);
+    }
+
+    private static AnswerKey compile(List<Object[]> rows, boolean active, LocalDateTime dueDate, String title) {
+        long[] ids = new long[rows.size()];
+        long[] lineages = new long[rows.size()];
+        String[] answers = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            ids[i] = (Long) rows.get(i)[0];
+            lineages[i] = (Long) rows.get(i)[1];
+            answers[i] = (String) rows.get(i)[2];
+        }
+        return AnswerKey.compile(ids, lineages, answers, active, dueDate, title);
+    }
+
+    // Evict now and again after commit, so a concurrent reader cannot re-cache
+    // the pre-commit state of the exam/assignment.
+    private void evict(Map<Long, AnswerKey> cache, Long id) {
+        generation.incrementAndGet();
+        cache.remove(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                    cache.remove(id);
+                }
+            });
+        }
+    }
+}
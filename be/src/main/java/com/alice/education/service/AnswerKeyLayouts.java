@@ -0,0 +1,106 @@
+package com.alice.education.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Remembers the layout (lineage per position) of every answer key that answers
+ * were packed against, keyed by the key's fingerprint.
+ *
+ * Packed answers of an unchanged key are unpacked directly. After questions
+ * were added, removed or reordered, {@link #decode} moves each stored answer to
+ * the position its lineage has in the current key; answers to questions that
+ * are no longer part of it are dropped. Layouts are immutable, so they are
+ * cached without eviction.
+ */
+@Component
+public class AnswerKeyLayouts {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, long[]> layouts = new ConcurrentHashMap<>();
+
+    /**
+     * Stores the key's layout unless it is known already. The row is written in
+     * the caller's transaction, with the answers packed against it, and the
+     * layout is remembered only once that commits: a rolled back submit must not
+     * leave a layout cached that the table lacks, or the next submit would skip
+     * writing it.
+     */
+    public void register(AnswerKey key) {
+        if (layouts.containsKey(key.fingerprint())) {
+            return;
+        }
+        long[] lineages = new long[key.size()];
+        StringJoiner joined = new StringJoiner(",");
+        for (int i = 0; i < lineages.length; i++) {
+            lineages[i] = key.lineageIdAt(i);
+            joined.add(Long.toString(lineages[i]));
+        }
+        jdbcTemplate.update("INSERT IGNORE INTO answer_key_layouts (hash, lineage_ids) VALUES (?, ?)",
+                key.fingerprint(), joined.toString());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    layouts.put(key.fingerprint(), lineages);
+                }
+            });
+        } else {
+            layouts.put(key.fingerprint(), lineages);
+        }
+    }
+
+    /**
+     * Unpacks answers packed against the key with fingerprint {@code hash} into
+     * positions of {@code key}. Returns null if that layout is unknown.
+     */
+    public byte[] decode(byte[] data, Long hash, AnswerKey key) {
+        if (hash == null) {
+            return null;
+        }
+        if (hash == key.fingerprint()) {
+            return PackedAnswers.unpack(data, key.size());
+        }
+        long[] lineages = load(hash);
+        if (lineages == null) {
+            return null;
+        }
+        byte[] stored = PackedAnswers.unpack(data, lineages.length);
+        byte[] selected = new byte[key.size()];
+        Arrays.fill(selected, AnswerKey.NO_ANSWER);
+        for (int i = 0; i < lineages.length; i++) {
+            int index = key.indexOfLineage(lineages[i]);
+            if (index >= 0) {
+                selected[index] = stored[i];
+            }
+        }
+        return selected;
+    }
+
+    private long[] load(long hash) {
+        long[] cached = layouts.get(hash);
+        if (cached != null) {
+            return cached;
+        }
+        List<String> rows = jdbcTemplate.queryForList(
+                "SELECT lineage_ids FROM answer_key_layouts WHERE hash = ?", String.class, hash);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        long[] lineages = rows.get(0).isEmpty() ? new long[0]
+                : Arrays.stream(rows.get(0).split(",")).mapToLong(Long::parseLong).toArray();
+        layouts.put(hash, lineages);
+        return lineages;
+    }
+}
@@ -2,32 +2,46 @@ package com.alice.education.service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.alice.education.dto.AssignmentRequest;
 import com.alice.education.dto.AssignmentResponse;
+import com.alice.education.dto.CursorPageResponse;
 import com.alice.education.dto.QuestionResponse;
+import com.alice.education.dto.StudentWorkItemResponse;
 import com.alice.education.model.Account;
 import com.alice.education.model.Assignment;
 import com.alice.education.model.Classroom;
-import com.alice.education.model.Question;
+import com.alice.education.model.AssignmentQuestion;
 import com.alice.education.repository.AccountRepository;
 import com.alice.education.repository.AssignmentRepository;
 import com.alice.education.repository.AssignmentSubmissionRepository;
-import com.alice.education.repository.ClassStudentRepository;
+import com.alice.education.repository.AssignmentSummary;
 import com.alice.education.repository.ClassroomRepository;
+import com.alice.education.repository.GradeColumnRepository;
+import com.alice.education.repository.QuestionRepository;
 
 @Service
 public class AssignmentService {
 
+    private static final KeysetPager.SortField[] SORT_FIELDS = {
+            new KeysetPager.SortField("createdAt", "createdAt", LocalDateTime.class),
+            new KeysetPager.SortField("title", "title", String.class),
+            new KeysetPager.SortField("id", "id", Long.class)
+    };
+
     @Autowired
     private AssignmentRepository assignmentRepository;
 
@@ -38,10 +52,28 @@ public class AssignmentService {
     private ClassroomRepository classroomRepository;
 
     @Autowired
-    private ClassStudentRepository classStudentRepository;
+    private AssignmentSubmissionRepository submissionRepository;
 
     @Autowired
-    private AssignmentSubmissionRepository submissionRepository;
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private QuestionBankService questionBankService;
+
+    @Autowired
+    private AnswerKeyLayouts answerKeyLayouts;
+
+    @Autowired
+    private RegradeService regradeService;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private StudentFeedCache studentFeedCache;
+
+    @Autowired
+    private GradeColumnRepository gradeColumnRepository;
 
     @Transactional
     public AssignmentResponse createAssignment(AssignmentRequest request) {
@@ -65,30 +97,15 @@ public class AssignmentService {
             assignment.setClassrooms(classrooms);
         }
 
-        // Build questions
-        if (request.getQuestions() != null) {
-            List<Question> questions = new ArrayList<>();
-            int order = 1;
-            for (var qReq : request.getQuestions()) {
-                Question q = new Question();
-                q.setContent(qReq.getContent());
-                q.setOptionA(qReq.getOptionA());
-                q.setOptionB(qReq.getOptionB());
-                q.setOptionC(qReq.getOptionC());
-                q.setOptionD(qReq.getOptionD());
-                q.setCorrectAnswer(qReq.getCorrectAnswer());
-                q.setOrderNumber(qReq.getOrderNumber() != null ? qReq.getOrderNumber() : order);
-                q.setAssignment(assignment);
-                questions.add(q);
-                order++;
-            }
-            assignment.setQuestions(questions);
-        }
+        questionBankService.syncLinks(assignment.getQuestionLinks(), request.getQuestions(), teacher,
+                (q, order) -> new AssignmentQuestion(assignment, q, order));
 
         Assignment saved = assignmentRepository.save(assignment);
+        studentFeedCache.evictKind(StudentFeedCache.Kind.ASSIGNMENTS);
         return mapToResponse(saved);
     }
 
+    @Transactional(readOnly = true)
     public AssignmentResponse getAssignmentById(Long id) {
         Assignment assignment = assignmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Assignment not found with id: " + id));
@@ -99,58 +116,81 @@ public class AssignmentService {
         return mapToResponse(assignment, !isStudent);
     }
 
+    @Transactional(readOnly = true)
     public List<AssignmentResponse> getAllAssignments() {
-        return assignmentRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapSummaries(assignmentRepository.findAllSummaries());
+    }
+
+    /**
+     * One keyset page of assignments for the admin list. Every filter is optional;
+     * subject and school year match any of the assigned classrooms.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<AssignmentResponse> getAssignmentPage(Long subjectId, Long teacherId, Boolean active, String schoolYear,
+                                                    String sort, String direction, String cursor, Integer size) {
+        Specification<Assignment> filter = CatalogFilters.of(Assignment.class)
+                .equal(teacherId, "teacher", "id")
+                .equal(active, "isActive")
+                .inClassrooms(subjectId, schoolYear)
+                .build();
+        return KeysetPager.page(assignmentRepository, filter, KeysetPager.resolve(sort, SORT_FIELDS),
+                direction, cursor, size, this::mapToSummaries);
     }
 
+    @Transactional(readOnly = true)
     public List<AssignmentResponse> getMyAssignments() {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         Account teacher = accountRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Teacher not found"));
-        return assignmentRepository.findByTeacherId(teacher.getId()).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapSummaries(assignmentRepository.findSummariesByTeacherId(teacher.getId()));
     }
 
-    public List<AssignmentResponse> getEnrolledAssignments() {
+    @Transactional(readOnly = true)
+    public List<StudentWorkItemResponse> getEnrolledAssignments() {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        Account student = accountRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Student not found"));
-
-        List<Long> classroomIds = classStudentRepository.findActiveByStudentId(student.getId())
-                .stream().map(cs -> cs.getClassroom().getId()).collect(Collectors.toList());
-
-        Set<Long> seen = new HashSet<>();
-        List<AssignmentResponse> result = new ArrayList<>();
-        for (Long cid : classroomIds) {
-            for (Assignment a : assignmentRepository.findByClassroomsId(cid)) {
-                if (Boolean.TRUE.equals(a.getIsActive()) && a.getDueDate() != null && seen.add(a.getId())) {
-                    AssignmentResponse res = mapToResponse(a, false);
-                    res.setHasSubmitted(submissionRepository.existsByAssignment_IdAndStudent_Username(a.getId(), username));
-                    result.add(res);
-                }
-            }
+        return studentFeedCache.get(StudentFeedCache.Kind.ASSIGNMENTS, username,
+                () -> loadEnrolledAssignments(username));
+    }
+
+    private List<StudentWorkItemResponse> loadEnrolledAssignments(String username) {
+        Map<Long, StudentWorkItemResponse> items = new LinkedHashMap<>();
+        for (Object[] row : assignmentRepository.findStudentFeed(username)) {
+            StudentWorkItemResponse item = items.computeIfAbsent((Long) row[0], id -> {
+                StudentWorkItemResponse res = new StudentWorkItemResponse();
+                res.setId(id);
+                res.setTitle((String) row[1]);
+                res.setDueDate((LocalDateTime) row[2]);
+                res.setIsActive(true);
+                res.setTotalQuestions(((Long) row[5]).intValue());
+                res.setSubmissionCount((Long) row[6]);
+                res.setHasSubmitted((Long) row[6] > 0);
+                res.setBestScore((Double) row[7]);
+                return res;
+            });
+            item.getClassroomIds().add((Long) row[3]);
+            item.getClassroomNames().add((String) row[4]);
         }
-        return result;
+        return new ArrayList<>(items.values());
     }
 
+    @Transactional(readOnly = true)
     public List<AssignmentResponse> getAssignmentsByClassroom(Long classroomId) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return assignmentRepository.findByClassroomsId(classroomId).stream()
-                .map(a -> {
-                    AssignmentResponse res = mapToResponse(a, false); // hide answers for students
-                    res.setHasSubmitted(submissionRepository.existsByAssignment_IdAndStudent_Username(a.getId(), username));
-                    return res;
-                })
-                .collect(Collectors.toList());
+        List<AssignmentResponse> responses = mapSummaries(assignmentRepository.findSummariesByClassroomId(classroomId));
+        if (!responses.isEmpty()) {
+            Set<Long> submitted = new HashSet<>(submissionRepository.findSubmittedAssignmentIds(username,
+                    responses.stream().map(AssignmentResponse::getId).collect(Collectors.toList())));
+            responses.forEach(r -> r.setHasSubmitted(submitted.contains(r.getId())));
+        }
+        return responses;
     }
 
     @Transactional
     public AssignmentResponse updateAssignment(Long id, AssignmentRequest request) {
         Assignment assignment = assignmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Assignment not found with id: " + id));
+        answerKeyCache.evictAssignment(id);
+        studentFeedCache.evictKind(StudentFeedCache.Kind.ASSIGNMENTS);
 
         assignment.setTitle(request.getTitle());
         assignment.setDescription(request.getDescription());
@@ -164,24 +204,18 @@ public class AssignmentService {
             assignment.setClassrooms(classrooms);
         }
 
-        // Replace questions
-        assignment.getQuestions().clear();
-        if (request.getQuestions() != null) {
-            int order = 1;
-            for (var qReq : request.getQuestions()) {
-                Question q = new Question();
-                q.setContent(qReq.getContent());
-                q.setOptionA(qReq.getOptionA());
-                q.setOptionB(qReq.getOptionB());
-                q.setOptionC(qReq.getOptionC());
-                q.setOptionD(qReq.getOptionD());
-                q.setCorrectAnswer(qReq.getCorrectAnswer());
-                q.setOrderNumber(qReq.getOrderNumber() != null ? qReq.getOrderNumber() : order);
-                q.setAssignment(assignment);
-                assignment.getQuestions().add(q);
-                order++;
-            }
+        // Answers packed against the current questions stay readable through its
+        // layout; the submissions are regraded if the edit changes the grading
+        if (submissionRepository.existsByAssignment_Id(id)) {
+            AnswerKey before = answerKeyCache.getAssignmentKey(id);
+            answerKeyLayouts.register(before);
+            regradeService.regradeIfChanged(RegradeService.Kind.ASSIGNMENT, id, before);
         }
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Account editor = accountRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Teacher not found"));
+        questionBankService.syncLinks(assignment.getQuestionLinks(), request.getQuestions(), editor,
+                (q, order) -> new AssignmentQuestion(assignment, q, order));
 
         Assignment updated = assignmentRepository.save(assignment);
         return mapToResponse(updated);
@@ -192,6 +226,9 @@ public class AssignmentService {
         if (!assignmentRepository.existsById(id)) {
             throw new RuntimeException("Assignment not found with id: " + id);
         }
+        answerKeyCache.evictAssignment(id);
+        studentFeedCache.evictKind(StudentFeedCache.Kind.ASSIGNMENTS);
+        gradeColumnRepository.clearSourceAssignment(id);
         assignmentRepository.deleteById(id);
     }
 
@@ -199,6 +236,8 @@ public class AssignmentService {
     public AssignmentResponse toggleActive(Long id) {
         Assignment assignment = assignmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Assignment not found with id: " + id));
+        answerKeyCache.evictAssignment(id);
+        studentFeedCache.evictKind(StudentFeedCache.Kind.ASSIGNMENTS);
         assignment.setIsActive(!assignment.getIsActive());
         return mapToResponse(assignmentRepository.save(assignment));
     }
@@ -207,7 +246,68 @@ public class AssignmentService {
         return mapToResponse(a, true);
     }
 
+    // List views get the header and the question count; questions are only
+    // loaded by getAssignmentById
+    private List<AssignmentResponse> mapSummaries(List<AssignmentSummary> rows) {
+        Map<Long, AssignmentResponse> byId = new LinkedHashMap<>();
+        for (AssignmentSummary row : rows) {
+            AssignmentResponse res = new AssignmentResponse();
+            res.setId(row.id());
+            res.setTitle(row.title());
+            res.setDescription(row.description());
+            res.setDueDate(row.dueDate());
+            res.setIsActive(row.isActive());
+            res.setTeacherId(row.teacherId());
+            res.setTeacherName(row.teacherName());
+            res.setCreatedAt(row.createdAt());
+            res.setUpdatedAt(row.updatedAt());
+            res.setClassroomIds(new ArrayList<>());
+            res.setClassroomNames(new ArrayList<>());
+            res.setQuestions(new ArrayList<>());
+            res.setTotalQuestions((int) row.questionCount());
+            byId.put(row.id(), res);
+        }
+        if (!byId.isEmpty()) {
+            for (Object[] c : assignmentRepository.findClassroomsByIds(byId.keySet())) {
+                AssignmentResponse res = byId.get((Long) c[0]);
+                res.getClassroomIds().add((Long) c[1]);
+                res.getClassroomNames().add((String) c[2]);
+            }
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    // List rows leave the questions out; their count comes from one grouped query
+    private List<AssignmentResponse> mapToSummaries(List<Assignment> assignments) {
+        Map<Long, Integer> counts = new HashMap<>();
+        if (!assignments.isEmpty()) {
+            List<Long> ids = assignments.stream().map(Assignment::getId).collect(Collectors.toList());
+            for (Object[] row : questionRepository.countByAssignmentIds(ids)) {
+                counts.put((Long) row[0], ((Long) row[1]).intValue());
+            }
+        }
+        List<AssignmentResponse> result = new ArrayList<>(assignments.size());
+        for (Assignment a : assignments) {
+            AssignmentResponse res = mapHeader(a);
+            res.setQuestions(new ArrayList<>());
+            res.setTotalQuestions(counts.getOrDefault(a.getId(), 0));
+            result.add(res);
+        }
+        return result;
+    }
+
     private AssignmentResponse mapToResponse(Assignment a, boolean includeAnswers) {
+        AssignmentResponse res = mapHeader(a);
+        List<QuestionResponse> qList = a.getQuestionLinks().stream()
+                .map(l -> QuestionBankService.toResponse(l.getQuestion(), l.getOrderNumber(), includeAnswers))
+                .collect(Collectors.toList());
+
+        res.setQuestions(qList);
+        res.setTotalQuestions(qList.size());
+        return res;
+    }
+
+    private AssignmentResponse mapHeader(Assignment a) {
         AssignmentResponse res = new AssignmentResponse();
         res.setId(a.getId());
         res.setTitle(a.getTitle());
@@ -228,22 +328,6 @@ public class AssignmentService {
             res.setClassroomNames(a.getClassrooms().stream()
                     .map(c -> c.getName()).collect(Collectors.toList()));
         }
-
-        List<QuestionResponse> qList = a.getQuestions().stream().map(q -> {
-            QuestionResponse qr = new QuestionResponse();
-            qr.setId(q.getId());
-            qr.setContent(q.getContent());
-            qr.setOptionA(q.getOptionA());
-            qr.setOptionB(q.getOptionB());
-            qr.setOptionC(q.getOptionC());
-            qr.setOptionD(q.getOptionD());
-            if (includeAnswers) qr.setCorrectAnswer(q.getCorrectAnswer());
-            qr.setOrderNumber(q.getOrderNumber());
-            return qr;
-        }).collect(Collectors.toList());
-
-        res.setQuestions(qList);
-        res.setTotalQuestions(qList.size());
         return res;
     }
 }
@@ -2,29 +2,32 @@ package com.alice.education.service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.alice.education.dto.CursorPageResponse;
 import com.alice.education.dto.SubmissionAnswerRequest;
 import com.alice.education.dto.SubmissionAnswerResult;
 import com.alice.education.dto.SubmissionResponse;
 import com.alice.education.dto.SubmitAssignmentRequest;
 import com.alice.education.model.Account;
-import com.alice.education.model.Assignment;
 import com.alice.education.model.AssignmentSubmission;
-import com.alice.education.model.Question;
 import com.alice.education.model.SubmissionAnswer;
 import com.alice.education.repository.AccountRepository;
 import com.alice.education.repository.AssignmentRepository;
 import com.alice.education.repository.AssignmentSubmissionRepository;
-import com.alice.education.repository.ClassStudentRepository;
+import com.alice.education.repository.QuestionRepository;
+import com.alice.education.repository.SubmissionListingRepository.Source;
 
 @Service
 public class AssignmentSubmissionService {
@@ -39,7 +42,28 @@ public class AssignmentSubmissionService {
     private AccountRepository accountRepository;
 
     @Autowired
-    private ClassStudentRepository classStudentRepository;
+    private SubmissionListing submissionListing;
+
+    @Autowired
+    private ItemStatsAccumulator itemStats;
+
+    @Autowired
+    private StudentFeedCache studentFeedCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private AnswerKeyLayouts answerKeyLayouts;
+
+    @Value("${app.submission.packed-answers:true}")
+    private boolean packedAnswers;
 
     @Transactional
     public SubmissionResponse submitAssignment(Long assignmentId, SubmitAssignmentRequest request) {
@@ -47,80 +71,93 @@ public class AssignmentSubmissionService {
         Account student = accountRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy tài khoản"));
 
-        Assignment assignment = assignmentRepository.findById(assignmentId)
-                .orElseThrow(() -> new RuntimeException("Bài tập không tồn tại"));
+        AnswerKey key = answerKeyCache.getAssignmentKey(assignmentId);
 
-        if (!assignment.getIsActive()) {
+        if (!key.isActive()) {
             throw new RuntimeException("Bài tập không còn hoạt động");
         }
-        if (assignment.getDueDate() != null && LocalDateTime.now().isAfter(assignment.getDueDate())) {
+        if (key.getDueDate() != null && LocalDateTime.now().isAfter(key.getDueDate())) {
             throw new RuntimeException("Bài tập đã quá hạn nộp");
         }
 
-        // Map questionId -> question for fast lookup
-        Map<Long, Question> questionMap = assignment.getQuestions().stream()
-                .collect(Collectors.toMap(Question::getId, q -> q));
-
         AssignmentSubmission submission = new AssignmentSubmission();
-        submission.setAssignment(assignment);
+        submission.setAssignment(assignmentRepository.getReferenceById(assignmentId));
         submission.setStudent(student);
         submission.setSubmittedAt(LocalDateTime.now());
-        submission.setTotalCount(assignment.getQuestions().size());
+        submission.setTotalCount(key.size());
 
-        List<SubmissionAnswer> answers = new ArrayList<>();
-        int correctCount = 0;
+        // Placed by key position first, so a question sent twice keeps its last
+        // answer and is counted once
+        byte[] selected = new byte[key.size()];
+        Arrays.fill(selected, AnswerKey.NO_ANSWER);
+        String[] answers = new String[key.size()];
+        boolean[] present = new boolean[key.size()];
 
         if (request.getAnswers() != null) {
             for (SubmissionAnswerRequest ansReq : request.getAnswers()) {
-                Question question = questionMap.get(ansReq.getQuestionId());
-                if (question == null) continue;
+                if (ansReq.getQuestionId() == null) continue;
+                int index = key.indexOf(ansReq.getQuestionId());
+                if (index < 0) continue;
 
+                selected[index] = AnswerKey.encode(ansReq.getSelectedAnswer());
+                answers[index] = ansReq.getSelectedAnswer();
+                present[index] = true;
+            }
+        }
+        int correctCount = key.countCorrect(selected);
+        if (!packedAnswers) {
+            for (int index = 0; index < present.length; index++) {
+                if (!present[index]) continue;
                 SubmissionAnswer ans = new SubmissionAnswer();
                 ans.setSubmission(submission);
-                ans.setQuestion(question);
-                ans.setSelectedAnswer(ansReq.getSelectedAnswer());
-
-                boolean isCorrect = ansReq.getSelectedAnswer() != null
-                        && ansReq.getSelectedAnswer().equals(question.getCorrectAnswer());
-                ans.setIsCorrect(isCorrect);
-                if (isCorrect) correctCount++;
-                answers.add(ans);
+                ans.setQuestion(questionRepository.getReferenceById(key.questionIdAt(index)));
+                ans.setSelectedAnswer(answers[index]);
+                ans.setIsCorrect(key.isCorrect(index, selected[index]));
+                submission.getAnswers().add(ans);
             }
         }
+        if (packedAnswers) {
+            answerKeyLayouts.register(key);
+            submission.setAnswerData(PackedAnswers.pack(selected));
+            submission.setAnswerKeyHash(key.fingerprint());
+        }
 
         submission.setCorrectCount(correctCount);
-        int total = assignment.getQuestions().size();
-        double score = total > 0 ? Math.round((double) correctCount / total * 10 * 100.0) / 100.0 : 0.0;
-        submission.setScore(score);
-        submission.setAnswers(answers);
+        submission.setScore(key.score(correctCount));
 
         AssignmentSubmission saved = submissionRepository.save(submission);
-        return toResponse(saved);
+        itemStats.record(key, selected, saved.getScore());
+        eventPublisher.publishEvent(new SubmissionScoredEvent(SubmissionScoredEvent.Source.ASSIGNMENT,
+                assignmentId, student.getId(), saved.getScore()));
+        studentFeedCache.evictStudent(StudentFeedCache.Kind.ASSIGNMENTS, username);
+        return toSubmitResponse(saved, key, selected);
     }
 
     @Transactional(readOnly = true)
     public List<SubmissionResponse> getAllSubmissionsForAssignment(Long assignmentId) {
-        Assignment assignment = assignmentRepository.findById(assignmentId)
-                .orElseThrow(() -> new RuntimeException("Assignment not found"));
+        String title = answerKeyCache.getAssignmentKey(assignmentId).getTitle();
+        return submissionListing.all(Source.ASSIGNMENT, assignmentId).stream()
+                .map(row -> toRowResponse(row, assignmentId, title))
+                .collect(Collectors.toList());
+    }
 
-        Set<Long> assignmentClassroomIds = assignment.getClassrooms().stream()
-                .map(c -> c.getId())
-                .collect(Collectors.toSet());
+    @Transactional(readOnly = true)
+    public CursorPageResponse<SubmissionResponse> getSubmissionPage(Long assignmentId, String sort, String direction,
+                                                                    String cursor, Integer size) {
+        String title = answerKeyCache.getAssignmentKey(assignmentId).getTitle();
+        SubmissionListing.Page page = submissionListing.page(Source.ASSIGNMENT, assignmentId, sort, direction,
+                cursor, size);
+        List<SubmissionResponse> items = page.rows().stream()
+                .map(row -> toRowResponse(row, assignmentId, title))
+                .collect(Collectors.toList());
+        return new CursorPageResponse<>(items, page.nextCursor());
+    }
 
-        List<AssignmentSubmission> submissions = submissionRepository
-                .findAllByAssignment_IdOrderByCreatedAtDesc(assignmentId);
-
-        return submissions.stream().map(s -> {
-            SubmissionResponse res = toResponse(s);
-            String classroomName = classStudentRepository.findByStudentId(s.getStudent().getId())
-                    .stream()
-                    .filter(cs -> assignmentClassroomIds.contains(cs.getClassroom().getId()))
-                    .map(cs -> cs.getClassroom().getName())
-                    .findFirst()
-                    .orElse("—");
-            res.setClassroomName(classroomName);
-            return res;
-        }).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public SubmissionResponse getSubmissionDetail(Long submissionId) {
+        AssignmentSubmission submission = submissionRepository.findDetailById(submissionId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy bài nộp"));
+        return toResponse(submission);
     }
 
     @Transactional(readOnly = true)
@@ -131,7 +168,32 @@ public class AssignmentSubmissionService {
         return submissions.stream().map(this::toResponse).collect(Collectors.toList());
     }
 
-    private SubmissionResponse toResponse(AssignmentSubmission s) {
+    // Answer results come from the compiled key, so the freshly submitted
+    // answers never initialize their Question proxies.
+    private SubmissionResponse toSubmitResponse(AssignmentSubmission s, AnswerKey key, byte[] selected) {
+        SubmissionResponse res = toSummaryResponse(s);
+        res.setAnswers(PackedAnswers.results(key, selected, null));
+        return res;
+    }
+
+    private static SubmissionResponse toRowResponse(SubmissionListing.Row row, Long assignmentId,
+                                                    String assignmentTitle) {
+        SubmissionResponse res = new SubmissionResponse();
+        res.setId(row.id());
+        res.setAssignmentId(assignmentId);
+        res.setAssignmentTitle(assignmentTitle);
+        res.setStudentId(row.studentId());
+        res.setStudentName(row.studentName());
+        res.setCorrectCount(row.correctCount());
+        res.setTotalCount(row.totalCount());
+        res.setScore(row.score());
+        res.setSubmittedAt(row.submittedAt());
+        res.setCreatedAt(row.createdAt());
+        res.setClassroomName(row.classroomName());
+        return res;
+    }
+
+    private SubmissionResponse toSummaryResponse(AssignmentSubmission s) {
         SubmissionResponse res = new SubmissionResponse();
         res.setId(s.getId());
         res.setAssignmentId(s.getAssignment().getId());
@@ -143,6 +205,22 @@ public class AssignmentSubmissionService {
         res.setScore(s.getScore());
         res.setSubmittedAt(s.getSubmittedAt());
         res.setCreatedAt(s.getCreatedAt());
+        return res;
+    }
+
+    private SubmissionResponse toResponse(AssignmentSubmission s) {
+        SubmissionResponse res = toSummaryResponse(s);
+        if (s.getAnswerData() != null) {
+            Long assignmentId = s.getAssignment().getId();
+            Map<Long, String> contents = new HashMap<>();
+            for (Object[] row : questionRepository.findContentsByAssignmentId(assignmentId)) {
+                contents.put((Long) row[0], (String) row[1]);
+            }
+            AnswerKey key = answerKeyCache.getAssignmentKey(assignmentId);
+            byte[] selected = answerKeyLayouts.decode(s.getAnswerData(), s.getAnswerKeyHash(), key);
+            res.setAnswers(selected != null ? PackedAnswers.results(key, selected, contents) : new ArrayList<>());
+            return res;
+        }
 
         List<SubmissionAnswerResult> answerResults = s.getAnswers().stream().map(a -> {
             SubmissionAnswerResult r = new SubmissionAnswerResult();
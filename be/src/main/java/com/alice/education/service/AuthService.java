@@ -5,10 +5,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -23,6 +25,7 @@ import org.springframework.web.multipart.MultipartFile;
 import com.alice.education.dto.AccountResponse;
 import com.alice.education.dto.AuthResponse;
 import com.alice.education.dto.ChangePasswordRequest;
+import com.alice.education.dto.CursorPageResponse;
 import com.alice.education.dto.ForgotPasswordRequest;
 import com.alice.education.dto.LoginRequest;
 import com.alice.education.dto.MessageResponse;
@@ -45,6 +48,13 @@ import jakarta.mail.MessagingException;
 @Service
 public class AuthService {
 
+    private static final KeysetPager.SortField[] STUDENT_SORT_FIELDS = {
+            new KeysetPager.SortField("createdAt", "createdAt", LocalDateTime.class),
+            new KeysetPager.SortField("fullName", "fullName", String.class),
+            new KeysetPager.SortField("username", "username", String.class),
+            new KeysetPager.SortField("id", "id", Long.class)
+    };
+
     private final String avatarUploadDir = "src/main/resources/static/img/avatar/";
 
     @Autowired
@@ -267,6 +277,7 @@ public class AuthService {
         }
     }
 
+    @Transactional(readOnly = true)
     public AccountResponse getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
@@ -371,6 +382,7 @@ public class AuthService {
         return response;
     }
 
+    @Transactional(readOnly = true)
     public java.util.List<StudentResponse> getAllStudents() {
         java.util.List<Account> students = accountRepository.findByRole(Role.CUSTOMER);
         return students.stream()
@@ -378,6 +390,24 @@ public class AuthService {
                 .collect(java.util.stream.Collectors.toList());
     }
 
+    /**
+     * One keyset page of students. {@code q} is a prefix of the username or full
+     * name, so it can use the indexes on those columns.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<StudentResponse> getStudentPage(Boolean active, String q, String sort,
+                                                              String direction, String cursor, Integer size) {
+        Specification<Account> filter = CatalogFilters.of(Account.class)
+                .equal(Role.CUSTOMER, "role")
+                .equal(active, "isActive")
+                .startsWith(q, "username", "fullName")
+                .build();
+        return KeysetPager.page(accountRepository, filter, KeysetPager.resolve(sort, STUDENT_SORT_FIELDS),
+                direction, cursor, size, rows -> rows.stream()
+                        .map(this::convertToStudentResponse)
+                        .collect(java.util.stream.Collectors.toList()));
+    }
+
     private StudentResponse convertToStudentResponse(Account account) {
         return new StudentResponse(
                 account.getId(),
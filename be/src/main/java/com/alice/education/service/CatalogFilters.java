@@ -0,0 +1,94 @@
+package com.alice.education.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+/**
+ * Optional filters for the catalog list endpoints. Every filter is skipped when
+ * its value is null, so callers can pass request parameters straight through.
+ */
+final class CatalogFilters<T> {
+
+    private final List<Specification<T>> specs = new ArrayList<>();
+
+    static <T> CatalogFilters<T> of(Class<T> type) {
+        return new CatalogFilters<>();
+    }
+
+    /** {@code path == value}, e.g. {@code equal(teacherId, "teacher", "id")}. */
+    CatalogFilters<T> equal(Object value, String... path) {
+        if (value != null) {
+            specs.add((root, query, cb) -> cb.equal(path(root, path), value));
+        }
+        return this;
+    }
+
+    /**
+     * Prefix match on any of the given properties. The columns use MySQL's
+     * case-insensitive collation, so no LOWER() is applied and the match can
+     * still use an index on the column.
+     */
+    CatalogFilters<T> startsWith(String text, String... properties) {
+        if (text != null && !text.isBlank()) {
+            String pattern = escape(text.trim()) + "%";
+            specs.add((root, query, cb) -> {
+                Predicate[] any = new Predicate[properties.length];
+                for (int i = 0; i < properties.length; i++) {
+                    any[i] = cb.like(root.<String>get(properties[i]), pattern, '\\');
+                }
+                return cb.or(any);
+            });
+        }
+        return this;
+    }
+
+    /**
+     * Keeps rows assigned to at least one classroom of the given subject and/or
+     * school year. Uses EXISTS so rows are not duplicated by the join.
+     */
+    CatalogFilters<T> inClassrooms(Long subjectId, String schoolYear) {
+        if (subjectId == null && (schoolYear == null || schoolYear.isBlank())) {
+            return this;
+        }
+        specs.add((root, query, cb) -> {
+            Subquery<Long> sub = query.subquery(Long.class);
+            Root<T> owner = sub.correlate(root);
+            Join<T, ?> classroom = owner.join("classrooms");
+            List<Predicate> where = new ArrayList<>();
+            if (subjectId != null) {
+                where.add(cb.equal(classroom.get("subject").get("id"), subjectId));
+            }
+            if (schoolYear != null && !schoolYear.isBlank()) {
+                where.add(cb.equal(classroom.get("schoolYear"), schoolYear));
+            }
+            sub.select(classroom.<Long>get("id")).where(where.toArray(new Predicate[0]));
+            return cb.exists(sub);
+        });
+        return this;
+    }
+
+    Specification<T> build() {
+        return Specification.allOf(specs);
+    }
+
+    private static Path<?> path(From<?, ?> root, String... path) {
+        Path<?> p = root.get(path[0]);
+        for (int i = 1; i < path.length; i++) {
+            p = p.get(path[i]);
+        }
+        return p;
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -5,11 +5,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -17,6 +19,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import com.alice.education.dto.ChapterRequest;
 import com.alice.education.dto.ChapterResponse;
+import com.alice.education.dto.CursorPageResponse;
 import com.alice.education.model.Chapter;
 import com.alice.education.model.Textbook;
 import com.alice.education.repository.ChapterRepository;
@@ -25,6 +28,12 @@ import com.alice.education.repository.TextbookRepository;
 @Service
 public class ChapterService {
 
+    private static final KeysetPager.SortField[] SORT_FIELDS = {
+            new KeysetPager.SortField("createdAt", "createdAt", LocalDateTime.class),
+            new KeysetPager.SortField("title", "title", String.class),
+            new KeysetPager.SortField("id", "id", Long.class)
+    };
+
     @Autowired
     private ChapterRepository chapterRepository;
 
@@ -54,24 +63,39 @@ public class ChapterService {
         return mapToResponse(savedChapter);
     }
 
+    @Transactional(readOnly = true)
     public ChapterResponse getChapterById(Long id) {
         Chapter chapter = chapterRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Chapter not found with id: " + id));
         return mapToResponse(chapter);
     }
 
+    @Transactional(readOnly = true)
     public List<ChapterResponse> getAllChapters() {
         return chapterRepository.findAll().stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ChapterResponse> getChapterPage(Long textbookId, Boolean active, String sort,
+                                                              String direction, String cursor, Integer size) {
+        Specification<Chapter> filter = CatalogFilters.of(Chapter.class)
+                .equal(textbookId, "textbook", "id")
+                .equal(active, "isActive")
+                .build();
+        return KeysetPager.page(chapterRepository, filter, KeysetPager.resolve(sort, SORT_FIELDS),
+                direction, cursor, size, rows -> rows.stream().map(this::mapToResponse).collect(Collectors.toList()));
+    }
+
+    @Transactional(readOnly = true)
     public List<ChapterResponse> getChaptersByTextbook(Long textbookId) {
         return chapterRepository.findByTextbookIdOrderByChapterNumberAsc(textbookId).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ChapterResponse> getActiveChapters() {
         return chapterRepository.findByIsActiveTrue().stream()
                 .map(this::mapToResponse)
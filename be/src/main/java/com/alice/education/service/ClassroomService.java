@@ -1,12 +1,16 @@
 package com.alice.education.service;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,6 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
 import com.alice.education.dto.AddStudentRequest;
 import com.alice.education.dto.ClassroomRequest;
 import com.alice.education.dto.ClassroomResponse;
+import com.alice.education.dto.CursorPageResponse;
 import com.alice.education.dto.StudentInClassResponse;
 import com.alice.education.model.Account;
 import com.alice.education.model.ClassStudent;
@@ -28,6 +33,12 @@ import com.alice.education.repository.SubjectRepository;
 @Service
 public class ClassroomService {
 
+    private static final KeysetPager.SortField[] SORT_FIELDS = {
+            new KeysetPager.SortField("createdAt", "createdAt", LocalDateTime.class),
+            new KeysetPager.SortField("name", "name", String.class),
+            new KeysetPager.SortField("id", "id", Long.class)
+    };
+
     @Autowired
     private ClassroomRepository classroomRepository;
 
@@ -44,6 +55,12 @@ public class ClassroomService {
     @Autowired
     private GradeService gradeService;
 
+    @Autowired
+    private StudentFeedCache studentFeedCache;
+
+    @Autowired
+    private GradeBookCache gradeBookCache;
+
     @Transactional
     public ClassroomResponse createClassroom(ClassroomRequest request) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -73,38 +90,54 @@ public class ClassroomService {
         return mapToResponse(savedClassroom);
     }
 
+    @Transactional(readOnly = true)
     public ClassroomResponse getClassroomById(Long id) {
         Classroom classroom = classroomRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Classroom not found with id: " + id));
         return mapToResponse(classroom);
     }
 
+    @Transactional(readOnly = true)
     public List<ClassroomResponse> getAllClassrooms() {
-        return classroomRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapAll(classroomRepository.findAll());
+    }
+
+    /**
+     * One keyset page of classrooms for the admin list, optionally filtered by
+     * subject, teacher, status, school year and grade level.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ClassroomResponse> getClassroomPage(Long subjectId, Long teacherId, Boolean active,
+                                                                  String schoolYear, String gradeLevel, String sort,
+                                                                  String direction, String cursor, Integer size) {
+        Specification<Classroom> filter = CatalogFilters.of(Classroom.class)
+                .equal(subjectId, "subject", "id")
+                .equal(teacherId, "teacher", "id")
+                .equal(active, "isActive")
+                .equal(schoolYear, "schoolYear")
+                .equal(gradeLevel, "gradeLevel")
+                .build();
+        return KeysetPager.page(classroomRepository, filter, KeysetPager.resolve(sort, SORT_FIELDS),
+                direction, cursor, size, this::mapAll);
     }
 
+    @Transactional(readOnly = true)
     public List<ClassroomResponse> getMyClassrooms() {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         Account teacher = accountRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Teacher not found"));
 
-        return classroomRepository.findByTeacherId(teacher.getId()).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapAll(classroomRepository.findByTeacherId(teacher.getId()));
     }
 
+    @Transactional(readOnly = true)
     public List<ClassroomResponse> getClassroomsBySubject(Long subjectId) {
-        return classroomRepository.findBySubjectId(subjectId).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapAll(classroomRepository.findBySubjectId(subjectId));
     }
 
+    @Transactional(readOnly = true)
     public List<ClassroomResponse> searchClassrooms(String keyword) {
-        return classroomRepository.searchByKeyword(keyword).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapAll(classroomRepository.searchByKeyword(keyword));
     }
 
     @Transactional
@@ -134,6 +167,8 @@ public class ClassroomService {
         }
 
         Classroom updatedClassroom = classroomRepository.save(classroom);
+        studentFeedCache.evictAll();
+        gradeBookCache.bump(List.of(id));
         return mapToResponse(updatedClassroom);
     }
 
@@ -152,6 +187,8 @@ public class ClassroomService {
 
         classroom.setIsActive(false);
         classroomRepository.save(classroom);
+        studentFeedCache.evictAll();
+        gradeBookCache.bump(List.of(id));
     }
 
     @Transactional
@@ -188,7 +225,8 @@ public class ClassroomService {
         }
 
         ClassStudent saved = classStudentRepository.save(classStudent);
-        gradeService.addStudentToGradeBook(classroom, student);
+        studentFeedCache.evictAll();
+        gradeBookCache.bump(List.of(classroom.getId()));
         return mapToStudentResponse(saved);
     }
 
@@ -200,8 +238,11 @@ public class ClassroomService {
 
         classStudent.setIsActive(false);
         classStudentRepository.save(classStudent);
+        studentFeedCache.evictAll();
+        gradeBookCache.bump(List.of(classroomId));
     }
 
+    @Transactional(readOnly = true)
     public List<StudentInClassResponse> getStudentsInClassroom(Long classroomId) {
         return classStudentRepository.findActiveStudentsByClassroomId(classroomId).stream()
                 .map(this::mapToStudentResponse)
@@ -209,6 +250,25 @@ public class ClassroomService {
     }
 
     private ClassroomResponse mapToResponse(Classroom classroom) {
+        return mapToResponse(classroom,
+                (int) classStudentRepository.countByClassroomIdAndIsActive(classroom.getId(), true));
+    }
+
+    // Student counts for the whole list come from one grouped query
+    private List<ClassroomResponse> mapAll(List<Classroom> classrooms) {
+        Map<Long, Integer> counts = new HashMap<>();
+        if (!classrooms.isEmpty()) {
+            List<Long> ids = classrooms.stream().map(Classroom::getId).collect(Collectors.toList());
+            for (Object[] row : classStudentRepository.countActiveByClassroomIds(ids)) {
+                counts.put((Long) row[0], ((Long) row[1]).intValue());
+            }
+        }
+        return classrooms.stream()
+                .map(c -> mapToResponse(c, counts.getOrDefault(c.getId(), 0)))
+                .collect(Collectors.toList());
+    }
+
+    private ClassroomResponse mapToResponse(Classroom classroom, int studentCount) {
         ClassroomResponse response = new ClassroomResponse();
         response.setId(classroom.getId());
         response.setName(classroom.getName());
@@ -220,7 +280,7 @@ public class ClassroomService {
         response.setTeacherName(classroom.getTeacher().getFullName());
         response.setSubjectId(classroom.getSubject().getId());
         response.setSubjectName(classroom.getSubject().getName());
-        response.setStudentCount((int) classStudentRepository.countByClassroomIdAndIsActive(classroom.getId(), true));
+        response.setStudentCount(studentCount);
         response.setMeetUrl(classroom.getMeetUrl());
         response.setCreatedAt(classroom.getCreatedAt());
         response.setUpdatedAt(classroom.getUpdatedAt());
@@ -263,10 +323,12 @@ public class ClassroomService {
         }
 
         ClassStudent saved = classStudentRepository.save(classStudent);
-        gradeService.addStudentToGradeBook(classroom, student);
+        studentFeedCache.evictAll();
+        gradeBookCache.bump(List.of(classroom.getId()));
         return mapToStudentResponse(saved);
     }
 
+    @Transactional(readOnly = true)
     public List<ClassroomResponse> getEnrolledClassrooms() {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         Account student = accountRepository.findByUsername(username)
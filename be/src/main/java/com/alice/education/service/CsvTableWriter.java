@@ -0,0 +1,52 @@
+package com.alice.education.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV in UTF-8 with a byte order mark, so Excel shows Vietnamese
+ * names correctly. Text starting with a formula character is prefixed with a
+ * quote, so a cell like "=cmd|..." is not evaluated when the file is opened.
+ */
+public class CsvTableWriter implements TableWriter {
+
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final Writer out;
+
+    public CsvTableWriter(OutputStream stream) throws IOException {
+        stream.write(BOM);
+        this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 16 * 1024);
+    }
+
+    @Override
+    public void row(List<?> cells) throws IOException {
+        for (int i = 0; i < cells.size(); i++) {
+            if (i > 0) out.write(',');
+            Object cell = cells.get(i);
+            String value = TableWriter.text(cell);
+            if (cell instanceof String && !value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                    || value.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+        out.write("\r\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+}
@@ -4,6 +4,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.alice.education.dto.DashboardStatsResponse;
+import com.alice.education.dto.GradeDistributionResponse;
+import com.alice.education.model.GradeType;
 import com.alice.education.model.Role;
 import com.alice.education.repository.AccountRepository;
 import com.alice.education.repository.AssignmentRepository;
@@ -24,6 +26,8 @@ import com.alice.education.dto.RecentActivityResponse;
 @Service
 public class DashboardService {
 
+    private static final int MAX_TOP_CLASSROOMS = 50;
+
     @Autowired
     private SubjectRepository subjectRepository;
 
@@ -48,6 +52,9 @@ public class DashboardService {
     @Autowired
     private ExamSubmissionRepository examSubmissionRepository;
 
+    @Autowired
+    private GradeAnalytics gradeAnalytics;
+
     public DashboardStatsResponse getStats() {
         long totalSubjects = subjectRepository.count();
         long totalTextbooks = textbookRepository.count();
@@ -90,4 +97,25 @@ public class DashboardService {
         response.setTotalSubmissions(totalSubmissions);
         return response;
     }
+
+    public List<GradeDistributionResponse> getGradeAnalytics(Long subjectId, String gradeLevel, String schoolYear,
+                                                             String type, double passScore, int top) {
+        GradeType gradeType = null;
+        if (type != null && !type.isBlank()) {
+            try {
+                gradeType = GradeType.valueOf(type);
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Loại điểm không hợp lệ: " + type);
+            }
+        }
+        if (Double.isNaN(passScore) || passScore < 0 || passScore > 10) {
+            throw new RuntimeException("Điểm đạt phải nằm trong khoảng 0 - 10");
+        }
+        return gradeAnalytics.query(subjectId, blankToNull(gradeLevel), blankToNull(schoolYear), gradeType,
+                passScore, Math.max(0, Math.min(top, MAX_TOP_CLASSROOMS)));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
 }
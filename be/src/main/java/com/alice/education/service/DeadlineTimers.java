@@ -0,0 +1,92 @@
+package com.alice.education.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Named one-shot timers on a {@link TimingWheel}, used for exam deadlines.
+ *
+ * Scheduling under a name replaces the timer pending under that name, so
+ * callers can simply reschedule whenever a deadline changes. Timers live in
+ * memory only; their owners rebuild them from the database at startup and
+ * re-check the stored state when a timer fires.
+ */
+@Component
+public class DeadlineTimers {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadlineTimers.class);
+
+    @Value("${app.timers.tick-ms:100}")
+    private long tickMs;
+
+    @Value("${app.timers.workers:4}")
+    private int workers;
+
+    private final Map<String, TimingWheel.Timeout> timers = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private TimingWheel wheel;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "deadline-timer-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        wheel = new TimingWheel(tickMs, executor, "deadline-wheel");
+    }
+
+    @PreDestroy
+    void stop() {
+        wheel.stop();
+        executor.shutdown();
+    }
+
+    public void schedule(String name, LocalDateTime at, Runnable task) {
+        schedule(name, at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), task);
+    }
+
+    /** Runs {@code task} at {@code atMillis}, replacing the timer pending under {@code name}. */
+    public void schedule(String name, long atMillis, Runnable task) {
+        AtomicReference<TimingWheel.Timeout> self = new AtomicReference<>();
+        TimingWheel.Timeout timeout = wheel.schedule(atMillis, () -> {
+            timers.remove(name, self.get());
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Timer {} failed", name, e);
+            }
+        });
+        self.set(timeout);
+        TimingWheel.Timeout previous = timers.put(name, timeout);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    public void cancel(String name) {
+        TimingWheel.Timeout timeout = timers.remove(name);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    public int pending() {
+        return wheel.size();
+    }
+}
@@ -0,0 +1,149 @@
+package com.alice.education.service;
+
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alice.education.model.Exam;
+import com.alice.education.repository.ExamRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Opens exams at their start date and closes them at their due date.
+ *
+ * Closing deactivates the exam and refreshes the grade columns linked to it.
+ * It runs a little after the due date, so sessions that end at the due date
+ * are auto-submitted first. The exam's opened_at / closed_at record what the
+ * timers already did: pending timers are rebuilt from them at startup, and a
+ * teacher who re-activates a closed exam is not overruled after a restart.
+ */
+@Service
+public class ExamScheduleService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExamScheduleService.class);
+
+    private static final String OPEN = "exam-open:";
+    private static final String CLOSE = "exam-close:";
+
+    @Value("${app.exam-schedule.close-delay-ms:30000}")
+    private long closeDelayMs;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private GradeService gradeService;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private StudentFeedCache studentFeedCache;
+
+    @Autowired
+    private DeadlineTimers timers;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        int opens = 0;
+        for (Object[] row : examRepository.findPendingOpens()) {
+            scheduleOpen((Long) row[0], (LocalDateTime) row[1]);
+            opens++;
+        }
+        int closes = 0;
+        for (Object[] row : examRepository.findPendingCloses()) {
+            scheduleClose((Long) row[0], (LocalDateTime) row[1]);
+            closes++;
+        }
+        log.info("Scheduled {} exam openings and {} exam closings", opens, closes);
+    }
+
+    /** (Re)schedules the exam's timers from its current dates. */
+    public void schedule(Exam exam) {
+        Long id = exam.getId();
+        if (exam.getStartDate() != null && exam.getStartDate().isAfter(LocalDateTime.now())) {
+            scheduleOpen(id, exam.getStartDate());
+        } else {
+            timers.cancel(OPEN + id);
+        }
+        if (exam.getDueDate() != null) {
+            scheduleClose(id, exam.getDueDate());
+        } else {
+            timers.cancel(CLOSE + id);
+        }
+    }
+
+    public void cancel(Long examId) {
+        timers.cancel(OPEN + examId);
+        timers.cancel(CLOSE + examId);
+    }
+
+    private void scheduleOpen(Long examId, LocalDateTime startDate) {
+        timers.schedule(OPEN + examId, startDate, () -> open(examId));
+    }
+
+    private void scheduleClose(Long examId, LocalDateTime dueDate) {
+        timers.schedule(CLOSE + examId, dueDate.plusNanos(closeDelayMs * 1_000_000), () -> close(examId));
+    }
+
+    private void open(Long examId) {
+        Boolean opened = transactionTemplate.execute(status -> {
+            Exam exam = examRepository.findById(examId).orElse(null);
+            LocalDateTime now = LocalDateTime.now();
+            // Deleted, rescheduled, or already opened for this start date
+            if (exam == null || exam.getStartDate() == null || exam.getStartDate().isAfter(now)
+                    || (exam.getOpenedAt() != null && !exam.getOpenedAt().isBefore(exam.getStartDate()))) {
+                return false;
+            }
+            exam.setOpenedAt(now);
+            if (exam.getDueDate() == null || exam.getDueDate().isAfter(now)) {
+                exam.setIsActive(true);
+            }
+            return true;
+        });
+        if (Boolean.TRUE.equals(opened)) {
+            answerKeyCache.evictExam(examId);
+            studentFeedCache.evictKind(StudentFeedCache.Kind.EXAMS);
+            log.info("Exam {} opened", examId);
+        }
+    }
+
+    private void close(Long examId) {
+        Boolean closed = transactionTemplate.execute(status -> {
+            Exam exam = examRepository.findById(examId).orElse(null);
+            LocalDateTime now = LocalDateTime.now();
+            if (exam == null || exam.getDueDate() == null || exam.getDueDate().isAfter(now)
+                    || (exam.getClosedAt() != null && !exam.getClosedAt().isBefore(exam.getDueDate()))) {
+                return false;
+            }
+            exam.setClosedAt(now);
+            exam.setIsActive(false);
+            return true;
+        });
+        if (Boolean.TRUE.equals(closed)) {
+            answerKeyCache.evictExam(examId);
+            studentFeedCache.evictKind(StudentFeedCache.Kind.EXAMS);
+            int filled = gradeService.syncExamColumns(examId);
+            log.info("Exam {} closed, {} grades filled", examId, filled);
+        }
+    }
+}
@@ -2,32 +2,47 @@ package com.alice.education.service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.alice.education.dto.CursorPageResponse;
 import com.alice.education.dto.ExamRequest;
 import com.alice.education.dto.ExamResponse;
 import com.alice.education.dto.QuestionResponse;
+import com.alice.education.dto.StudentWorkItemResponse;
 import com.alice.education.model.Account;
 import com.alice.education.model.Classroom;
 import com.alice.education.model.Exam;
-import com.alice.education.model.Question;
+import com.alice.education.model.ExamQuestion;
 import com.alice.education.repository.AccountRepository;
-import com.alice.education.repository.ClassStudentRepository;
 import com.alice.education.repository.ClassroomRepository;
 import com.alice.education.repository.ExamRepository;
+import com.alice.education.repository.ExamSessionRepository;
 import com.alice.education.repository.ExamSubmissionRepository;
+import com.alice.education.repository.ExamSummary;
+import com.alice.education.repository.GradeColumnRepository;
+import com.alice.education.repository.QuestionRepository;
 
 @Service
 public class ExamService {
 
+    private static final KeysetPager.SortField[] SORT_FIELDS = {
+            new KeysetPager.SortField("createdAt", "createdAt", LocalDateTime.class),
+            new KeysetPager.SortField("title", "title", String.class),
+            new KeysetPager.SortField("id", "id", Long.class)
+    };
+
     @Autowired
     private ExamRepository examRepository;
 
@@ -38,10 +53,34 @@ public class ExamService {
     private ClassroomRepository classroomRepository;
 
     @Autowired
-    private ClassStudentRepository classStudentRepository;
+    private ExamSubmissionRepository examSubmissionRepository;
 
     @Autowired
-    private ExamSubmissionRepository examSubmissionRepository;
+    private ExamSessionRepository examSessionRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private QuestionBankService questionBankService;
+
+    @Autowired
+    private AnswerKeyLayouts answerKeyLayouts;
+
+    @Autowired
+    private RegradeService regradeService;
+
+    @Autowired
+    private GradeColumnRepository gradeColumnRepository;
+
+    @Autowired
+    private ExamScheduleService examScheduleService;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private StudentFeedCache studentFeedCache;
 
     @Transactional
     public ExamResponse createExam(ExamRequest request) {
@@ -57,7 +96,9 @@ public class ExamService {
         if (request.getDueDate() != null && !request.getDueDate().isBlank()) {
             exam.setDueDate(LocalDateTime.parse(request.getDueDate()));
         }
-        exam.setIsActive(true);
+        exam.setStartDate(parseStartDate(request.getStartDate()));
+        // Exams with a future start date stay hidden until their timer opens them
+        exam.setIsActive(exam.getStartDate() == null || !exam.getStartDate().isAfter(LocalDateTime.now()));
         exam.setTeacher(teacher);
 
         if (request.getClassroomIds() != null) {
@@ -66,29 +107,16 @@ public class ExamService {
             exam.setClassrooms(classrooms);
         }
 
-        if (request.getQuestions() != null) {
-            List<Question> questions = new ArrayList<>();
-            int order = 1;
-            for (var qReq : request.getQuestions()) {
-                Question q = new Question();
-                q.setContent(qReq.getContent());
-                q.setOptionA(qReq.getOptionA());
-                q.setOptionB(qReq.getOptionB());
-                q.setOptionC(qReq.getOptionC());
-                q.setOptionD(qReq.getOptionD());
-                q.setCorrectAnswer(qReq.getCorrectAnswer());
-                q.setOrderNumber(qReq.getOrderNumber() != null ? qReq.getOrderNumber() : order);
-                q.setExam(exam);
-                questions.add(q);
-                order++;
-            }
-            exam.setQuestions(questions);
-        }
+        questionBankService.syncLinks(exam.getQuestionLinks(), request.getQuestions(), teacher,
+                (q, order) -> new ExamQuestion(exam, q, order));
 
         Exam saved = examRepository.save(exam);
+        studentFeedCache.evictKind(StudentFeedCache.Kind.EXAMS);
+        examScheduleService.schedule(saved);
         return mapToResponse(saved);
     }
 
+    @Transactional(readOnly = true)
     public ExamResponse getExamById(Long id) {
         Exam exam = examRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Exam not found with id: " + id));
@@ -99,57 +127,84 @@ public class ExamService {
         return mapToResponse(exam, !isStudent);
     }
 
+    @Transactional(readOnly = true)
     public List<ExamResponse> getAllExams() {
-        return examRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapSummaries(examRepository.findAllSummaries());
     }
 
+    /**
+     * One keyset page of exams for the admin list. Every filter is optional;
+     * subject and school year match any of the assigned classrooms.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ExamResponse> getExamPage(Long subjectId, Long teacherId, Boolean active, String schoolYear,
+                                                    com.alice.education.model.GradeType examType,
+                                                    String sort, String direction, String cursor, Integer size) {
+        Specification<Exam> filter = CatalogFilters.of(Exam.class)
+                .equal(teacherId, "teacher", "id")
+                .equal(active, "isActive")
+                .equal(examType, "examType")
+                .inClassrooms(subjectId, schoolYear)
+                .build();
+        return KeysetPager.page(examRepository, filter, KeysetPager.resolve(sort, SORT_FIELDS),
+                direction, cursor, size, this::mapToSummaries);
+    }
+
+    @Transactional(readOnly = true)
     public List<ExamResponse> getMyExams() {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         Account teacher = accountRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Teacher not found"));
-        return examRepository.findByTeacherId(teacher.getId()).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return mapSummaries(examRepository.findSummariesByTeacherId(teacher.getId()));
     }
 
-    public List<ExamResponse> getEnrolledExams() {
+    @Transactional(readOnly = true)
+    public List<StudentWorkItemResponse> getEnrolledExams() {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        Account student = accountRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Student not found"));
-
-        List<Long> classroomIds = classStudentRepository.findActiveByStudentId(student.getId())
-                .stream().map(cs -> cs.getClassroom().getId()).collect(Collectors.toList());
-
-        Set<Long> seen = new HashSet<>();
-        List<ExamResponse> result = new ArrayList<>();
-        for (Long cid : classroomIds) {
-            for (Exam e : examRepository.findByClassroomsId(cid)) {
-                if (Boolean.TRUE.equals(e.getIsActive()) && e.getDueDate() != null && seen.add(e.getId())) {
-                    ExamResponse res = mapToResponse(e, false);
-                    res.setHasSubmitted(examSubmissionRepository.existsByExam_IdAndStudent_Username(e.getId(), username));
-                    result.add(res);
-                }
-            }
+        return studentFeedCache.get(StudentFeedCache.Kind.EXAMS, username, () -> loadEnrolledExams(username));
+    }
+
+    private List<StudentWorkItemResponse> loadEnrolledExams(String username) {
+        Map<Long, StudentWorkItemResponse> items = new LinkedHashMap<>();
+        for (Object[] row : examRepository.findStudentFeed(username)) {
+            StudentWorkItemResponse item = items.computeIfAbsent((Long) row[0], id -> {
+                StudentWorkItemResponse res = new StudentWorkItemResponse();
+                res.setId(id);
+                res.setTitle((String) row[1]);
+                res.setDueDate((LocalDateTime) row[2]);
+                res.setDuration((Integer) row[3]);
+                res.setExamType((com.alice.education.model.GradeType) row[4]);
+                res.setIsActive(true);
+                res.setTotalQuestions(((Long) row[7]).intValue());
+                res.setSubmissionCount((Long) row[8]);
+                res.setHasSubmitted((Long) row[8] > 0);
+                res.setBestScore((Double) row[9]);
+                return res;
+            });
+            item.getClassroomIds().add((Long) row[5]);
+            item.getClassroomNames().add((String) row[6]);
         }
-        return result;
+        return new ArrayList<>(items.values());
     }
 
+    @Transactional(readOnly = true)
     public List<ExamResponse> getExamsByClassroom(Long classroomId) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return examRepository.findByClassroomsId(classroomId).stream().map(e -> {
-            // Always hide answers for student (classroom view)
-            ExamResponse res = mapToResponse(e, false);
-            res.setHasSubmitted(examSubmissionRepository.existsByExam_IdAndStudent_Username(e.getId(), username));
-            return res;
-        }).collect(Collectors.toList());
+        List<ExamResponse> responses = mapSummaries(examRepository.findSummariesByClassroomId(classroomId));
+        if (!responses.isEmpty()) {
+            Set<Long> submitted = new HashSet<>(examSubmissionRepository.findSubmittedExamIds(username,
+                    responses.stream().map(ExamResponse::getId).collect(Collectors.toList())));
+            responses.forEach(r -> r.setHasSubmitted(submitted.contains(r.getId())));
+        }
+        return responses;
     }
 
     @Transactional
     public ExamResponse updateExam(Long id, ExamRequest request) {
         Exam exam = examRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Exam not found with id: " + id));
+        answerKeyCache.evictExam(id);
+        studentFeedCache.evictKind(StudentFeedCache.Kind.EXAMS);
 
         exam.setTitle(request.getTitle());
         exam.setDescription(request.getDescription());
@@ -158,6 +213,10 @@ public class ExamService {
         if (request.getDueDate() != null && !request.getDueDate().isBlank()) {
             exam.setDueDate(LocalDateTime.parse(request.getDueDate()));
         }
+        exam.setStartDate(parseStartDate(request.getStartDate()));
+        if (exam.getStartDate() != null && exam.getStartDate().isAfter(LocalDateTime.now())) {
+            exam.setIsActive(false);
+        }
 
         if (request.getClassroomIds() != null) {
             Set<Classroom> classrooms = new HashSet<>(
@@ -165,25 +224,21 @@ public class ExamService {
             exam.setClassrooms(classrooms);
         }
 
-        exam.getQuestions().clear();
-        if (request.getQuestions() != null) {
-            int order = 1;
-            for (var qReq : request.getQuestions()) {
-                Question q = new Question();
-                q.setContent(qReq.getContent());
-                q.setOptionA(qReq.getOptionA());
-                q.setOptionB(qReq.getOptionB());
-                q.setOptionC(qReq.getOptionC());
-                q.setOptionD(qReq.getOptionD());
-                q.setCorrectAnswer(qReq.getCorrectAnswer());
-                q.setOrderNumber(qReq.getOrderNumber() != null ? qReq.getOrderNumber() : order);
-                q.setExam(exam);
-                exam.getQuestions().add(q);
-                order++;
-            }
+        // Answers packed against the current questions stay readable through its
+        // layout; the submissions are regraded if the edit changes the grading
+        if (examSubmissionRepository.existsByExam_Id(id)) {
+            AnswerKey before = answerKeyCache.getExamKey(id);
+            answerKeyLayouts.register(before);
+            regradeService.regradeIfChanged(RegradeService.Kind.EXAM, id, before);
         }
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Account editor = accountRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Teacher not found"));
+        questionBankService.syncLinks(exam.getQuestionLinks(), request.getQuestions(), editor,
+                (q, order) -> new ExamQuestion(exam, q, order));
 
         Exam updated = examRepository.save(exam);
+        examScheduleService.schedule(updated);
         return mapToResponse(updated);
     }
 
@@ -192,6 +247,11 @@ public class ExamService {
         if (!examRepository.existsById(id)) {
             throw new RuntimeException("Exam not found with id: " + id);
         }
+        answerKeyCache.evictExam(id);
+        studentFeedCache.evictKind(StudentFeedCache.Kind.EXAMS);
+        examScheduleService.cancel(id);
+        examSessionRepository.deleteByExamId(id);
+        gradeColumnRepository.clearSourceExam(id);
         examRepository.deleteById(id);
     }
 
@@ -199,10 +259,16 @@ public class ExamService {
     public ExamResponse toggleActive(Long id) {
         Exam exam = examRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Exam not found with id: " + id));
+        answerKeyCache.evictExam(id);
+        studentFeedCache.evictKind(StudentFeedCache.Kind.EXAMS);
         exam.setIsActive(!exam.getIsActive());
         return mapToResponse(examRepository.save(exam));
     }
 
+    private static LocalDateTime parseStartDate(String startDate) {
+        return startDate != null && !startDate.isBlank() ? LocalDateTime.parse(startDate) : null;
+    }
+
     private int resolveDuration(com.alice.education.model.GradeType type, Integer fallback) {
         if (type == null) return fallback != null ? fallback : 45;
         return switch (type) {
@@ -217,12 +283,76 @@ public class ExamService {
         return mapToResponse(e, true);
     }
 
+    // List views get the header and the question count; questions are only
+    // loaded by getExamById
+    private List<ExamResponse> mapSummaries(List<ExamSummary> rows) {
+        Map<Long, ExamResponse> byId = new LinkedHashMap<>();
+        for (ExamSummary row : rows) {
+            ExamResponse res = new ExamResponse();
+            res.setId(row.id());
+            res.setTitle(row.title());
+            res.setDescription(row.description());
+            res.setDueDate(row.dueDate());
+            res.setDuration(row.duration());
+            res.setExamType(row.examType());
+            res.setIsActive(row.isActive());
+            res.setTeacherId(row.teacherId());
+            res.setTeacherName(row.teacherName());
+            res.setCreatedAt(row.createdAt());
+            res.setUpdatedAt(row.updatedAt());
+            res.setClassroomIds(new ArrayList<>());
+            res.setClassroomNames(new ArrayList<>());
+            res.setQuestions(new ArrayList<>());
+            res.setTotalQuestions((int) row.questionCount());
+            byId.put(row.id(), res);
+        }
+        if (!byId.isEmpty()) {
+            for (Object[] c : examRepository.findClassroomsByIds(byId.keySet())) {
+                ExamResponse res = byId.get((Long) c[0]);
+                res.getClassroomIds().add((Long) c[1]);
+                res.getClassroomNames().add((String) c[2]);
+            }
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    // List rows leave the questions out; their count comes from one grouped query
+    private List<ExamResponse> mapToSummaries(List<Exam> exams) {
+        Map<Long, Integer> counts = new HashMap<>();
+        if (!exams.isEmpty()) {
+            List<Long> ids = exams.stream().map(Exam::getId).collect(Collectors.toList());
+            for (Object[] row : questionRepository.countByExamIds(ids)) {
+                counts.put((Long) row[0], ((Long) row[1]).intValue());
+            }
+        }
+        List<ExamResponse> result = new ArrayList<>(exams.size());
+        for (Exam e : exams) {
+            ExamResponse res = mapHeader(e);
+            res.setQuestions(new ArrayList<>());
+            res.setTotalQuestions(counts.getOrDefault(e.getId(), 0));
+            result.add(res);
+        }
+        return result;
+    }
+
     private ExamResponse mapToResponse(Exam e, boolean includeAnswers) {
+        ExamResponse res = mapHeader(e);
+        List<QuestionResponse> qList = e.getQuestionLinks().stream()
+                .map(l -> QuestionBankService.toResponse(l.getQuestion(), l.getOrderNumber(), includeAnswers))
+                .collect(Collectors.toList());
+
+        res.setQuestions(qList);
+        res.setTotalQuestions(qList.size());
+        return res;
+    }
+
+    private ExamResponse mapHeader(Exam e) {
         ExamResponse res = new ExamResponse();
         res.setId(e.getId());
         res.setTitle(e.getTitle());
         res.setDescription(e.getDescription());
         res.setDueDate(e.getDueDate());
+        res.setStartDate(e.getStartDate());
         res.setDuration(e.getDuration());
         res.setExamType(e.getExamType());
         res.setIsActive(e.getIsActive());
@@ -240,22 +370,6 @@ public class ExamService {
             res.setClassroomNames(e.getClassrooms().stream()
                     .map(c -> c.getName()).collect(Collectors.toList()));
         }
-
-        List<QuestionResponse> qList = e.getQuestions().stream().map(q -> {
-            QuestionResponse qr = new QuestionResponse();
-            qr.setId(q.getId());
-            qr.setContent(q.getContent());
-            qr.setOptionA(q.getOptionA());
-            qr.setOptionB(q.getOptionB());
-            qr.setOptionC(q.getOptionC());
-            qr.setOptionD(q.getOptionD());
-            if (includeAnswers) qr.setCorrectAnswer(q.getCorrectAnswer());
-            qr.setOrderNumber(q.getOrderNumber());
-            return qr;
-        }).collect(Collectors.toList());
-
-        res.setQuestions(qList);
-        res.setTotalQuestions(qList.size());
         return res;
     }
 }
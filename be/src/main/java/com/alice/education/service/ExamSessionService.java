@@ -0,0 +1,278 @@
+package com.alice.education.service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alice.education.dto.ExamSessionResponse;
+import com.alice.education.dto.SubmitExamRequest;
+import com.alice.education.model.Account;
+import com.alice.education.model.Exam;
+import com.alice.education.model.ExamSession;
+import com.alice.education.model.ExamSessionStatus;
+import com.alice.education.repository.AccountRepository;
+import com.alice.education.repository.ExamRepository;
+import com.alice.education.repository.ExamSessionRepository;
+import com.alice.education.repository.ExamSubmissionRepository;
+import com.alice.education.service.ExamSessionStore.LiveSession;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Server-side exam attempts: start (or resume), autosave and expiry.
+ *
+ * A session ends when the student submits or, at the latest, when its time plus
+ * a short grace period is over; its expiry timer then submits the autosaved
+ * answers on the student's behalf.
+ */
+@Service
+public class ExamSessionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExamSessionService.class);
+
+    private static final String TIMER = "exam-session:";
+
+    private static final long RETRY_MS = 30_000;
+
+    @Autowired
+    private ExamSessionRepository sessionRepository;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private ExamSubmissionRepository submissionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private ExamSessionStore store;
+
+    @Autowired
+    private ExamSubmissionService submissionService;
+
+    @Autowired
+    private DeadlineTimers timers;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Starts the student's attempt, or resumes it with the saved answers. The
+     * session ends after the exam's duration, but never after its due date.
+     */
+    public ExamSessionResponse startSession(Long examId) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Account student = accountRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy tài khoản"));
+
+        ExamSession session = sessionRepository.findByExam_IdAndStudent_Id(examId, student.getId())
+                .orElse(null);
+        if (session == null) {
+            try {
+                session = transactionTemplate.execute(status -> create(examId, student));
+            } catch (DataIntegrityViolationException e) {
+                // Started concurrently from another tab
+                session = sessionRepository.findByExam_IdAndStudent_Id(examId, student.getId())
+                        .orElseThrow(() -> e);
+            }
+        }
+        if (session.getStatus() != ExamSessionStatus.IN_PROGRESS) {
+            throw new RuntimeException("Bạn đã nộp bài kiểm tra này rồi");
+        }
+
+        LiveSession live = resume(session, username);
+        ExamSessionResponse res = toResponse(live);
+        res.setAnswers(live.answers());
+        return res;
+    }
+
+    private ExamSession create(Long examId, Account student) {
+        if (submissionRepository.findByExam_IdAndStudent_Id(examId, student.getId()).isPresent()) {
+            throw new RuntimeException("Bạn đã nộp bài kiểm tra này rồi");
+        }
+        if (!answerKeyCache.getExamKey(examId).isActive()) {
+            throw new RuntimeException("Bài kiểm tra không còn hoạt động");
+        }
+        Exam exam = examRepository.findById(examId)
+                .orElseThrow(() -> new RuntimeException("Bài kiểm tra không tồn tại"));
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusMinutes(exam.getDuration() != null ? exam.getDuration() : 45);
+        if (exam.getDueDate() != null && exam.getDueDate().isBefore(expiresAt)) {
+            expiresAt = exam.getDueDate();
+        }
+        if (!expiresAt.isAfter(now)) {
+            throw new RuntimeException("Bài kiểm tra đã hết hạn");
+        }
+
+        ExamSession session = new ExamSession();
+        session.setExam(examRepository.getReferenceById(examId));
+        session.setStudent(accountRepository.getReferenceById(student.getId()));
+        session.setStartedAt(now);
+        session.setExpiresAt(expiresAt);
+        return sessionRepository.saveAndFlush(session);
+    }
+
+    /**
+     * Stores the student's current answers. Only the in-memory session is
+     * updated; the database is written by the store's periodic flush.
+     */
+    public ExamSessionResponse autosave(Long sessionId, SubmitExamRequest request) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        LiveSession live = store.get(sessionId);
+        boolean kept = true;
+        if (live == null) {
+            ExamSession session = transactionTemplate.execute(status ->
+                    sessionRepository.findWithStudentById(sessionId).orElse(null));
+            if (session == null || !session.getStudent().getUsername().equals(username)) {
+                throw new RuntimeException("Không tìm thấy phiên làm bài");
+            }
+            if (session.getStatus() != ExamSessionStatus.IN_PROGRESS) {
+                throw new RuntimeException("Phiên làm bài đã kết thúc");
+            }
+            live = resume(session, username);
+            kept = store.get(sessionId) == live;
+        } else if (!live.username.equals(username)) {
+            throw new RuntimeException("Không tìm thấy phiên làm bài");
+        }
+        if (store.isOverdue(live, System.currentTimeMillis())) {
+            throw new RuntimeException("Đã hết thời gian làm bài");
+        }
+
+        live.apply(request.getAnswers());
+        if (!kept) {
+            store.writeThrough(live);
+        }
+        return toResponse(live);
+    }
+
+    // Loads a session into memory, or builds a detached copy if the store is full
+    private LiveSession resume(ExamSession session, String username) {
+        LiveSession live = store.get(session.getId());
+        if (live != null) {
+            return live;
+        }
+        live = new LiveSession(session.getId(), session.getExam().getId(), session.getStudent().getId(), username,
+                toMillis(session.getStartedAt()), toMillis(session.getExpiresAt()),
+                answerKeyCache.getExamKey(session.getExam().getId()));
+        live.restore(session.getAnswers());
+        LiveSession kept = store.admit(live);
+        if (kept == live || kept == null) {
+            scheduleExpiry(live.id, live.expiresAtMillis);
+        }
+        return kept != null ? kept : live;
+    }
+
+    /** Rebuilds the expiry timers of the sessions that were running at shutdown. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleRunningSessions() {
+        List<Object[]> running = sessionRepository.findTimersByStatus(ExamSessionStatus.IN_PROGRESS);
+        for (Object[] row : running) {
+            scheduleExpiry((Long) row[0], toMillis((LocalDateTime) row[1]));
+        }
+        log.info("Scheduled expiry of {} running exam sessions", running.size());
+    }
+
+    private void scheduleExpiry(long sessionId, long expiresAtMillis) {
+        timers.schedule(TIMER + sessionId, expiresAtMillis + store.getGraceMs() + 1, () -> expire(sessionId));
+    }
+
+    // Expiry timer: submits the session unless the student already did
+    private void expire(long sessionId) {
+        LiveSession live = store.get(sessionId);
+        if (live == null) {
+            ExamSession session = transactionTemplate.execute(status ->
+                    sessionRepository.findWithStudentById(sessionId).orElse(null));
+            if (session == null || session.getStatus() != ExamSessionStatus.IN_PROGRESS) {
+                return;
+            }
+            try {
+                live = resume(session, session.getStudent().getUsername());
+            } catch (RuntimeException e) {
+                log.warn("Closing exam session {} without submission: {}", sessionId, e.getMessage());
+                transactionTemplate.executeWithoutResult(status -> store.finish(
+                        session.getExam().getId(), session.getStudent().getId(), ExamSessionStatus.EXPIRED));
+                return;
+            }
+        }
+        if (!store.isOverdue(live, System.currentTimeMillis())) {
+            scheduleExpiry(live.id, live.expiresAtMillis);
+            return;
+        }
+        autoSubmit(live);
+    }
+
+    private void autoSubmit(LiveSession live) {
+        SubmitExamRequest request = new SubmitExamRequest();
+        request.setAnswers(live.answers());
+        try {
+            submissionService.submitExpiredSession(live.username, live.examId, request, "session-" + live.id);
+            return;
+        } catch (TransientDataAccessException | RecoverableDataAccessException
+                 | DataAccessResourceFailureException | CannotCreateTransactionException e) {
+            // The database is busy or unreachable: the same submit may go through later
+            log.warn("Auto-submit of exam session {} failed, retrying: {}", live.id, e.getMessage());
+            long sessionId = live.id;
+            timers.schedule(TIMER + sessionId, System.currentTimeMillis() + RETRY_MS, () -> expire(sessionId));
+            return;
+        } catch (DataAccessException e) {
+            // A constraint or other permanent failure would fail the same way on every retry
+            log.error("Auto-submit of exam session {} rejected, closing it without submission: {}",
+                    live.id, e.getMessage());
+        } catch (RuntimeException e) {
+            // Already submitted, or the exam was deleted: nothing to grade
+            log.info("Exam session {} expired without auto-submit: {}", live.id, e.getMessage());
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                store.finish(live.examId, live.studentId, ExamSessionStatus.EXPIRED));
+        store.discard(live.examId, live.studentId);
+    }
+
+    private ExamSessionResponse toResponse(LiveSession live) {
+        ExamSessionResponse res = new ExamSessionResponse();
+        res.setId(live.id);
+        res.setExamId(live.examId);
+        res.setStatus(ExamSessionStatus.IN_PROGRESS);
+        res.setStartedAt(toDateTime(live.startedAtMillis));
+        res.setExpiresAt(toDateTime(live.expiresAtMillis));
+        res.setRemainingSeconds(Math.max(0, (live.expiresAtMillis - System.currentTimeMillis()) / 1000));
+        return res;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,243 @@
+package com.alice.education.service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.alice.education.dto.SubmissionAnswerRequest;
+import com.alice.education.model.ExamSessionStatus;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory store of the exam sessions currently in progress.
+ *
+ * Autosaves only update the session's answer array and mark it dirty; a
+ * scheduled flush writes every dirty session with one JDBC batch, so the
+ * database sees at most one write per session and flush interval however often
+ * the clients save. The store is bounded: when it is full, new sessions are not
+ * kept and their saves are written through instead.
+ */
+@Component
+public class ExamSessionStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ExamSessionStore.class);
+
+    private static final String SAVE_ANSWERS =
+            "UPDATE exam_sessions SET answers = ?, saved_at = ? WHERE id = ? AND status = 'IN_PROGRESS'";
+
+    private static final String FINISH =
+            "UPDATE exam_sessions SET status = ? WHERE exam_id = ? AND student_id = ? AND status = 'IN_PROGRESS'";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.exam-session.max-live:20000}")
+    private int maxLive;
+
+    @Value("${app.exam-session.grace-ms:5000}")
+    private long graceMs;
+
+    private final Map<Long, LiveSession> sessions = new ConcurrentHashMap<>();
+    // (examId, studentId) -> session id, for the submit path
+    private final Map<Attempt, Long> attempts = new ConcurrentHashMap<>();
+
+    private record Attempt(long examId, long studentId) {}
+
+    /**
+     * Answers of one running session, aligned to the positions of the answer key
+     * the session was started with.
+     */
+    static final class LiveSession {
+
+        final long id;
+        final long examId;
+        final long studentId;
+        final String username;
+        final long startedAtMillis;
+        final long expiresAtMillis;
+        private final AnswerKey key;
+        private final byte[] selected;
+        private boolean dirty;
+
+        LiveSession(long id, long examId, long studentId, String username, long startedAtMillis,
+                    long expiresAtMillis, AnswerKey key) {
+            this.id = id;
+            this.examId = examId;
+            this.studentId = studentId;
+            this.username = username;
+            this.startedAtMillis = startedAtMillis;
+            this.expiresAtMillis = expiresAtMillis;
+            this.key = key;
+            this.selected = new byte[key.size()];
+            Arrays.fill(selected, AnswerKey.NO_ANSWER);
+        }
+
+        /** Merges the given answers; a null answer clears the question. */
+        synchronized void apply(List<SubmissionAnswerRequest> answers) {
+            if (answers == null) return;
+            for (SubmissionAnswerRequest a : answers) {
+                if (a.getQuestionId() == null) continue;
+                int index = key.indexOf(a.getQuestionId());
+                if (index >= 0) {
+                    selected[index] = AnswerKey.encode(a.getSelectedAnswer());
+                }
+            }
+            dirty = true;
+        }
+
+        /** Restores answers stored by {@link #encode()}, without marking the session dirty. */
+        synchronized void restore(String stored) {
+            if (stored == null || stored.isEmpty()) return;
+            for (String pair : stored.split(",")) {
+                int sep = pair.indexOf(':');
+                if (sep < 0) continue;
+                int index = key.indexOf(Long.parseLong(pair.substring(0, sep)));
+                if (index >= 0) {
+                    selected[index] = AnswerKey.encode(pair.substring(sep + 1));
+                }
+            }
+        }
+
+        synchronized List<SubmissionAnswerRequest> answers() {
+            List<SubmissionAnswerRequest> result = new ArrayList<>();
+            for (int i = 0; i < selected.length; i++) {
+                if (selected[i] == AnswerKey.NO_ANSWER) continue;
+                SubmissionAnswerRequest a = new SubmissionAnswerRequest();
+                a.setQuestionId(key.questionIdAt(i));
+                a.setSelectedAnswer(AnswerKey.decode(selected[i]));
+                result.add(a);
+            }
+            return result;
+        }
+
+        synchronized String encode() {
+            StringBuilder sb = new StringBuilder(selected.length * 10);
+            for (int i = 0; i < selected.length; i++) {
+                if (selected[i] == AnswerKey.NO_ANSWER) continue;
+                if (sb.length() > 0) sb.append(',');
+                sb.append(key.questionIdAt(i)).append(':').append(AnswerKey.decode(selected[i]));
+            }
+            return sb.toString();
+        }
+
+        /** The encoded answers if they changed since the last call, else null. */
+        synchronized String takeDirty() {
+            if (!dirty) return null;
+            dirty = false;
+            return encode();
+        }
+
+        synchronized void markDirty() {
+            dirty = true;
+        }
+    }
+
+    public LiveSession get(long sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    public LiveSession findAttempt(long examId, long studentId) {
+        Long id = attempts.get(new Attempt(examId, studentId));
+        return id != null ? sessions.get(id) : null;
+    }
+
+    /**
+     * Keeps the session in memory. Returns the instance that is now stored (an
+     * earlier one if another thread got there first), or null if the store is
+     * full and the caller has to write through.
+     */
+    public LiveSession admit(LiveSession session) {
+        LiveSession existing = sessions.get(session.id);
+        if (existing != null) return existing;
+        if (sessions.size() >= maxLive) return null;
+        existing = sessions.putIfAbsent(session.id, session);
+        if (existing != null) return existing;
+        attempts.put(new Attempt(session.examId, session.studentId), session.id);
+        return session;
+    }
+
+    public Collection<LiveSession> all() {
+        return sessions.values();
+    }
+
+    /** Whether the session's time, including the grace period for the final submit, is over. */
+    public boolean isOverdue(LiveSession session, long nowMillis) {
+        return nowMillis > session.expiresAtMillis + graceMs;
+    }
+
+    public long getGraceMs() {
+        return graceMs;
+    }
+
+    /** Saves one session immediately, for sessions the store had no room for. */
+    public void writeThrough(LiveSession session) {
+        String answers = session.takeDirty();
+        if (answers != null) {
+            jdbcTemplate.update(SAVE_ANSWERS, answers, new Timestamp(System.currentTimeMillis()), session.id);
+        }
+    }
+
+    /**
+     * Closes the attempt's session in the database. Runs inside the caller's
+     * transaction, so a rolled back submit leaves the session open.
+     */
+    public void finish(long examId, long studentId, ExamSessionStatus status) {
+        jdbcTemplate.update(FINISH, status.name(), examId, studentId);
+    }
+
+    /** Drops the attempt's session from memory once it has been closed. */
+    public void discard(long examId, long studentId) {
+        Long id = attempts.remove(new Attempt(examId, studentId));
+        if (id != null) {
+            sessions.remove(id);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.exam-session.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    /**
+     * Writes the answers of every session changed since the last flush. Failed
+     * sessions are marked dirty again and retried with the next flush.
+     */
+    public synchronized void flush() {
+        List<LiveSession> flushed = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (LiveSession s : sessions.values()) {
+            String answers = s.takeDirty();
+            if (answers == null) continue;
+            flushed.add(s);
+            rows.add(new Object[]{answers, now, s.id});
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(SAVE_ANSWERS, rows);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to flush {} exam sessions, retrying later: {}", rows.size(), ex.getMessage());
+            flushed.forEach(LiveSession::markDirty);
+        }
+    }
+}
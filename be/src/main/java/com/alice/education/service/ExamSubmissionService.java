@@ -1,30 +1,41 @@
 package com.alice.education.service;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.alice.education.dto.CursorPageResponse;
 import com.alice.education.dto.ExamSubmissionResponse;
 import com.alice.education.dto.SubmissionAnswerRequest;
 import com.alice.education.dto.SubmissionAnswerResult;
 import com.alice.education.dto.SubmitExamRequest;
 import com.alice.education.model.Account;
-import com.alice.education.model.Exam;
+import com.alice.education.model.ExamSessionStatus;
 import com.alice.education.model.ExamSubmission;
 import com.alice.education.model.ExamSubmissionAnswer;
-import com.alice.education.model.Question;
 import com.alice.education.repository.AccountRepository;
-import com.alice.education.repository.ClassStudentRepository;
 import com.alice.education.repository.ExamRepository;
 import com.alice.education.repository.ExamSubmissionRepository;
+import com.alice.education.repository.QuestionRepository;
+import com.alice.education.repository.SubmissionListingRepository.Source;
+
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class ExamSubmissionService {
@@ -39,65 +50,224 @@ public class ExamSubmissionService {
     private AccountRepository accountRepository;
 
     @Autowired
-    private ClassStudentRepository classStudentRepository;
+    private QuestionRepository questionRepository;
 
-    @Transactional
-    public ExamSubmissionResponse submitExam(Long examId, SubmitExamRequest request) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private AnswerKeyLayouts answerKeyLayouts;
+
+    @Autowired
+    private SubmissionIngestionService ingestionService;
+
+    @Autowired
+    private SubmissionListing submissionListing;
+
+    @Autowired
+    private ItemStatsAccumulator itemStats;
+
+    @Autowired
+    private StudentFeedCache studentFeedCache;
+
+    @Autowired
+    private ExamSessionStore sessionStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.submission.packed-answers:true}")
+    private boolean packedAnswers;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Grades and stores the student's single attempt. The attempt is claimed by
+     * inserting the submission row, so the unique (exam_id, student_id) key
+     * rejects duplicates without a prior existence check. A retry carrying the
+     * same Idempotency-Key as the stored attempt gets the original result back;
+     * keyed requests look it up before the exam's open and due-date checks, so
+     * a retry after the deadline is answered too.
+     */
+    public ExamSubmissionResponse submitExam(Long examId, SubmitExamRequest request, String idempotencyKey) {
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > 100)) {
+            throw new RuntimeException("Idempotency-Key không hợp lệ");
+        }
+        return submitAs(SecurityContextHolder.getContext().getAuthentication().getName(),
+                examId, request, idempotencyKey, false);
+    }
+
+    /**
+     * Submits an expired exam session with its autosaved answers. Unlike a
+     * student's own submit this is accepted after the due date and after the
+     * exam was closed, since the attempt was started while it was open.
+     */
+    public ExamSubmissionResponse submitExpiredSession(String username, Long examId, SubmitExamRequest request,
+                                                       String idempotencyKey) {
+        return submitAs(username, examId, request, idempotencyKey, true);
+    }
+
+    // Closes the student's exam session, if there is one
+    private ExamSubmissionResponse submitAs(String username, Long examId, SubmitExamRequest request,
+                                            String idempotencyKey, boolean expiredSession) {
         Account student = accountRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy tài khoản"));
 
-        Exam exam = examRepository.findById(examId)
-                .orElseThrow(() -> new RuntimeException("Bài kiểm tra không tồn tại"));
+        AnswerKey key = answerKeyCache.getExamKey(examId);
 
-        if (!exam.getIsActive()) {
-            throw new RuntimeException("Bài kiểm tra không còn hoạt động");
+        // A retry whose first attempt was stored gets its result back, even once
+        // the exam has closed or passed its due date
+        if (idempotencyKey != null) {
+            ExamSubmissionResponse stored = transactionTemplate.execute(status ->
+                    submissionRepository.findByExam_IdAndStudent_Id(examId, student.getId())
+                            .filter(s -> idempotencyKey.equals(s.getIdempotencyKey()))
+                            .map(this::toStoredResponse)
+                            .orElse(null));
+            if (stored != null) {
+                return stored;
+            }
         }
 
-        // 1-attempt rule
-        if (submissionRepository.existsByExam_IdAndStudent_Username(examId, username)) {
-            throw new RuntimeException("Bạn đã nộp bài kiểm tra này rồi");
+        if (!expiredSession) {
+            if (!key.isActive()) {
+                throw new RuntimeException("Bài kiểm tra không còn hoạt động");
+            }
+            long now = System.currentTimeMillis();
+            ExamSessionStore.LiveSession session = sessionStore.findAttempt(examId, student.getId());
+            if (session != null && sessionStore.isOverdue(session, now)) {
+                // Too late: only what was autosaved before the time ran out counts
+                request = new SubmitExamRequest();
+                request.setAnswers(session.answers());
+            } else if (key.getDueDate() != null && now > toMillis(key.getDueDate()) + sessionStore.getGraceMs()) {
+                throw new RuntimeException("Đã hết hạn nộp bài");
+            }
         }
 
-        // Map questionId -> question for fast lookup
-        Map<Long, Question> questionMap = exam.getQuestions().stream()
-                .collect(Collectors.toMap(Question::getId, q -> q));
+        GradedExamSubmission graded = grade(examId, student.getId(), key, request);
+        byte[] selected = selectedByPosition(key, graded);
 
+        // Without packed answers, in deadline bursts the answer rows go through the
+        // write-behind queue, which takes them only once the submission row committed
+        boolean writeBehind = !packedAnswers && ingestionService.isEnabled() && graded.questionIds().length > 0;
+
+        ExamSubmissionResponse response;
+        try {
+            response = transactionTemplate.execute(status ->
+                    persist(graded, key, selected, student, idempotencyKey, writeBehind));
+        } catch (DataIntegrityViolationException e) {
+            return replayOrReject(examId, student, idempotencyKey, e);
+        }
+        if (writeBehind) {
+            ingestionService.enqueueOrWrite(graded.withSubmissionId(response.getId()));
+        }
+        sessionStore.discard(examId, student.getId());
+        itemStats.record(key, selected, graded.score());
+        studentFeedCache.evictStudent(StudentFeedCache.Kind.EXAMS, username);
+        return response;
+    }
+
+    private static byte[] selectedByPosition(AnswerKey key, GradedExamSubmission graded) {
+        byte[] selected = new byte[key.size()];
+        Arrays.fill(selected, AnswerKey.NO_ANSWER);
+        for (int i = 0; i < graded.questionIds().length; i++) {
+            selected[key.indexOf(graded.questionIds()[i])] = AnswerKey.encode(graded.selectedAnswers()[i]);
+        }
+        return selected;
+    }
+
+    private ExamSubmissionResponse persist(GradedExamSubmission graded, AnswerKey key, byte[] selected,
+                                           Account student, String idempotencyKey, boolean writeBehind) {
         ExamSubmission submission = new ExamSubmission();
-        submission.setExam(exam);
-        submission.setStudent(student);
-        submission.setSubmittedAt(LocalDateTime.now());
-        submission.setTotalCount(exam.getQuestions().size());
+        submission.setExam(examRepository.getReferenceById(graded.examId()));
+        submission.setStudent(accountRepository.getReferenceById(student.getId()));
+        submission.setSubmittedAt(toDateTime(graded.submittedAtMillis()));
+        submission.setTotalCount(graded.totalCount());
+        submission.setCorrectCount(graded.correctCount());
+        submission.setScore(graded.score());
+        submission.setIdempotencyKey(idempotencyKey);
+        if (packedAnswers) {
+            answerKeyLayouts.register(key);
+            submission.setAnswerData(PackedAnswers.pack(selected));
+            submission.setAnswerKeyHash(key.fingerprint());
+        }
+        // 1-attempt rule: fails here on uk_exam_submissions_exam_student
+        ExamSubmission saved = submissionRepository.saveAndFlush(submission);
+        sessionStore.finish(graded.examId(), student.getId(), ExamSessionStatus.SUBMITTED);
+        eventPublisher.publishEvent(new SubmissionScoredEvent(SubmissionScoredEvent.Source.EXAM,
+                graded.examId(), student.getId(), graded.score()));
+
+        // Packed answers are already in the row
+        if (!packedAnswers && !writeBehind) {
+            for (int i = 0; i < graded.questionIds().length; i++) {
+                ExamSubmissionAnswer ans = new ExamSubmissionAnswer();
+                ans.setSubmission(saved);
+                ans.setQuestion(questionRepository.getReferenceById(graded.questionIds()[i]));
+                ans.setSelectedAnswer(graded.selectedAnswers()[i]);
+                ans.setIsCorrect(graded.correct()[i]);
+                saved.getAnswers().add(ans);
+            }
+        }
+
+        ExamSubmissionResponse res = toGradedResponse(graded, key, student);
+        res.setId(saved.getId());
+        res.setCreatedAt(saved.getCreatedAt());
+        return res;
+    }
 
-        List<ExamSubmissionAnswer> answers = new ArrayList<>();
-        int correctCount = 0;
+    private ExamSubmissionResponse replayOrReject(Long examId, Account student, String idempotencyKey,
+                                                  DataIntegrityViolationException cause) {
+        return transactionTemplate.execute(status -> {
+            ExamSubmission existing = submissionRepository.findByExam_IdAndStudent_Id(examId, student.getId())
+                    .orElseThrow(() -> cause);
+            if (idempotencyKey == null || !idempotencyKey.equals(existing.getIdempotencyKey())) {
+                throw new RuntimeException("Bạn đã nộp bài kiểm tra này rồi");
+            }
+            return toStoredResponse(existing);
+        });
+    }
 
+    // Answers are placed by key position first, so a question sent twice keeps
+    // its last answer and is counted once
+    private GradedExamSubmission grade(Long examId, Long studentId, AnswerKey key, SubmitExamRequest request) {
+        String[] byPosition = new String[key.size()];
+        byte[] codes = new byte[key.size()];
+        Arrays.fill(codes, AnswerKey.NO_ANSWER);
+        boolean[] present = new boolean[key.size()];
+        int answered = 0;
         if (request.getAnswers() != null) {
             for (SubmissionAnswerRequest ansReq : request.getAnswers()) {
-                Question question = questionMap.get(ansReq.getQuestionId());
-                if (question == null) continue;
+                if (ansReq.getQuestionId() == null) continue;
+                int index = key.indexOf(ansReq.getQuestionId());
+                if (index < 0) continue;
 
-                ExamSubmissionAnswer ans = new ExamSubmissionAnswer();
-                ans.setSubmission(submission);
-                ans.setQuestion(question);
-                ans.setSelectedAnswer(ansReq.getSelectedAnswer());
-
-                boolean isCorrect = ansReq.getSelectedAnswer() != null
-                        && ansReq.getSelectedAnswer().equals(question.getCorrectAnswer());
-                ans.setIsCorrect(isCorrect);
-                if (isCorrect) correctCount++;
-                answers.add(ans);
+                if (!present[index]) answered++;
+                present[index] = true;
+                byPosition[index] = ansReq.getSelectedAnswer();
+                codes[index] = AnswerKey.encode(ansReq.getSelectedAnswer());
             }
         }
 
-        submission.setCorrectCount(correctCount);
-        int total = exam.getQuestions().size();
-        double score = total > 0 ? Math.round((double) correctCount / total * 10 * 100.0) / 100.0 : 0.0;
-        submission.setScore(score);
-        submission.setAnswers(answers);
-
-        ExamSubmission saved = submissionRepository.save(submission);
-        return toResponse(saved);
+        long[] questionIds = new long[answered];
+        String[] selected = new String[answered];
+        boolean[] correct = new boolean[answered];
+        for (int index = 0, i = 0; index < present.length; index++) {
+            if (!present[index]) continue;
+            questionIds[i] = key.questionIdAt(index);
+            selected[i] = byPosition[index];
+            correct[i] = key.isCorrect(index, codes[index]);
+            i++;
+        }
+        int correctCount = key.countCorrect(codes);
+        return new GradedExamSubmission(0, examId, studentId, System.currentTimeMillis(),
+                correctCount, key.size(), key.score(correctCount), questionIds, selected, correct);
     }
 
     @Transactional(readOnly = true)
@@ -105,35 +275,111 @@ public class ExamSubmissionService {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         List<ExamSubmission> submissions = submissionRepository
                 .findAllByExam_IdAndStudent_UsernameOrderByCreatedAtDesc(examId, username);
-        return submissions.stream().map(this::toResponse).collect(Collectors.toList());
+        if (submissions.isEmpty() && ingestionService.isEnabled()) {
+            // Old write-ahead log records whose submission row is not written yet
+            Account student = accountRepository.findByUsername(username).orElse(null);
+            GradedExamSubmission pending = student != null ? ingestionService.getPending(examId, student.getId()) : null;
+            if (pending != null) {
+                return List.of(toGradedResponse(pending, answerKeyCache.getExamKey(examId), student));
+            }
+        }
+        return submissions.stream().map(this::toStoredResponse).collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public List<ExamSubmissionResponse> getAllSubmissionsForExam(Long examId) {
-        Exam exam = examRepository.findById(examId)
-                .orElseThrow(() -> new RuntimeException("Exam not found"));
+        String title = answerKeyCache.getExamKey(examId).getTitle();
+        return submissionListing.all(Source.EXAM, examId).stream()
+                .map(row -> toRowResponse(row, examId, title))
+                .collect(Collectors.toList());
+    }
 
-        Set<Long> examClassroomIds = exam.getClassrooms().stream()
-                .map(c -> c.getId())
-                .collect(Collectors.toSet());
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ExamSubmissionResponse> getSubmissionPage(Long examId, String sort, String direction,
+                                                                        String cursor, Integer size) {
+        String title = answerKeyCache.getExamKey(examId).getTitle();
+        SubmissionListing.Page page = submissionListing.page(Source.EXAM, examId, sort, direction, cursor, size);
+        List<ExamSubmissionResponse> items = page.rows().stream()
+                .map(row -> toRowResponse(row, examId, title))
+                .collect(Collectors.toList());
+        return new CursorPageResponse<>(items, page.nextCursor());
+    }
 
-        List<ExamSubmission> submissions = submissionRepository
-                .findAllByExam_IdOrderByCreatedAtDesc(examId);
-
-        return submissions.stream().map(s -> {
-            ExamSubmissionResponse res = toResponse(s);
-            String classroomName = classStudentRepository.findByStudentId(s.getStudent().getId())
-                    .stream()
-                    .filter(cs -> examClassroomIds.contains(cs.getClassroom().getId()))
-                    .map(cs -> cs.getClassroom().getName())
-                    .findFirst()
-                    .orElse("—");
-            res.setClassroomName(classroomName);
-            return res;
-        }).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public ExamSubmissionResponse getSubmissionDetail(Long submissionId) {
+        ExamSubmission submission = submissionRepository.findDetailById(submissionId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy bài nộp"));
+        return toStoredResponse(submission);
     }
 
-    private ExamSubmissionResponse toResponse(ExamSubmission s) {
+    private static ExamSubmissionResponse toRowResponse(SubmissionListing.Row row, Long examId, String examTitle) {
+        ExamSubmissionResponse res = new ExamSubmissionResponse();
+        res.setId(row.id());
+        res.setExamId(examId);
+        res.setExamTitle(examTitle);
+        res.setStudentId(row.studentId());
+        res.setStudentName(row.studentName());
+        res.setCorrectCount(row.correctCount());
+        res.setTotalCount(row.totalCount());
+        res.setScore(row.score());
+        res.setSubmittedAt(row.submittedAt());
+        res.setCreatedAt(row.createdAt());
+        res.setClassroomName(row.classroomName());
+        return res;
+    }
+
+    // Answer results come from the compiled key, so a fresh submission never
+    // loads its Question rows.
+    private ExamSubmissionResponse toGradedResponse(GradedExamSubmission g, AnswerKey key, Account student) {
+        LocalDateTime submittedAt = toDateTime(g.submittedAtMillis());
+        ExamSubmissionResponse res = new ExamSubmissionResponse();
+        res.setExamId(g.examId());
+        res.setExamTitle(key.getTitle());
+        res.setStudentId(student.getId());
+        res.setStudentName(student.getFullName());
+        res.setCorrectCount(g.correctCount());
+        res.setTotalCount(g.totalCount());
+        res.setScore(g.score());
+        res.setSubmittedAt(submittedAt);
+        res.setCreatedAt(submittedAt);
+
+        List<SubmissionAnswerResult> answerResults = new ArrayList<>(g.questionIds().length);
+        for (int i = 0; i < g.questionIds().length; i++) {
+            SubmissionAnswerResult r = new SubmissionAnswerResult();
+            r.setQuestionId(g.questionIds()[i]);
+            r.setSelectedAnswer(g.selectedAnswers()[i]);
+            int index = key.indexOf(g.questionIds()[i]);
+            r.setCorrectAnswer(index >= 0 ? AnswerKey.decode(key.correctAnswerAt(index)) : null);
+            r.setIsCorrect(g.correct()[i]);
+            answerResults.add(r);
+        }
+        res.setAnswers(answerResults);
+        return res;
+    }
+
+    // The answers of a fresh submission may still be waiting in the write-behind queue.
+    private ExamSubmissionResponse toStoredResponse(ExamSubmission s) {
+        GradedExamSubmission pending = ingestionService.isEnabled()
+                ? ingestionService.getPending(s.getExam().getId(), s.getStudent().getId()) : null;
+        if (pending == null || pending.submissionId() != s.getId()) {
+            return toResponse(s);
+        }
+        ExamSubmissionResponse res = toGradedResponse(pending, answerKeyCache.getExamKey(pending.examId()),
+                s.getStudent());
+        res.setId(s.getId());
+        res.setCreatedAt(s.getCreatedAt());
+        return res;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private ExamSubmissionResponse toSummaryResponse(ExamSubmission s) {
         ExamSubmissionResponse res = new ExamSubmissionResponse();
         res.setId(s.getId());
         res.setExamId(s.getExam().getId());
@@ -145,6 +391,22 @@ public class ExamSubmissionService {
         res.setScore(s.getScore());
         res.setSubmittedAt(s.getSubmittedAt());
         res.setCreatedAt(s.getCreatedAt());
+        return res;
+    }
+
+    private ExamSubmissionResponse toResponse(ExamSubmission s) {
+        ExamSubmissionResponse res = toSummaryResponse(s);
+        if (s.getAnswerData() != null) {
+            Long examId = s.getExam().getId();
+            Map<Long, String> contents = new HashMap<>();
+            for (Object[] row : questionRepository.findContentsByExamId(examId)) {
+                contents.put((Long) row[0], (String) row[1]);
+            }
+            AnswerKey key = answerKeyCache.getExamKey(examId);
+            byte[] selected = answerKeyLayouts.decode(s.getAnswerData(), s.getAnswerKeyHash(), key);
+            res.setAnswers(selected != null ? PackedAnswers.results(key, selected, contents) : new ArrayList<>());
+            return res;
+        }
 
         List<SubmissionAnswerResult> answerResults = s.getAnswers().stream().map(a -> {
             SubmissionAnswerResult r = new SubmissionAnswerResult();
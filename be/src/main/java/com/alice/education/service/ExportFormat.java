@@ -0,0 +1,38 @@
+package com.alice.education.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public enum ExportFormat {
+    CSV("text/csv; charset=UTF-8", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() { return contentType; }
+
+    public String getExtension() { return extension; }
+
+    public TableWriter open(OutputStream out, String sheetName) throws IOException {
+        return this == CSV ? new CsvTableWriter(out) : new XlsxTableWriter(out, sheetName);
+    }
+
+    /** Parses the {@code format} request parameter; CSV if absent. */
+    public static ExportFormat of(String value) {
+        if (value == null || value.isBlank()) {
+            return CSV;
+        }
+        for (ExportFormat f : values()) {
+            if (f.extension.equalsIgnoreCase(value.trim())) {
+                return f;
+            }
+        }
+        throw new RuntimeException("Định dạng xuất không hợp lệ: " + value);
+    }
+}
@@ -0,0 +1,296 @@
+package com.alice.education.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.alice.education.dto.GradeBookResponse;
+import com.alice.education.dto.GradeEntryResponse;
+import com.alice.education.dto.StudentGradeRowResponse;
+import com.alice.education.model.Account;
+import com.alice.education.model.Classroom;
+import com.alice.education.model.GradeColumn;
+import com.alice.education.repository.AccountRepository;
+import com.alice.education.repository.AssignmentRepository;
+import com.alice.education.repository.AssignmentSubmissionRepository;
+import com.alice.education.repository.ClassroomRepository;
+import com.alice.education.repository.ExamRepository;
+import com.alice.education.repository.ExamSubmissionRepository;
+import com.alice.education.repository.GradeColumnRepository;
+import com.alice.education.repository.StudentGradeRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * CSV / XLSX exports of submissions and gradebooks.
+ *
+ * Rows are streamed from the database driver (fetch size Integer.MIN_VALUE
+ * on MySQL) as scalar projections, so nothing accumulates in the persistence
+ * context, and written straight to the response, so an export uses constant
+ * heap whatever its row count. Lookups and access checks run on the request
+ * thread; only the streaming itself runs in the response body. Teachers export
+ * only their own exams, assignments and classrooms, admins any of them.
+ */
+@Service
+public class ExportService {
+
+    private static final List<String> SUBMISSION_HEADER =
+            List.of("Học sinh", "Tên đăng nhập", "Số câu đúng", "Tổng số câu", "Điểm", "Nộp lúc");
+
+    /** Marks a request as streaming an export, which gets app.export.timeout-ms (see WebConfig). */
+    public static final String EXPORT_ATTRIBUTE = ExportService.class.getName() + ".export";
+
+    /** A ready-to-stream export file. */
+    public record ExportFile(String baseName, ExportFormat format, StreamingResponseBody body) {
+
+        public ResponseEntity<StreamingResponseBody> toResponse() {
+            RequestContextHolder.currentRequestAttributes()
+                    .setAttribute(EXPORT_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+            String fileName = baseName.replaceAll("[^\\p{L}\\p{N}._-]+", "_") + "." + format.getExtension();
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename(fileName, StandardCharsets.UTF_8).build().toString())
+                    .contentType(MediaType.parseMediaType(format.getContentType()))
+                    .body(body);
+        }
+    }
+
+    @Autowired
+    private ExamSubmissionRepository examSubmissionRepository;
+
+    @Autowired
+    private AssignmentSubmissionRepository assignmentSubmissionRepository;
+
+    @Autowired
+    private StudentGradeRepository studentGradeRepository;
+
+    @Autowired
+    private GradeColumnRepository gradeColumnRepository;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+
+    @Autowired
+    private ClassroomRepository classroomRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private GradeFormulaCache formulaCache;
+
+    @Autowired
+    private GradeBookSnapshots snapshots;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnly;
+
+    @PostConstruct
+    void init() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    public ExportFile examSubmissions(Long examId, ExportFormat format) {
+        checkOwner(examRepository.findTeacherIdById(examId)
+                .orElseThrow(() -> new RuntimeException("Bài kiểm tra không tồn tại")));
+        String title = answerKeyCache.getExamKey(examId).getTitle();
+        return new ExportFile("bai-kiem-tra-" + title, format, out -> write(out, format, title, SUBMISSION_HEADER,
+                List.of(() -> examSubmissionRepository.streamExportRows(examId))));
+    }
+
+    public ExportFile assignmentSubmissions(Long assignmentId, ExportFormat format) {
+        checkOwner(assignmentRepository.findTeacherIdById(assignmentId)
+                .orElseThrow(() -> new RuntimeException("Bài tập không tồn tại")));
+        String title = answerKeyCache.getAssignmentKey(assignmentId).getTitle();
+        return new ExportFile("bai-tap-" + title, format, out -> write(out, format, title, SUBMISSION_HEADER,
+                List.of(() -> assignmentSubmissionRepository.streamExportRows(assignmentId))));
+    }
+
+    /**
+     * Every exam and assignment submission of a school year. Teachers get the
+     * submissions of their own exams and assignments, admins all of them.
+     */
+    public ExportFile schoolYearSubmissions(String schoolYear, ExportFormat format) {
+        if (schoolYear == null || schoolYear.isBlank()) {
+            throw new RuntimeException("Vui lòng chọn năm học");
+        }
+        Long teacherId = currentTeacherId();
+        List<String> header = new ArrayList<>();
+        header.add("Loại");
+        header.add("Tên bài");
+        header.addAll(SUBMISSION_HEADER);
+        return new ExportFile("bai-nop-" + schoolYear, format, out -> write(out, format, schoolYear, header, List.of(
+                () -> examSubmissionRepository.streamSchoolYearExportRows(schoolYear, teacherId)
+                        .map(r -> withKind("Bài kiểm tra", r)),
+                () -> assignmentSubmissionRepository.streamSchoolYearExportRows(schoolYear, teacherId)
+                        .map(r -> withKind("Bài tập", r)))));
+    }
+
+    /** The classroom's gradebook: one line per active student, one column per grade column. */
+    public ExportFile gradeBook(Long classroomId, ExportFormat format) {
+        Classroom classroom = classroomRepository.findById(classroomId)
+                .orElseThrow(() -> new RuntimeException("Classroom not found"));
+        checkOwner(classroom.getTeacher().getId());
+        var snapshot = snapshots.find(classroomId);
+        if (snapshot.isPresent()) {
+            return finalizedGradeBook(classroom.getName(), snapshots.read(snapshot.get()), format);
+        }
+        List<GradeColumn> columns = gradeColumnRepository.findByClassroomIdOrderByOrderNumber(classroomId);
+        Map<Long, Integer> positions = new HashMap<>();
+        List<String> header = new ArrayList<>(List.of("Học sinh", "Tên đăng nhập"));
+        for (GradeColumn col : columns) {
+            positions.put(col.getId(), positions.size());
+            header.add(col.getName());
+        }
+        GradeFormula[] formulas = formulaCache.get(classroomId, columns.stream().map(GradeFormula.Column::of).toList());
+        String name = classroom.getName();
+        return new ExportFile("bang-diem-" + name, format, out -> readOnly.executeWithoutResult(status -> {
+            try (Stream<Object[]> cells = studentGradeRepository.streamGradeBookCells(classroomId);
+                 TableWriter writer = format.open(out, name)) {
+                writer.row(header);
+                // Cells arrive grouped by student; a line is written when the next student starts
+                Object[] line = null;
+                Long studentId = null;
+                for (Iterator<Object[]> it = cells.iterator(); it.hasNext(); ) {
+                    Object[] cell = it.next();
+                    if (!((Long) cell[0]).equals(studentId)) {
+                        if (line != null) writer.row(Arrays.asList(withFormulas(line, formulas)));
+                        studentId = (Long) cell[0];
+                        line = new Object[2 + columns.size()];
+                        line[0] = cell[1];
+                        line[1] = cell[2];
+                    }
+                    Integer position = cell[3] != null ? positions.get((Long) cell[3]) : null;
+                    if (position != null) {
+                        line[2 + position] = cell[4];
+                    }
+                }
+                if (line != null) writer.row(Arrays.asList(withFormulas(line, formulas)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    // A finalized gradebook is written from its snapshot, formula columns included
+    private static ExportFile finalizedGradeBook(String name, GradeBookResponse gradeBook, ExportFormat format) {
+        List<String> header = new ArrayList<>(List.of("Học sinh", "Tên đăng nhập"));
+        Map<Long, Integer> positions = new HashMap<>();
+        gradeBook.getColumns().forEach(col -> {
+            positions.put(col.getId(), positions.size());
+            header.add(col.getName());
+        });
+        return new ExportFile("bang-diem-" + name, format, out -> {
+            try (TableWriter writer = format.open(out, name)) {
+                writer.row(header);
+                for (StudentGradeRowResponse row : gradeBook.getRows()) {
+                    Object[] line = new Object[2 + positions.size()];
+                    line[0] = row.getStudentName();
+                    line[1] = row.getUsername();
+                    for (GradeEntryResponse entry : row.getGrades()) {
+                        Integer position = positions.get(entry.getColumnId());
+                        if (position != null) {
+                            line[2 + position] = entry.getScore();
+                        }
+                    }
+                    writer.row(Arrays.asList(line));
+                }
+            }
+        });
+    }
+
+    // Sources are read one after the other: a streaming result set must be
+    // closed before the connection runs the next query
+    private void write(OutputStream out, ExportFormat format, String sheetName, List<String> header,
+                       List<Supplier<Stream<Object[]>>> sources) {
+        readOnly.executeWithoutResult(status -> {
+            try (TableWriter writer = format.open(out, sheetName)) {
+                writer.row(header);
+                for (Supplier<Stream<Object[]>> source : sources) {
+                    try (Stream<Object[]> rows = source.get()) {
+                        for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                            writer.row(Arrays.asList(it.next()));
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // Fills the formula columns of a gradebook line from its scores
+    private static Object[] withFormulas(Object[] line, GradeFormula[] formulas) {
+        if (Arrays.stream(formulas).allMatch(f -> f == null)) {
+            return line;
+        }
+        double[] scores = new double[formulas.length];
+        for (int c = 0; c < scores.length; c++) {
+            scores[c] = line[2 + c] instanceof Number n ? n.doubleValue() : Double.NaN;
+        }
+        for (int c = 0; c < formulas.length; c++) {
+            if (formulas[c] != null) {
+                formulas[c].evaluate(scores, 1, scores.length, c);
+                line[2 + c] = Double.isNaN(scores[c]) ? null : scores[c];
+            }
+        }
+        return line;
+    }
+
+    private static Object[] withKind(String kind, Object[] row) {
+        Object[] result = new Object[row.length + 1];
+        result[0] = kind;
+        System.arraycopy(row, 0, result, 1, row.length);
+        return result;
+    }
+
+    private void checkOwner(Long ownerId) {
+        Long teacherId = currentTeacherId();
+        if (teacherId != null && !teacherId.equals(ownerId)) {
+            throw new RuntimeException("Bạn không có quyền xuất dữ liệu này");
+        }
+    }
+
+    // Null for admins, who export every teacher's submissions
+    private Long currentTeacherId() {
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean admin = auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+        if (admin) {
+            return null;
+        }
+        Account teacher = accountRepository.findByUsername(auth.getName())
+                .orElseThrow(() -> new RuntimeException("Teacher not found"));
+        return teacher.getId();
+    }
+}
@@ -0,0 +1,402 @@
+package com.alice.education.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.alice.education.dto.ClassroomScoreResponse;
+import com.alice.education.dto.GradeColumnResponse;
+import com.alice.education.dto.GradeDistributionResponse;
+import com.alice.education.dto.GradeEntryResponse;
+import com.alice.education.dto.StudentGradeRowResponse;
+import com.alice.education.model.GradeType;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Score distributions across classrooms for the admin dashboard, answered
+ * from memory.
+ *
+ * Each active classroom's scores (of its active students) are held as one
+ * segment: a short[] of scores in hundredths, sorted within each grade type,
+ * plus the offsets where each type starts. A query filters the segments and
+ * aggregates them in parallel into per (subject, grade level, type) counts
+ * over the 1001 possible scores; histograms, percentiles and the mean are
+ * read off the counts, and a classroom's pass count is a binary search.
+ *
+ * Segments are loaded on first use. Gradebook changes mark their classrooms
+ * after commit, and the scheduled refresh reloads only those; a periodic full
+ * reload picks up changes made by other instances. Results may therefore lag
+ * a change by one refresh interval.
+ */
+@Component
+public class GradeAnalytics {
+
+    private static final Logger log = LoggerFactory.getLogger(GradeAnalytics.class);
+
+    private static final int MAX_SCORE = 1000;
+
+    private static final GradeType[] TYPES = GradeType.values();
+
+    // Beyond this many changed classrooms a refresh reloads everything
+    private static final int MAX_PARTIAL_RELOAD = 500;
+
+    private static final String LOAD =
+            "SELECT c.id, c.name, s.id, s.name, c.grade_level, c.school_year, gc.type, g.score, " +
+            "c.gradebook_finalized_at IS NOT NULL " +
+            "FROM classrooms c JOIN subjects s ON s.id = c.subject_id " +
+            "LEFT JOIN (student_grades g JOIN grade_columns gc ON gc.id = g.grade_column_id " +
+            "JOIN class_students cs ON cs.classroom_id = g.classroom_id AND cs.student_id = g.student_id " +
+            "AND cs.is_active = true) ON g.classroom_id = c.id AND g.score IS NOT NULL " +
+            "WHERE c.is_active = true";
+
+    private record Segment(Long classroomId, String classroomName, Long subjectId, String subjectName,
+                           String gradeLevel, String schoolYear, int[] typeStart, short[] scores) {}
+
+    private record Group(Long subjectId, String subjectName, String gradeLevel, GradeType type) {}
+
+    @Value("${app.grade-analytics.full-reload-ms:3600000}")
+    private long fullReloadMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private GradeBookSnapshots snapshots;
+
+    private JdbcTemplate streaming;
+
+    private final Map<Long, Segment> segments = new ConcurrentHashMap<>();
+
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean changedAll;
+
+    private volatile boolean loaded;
+
+    private long fullLoadAt;
+
+    @PostConstruct
+    void init() {
+        // Rows are streamed from the driver rather than buffered (MySQL)
+        streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onGradeBookChanged(GradeBookChangedEvent event) {
+        if (event.classroomIds() == null) {
+            changedAll = true;
+        } else {
+            changed.addAll(event.classroomIds());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.grade-analytics.refresh-interval-ms:5000}")
+    public synchronized void refresh() {
+        if (!loaded) {
+            return;
+        }
+        if (changedAll || changed.size() > MAX_PARTIAL_RELOAD
+                || System.currentTimeMillis() - fullLoadAt >= fullReloadMs) {
+            reloadAll();
+            return;
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(changed);
+        changed.removeAll(ids);
+        try {
+            Map<Long, Segment> fresh = load(ids);
+            for (Long id : ids) {
+                Segment segment = fresh.get(id);
+                if (segment != null) {
+                    segments.put(id, segment);
+                } else {
+                    segments.remove(id);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh grade analytics of {} classrooms, retrying later: {}", ids.size(), e.getMessage());
+            changed.addAll(ids);
+        }
+    }
+
+    /**
+     * Score distributions of the matching classrooms, one per (subject, grade
+     * level, grade type), each with its {@code top} classrooms by mean score.
+     * Null filters match everything.
+     */
+    public List<GradeDistributionResponse> query(Long subjectId, String gradeLevel, String schoolYear,
+                                                 GradeType type, double passScore, int top) {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reloadAll();
+                }
+            }
+        }
+        int passFrom = toHundredths(passScore);
+        Map<Group, Acc> groups = segments.values().parallelStream()
+                .filter(s -> (subjectId == null || subjectId.equals(s.subjectId()))
+                        && (gradeLevel == null || gradeLevel.equals(s.gradeLevel()))
+                        && (schoolYear == null || schoolYear.equals(s.schoolYear())))
+                .collect(HashMap::new, (acc, s) -> add(acc, s, type, passFrom), GradeAnalytics::merge);
+        return groups.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator
+                        .comparing(Group::subjectName)
+                        .thenComparing(Group::subjectId)
+                        .thenComparing(Group::gradeLevel, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(Group::type)))
+                .map(e -> toResponse(e.getKey(), e.getValue(), top))
+                .toList();
+    }
+
+    private void reloadAll() {
+        changedAll = false;
+        changed.clear();
+        Map<Long, Segment> fresh = load(null);
+        segments.keySet().retainAll(fresh.keySet());
+        segments.putAll(fresh);
+        fullLoadAt = System.currentTimeMillis();
+        loaded = true;
+    }
+
+    private Map<Long, Segment> load(Collection<Long> classroomIds) {
+        String sql = LOAD;
+        Object[] args = new Object[0];
+        if (classroomIds != null) {
+            sql += " AND c.id IN (" + String.join(",", Collections.nCopies(classroomIds.size(), "?")) + ")";
+            args = classroomIds.toArray();
+        }
+        List<SegmentBuilder> finalized = new ArrayList<>();
+        Map<Long, Segment> built = streaming.query(sql + " ORDER BY c.id", rs -> {
+            Map<Long, Segment> result = new HashMap<>();
+            SegmentBuilder current = null;
+            while (rs.next()) {
+                long classroomId = rs.getLong(1);
+                if (current == null || current.classroomId != classroomId) {
+                    if (current != null) {
+                        result.put(current.classroomId, current.build());
+                    }
+                    current = new SegmentBuilder(classroomId, rs.getString(2), rs.getLong(3), rs.getString(4),
+                            rs.getString(5), rs.getString(6));
+                    if (rs.getBoolean(9)) {
+                        finalized.add(current);
+                    }
+                }
+                String gradeType = rs.getString(7);
+                double score = rs.getDouble(8);
+                if (gradeType != null && !rs.wasNull()) {
+                    current.add(GradeType.valueOf(gradeType), toHundredths(score));
+                }
+            }
+            if (current != null) {
+                result.put(current.classroomId, current.build());
+            }
+            return result;
+        }, args);
+        // Read once the stream is closed; the connection serves one result at a time
+        for (SegmentBuilder builder : finalized) {
+            addSnapshotScores(builder);
+            built.put(builder.classroomId, builder.build());
+        }
+        return built;
+    }
+
+    // A finalized gradebook has no cells; its scores, of the students active
+    // when it was finalized, are read from its snapshot
+    private void addSnapshotScores(SegmentBuilder builder) {
+        snapshots.find(builder.classroomId).map(snapshots::read).ifPresent(gradeBook -> {
+            Map<Long, GradeColumnResponse> columns = new HashMap<>();
+            for (GradeColumnResponse col : gradeBook.getColumns()) {
+                if (col.getFormula() == null) {
+                    columns.put(col.getId(), col);
+                }
+            }
+            for (StudentGradeRowResponse row : gradeBook.getRows()) {
+                for (GradeEntryResponse entry : row.getGrades()) {
+                    GradeColumnResponse col = columns.get(entry.getColumnId());
+                    if (col != null && entry.getScore() != null) {
+                        builder.add(GradeType.valueOf(col.getType()), toHundredths(entry.getScore()));
+                    }
+                }
+            }
+        });
+    }
+
+    private static void add(Map<Group, Acc> groups, Segment s, GradeType type, int passFrom) {
+        for (GradeType t : TYPES) {
+            int from = s.typeStart()[t.ordinal()];
+            int to = s.typeStart()[t.ordinal() + 1];
+            if ((type != null && t != type) || from == to) {
+                continue;
+            }
+            groups.computeIfAbsent(new Group(s.subjectId(), s.subjectName(), s.gradeLevel(), t), k -> new Acc())
+                    .add(s, from, to, passFrom);
+        }
+    }
+
+    private static void merge(Map<Group, Acc> into, Map<Group, Acc> other) {
+        other.forEach((group, acc) -> into.merge(group, acc, Acc::merge));
+    }
+
+    private static GradeDistributionResponse toResponse(Group group, Acc acc, int top) {
+        GradeDistributionResponse response = new GradeDistributionResponse();
+        response.setSubjectId(group.subjectId());
+        response.setSubjectName(group.subjectName());
+        response.setGradeLevel(group.gradeLevel());
+        response.setType(group.type().name());
+        response.setClassroomCount(acc.classrooms.size());
+        response.setScoreCount(acc.count);
+        response.setMean(round2(acc.sum / (double) acc.count / 100));
+        response.setPassRate(percent(acc.passed, acc.count));
+
+        int[] histogram = new int[10];
+        for (int score = 0; score <= MAX_SCORE; score++) {
+            histogram[Math.min(score / 100, 9)] += acc.counts[score];
+        }
+        response.setHistogram(histogram);
+
+        double[] ranks = {0.10, 0.25, 0.50, 0.75, 0.90};
+        double[] percentiles = new double[ranks.length];
+        long seen = 0;
+        int next = 0;
+        for (int score = 0; score <= MAX_SCORE && next < ranks.length; score++) {
+            seen += acc.counts[score];
+            while (next < ranks.length && seen >= Math.max(1, (long) Math.ceil(ranks[next] * acc.count))) {
+                percentiles[next++] = score / 100.0;
+            }
+        }
+        response.setP10(percentiles[0]);
+        response.setP25(percentiles[1]);
+        response.setMedian(percentiles[2]);
+        response.setP75(percentiles[3]);
+        response.setP90(percentiles[4]);
+
+        response.setTopClassrooms(acc.classrooms.stream()
+                .sorted(Comparator.comparing(ClassroomScoreResponse::getMean).reversed()
+                        .thenComparing(ClassroomScoreResponse::getClassroomId))
+                .limit(top)
+                .toList());
+        return response;
+    }
+
+    private static int toHundredths(double score) {
+        return (int) Math.max(0, Math.min(MAX_SCORE, Math.round(score * 100)));
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static double percent(int part, int total) {
+        return Math.round(part * 1000.0 / total) / 10.0;
+    }
+
+    /** Counts of one group's scores, merged from the parallel partitions. */
+    private static final class Acc {
+
+        final int[] counts = new int[MAX_SCORE + 1];
+        final List<ClassroomScoreResponse> classrooms = new ArrayList<>();
+        long sum;
+        int count;
+        int passed;
+
+        // scores[from, to) is one classroom's scores of the group's type, ascending
+        void add(Segment s, int from, int to, int passFrom) {
+            short[] scores = s.scores();
+            long classroomSum = 0;
+            for (int i = from; i < to; i++) {
+                counts[scores[i]]++;
+                classroomSum += scores[i];
+            }
+            int lo = from;
+            int hi = to;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (scores[mid] < passFrom) lo = mid + 1; else hi = mid;
+            }
+            int classroomPassed = to - lo;
+            sum += classroomSum;
+            count += to - from;
+            passed += classroomPassed;
+            classrooms.add(new ClassroomScoreResponse(s.classroomId(), s.classroomName(), to - from,
+                    round2(classroomSum / (double) (to - from) / 100), percent(classroomPassed, to - from)));
+        }
+
+        Acc merge(Acc other) {
+            for (int i = 0; i <= MAX_SCORE; i++) {
+                counts[i] += other.counts[i];
+            }
+            classrooms.addAll(other.classrooms);
+            sum += other.sum;
+            count += other.count;
+            passed += other.passed;
+            return this;
+        }
+    }
+
+    /** Collects one classroom's rows into per-type score arrays. */
+    private static final class SegmentBuilder {
+
+        final long classroomId;
+        final String classroomName;
+        final Long subjectId;
+        final String subjectName;
+        final String gradeLevel;
+        final String schoolYear;
+        final short[][] byType = new short[TYPES.length][8];
+        final int[] sizes = new int[TYPES.length];
+
+        SegmentBuilder(long classroomId, String classroomName, Long subjectId, String subjectName,
+                       String gradeLevel, String schoolYear) {
+            this.classroomId = classroomId;
+            this.classroomName = classroomName;
+            this.subjectId = subjectId;
+            this.subjectName = subjectName;
+            this.gradeLevel = gradeLevel;
+            this.schoolYear = schoolYear;
+        }
+
+        void add(GradeType type, int score) {
+            int t = type.ordinal();
+            if (sizes[t] == byType[t].length) {
+                byType[t] = Arrays.copyOf(byType[t], sizes[t] * 2);
+            }
+            byType[t][sizes[t]++] = (short) score;
+        }
+
+        Segment build() {
+            int[] typeStart = new int[TYPES.length + 1];
+            for (int t = 0; t < TYPES.length; t++) {
+                typeStart[t + 1] = typeStart[t] + sizes[t];
+            }
+            short[] scores = new short[typeStart[TYPES.length]];
+            for (int t = 0; t < TYPES.length; t++) {
+                System.arraycopy(byType[t], 0, scores, typeStart[t], sizes[t]);
+                Arrays.sort(scores, typeStart[t], typeStart[t + 1]);
+            }
+            return new Segment(classroomId, classroomName, subjectId, subjectName, gradeLevel, schoolYear,
+                    typeStart, scores);
+        }
+    }
+}
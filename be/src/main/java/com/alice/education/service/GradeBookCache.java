@@ -0,0 +1,195 @@
+package com.alice.education.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Serialized gradebook responses keyed by (classroom, gradebook version).
+ *
+ * Every classroom has a gradebook_version that is bumped in the same
+ * transaction as any change to its columns, cells, summaries or roster. The
+ * version is the strong ETag of the classroom's gradebook, so a client that
+ * still holds the current one gets a 304, and a cached response is served
+ * without a query. The current versions are kept in memory, dropped now and
+ * again after commit of a bump, and expire after a TTL as a backstop for
+ * changes made by other instances.
+ */
+@Component
+public class GradeBookCache {
+
+    /** A serialized gradebook response and its ETag. */
+    public record Entry(String etag, byte[] body) {
+
+        // Spring answers 304 itself when the request's If-None-Match matches the ETag
+        public ResponseEntity<byte[]> toResponse() {
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
+        }
+    }
+
+    private record Version(long value, long expiresAt) {}
+
+    private record Cached(Entry entry, long expiresAt) {}
+
+    private static final int MAX_LOADS = 3;
+
+    @Value("${app.gradebook-cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    @Value("${app.gradebook-cache.max-entries:2000}")
+    private int maxEntries;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, Version> versions = new ConcurrentHashMap<>();
+
+    private Map<String, Cached> responses;
+
+    // Bumped on every eviction; a load that started before it is not cached.
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        responses = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * The response for the classroom's current gradebook version; {@code loader}
+     * builds the response body from that version only when it is not cached. {@code view} names
+     * the response built from the gradebook, e.g. "full" or "student:" plus
+     * the student's username for their own row.
+     *
+     * The loader's queries are not one snapshot, so the version is read again
+     * after it: a body is cached only if no bump committed while it was built,
+     * and is otherwise built again for the newer version.
+     */
+    public Entry get(Long classroomId, String view, LongFunction<Object> loader) {
+        long now = System.currentTimeMillis();
+        long gen = generation.get();
+        Version version = versions.get(classroomId);
+        if (version == null || version.expiresAt() <= now) {
+            version = new Version(loadVersion(classroomId), now + ttlMs);
+            if (generation.get() == gen) {
+                versions.put(classroomId, version);
+            }
+        }
+        long value = version.value();
+        for (int load = 1; ; load++) {
+            String key = classroomId + ":" + value + ":" + view;
+            Cached cached = responses.get(key);
+            if (cached != null && cached.expiresAt() > now) {
+                return cached.entry();
+            }
+            String etag = "\"" + classroomId + "-" + value + "-" + Integer.toHexString(view.hashCode()) + "\"";
+            Entry entry = new Entry(etag, jsonMapper.writeValueAsBytes(loader.apply(value)));
+            long after = loadVersion(classroomId);
+            if (after == value) {
+                if (generation.get() == gen) {
+                    responses.put(key, new Cached(entry, now + ttlMs));
+                }
+                return entry;
+            }
+            if (generation.get() == gen) {
+                versions.put(classroomId, new Version(after, now + ttlMs));
+            }
+            // Served uncached when the gradebook keeps changing under the loads
+            if (load == MAX_LOADS) {
+                return entry;
+            }
+            value = after;
+        }
+    }
+
+    /**
+     * Bumps the gradebook version of the given classrooms, or of all classrooms
+     * if null, and returns the new versions by classroom (empty for all). The
+     * classroom rows stay locked until commit, so grade writers that bump
+     * before touching cells are serialized per classroom and can stamp the
+     * cells with the returned version.
+     */
+    public Map<Long, Long> bump(Collection<Long> classroomIds) {
+        if (classroomIds != null && classroomIds.isEmpty()) {
+            return Map.of();
+        }
+        eventPublisher.publishEvent(new GradeBookChangedEvent(classroomIds));
+        if (classroomIds == null) {
+            jdbcTemplate.update("UPDATE classrooms SET gradebook_version = gradebook_version + 1");
+            afterCommit(versions::clear);
+            return Map.of();
+        }
+        jdbcTemplate.update("UPDATE classrooms SET gradebook_version = gradebook_version + 1 WHERE id IN (" +
+                String.join(",", Collections.nCopies(classroomIds.size(), "?")) + ")", classroomIds.toArray());
+        afterCommit(() -> versions.keySet().removeAll(classroomIds));
+        Map<Long, Long> bumped = new HashMap<>();
+        jdbcTemplate.query("SELECT id, gradebook_version FROM classrooms WHERE id IN (" +
+                String.join(",", Collections.nCopies(classroomIds.size(), "?")) + ")",
+                rs -> { bumped.put(rs.getLong(1), rs.getLong(2)); }, classroomIds.toArray());
+        return bumped;
+    }
+
+    /** The classroom's gradebook version as seen by the current transaction. */
+    public long currentVersion(Long classroomId) {
+        return loadVersion(classroomId);
+    }
+
+    private long loadVersion(Long classroomId) {
+        try {
+            return jdbcTemplate.queryForObject("SELECT gradebook_version FROM classrooms WHERE id = ?",
+                    Long.class, classroomId);
+        } catch (EmptyResultDataAccessException e) {
+            throw new RuntimeException("Classroom not found");
+        }
+    }
+
+    // Evict now and again after commit, so a concurrent reader cannot re-cache
+    // the pre-commit version.
+    private void afterCommit(Runnable eviction) {
+        generation.incrementAndGet();
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
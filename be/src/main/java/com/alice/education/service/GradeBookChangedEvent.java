@@ -0,0 +1,10 @@
+package com.alice.education.service;
+
+import java.util.Collection;
+
+/**
+ * Published with every gradebook version bump, inside the changing
+ * transaction. {@code classroomIds} is null when every classroom changed.
+ */
+public record GradeBookChangedEvent(Collection<Long> classroomIds) {
+}
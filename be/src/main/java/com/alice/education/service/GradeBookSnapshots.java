@@ -0,0 +1,147 @@
+package com.alice.education.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.alice.education.dto.GradeBookResponse;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * The {@code grade_book_snapshots} of finalized gradebooks: the gradebook
+ * response as served, gzipped JSON, and the classroom's raw cells, gzipped as
+ * (id, columnId, studentId, score) records, which a reopen puts back into
+ * {@code student_grades}. A finalized classroom is flagged on its row, which
+ * every grade writer locks before writing.
+ */
+@Component
+public class GradeBookSnapshots {
+
+    /** A finalized gradebook; {@code gradeBook} is the JSON of its {@link GradeBookResponse}. */
+    public record Snapshot(long version, LocalDateTime finalizedAt, String gradeBook) {}
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    public Optional<Snapshot> find(Long classroomId) {
+        return jdbcTemplate.query("SELECT version, finalized_at, grade_book FROM grade_book_snapshots " +
+                "WHERE classroom_id = ?", (rs, i) -> new Snapshot(rs.getLong(1),
+                rs.getTimestamp(2).toLocalDateTime(), new String(gunzip(rs.getBytes(3)), StandardCharsets.UTF_8)),
+                classroomId).stream().findFirst();
+    }
+
+    /** The gradebook version the classroom was finalized at, without reading the snapshot. */
+    public Optional<Long> finalizedVersion(Long classroomId) {
+        return jdbcTemplate.queryForList("SELECT version FROM grade_book_snapshots WHERE classroom_id = ?",
+                Long.class, classroomId).stream().findFirst();
+    }
+
+    public GradeBookResponse read(Snapshot snapshot) {
+        return jsonMapper.readValue(snapshot.gradeBook(), GradeBookResponse.class);
+    }
+
+    /**
+     * The finalized classrooms among the given ones. Read from the classroom
+     * rows, so a caller that has locked them by a gradebook bump sees a
+     * finalize committed before its lock.
+     */
+    public Set<Long> finalizedAmong(Collection<Long> classroomIds) {
+        Set<Long> finalized = new HashSet<>();
+        if (classroomIds.isEmpty()) {
+            return finalized;
+        }
+        jdbcTemplate.query("SELECT id FROM classrooms WHERE gradebook_finalized_at IS NOT NULL AND id IN (" +
+                String.join(",", Collections.nCopies(classroomIds.size(), "?")) + ")",
+                rs -> { finalized.add(rs.getLong(1)); }, classroomIds.toArray());
+        return finalized;
+    }
+
+    /** Stores the snapshot and flags the classroom; {@code cells} are (id, columnId, studentId, score). */
+    public void save(Long classroomId, GradeBookResponse gradeBook, Long finalizedBy, List<Object[]> cells) {
+        ByteArrayOutputStream packed = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(packed))) {
+            out.writeInt(cells.size());
+            for (Object[] cell : cells) {
+                out.writeLong((Long) cell[0]);
+                out.writeLong((Long) cell[1]);
+                out.writeLong((Long) cell[2]);
+                out.writeDouble(cell[3] != null ? (Double) cell[3] : Double.NaN);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Timestamp finalizedAt = Timestamp.valueOf(gradeBook.getFinalizedAt());
+        jdbcTemplate.update("INSERT INTO grade_book_snapshots " +
+                "(classroom_id, version, finalized_at, finalized_by, grade_book, cells) VALUES (?, ?, ?, ?, ?, ?)",
+                classroomId, gradeBook.getVersion(), finalizedAt, finalizedBy,
+                gzip(jsonMapper.writeValueAsBytes(gradeBook)), packed.toByteArray());
+        jdbcTemplate.update("UPDATE classrooms SET gradebook_finalized_at = ? WHERE id = ?", finalizedAt, classroomId);
+    }
+
+    /** The cells stored with the snapshot, as (id, columnId, studentId, score). */
+    public List<Object[]> cells(Long classroomId) {
+        byte[] data = jdbcTemplate.queryForObject("SELECT cells FROM grade_book_snapshots WHERE classroom_id = ?",
+                byte[].class, classroomId);
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(data)))) {
+            int count = in.readInt();
+            List<Object[]> cells = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                long columnId = in.readLong();
+                long studentId = in.readLong();
+                double score = in.readDouble();
+                cells.add(new Object[]{id, columnId, studentId, Double.isNaN(score) ? null : score});
+            }
+            return cells;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Drops the snapshot and the classroom's flag. */
+    public void delete(Long classroomId) {
+        jdbcTemplate.update("DELETE FROM grade_book_snapshots WHERE classroom_id = ?", classroomId);
+        jdbcTemplate.update("UPDATE classrooms SET gradebook_finalized_at = NULL WHERE id = ?", classroomId);
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
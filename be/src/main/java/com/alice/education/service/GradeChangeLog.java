@@ -0,0 +1,121 @@
+package com.alice.education.service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code grade_change_log}: one row per cell write, keyed by classroom and
+ * the gradebook version that made it, which is what gradebook deltas are read
+ * from. Writers bump the gradebook version first, stamp the cells they write
+ * with it, and then record the stamped cells here, so the log holds exactly
+ * the values committed. Changes other than cell writes (columns, roster,
+ * bulk recomputations) are not logged; the version gap they leave tells a
+ * delta reader to reload the whole gradebook.
+ */
+@Component
+public class GradeChangeLog {
+
+    private static final Logger log = LoggerFactory.getLogger(GradeChangeLog.class);
+
+    private static final int PRUNE_BATCH = 5000;
+
+    @Value("${app.grade-change-log.retention-ms:86400000}")
+    private long retentionMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Records the cells of each classroom stamped with its new gradebook
+     * version. A classroom with no such cell (every score kept, every cell
+     * rejected) gets a row without a cell, so its version is not taken for a
+     * change the log cannot describe.
+     */
+    public void recordWritten(Map<Long, Long> versions) {
+        List<Object[]> args = new ArrayList<>(versions.size());
+        versions.forEach((classroomId, version) -> args.add(new Object[]{classroomId, version}));
+        int[] written = jdbcTemplate.batchUpdate("INSERT INTO grade_change_log " +
+            "(classroom_id, version, grade_column_id, student_id, score, changed_at) " +
+            "SELECT classroom_id, version, grade_column_id, student_id, score, NOW(6) FROM student_grades " +
+            "WHERE classroom_id = ? AND version = ?", args);
+        List<Object[]> unchanged = new ArrayList<>();
+        for (int i = 0; i < written.length; i++) {
+            if (written[i] == 0) unchanged.add(args.get(i));
+        }
+        if (!unchanged.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO grade_change_log (classroom_id, version, changed_at) " +
+                "VALUES (?, ?, NOW(6))", unchanged);
+        }
+    }
+
+    /** Records cleared cells, given as (columnId, studentId). */
+    public void recordCleared(Long classroomId, long version, List<Object[]> cells) {
+        List<Object[]> args = new ArrayList<>(cells.size());
+        for (Object[] cell : cells) {
+            args.add(new Object[]{classroomId, version, cell[0], cell[1]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO grade_change_log " +
+            "(classroom_id, version, grade_column_id, student_id, score, changed_at) VALUES (?, ?, ?, ?, NULL, NOW(6))",
+            args);
+    }
+
+    /**
+     * Changes after {@code since} up to {@code upTo} in write order:
+     * (version, columnId, studentId, score), with null column and student
+     * for a write that changed no cell.
+     */
+    public List<Object[]> since(Long classroomId, long since, long upTo) {
+        return jdbcTemplate.query("SELECT version, grade_column_id, student_id, score FROM grade_change_log " +
+            "WHERE classroom_id = ? AND version > ? AND version <= ? ORDER BY id",
+            (rs, i) -> new Object[]{rs.getLong(1), rs.getObject(2, Long.class), rs.getObject(3, Long.class),
+                rs.getObject(4, Double.class)},
+            classroomId, since, upTo);
+    }
+
+    /** The latest version after {@code since} at which each changed cell was written or cleared, keyed "columnId:studentId". */
+    public Map<String, Long> lastChanges(Long classroomId, long since) {
+        Map<String, Long> result = new HashMap<>();
+        jdbcTemplate.query("SELECT grade_column_id, student_id, MAX(version) FROM grade_change_log " +
+            "WHERE classroom_id = ? AND version > ? AND grade_column_id IS NOT NULL GROUP BY grade_column_id, student_id", rs -> {
+                result.put(rs.getLong(1) + ":" + rs.getLong(2), rs.getLong(3));
+            }, classroomId, since);
+        return result;
+    }
+
+    /** Drops the classroom's entries, once its gradebook is finalized. */
+    public void clear(Long classroomId) {
+        jdbcTemplate.update("DELETE FROM grade_change_log WHERE classroom_id = ?", classroomId);
+    }
+
+    // Old entries are deleted by id, a batch at a time, so no one statement
+    // holds the locks of a whole day of writes
+    @Scheduled(fixedDelayString = "${app.grade-change-log.prune-interval-ms:3600000}")
+    public void prune() {
+        Timestamp before = new Timestamp(System.currentTimeMillis() - retentionMs);
+        int total = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList("SELECT id FROM grade_change_log WHERE changed_at < ? LIMIT ?",
+                Long.class, before, PRUNE_BATCH);
+            if (!ids.isEmpty()) {
+                total += jdbcTemplate.update("DELETE FROM grade_change_log WHERE id IN (" +
+                    String.join(",", Collections.nCopies(ids.size(), "?")) + ")", ids.toArray());
+            }
+        } while (ids.size() == PRUNE_BATCH);
+        if (total > 0) {
+            log.info("Pruned {} grade change log entries", total);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.alice.education.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps grade columns linked to an exam or assignment current while
+ * submissions arrive. Committed submissions are coalesced in memory to one
+ * best score per (exam/assignment, student) and written in bulk on each
+ * flush, so a burst of submits costs one gradebook write per linked column
+ * and flush instead of one per submit.
+ *
+ * Pending scores are lost if the process stops abruptly; the columns of an
+ * exam are filled again when it closes.
+ */
+@Component
+public class GradeColumnSync {
+
+    private static final Logger log = LoggerFactory.getLogger(GradeColumnSync.class);
+
+    private record Source(SubmissionScoredEvent.Source kind, Long id) {}
+
+    @Autowired
+    private GradeService gradeService;
+
+    // Maps are only changed inside compute(), and taken out whole by remove()
+    private final Map<Source, Map<Long, Double>> pending = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSubmissionScored(SubmissionScoredEvent event) {
+        add(new Source(event.source(), event.sourceId()), Map.of(event.studentId(), event.score()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.grade-sync.flush-interval-ms:2000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    /** Writes the pending best scores. On failure they are put back and retried with the next flush. */
+    public synchronized void flush() {
+        for (Source source : pending.keySet()) {
+            Map<Long, Double> scores = pending.remove(source);
+            if (scores == null) continue;
+            try {
+                gradeService.applyBestScores(source.kind(), source.id(), scores);
+            } catch (RuntimeException e) {
+                log.warn("Failed to sync {} scores of {} {} into grade columns, retrying later: {}",
+                        scores.size(), source.kind(), source.id(), e.getMessage());
+                add(source, scores);
+            }
+        }
+    }
+
+    private void add(Source source, Map<Long, Double> scores) {
+        pending.compute(source, (k, current) -> {
+            Map<Long, Double> merged = current != null ? current : new HashMap<>();
+            scores.forEach((studentId, score) -> merged.merge(studentId, score, Math::max));
+            return merged;
+        });
+    }
+}
@@ -0,0 +1,19 @@
+package com.alice.education.service;
+
+import com.alice.education.dto.GradeEntryResponse;
+
+/** A grade write rejected because the cell changed since the version the client holds. */
+public class GradeConflictException extends RuntimeException {
+
+    private final GradeEntryResponse current;
+
+    public GradeConflictException(String message, GradeEntryResponse current) {
+        super(message);
+        this.current = current;
+    }
+
+    /** The cell as it is now. */
+    public GradeEntryResponse getCurrent() {
+        return current;
+    }
+}
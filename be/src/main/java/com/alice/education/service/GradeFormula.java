@@ -0,0 +1,393 @@
+package com.alice.education.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import com.alice.education.model.GradeColumn;
+import com.alice.education.model.GradeType;
+
+/**
+ * A compiled formula column. Formulas are arithmetic over the classroom's
+ * stored columns:
+ * <pre>
+ *   avg(QUIZ_15)                      average of every 15-minute column
+ *   max([Giữa kỳ], [Thi lại])         the better of two columns
+ *   round((sum(TEST_45) + 2 * [Cuối kỳ]) / (count(TEST_45) + 2), 1)
+ * </pre>
+ * {@code [name]} is a column, a bare grade type ({@code QUIZ_15}, {@code TEST_45},
+ * {@code MIDTERM}, {@code FINAL}) is every stored column of that type and may
+ * only appear inside avg, sum, min, max and count. Empty cells are skipped
+ * by those functions and make arithmetic empty; a result that is not a
+ * finite number is empty too.
+ *
+ * A formula is parsed once against the classroom's columns into a tree of
+ * nodes whose column references are already resolved to ordinals. The tree
+ * is evaluated a column at a time over all students: each node produces one
+ * array of values, NaN standing for an empty cell.
+ */
+public final class GradeFormula {
+
+    /** What a formula needs to know about a classroom's column; {@code formula} is null for stored columns. */
+    public record Column(long id, String name, GradeType type, String formula) {
+
+        public static Column of(GradeColumn col) {
+            return new Column(col.getId(), col.getName(), col.getType(), col.getFormula());
+        }
+    }
+
+    private interface Node {
+        // One value per row; cell (r, c) of the scores is at r * cols + c
+        double[] eval(double[] scores, int rows, int cols);
+    }
+
+    private enum Aggregate { AVG, SUM, MIN, MAX, COUNT }
+
+    private final Node root;
+    private final Set<Long> references;
+
+    private GradeFormula(Node root, Set<Long> references) {
+        this.root = root;
+        this.references = references;
+    }
+
+    /** Parses and resolves the formula; a RuntimeException describes the first error. */
+    public static GradeFormula compile(String formula, List<Column> columns) {
+        if (formula == null || formula.isBlank()) {
+            throw new RuntimeException("Công thức không được để trống");
+        }
+        Parser parser = new Parser(formula, columns);
+        Node root = parser.parseFormula();
+        return new GradeFormula(root, parser.references);
+    }
+
+    /** Ids of the columns the formula reads, type groups included. */
+    public Set<Long> getReferences() {
+        return references;
+    }
+
+    /** Computes column {@code target} of a row-major scores matrix from its other columns. */
+    public void evaluate(double[] scores, int rows, int cols, int target) {
+        double[] values = root.eval(scores, rows, cols);
+        for (int r = 0; r < rows; r++) {
+            double v = values[r];
+            scores[r * cols + target] = Double.isFinite(v) ? Math.round(v * 100) / 100.0 : Double.NaN;
+        }
+    }
+
+    private record Constant(double value) implements Node {
+        public double[] eval(double[] scores, int rows, int cols) {
+            double[] out = new double[rows];
+            Arrays.fill(out, value);
+            return out;
+        }
+    }
+
+    private record ColumnRef(int ordinal) implements Node {
+        public double[] eval(double[] scores, int rows, int cols) {
+            double[] out = new double[rows];
+            for (int r = 0; r < rows; r++) {
+                out[r] = scores[r * cols + ordinal];
+            }
+            return out;
+        }
+    }
+
+    private record Negate(Node operand) implements Node {
+        public double[] eval(double[] scores, int rows, int cols) {
+            double[] out = operand.eval(scores, rows, cols);
+            for (int r = 0; r < rows; r++) {
+                out[r] = -out[r];
+            }
+            return out;
+        }
+    }
+
+    // NaN operands give NaN, so empty cells propagate without a check
+    private record Binary(char op, Node left, Node right) implements Node {
+        public double[] eval(double[] scores, int rows, int cols) {
+            double[] out = left.eval(scores, rows, cols);
+            double[] b = right.eval(scores, rows, cols);
+            switch (op) {
+                case '+' -> { for (int r = 0; r < rows; r++) out[r] += b[r]; }
+                case '-' -> { for (int r = 0; r < rows; r++) out[r] -= b[r]; }
+                case '*' -> { for (int r = 0; r < rows; r++) out[r] *= b[r]; }
+                default -> {
+                    for (int r = 0; r < rows; r++) out[r] = b[r] != 0 ? out[r] / b[r] : Double.NaN;
+                }
+            }
+            return out;
+        }
+    }
+
+    private record Round(Node operand, int digits) implements Node {
+        public double[] eval(double[] scores, int rows, int cols) {
+            double[] out = operand.eval(scores, rows, cols);
+            double scale = Math.pow(10, digits);
+            for (int r = 0; r < rows; r++) {
+                if (Double.isFinite(out[r])) out[r] = Math.round(out[r] * scale) / scale;
+            }
+            return out;
+        }
+    }
+
+    // Stored columns are read in place; only computed arguments produce arrays
+    private record AggregateNode(Aggregate fn, int[] columns, Node[] values) implements Node {
+        public double[] eval(double[] scores, int rows, int cols) {
+            double[] acc = new double[rows];
+            int[] counts = new int[rows];
+            if (fn == Aggregate.MIN) Arrays.fill(acc, Double.POSITIVE_INFINITY);
+            if (fn == Aggregate.MAX) Arrays.fill(acc, Double.NEGATIVE_INFINITY);
+            for (int c : columns) {
+                for (int r = 0; r < rows; r++) {
+                    add(acc, counts, r, scores[r * cols + c]);
+                }
+            }
+            for (Node value : values) {
+                double[] v = value.eval(scores, rows, cols);
+                for (int r = 0; r < rows; r++) {
+                    add(acc, counts, r, v[r]);
+                }
+            }
+            for (int r = 0; r < rows; r++) {
+                if (fn == Aggregate.COUNT) acc[r] = counts[r];
+                else if (counts[r] == 0) acc[r] = Double.NaN;
+                else if (fn == Aggregate.AVG) acc[r] /= counts[r];
+            }
+            return acc;
+        }
+
+        private void add(double[] acc, int[] counts, int r, double v) {
+            if (Double.isNaN(v)) return;
+            counts[r]++;
+            switch (fn) {
+                case MIN -> acc[r] = Math.min(acc[r], v);
+                case MAX -> acc[r] = Math.max(acc[r], v);
+                case AVG, SUM -> acc[r] += v;
+                case COUNT -> { }
+            }
+        }
+    }
+
+    /** Recursive-descent parser producing resolved nodes. */
+    private static final class Parser {
+
+        private final String src;
+        private final List<Column> columns;
+        private final Set<Long> references = new LinkedHashSet<>();
+        private int pos;
+
+        Parser(String src, List<Column> columns) {
+            this.src = src;
+            this.columns = columns;
+        }
+
+        Node parseFormula() {
+            Node node = parseExpr();
+            skipSpaces();
+            if (pos < src.length()) {
+                throw error("ký tự thừa '" + src.charAt(pos) + "'");
+            }
+            return node;
+        }
+
+        // expr := term (('+' | '-') term)*
+        private Node parseExpr() {
+            Node node = parseTerm();
+            while (true) {
+                char c = peek();
+                if (c != '+' && c != '-') return node;
+                pos++;
+                node = new Binary(c, node, parseTerm());
+            }
+        }
+
+        // term := unary (('*' | '/') unary)*
+        private Node parseTerm() {
+            Node node = parseUnary();
+            while (true) {
+                char c = peek();
+                if (c != '*' && c != '/') return node;
+                pos++;
+                node = new Binary(c, node, parseUnary());
+            }
+        }
+
+        private Node parseUnary() {
+            if (peek() == '-') {
+                pos++;
+                return new Negate(parseUnary());
+            }
+            Object operand = parseOperand();
+            if (operand instanceof int[]) {
+                throw error("nhóm cột chỉ dùng được trong avg, sum, min, max, count");
+            }
+            return (Node) operand;
+        }
+
+        // A Node, or the ordinals of a grade type group (int[])
+        private Object parseOperand() {
+            char c = peek();
+            if (c == '(') {
+                pos++;
+                Node node = parseExpr();
+                expect(')');
+                return node;
+            }
+            if (c == '[') {
+                return new ColumnRef(resolveColumn());
+            }
+            if (Character.isDigit(c) || c == '.') {
+                return new Constant(parseNumber());
+            }
+            if (Character.isLetter(c)) {
+                String name = parseIdentifier();
+                if (peek() == '(') {
+                    pos++;
+                    return parseCall(name);
+                }
+                return resolveGroup(name);
+            }
+            throw error(c == 0 ? "công thức kết thúc đột ngột" : "ký tự không hợp lệ '" + c + "'");
+        }
+
+        private Node parseCall(String name) {
+            String fn = name.toUpperCase(Locale.ROOT);
+            if (fn.equals("ROUND")) {
+                Node operand = parseExpr();
+                int digits = 0;
+                if (peek() == ',') {
+                    pos++;
+                    skipSpaces();
+                    int start = pos;
+                    double d = parseNumber();
+                    if (d != Math.floor(d) || d > 4) {
+                        pos = start;
+                        throw error("số chữ số làm tròn phải là số nguyên từ 0 đến 4");
+                    }
+                    digits = (int) d;
+                }
+                expect(')');
+                return new Round(operand, digits);
+            }
+            Aggregate aggregate;
+            try {
+                aggregate = Aggregate.valueOf(fn);
+            } catch (IllegalArgumentException e) {
+                throw error("hàm không được hỗ trợ '" + name + "'");
+            }
+            List<Integer> groupColumns = new ArrayList<>();
+            List<Node> values = new ArrayList<>();
+            do {
+                skipSpaces();
+                int start = pos;
+                Object operand = peek() == '-' ? null : parseOperand();
+                if (operand instanceof int[] group) {
+                    for (int ordinal : group) groupColumns.add(ordinal);
+                } else if (operand instanceof ColumnRef ref && (peek() == ',' || peek() == ')')) {
+                    groupColumns.add(ref.ordinal());
+                } else {
+                    pos = start;
+                    values.add(parseExpr());
+                }
+            } while (consume(','));
+            expect(')');
+            return new AggregateNode(aggregate, groupColumns.stream().mapToInt(Integer::intValue).toArray(),
+                    values.toArray(new Node[0]));
+        }
+
+        private int resolveColumn() {
+            int start = pos++;
+            int end = src.indexOf(']', pos);
+            if (end < 0) {
+                pos = start;
+                throw error("thiếu dấu ']'");
+            }
+            String name = src.substring(pos, end).trim();
+            pos = end + 1;
+            int found = -1;
+            for (int i = 0; i < columns.size(); i++) {
+                if (columns.get(i).name().trim().equalsIgnoreCase(name)) {
+                    if (found >= 0) {
+                        throw error("có nhiều cột tên [" + name + "]");
+                    }
+                    found = i;
+                }
+            }
+            if (found < 0) {
+                throw error("không có cột [" + name + "]");
+            }
+            if (columns.get(found).formula() != null) {
+                throw error("không được dùng cột công thức [" + name + "]");
+            }
+            references.add(columns.get(found).id());
+            return found;
+        }
+
+        private int[] resolveGroup(String name) {
+            GradeType type;
+            try {
+                type = GradeType.valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw error("không rõ '" + name + "'; tên cột phải đặt trong [ ]");
+            }
+            List<Integer> ordinals = new ArrayList<>();
+            for (int i = 0; i < columns.size(); i++) {
+                Column col = columns.get(i);
+                if (col.type() == type && col.formula() == null) {
+                    ordinals.add(i);
+                    references.add(col.id());
+                }
+            }
+            return ordinals.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        private double parseNumber() {
+            int start = pos;
+            while (pos < src.length() && (Character.isDigit(src.charAt(pos)) || src.charAt(pos) == '.')) pos++;
+            try {
+                return Double.parseDouble(src.substring(start, pos));
+            } catch (NumberFormatException e) {
+                pos = start;
+                throw error("số không hợp lệ");
+            }
+        }
+
+        private String parseIdentifier() {
+            int start = pos;
+            while (pos < src.length() && (Character.isLetterOrDigit(src.charAt(pos)) || src.charAt(pos) == '_')) pos++;
+            return src.substring(start, pos);
+        }
+
+        private boolean consume(char c) {
+            if (peek() == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!consume(c)) {
+                throw error("thiếu dấu '" + c + "'");
+            }
+        }
+
+        // The next non-space character, or 0 at the end
+        private char peek() {
+            skipSpaces();
+            return pos < src.length() ? src.charAt(pos) : 0;
+        }
+
+        private void skipSpaces() {
+            while (pos < src.length() && Character.isWhitespace(src.charAt(pos))) pos++;
+        }
+
+        private RuntimeException error(String message) {
+            return new RuntimeException("Công thức không hợp lệ: " + message + " (vị trí " + (pos + 1) + ")");
+        }
+    }
+}
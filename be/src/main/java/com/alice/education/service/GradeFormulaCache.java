@@ -0,0 +1,60 @@
+package com.alice.education.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compiled formula columns per classroom, so formulas are parsed once rather
+ * than on every gradebook read. An entry is dropped when the classroom's
+ * columns change, and is only used while the columns it was compiled against
+ * (ids and order) are still the classroom's columns, which also covers
+ * changes made by other instances.
+ */
+@Component
+public class GradeFormulaCache {
+
+    private static final Logger log = LoggerFactory.getLogger(GradeFormulaCache.class);
+
+    // formulas[i] is the compiled formula of column i, null for stored columns
+    private record Compiled(long[] columnIds, GradeFormula[] formulas) {}
+
+    private final Map<Long, Compiled> compiled = new ConcurrentHashMap<>();
+
+    /**
+     * The compiled formulas of the classroom's columns, indexed like
+     * {@code columns}; null for stored columns and for formulas that no
+     * longer compile, whose cells stay empty.
+     */
+    public GradeFormula[] get(Long classroomId, List<GradeFormula.Column> columns) {
+        long[] ids = new long[columns.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = columns.get(i).id();
+        }
+        Compiled current = compiled.get(classroomId);
+        if (current != null && Arrays.equals(current.columnIds(), ids)) {
+            return current.formulas();
+        }
+        GradeFormula[] result = new GradeFormula[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            String formula = columns.get(i).formula();
+            if (formula == null) continue;
+            try {
+                result[i] = GradeFormula.compile(formula, columns);
+            } catch (RuntimeException e) {
+                log.warn("Formula of grade column {} does not compile: {}", ids[i], e.getMessage());
+            }
+        }
+        compiled.put(classroomId, new Compiled(ids, result));
+        return result;
+    }
+
+    public void evict(Long classroomId) {
+        compiled.remove(classroomId);
+    }
+}
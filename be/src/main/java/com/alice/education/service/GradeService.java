@@ -4,16 +4,44 @@ import com.alice.education.dto.*;
 import com.alice.education.model.*;
 import com.alice.education.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.util.RawValue;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * Gradebooks are stored sparsely: a student_grades row exists only for a cell
+ * that holds a score. Empty cells are synthesized when a gradebook is read,
+ * created on their first write and deleted again when their score is cleared,
+ * so adding a column or a student writes nothing.
+ */
 @Service
 public class GradeService {
 
+    private static final int MAX_BULK_CELLS = 5000;
+
+    // ON DUPLICATE KEY clauses of insertCells; assignments run left to right,
+    // so the conditions compare against the old score
+    private static final String KEEP_SCORE = "id = id";
+    private static final String REPLACE_SCORE =
+        "score = VALUES(score), version = VALUES(version), updated_at = VALUES(updated_at)";
+    private static final String RAISE_SCORE =
+        "updated_at = CASE WHEN VALUES(score) > score THEN VALUES(updated_at) ELSE updated_at END, " +
+        "version = CASE WHEN VALUES(score) > score THEN VALUES(version) ELSE version END, " +
+        "score = GREATEST(score, VALUES(score))";
+
+    // A client further behind reloads the gradebook instead of a delta
+    private static final int MAX_DELTA_VERSIONS = 1000;
+
+    private static final String CONFLICT_MESSAGE = "Ô điểm đã được người khác sửa, vui lòng xem điểm hiện tại";
+
+    private static final String FINALIZED_MESSAGE = "Bảng điểm đã chốt, cần mở lại trước khi sửa";
+
     @Autowired
     private GradeColumnRepository gradeColumnRepository;
 
@@ -32,6 +60,39 @@ public class GradeService {
     @Autowired
     private ExamSubmissionRepository examSubmissionRepository;
 
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+
+    @Autowired
+    private AssignmentSubmissionRepository assignmentSubmissionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SequenceIdAllocator idAllocator;
+
+    @Autowired
+    private StudentGradeSummaryRepository studentGradeSummaryRepository;
+
+    @Autowired
+    private GradeSummaries gradeSummaries;
+
+    @Autowired
+    private GradeBookCache gradeBookCache;
+
+    @Autowired
+    private GradeFormulaCache formulaCache;
+
+    @Autowired
+    private GradeChangeLog changeLog;
+
+    @Autowired
+    private GradeBookSnapshots snapshots;
+
     @Transactional
     public void initializeGradeColumns(Classroom classroom) {
         List<Object[]> defaults = List.of(
@@ -43,6 +104,7 @@ public class GradeService {
             new Object[]{"Giữa kỳ", GradeType.MIDTERM, 6},
             new Object[]{"Cuối kỳ", GradeType.FINAL, 7}
         );
+        List<GradeColumn> columns = new ArrayList<>(defaults.size());
         for (Object[] def : defaults) {
             GradeColumn col = new GradeColumn();
             col.setClassroom(classroom);
@@ -50,77 +112,174 @@ public class GradeService {
             col.setType((GradeType) def[1]);
             col.setOrderNumber((Integer) def[2]);
             col.setIsCustom(false);
-            gradeColumnRepository.save(col);
-        }
-    }
-
-    @Transactional
-    public void addStudentToGradeBook(Classroom classroom, Account student) {
-        List<GradeColumn> columns = gradeColumnRepository.findByClassroomIdOrderByOrderNumber(classroom.getId());
-        List<StudentGrade> existing = studentGradeRepository.findByClassroomIdAndStudentId(classroom.getId(), student.getId());
-        Set<Long> existingColumnIds = existing.stream()
-            .map(sg -> sg.getGradeColumn().getId())
-            .collect(Collectors.toSet());
-
-        for (GradeColumn col : columns) {
-            if (!existingColumnIds.contains(col.getId())) {
-                StudentGrade grade = new StudentGrade();
-                grade.setGradeColumn(col);
-                grade.setStudent(student);
-                grade.setClassroom(classroom);
-                grade.setScore(null);
-                studentGradeRepository.save(grade);
-            }
+            columns.add(col);
         }
+        gradeColumnRepository.saveAll(columns);
     }
 
     @Transactional
     public GradeColumnResponse addCustomColumn(Long classroomId, AddGradeColumnRequest request) {
         Classroom classroom = classroomRepository.findById(classroomId)
             .orElseThrow(() -> new RuntimeException("Classroom not found"));
+        bumpForEdit(classroomId);
 
         List<GradeColumn> existing = gradeColumnRepository.findByClassroomIdOrderByOrderNumber(classroomId);
         int maxOrder = existing.stream().mapToInt(GradeColumn::getOrderNumber).max().orElse(0);
 
+        String name = request.getName().trim();
+        // Formulas refer to columns by name
+        if (existing.stream().anyMatch(c -> c.getName().trim().equalsIgnoreCase(name))) {
+            throw new RuntimeException("Lớp học đã có cột điểm tên \"" + name + "\"");
+        }
+
         GradeColumn col = new GradeColumn();
         col.setClassroom(classroom);
-        col.setName(request.getName().trim());
+        col.setName(name);
         col.setType(GradeType.valueOf(request.getType()));
         col.setOrderNumber(maxOrder + 1);
         col.setIsCustom(true);
-        GradeColumn saved = gradeColumnRepository.save(col);
+        if (request.getExamId() != null && request.getAssignmentId() != null) {
+            throw new RuntimeException("Cột điểm chỉ được liên kết với một bài kiểm tra hoặc một bài tập");
+        }
+        if (request.getFormula() != null && !request.getFormula().isBlank()) {
+            if (request.getExamId() != null || request.getAssignmentId() != null) {
+                throw new RuntimeException("Cột công thức không liên kết được với bài kiểm tra hoặc bài tập");
+            }
+            // Compiled now only to reject an invalid formula
+            GradeFormula.compile(request.getFormula(), formulaColumns(existing));
+            col.setFormula(request.getFormula().trim());
+        }
+        if (request.getExamId() != null) {
+            col.setSourceExam(examRepository.getReferenceById(request.getExamId()));
+        }
+        if (request.getAssignmentId() != null) {
+            col.setSourceAssignment(assignmentRepository.getReferenceById(request.getAssignmentId()));
+        }
+        GradeColumn saved = gradeColumnRepository.saveAndFlush(col);
+        formulaCache.evict(classroomId);
 
-        List<ClassStudent> classStudents = classStudentRepository.findActiveStudentsByClassroomId(classroomId);
-        List<StudentGrade> createdGrades = new ArrayList<>();
-        for (ClassStudent cs : classStudents) {
-            StudentGrade grade = new StudentGrade();
-            grade.setGradeColumn(saved);
-            grade.setStudent(cs.getStudent());
-            grade.setClassroom(classroom);
-            grade.setScore(null);
-            createdGrades.add(studentGradeRepository.save(grade));
+        // Auto-fill scores from the linked exam's or assignment's submissions;
+        // later submissions arrive through applyBestScores
+        SubmissionScoredEvent.Source source = request.getExamId() != null ? SubmissionScoredEvent.Source.EXAM
+            : request.getAssignmentId() != null ? SubmissionScoredEvent.Source.ASSIGNMENT : null;
+        if (source != null) {
+            Long sourceId = source == SubmissionScoredEvent.Source.EXAM ? request.getExamId() : request.getAssignmentId();
+            writeBestScores(source, sourceId, bestScores(source, sourceId), saved.getId(), false);
         }
+        return mapToColumnResponse(saved);
+    }
 
-        // Auto-fill scores from exam submissions if examId provided
-        if (request.getExamId() != null) {
-            List<ExamSubmission> submissions = examSubmissionRepository
-                .findAllByExam_IdOrderByCreatedAtDesc(request.getExamId());
-            // Take best score per student
-            Map<Long, Double> bestScores = new HashMap<>();
-            for (ExamSubmission sub : submissions) {
-                Long studentId = sub.getStudent().getId();
-                bestScores.merge(studentId, sub.getScore(), Math::max);
-            }
-            for (StudentGrade grade : createdGrades) {
-                Double best = bestScores.get(grade.getStudent().getId());
-                if (best != null) {
-                    grade.setScore(best);
-                    studentGradeRepository.save(grade);
-                }
+    /**
+     * Fills the empty cells of the grade columns linked to the exam with each
+     * student's best score. Scores already entered are left alone. Returns the
+     * number of cells filled.
+     */
+    @Transactional
+    public int syncExamColumns(Long examId) {
+        return writeBestScores(SubmissionScoredEvent.Source.EXAM, examId,
+            bestScores(SubmissionScoredEvent.Source.EXAM, examId), null, false);
+    }
+
+    /**
+     * Brings the grade columns linked to an exam or assignment up to the given
+     * best scores by student, coalesced from submissions since the last call.
+     * Empty cells are filled and lower scores raised in one batched upsert.
+     * Returns the number of cells written.
+     */
+    @Transactional
+    public int applyBestScores(SubmissionScoredEvent.Source source, Long sourceId, Map<Long, Double> bestScores) {
+        return writeBestScores(source, sourceId, bestScores, null, true);
+    }
+
+    // Writes the linked columns' cells, or only columnId's if given: empty
+    // cells, and with raise also cells holding a lower score
+    private int writeBestScores(SubmissionScoredEvent.Source source, Long sourceId, Map<Long, Double> bestScores,
+                                Long columnId, boolean raise) {
+        if (bestScores.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> linked = source == SubmissionScoredEvent.Source.EXAM
+            ? studentGradeRepository.findExamLinkedCells(sourceId, bestScores.keySet())
+            : studentGradeRepository.findAssignmentLinkedCells(sourceId, bestScores.keySet());
+        List<Object[]> cells = new ArrayList<>();
+        for (Object[] row : linked) {
+            Double current = (Double) row[3];
+            Double score = bestScores.get((Long) row[2]);
+            if (columnId != null && !columnId.equals(row[0])) continue;
+            if (current == null || (raise && score > current)) {
+                cells.add(new Object[]{row[0], row[1], row[2], score});
             }
         }
+        if (!cells.isEmpty()) {
+            Set<Long> classroomIds = cells.stream().map(c -> (Long) c[1]).collect(Collectors.toSet());
+            Map<Long, Long> versions = new HashMap<>(gradeBookCache.bump(classroomIds));
+            // Finalized gradebooks keep their snapshot; checked once their rows are locked
+            Set<Long> finalized = snapshots.finalizedAmong(classroomIds);
+            if (!finalized.isEmpty()) {
+                cells.removeIf(c -> finalized.contains((Long) c[1]));
+                classroomIds.removeAll(finalized);
+                versions.keySet().removeAll(finalized);
+            }
+            if (!cells.isEmpty()) {
+                insertCells(cells, versions, raise ? RAISE_SCORE : KEEP_SCORE);
+                changeLog.recordWritten(versions);
+                gradeSummaries.rebuild(classroomIds);
+            }
+        }
+        return cells.size();
+    }
 
-        return mapToColumnResponse(saved);
+    /**
+     * Moves the grade columns linked to a regraded exam to the new scores.
+     * {@code changes} holds (studentId, old score, new score); only cells still
+     * holding the old score are updated, scores entered by hand are kept.
+     * Returns the number of cells updated.
+     */
+    @Transactional
+    public int applyRegradedScores(Long examId, List<Object[]> changes) {
+        List<Long> classroomIds = jdbcTemplate.queryForList(
+            "SELECT DISTINCT c.classroom_id FROM grade_columns c JOIN classrooms cl ON cl.id = c.classroom_id " +
+            "WHERE c.source_exam_id = ? AND cl.gradebook_finalized_at IS NULL", Long.class, examId);
+        if (classroomIds.isEmpty()) {
+            return 0;
+        }
+        // Bumped first, so the updated cells can take the new versions
+        Map<Long, Long> versions = gradeBookCache.bump(classroomIds);
+        List<Object[]> args = new ArrayList<>(changes.size());
+        for (Object[] c : changes) {
+            args.add(new Object[]{c[2], examId, c[0], c[1]});
+        }
+        int updated = 0;
+        for (int[] batch : jdbcTemplate.batchUpdate("UPDATE student_grades g SET g.score = ?, " +
+                "g.version = (SELECT cl.gradebook_version FROM classrooms cl WHERE cl.id = g.classroom_id), " +
+                "g.updated_at = NOW(6) " +
+                "WHERE g.grade_column_id IN (SELECT c.id FROM grade_columns c WHERE c.source_exam_id = ?) " +
+                "AND g.student_id = ? AND g.score = ?", args, 500,
+                (ps, a) -> {
+                    ps.setDouble(1, (Double) a[0]);
+                    ps.setLong(2, (Long) a[1]);
+                    ps.setLong(3, (Long) a[2]);
+                    ps.setDouble(4, (Double) a[3]);
+                })) {
+            for (int n : batch) {
+                updated += Math.max(n, 0);
+            }
+        }
+        changeLog.recordWritten(versions);
+        if (updated > 0) {
+            gradeSummaries.rebuild(classroomIds);
+        }
+        return updated;
+    }
+
+    private Map<Long, Double> bestScores(SubmissionScoredEvent.Source source, Long sourceId) {
+        Map<Long, Double> bestScores = new HashMap<>();
+        for (Object[] row : source == SubmissionScoredEvent.Source.EXAM
+                ? examSubmissionRepository.findBestScoresByExamId(sourceId)
+                : assignmentSubmissionRepository.findBestScoresByAssignmentId(sourceId)) {
+            bestScores.put((Long) row[0], (Double) row[1]);
+        }
+        return bestScores;
     }
 
     @Transactional
@@ -130,72 +289,626 @@ public class GradeService {
         if (!Boolean.TRUE.equals(col.getIsCustom())) {
             throw new RuntimeException("Không thể xóa cột điểm mặc định");
         }
+        Long classroomId = col.getClassroom().getId();
+        List<GradeColumn> columns = gradeColumnRepository.findByClassroomIdOrderByOrderNumber(classroomId);
+        GradeFormula[] formulas = formulaCache.get(classroomId, formulaColumns(columns));
+        for (int i = 0; i < columns.size(); i++) {
+            if (formulas[i] != null && formulas[i].getReferences().contains(columnId)) {
+                throw new RuntimeException("Cột điểm đang được dùng trong công thức của cột \""
+                    + columns.get(i).getName() + "\"");
+            }
+        }
+        bumpForEdit(classroomId);
         studentGradeRepository.deleteByGradeColumn(col);
         gradeColumnRepository.delete(col);
+        gradeColumnRepository.flush();
+        formulaCache.evict(classroomId);
+        gradeSummaries.rebuild(List.of(classroomId));
     }
 
     @Transactional
     public GradeEntryResponse updateGrade(Long gradeId, UpdateGradeRequest request) {
-        StudentGrade grade = studentGradeRepository.findById(gradeId)
+        String error = scoreError(request.getScore());
+        if (error != null) {
+            throw new RuntimeException(error);
+        }
+        Long classroomId = studentGradeRepository.findClassroomIdById(gradeId)
+            .orElseThrow(() -> new RuntimeException("Grade entry not found"));
+        Classroom classroom = classroomRepository.findById(classroomId)
+            .orElseThrow(() -> new RuntimeException("Classroom not found"));
+        checkGradeBookOwner(classroom);
+        // Bumped before the cell is locked, like every grade writer, and the
+        // cell takes the new version
+        long version = bumpForEdit(classroomId);
+        // Locked, so the score replaced below is the one the summary holds
+        StudentGrade grade = studentGradeRepository.findByIdForUpdate(gradeId)
             .orElseThrow(() -> new RuntimeException("Grade entry not found"));
-        grade.setScore(request.getScore());
-        StudentGrade saved = studentGradeRepository.save(grade);
         GradeEntryResponse resp = new GradeEntryResponse();
+        resp.setColumnId(grade.getGradeColumn().getId());
+        if (request.getExpectedVersion() != null && grade.getVersion() > request.getExpectedVersion()) {
+            resp.setGradeId(grade.getId());
+            resp.setScore(grade.getScore());
+            resp.setVersion(grade.getVersion());
+            throw new GradeConflictException(CONFLICT_MESSAGE, resp);
+        }
+        gradeSummaries.delta()
+            .change(classroomId, grade.getStudent().getId(), grade.getGradeColumn().getType(),
+                grade.getScore(), request.getScore())
+            .apply();
+        resp.setVersion(version);
+        // Clearing a score empties the cell, which is not stored
+        if (request.getScore() == null) {
+            studentGradeRepository.delete(grade);
+            changeLog.recordCleared(classroomId, version,
+                List.<Object[]>of(new Object[]{grade.getGradeColumn().getId(), grade.getStudent().getId()}));
+            return resp;
+        }
+        grade.setScore(request.getScore());
+        grade.setVersion(version);
+        StudentGrade saved = studentGradeRepository.saveAndFlush(grade);
+        changeLog.recordWritten(Map.of(classroomId, version));
         resp.setGradeId(saved.getId());
-        resp.setColumnId(saved.getGradeColumn().getId());
         resp.setScore(saved.getScore());
         return resp;
     }
 
-    public GradeBookResponse getGradeBook(Long classroomId) {
+    /**
+     * Writes many cells of one classroom's gradebook at once, e.g. a column
+     * pasted from a spreadsheet. Cells are checked in memory against the
+     * classroom's columns, active students and existing cells, then written
+     * with one batched UPDATE for existing cells, one batched upsert for
+     * missing ones and one batched DELETE for cleared ones, plus one summary
+     * upsert per student touched. Invalid cells are reported in the results
+     * and not written.
+     */
+    @Transactional
+    public BulkGradeUpdateResponse bulkUpdateGrades(Long classroomId, BulkGradeUpdateRequest request) {
+        List<GradeCellRequest> cells = request.getCells() != null ? request.getCells() : List.of();
+        if (cells.size() > MAX_BULK_CELLS) {
+            throw new RuntimeException("Chỉ được cập nhật tối đa " + MAX_BULK_CELLS + " ô điểm mỗi lần");
+        }
         Classroom classroom = classroomRepository.findById(classroomId)
             .orElseThrow(() -> new RuntimeException("Classroom not found"));
+        checkGradeBookOwner(classroom);
+        // Bumped before the cells are locked, like every grade writer; the
+        // cells written take the new version
+        long version = bumpForEdit(classroomId);
+
+        Map<Long, GradeType> columnTypes = new HashMap<>();
+        Set<Long> formulaColumnIds = new HashSet<>();
+        for (GradeColumn col : gradeColumnRepository.findByClassroomIdOrderByOrderNumber(classroomId)) {
+            columnTypes.put(col.getId(), col.getType());
+            if (col.getFormula() != null) formulaColumnIds.add(col.getId());
+        }
+        Set<Long> studentIds = new HashSet<>(classStudentRepository.findActiveStudentIdsByClassroomId(classroomId));
+        // Locking read: the classroom's cells cannot change or appear until
+        // commit, so the old scores below are the ones the summaries hold
+        Map<Long, Map<Long, StudentGrade>> existing = new HashMap<>();
+        jdbcTemplate.query("SELECT id, student_id, grade_column_id, score, version FROM student_grades " +
+            "WHERE classroom_id = ? FOR UPDATE", rs -> {
+                StudentGrade sg = new StudentGrade();
+                sg.setId(rs.getLong(1));
+                sg.setScore(rs.getObject(4, Double.class));
+                sg.setVersion(rs.getLong(5));
+                existing.computeIfAbsent(rs.getLong(2), k -> new HashMap<>()).put(rs.getLong(3), sg);
+            }, classroomId);
+
+        List<GradeCellResult> results = new ArrayList<>(cells.size());
+        List<GradeCellResult> updates = new ArrayList<>();
+        List<GradeCellResult> inserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> cleared = new ArrayList<>();
+        Map<String, Long> lastChanges = null;
+        Set<String> seen = new HashSet<>();
+        GradeSummaries.Delta delta = gradeSummaries.delta();
+        for (GradeCellRequest cell : cells) {
+            GradeCellResult result = new GradeCellResult();
+            result.setStudentId(cell.getStudentId());
+            result.setColumnId(cell.getColumnId());
+            result.setScore(cell.getScore());
+            String error = formulaColumnIds.contains(cell.getColumnId())
+                ? "Cột công thức được tính tự động, không nhập điểm được"
+                : cellError(cell, columnTypes.keySet(), studentIds, seen);
+            StudentGrade current = error != null ? null
+                : existing.getOrDefault(cell.getStudentId(), Collections.emptyMap()).get(cell.getColumnId());
+            if (error == null && cell.getExpectedVersion() != null) {
+                // A missing cell may have been cleared since; the change log knows
+                long changedAt = current != null ? current.getVersion() : 0;
+                if (current == null) {
+                    if (lastChanges == null) {
+                        long oldest = cells.stream().map(GradeCellRequest::getExpectedVersion)
+                            .filter(Objects::nonNull).mapToLong(Long::longValue).min().orElse(0);
+                        lastChanges = changeLog.lastChanges(classroomId, oldest);
+                    }
+                    changedAt = lastChanges.getOrDefault(cell.getColumnId() + ":" + cell.getStudentId(), 0L);
+                }
+                if (changedAt > cell.getExpectedVersion()) {
+                    error = CONFLICT_MESSAGE;
+                    result.setConflict(true);
+                    result.setGradeId(current != null ? current.getId() : null);
+                    result.setScore(current != null ? current.getScore() : null);
+                    result.setVersion(changedAt);
+                }
+            }
+            if (error != null) {
+                result.setMessage(error);
+            } else {
+                result.setSuccess(true);
+                result.setVersion(version);
+                Long gradeId = current != null ? current.getId() : null;
+                delta.change(classroomId, cell.getStudentId(), columnTypes.get(cell.getColumnId()),
+                    current != null ? current.getScore() : null, cell.getScore());
+                if (cell.getScore() == null) {
+                    if (gradeId != null) {
+                        deletes.add(new Object[]{gradeId});
+                        cleared.add(new Object[]{cell.getColumnId(), cell.getStudentId()});
+                    }
+                } else if (gradeId != null) {
+                    result.setGradeId(gradeId);
+                    updates.add(result);
+                } else {
+                    inserts.add(result);
+                }
+            }
+            results.add(result);
+        }
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE student_grades SET score = ?, version = ?, updated_at = NOW(6) WHERE id = ?",
+                updates, 500, (ps, r) -> {
+                    ps.setDouble(1, r.getScore());
+                    ps.setLong(2, version);
+                    ps.setLong(3, r.getGradeId());
+                });
+        }
+        if (!inserts.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(inserts.size());
+            for (GradeCellResult r : inserts) {
+                rows.add(new Object[]{r.getColumnId(), classroomId, r.getStudentId(), r.getScore()});
+            }
+            long nextId = insertCells(rows, Map.of(classroomId, version), REPLACE_SCORE);
+            for (GradeCellResult r : inserts) {
+                r.setGradeId(nextId++);
+            }
+        }
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM student_grades WHERE id = ?", deletes);
+            changeLog.recordCleared(classroomId, version, cleared);
+        }
+        changeLog.recordWritten(Map.of(classroomId, version));
+        delta.apply();
+
+        BulkGradeUpdateResponse response = new BulkGradeUpdateResponse();
+        response.setFailed((int) results.stream().filter(r -> !r.isSuccess()).count());
+        response.setUpdated(results.size() - response.getFailed());
+        response.setResults(results);
+        return response;
+    }
+
+    /**
+     * Inserts cells, (columnId, classroomId, studentId, score) each, and
+     * returns the id of the first; ids follow in order. A cell that exists
+     * already is handled by {@code onDuplicate}: KEEP_SCORE, REPLACE_SCORE or
+     * RAISE_SCORE.
+     */
+    private long insertCells(List<Object[]> cells, Map<Long, Long> versions, String onDuplicate) {
+        long firstId = idAllocator.reserve("student_grades_seq", cells.size());
+        long[] nextId = {firstId};
+        jdbcTemplate.batchUpdate("INSERT INTO student_grades " +
+            "(id, grade_column_id, classroom_id, student_id, score, version, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, NOW(6)) ON DUPLICATE KEY UPDATE " + onDuplicate,
+            cells, 500, (ps, c) -> {
+                ps.setLong(1, nextId[0]++);
+                ps.setLong(2, (Long) c[0]);
+                ps.setLong(3, (Long) c[1]);
+                ps.setLong(4, (Long) c[2]);
+                ps.setDouble(5, (Double) c[3]);
+                ps.setLong(6, versions.get((Long) c[1]));
+            });
+        return firstId;
+    }
+
+    private static String cellError(GradeCellRequest cell, Set<Long> columnIds, Set<Long> studentIds, Set<String> seen) {
+        if (cell.getStudentId() == null || cell.getColumnId() == null) {
+            return "Thiếu học sinh hoặc cột điểm";
+        }
+        if (!columnIds.contains(cell.getColumnId())) {
+            return "Cột điểm không thuộc lớp học";
+        }
+        if (!studentIds.contains(cell.getStudentId())) {
+            return "Học sinh không thuộc lớp học";
+        }
+        if (!seen.add(cell.getStudentId() + ":" + cell.getColumnId())) {
+            return "Ô điểm bị trùng trong yêu cầu";
+        }
+        return scoreError(cell.getScore());
+    }
+
+    // Null when the score can be stored; an empty cell clears the score
+    private static String scoreError(Double score) {
+        if (score != null && (score.isNaN() || score < 0 || score > 10)) {
+            return "Điểm phải nằm trong khoảng từ 0 đến 10";
+        }
+        return null;
+    }
+
+    private void checkGradeBookOwner(Classroom classroom) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Account currentUser = accountRepository.findByUsername(username)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        if (currentUser.getRole() != Role.ADMIN && !classroom.getTeacher().getId().equals(currentUser.getId())) {
+            throw new RuntimeException("Bạn không có quyền sửa bảng điểm của lớp này");
+        }
+    }
+
+    // Bumps the gradebook version ahead of an edit. The bump locks the
+    // classroom row, so a finalize committed before it is seen here and one
+    // started after it waits for the edit.
+    private long bumpForEdit(Long classroomId) {
+        Long version = gradeBookCache.bump(List.of(classroomId)).get(classroomId);
+        if (version == null) {
+            throw new RuntimeException("Classroom not found");
+        }
+        if (!snapshots.finalizedAmong(List.of(classroomId)).isEmpty()) {
+            throw new RuntimeException(FINALIZED_MESSAGE);
+        }
+        return version;
+    }
+
+    /**
+     * Finalizes the classroom's gradebook at the end of the term. The
+     * gradebook is stored as a compressed snapshot, averages and statistics
+     * included, and its cells leave student_grades; reads are served from the
+     * snapshot and edits are refused until {@link #reopenGradeBook} is called.
+     */
+    @Transactional
+    public GradeBookResponse finalizeGradeBook(Long classroomId) {
+        // Bumped before any read, so the reads below see every grade write
+        // committed before the lock and none can follow until commit
+        long version = bumpForEdit(classroomId);
+        Classroom classroom = classroomRepository.findById(classroomId)
+            .orElseThrow(() -> new RuntimeException("Classroom not found"));
+        checkGradeBookOwner(classroom);
+        Account currentUser = accountRepository.findByUsername(
+                SecurityContextHolder.getContext().getAuthentication().getName())
+            .orElseThrow(() -> new RuntimeException("User not found"));
+
+        GradeBookResponse gradeBook = getGradeBook(classroomId);
+        gradeBook.setVersion(version);
+        gradeBook.setFinalizedAt(LocalDateTime.now());
+        List<Object[]> cells = jdbcTemplate.query("SELECT id, grade_column_id, student_id, score FROM student_grades " +
+            "WHERE classroom_id = ?", (rs, i) -> new Object[]{rs.getLong(1), rs.getLong(2), rs.getLong(3),
+                rs.getObject(4, Double.class)}, classroomId);
+        snapshots.save(classroomId, gradeBook, currentUser.getId(), cells);
+        jdbcTemplate.update("DELETE FROM student_grades WHERE classroom_id = ?", classroomId);
+        changeLog.clear(classroomId);
+        return gradeBook;
+    }
+
+    /**
+     * Reopens a finalized gradebook for edits: its cells are put back, with
+     * their ids, and the snapshot is dropped. The summaries, kept while
+     * finalized, are recomputed from the restored cells.
+     */
+    @Transactional
+    public GradeBookResponse reopenGradeBook(Long classroomId) {
+        Long version = gradeBookCache.bump(List.of(classroomId)).get(classroomId);
+        Classroom classroom = classroomRepository.findById(classroomId)
+            .orElseThrow(() -> new RuntimeException("Classroom not found"));
+        checkGradeBookOwner(classroom);
+        if (snapshots.finalizedAmong(List.of(classroomId)).isEmpty()) {
+            throw new RuntimeException("Bảng điểm chưa được chốt");
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO student_grades " +
+            "(id, grade_column_id, classroom_id, student_id, score, version, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, NOW(6))", snapshots.cells(classroomId), 500, (ps, c) -> {
+                ps.setLong(1, (Long) c[0]);
+                ps.setLong(2, (Long) c[1]);
+                ps.setLong(3, classroomId);
+                ps.setLong(4, (Long) c[2]);
+                ps.setObject(5, c[3]);
+                ps.setLong(6, version);
+            });
+        snapshots.delete(classroomId);
+        gradeSummaries.rebuild(List.of(classroomId));
+        GradeBookResponse gradeBook = getGradeBook(classroomId);
+        gradeBook.setVersion(version);
+        return gradeBook;
+    }
+
+    /** Recomputes the semester-average totals of a classroom from its cells. */
+    @Transactional
+    public void rebuildSummaries(Long classroomId) {
+        Classroom classroom = classroomRepository.findById(classroomId)
+            .orElseThrow(() -> new RuntimeException("Classroom not found"));
+        checkGradeBookOwner(classroom);
+        bumpForEdit(classroomId);
+        gradeSummaries.rebuild(List.of(classroomId));
+    }
+
+    /** Recomputes the semester-average totals of every classroom. */
+    @Transactional
+    public void rebuildAllSummaries() {
+        gradeSummaries.rebuild(null);
+        gradeBookCache.bump(null);
+    }
+
+    /** The gradebook response, served from the cache while the gradebook version is unchanged. */
+    public GradeBookCache.Entry getGradeBookResponse(Long classroomId) {
+        return gradeBookCache.get(classroomId, "full", version -> {
+            // A finalized gradebook is served as stored
+            Optional<GradeBookSnapshots.Snapshot> snapshot = snapshots.find(classroomId);
+            if (snapshot.isPresent()) {
+                return new ApiResponse<>(true, "Lấy bảng điểm thành công", new RawValue(snapshot.get().gradeBook()));
+            }
+            GradeBookResponse gradeBook = getGradeBook(classroomId);
+            gradeBook.setVersion(version);
+            return new ApiResponse<>(true, "Lấy bảng điểm thành công", gradeBook);
+        });
+    }
+
+    /** The gradebook matrix response, cached like {@link #getGradeBookResponse}. */
+    public GradeBookCache.Entry getGradeBookMatrixResponse(Long classroomId) {
+        return gradeBookCache.get(classroomId, "matrix", version -> {
+            GradeBookMatrixResponse matrix = getGradeBookMatrix(classroomId);
+            matrix.setVersion(version);
+            return new ApiResponse<>(true, "Lấy bảng điểm thành công", matrix);
+        });
+    }
+
+    /** The current student's gradebook response, cached like {@link #getGradeBookResponse}. */
+    public GradeBookCache.Entry getMyGradeBookResponse(Long classroomId) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return gradeBookCache.get(classroomId, "student:" + username, version -> {
+            GradeBookResponse gradeBook = getMyGradeBook(classroomId);
+            gradeBook.setVersion(version);
+            return new ApiResponse<>(true, "Lấy bảng điểm thành công", gradeBook);
+        });
+    }
+
+    /**
+     * The changes to a gradebook since the version {@code since} a client
+     * holds, read from the change log: the latest value of each cell written
+     * or cleared since, the formula cells and totals of the students
+     * concerned, and the class statistics. Versions missing from the log
+     * (columns or roster changed, entries pruned) or a client too far behind
+     * give {@code full}, and the client reloads the gradebook.
+     */
+    @Transactional(readOnly = true)
+    public GradeBookDeltaResponse getGradeBookChanges(Long classroomId, long since) {
+        long version = gradeBookCache.currentVersion(classroomId);
+        GradeBookDeltaResponse delta = new GradeBookDeltaResponse();
+        delta.setClassroomId(classroomId);
+        delta.setVersion(version);
+        delta.setCells(new ArrayList<>());
+        delta.setStudents(new ArrayList<>());
+        if (since == version) {
+            return delta;
+        }
+        // A finalized gradebook does not change after its snapshot
+        Long finalizedVersion = snapshots.finalizedVersion(classroomId).orElse(null);
+        if (finalizedVersion != null) {
+            delta.setFull(since < finalizedVersion);
+            return delta;
+        }
+        if (since > version || version - since > MAX_DELTA_VERSIONS) {
+            delta.setFull(true);
+            return delta;
+        }
+
+        // The latest change of each cell, in write order
+        Set<Long> logged = new HashSet<>();
+        Map<String, Object[]> latest = new LinkedHashMap<>();
+        for (Object[] change : changeLog.since(classroomId, since, version)) {
+            logged.add((Long) change[0]);
+            if (change[1] == null) continue;
+            String key = change[1] + ":" + change[2];
+            latest.remove(key);
+            latest.put(key, change);
+        }
+        if (logged.size() < version - since) {
+            delta.setFull(true);
+            return delta;
+        }
 
         List<GradeColumn> columns = gradeColumnRepository.findByClassroomIdOrderByOrderNumber(classroomId);
-        List<ClassStudent> classStudents = classStudentRepository.findActiveStudentsByClassroomId(classroomId);
+        int columnCount = columns.size();
+        LongIntHashMap columnOrdinals = new LongIntHashMap(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            columnOrdinals.put(columns.get(c).getId(), c);
+        }
+        List<Long> studentIds = latest.values().stream()
+            .map(change -> (Long) change[2]).distinct().collect(Collectors.toList());
+        LongIntHashMap rowOrdinals = new LongIntHashMap(studentIds.size());
+        for (int r = 0; r < studentIds.size(); r++) {
+            rowOrdinals.put(studentIds.get(r), r);
+        }
 
-        Map<Long, Map<Long, StudentGrade>> gradeMap = new HashMap<>();
-        for (StudentGrade sg : studentGradeRepository.findByClassroomId(classroomId)) {
-            gradeMap
-                .computeIfAbsent(sg.getStudent().getId(), k -> new HashMap<>())
-                .put(sg.getGradeColumn().getId(), sg);
+        // The current cells of the students concerned, for grade ids and formulas
+        double[] scores = new double[studentIds.size() * columnCount];
+        long[] gradeIds = new long[scores.length];
+        Arrays.fill(scores, Double.NaN);
+        if (!studentIds.isEmpty()) {
+            List<Object> args = new ArrayList<>(studentIds);
+            args.add(0, classroomId);
+            jdbcTemplate.query("SELECT student_id, grade_column_id, id, score FROM student_grades " +
+                    "WHERE classroom_id = ? AND student_id IN (" +
+                    String.join(",", Collections.nCopies(studentIds.size(), "?")) + ")", rs -> {
+                int r = rowOrdinals.get(rs.getLong(1), -1);
+                int c = columnOrdinals.get(rs.getLong(2), -1);
+                if (r < 0 || c < 0) return;
+                gradeIds[r * columnCount + c] = rs.getLong(3);
+                double score = rs.getDouble(4);
+                if (!rs.wasNull()) scores[r * columnCount + c] = score;
+            }, args.toArray());
+        }
+        for (Object[] change : latest.values()) {
+            int r = rowOrdinals.get((Long) change[2], -1);
+            int c = columnOrdinals.get((Long) change[1], -1);
+            if (c < 0) continue;
+            long gradeId = gradeIds[r * columnCount + c];
+            delta.getCells().add(cellChange((Long) change[2], (Long) change[1], gradeId == 0 ? null : gradeId,
+                (Double) change[3], (Long) change[0]));
+        }
+        evaluateFormulas(classroomId, columns, scores, studentIds.size());
+        for (int c = 0; c < columnCount; c++) {
+            if (columns.get(c).getFormula() == null) continue;
+            for (int r = 0; r < studentIds.size(); r++) {
+                double score = scores[r * columnCount + c];
+                delta.getCells().add(cellChange(studentIds.get(r), columns.get(c).getId(), null,
+                    Double.isNaN(score) ? null : score, version));
+            }
         }
 
-        List<GradeColumnResponse> columnResponses = columns.stream()
-            .map(this::mapToColumnResponse)
-            .collect(Collectors.toList());
+        // Totals of the students concerned, and the statistics over every active student
+        List<Double> averages = new ArrayList<>();
+        jdbcTemplate.query("SELECT cs.student_id, s.weighted_sum, s.weight_total FROM class_students cs " +
+                "LEFT JOIN student_grade_summaries s ON s.classroom_id = cs.classroom_id " +
+                "AND s.student_id = cs.student_id AND s.weight_total > 0 " +
+                "WHERE cs.classroom_id = ? AND cs.is_active = true", rs -> {
+            long studentId = rs.getLong(1);
+            double weightedSum = rs.getDouble(2);
+            boolean graded = !rs.wasNull();
+            int weightTotal = rs.getInt(3);
+            double average = graded ? GradeSummaries.average(weightedSum, weightTotal) : Double.NaN;
+            averages.add(average);
+            if (rowOrdinals.get(studentId, -1) < 0) return;
+            StudentGradeRowResponse student = new StudentGradeRowResponse();
+            student.setStudentId(studentId);
+            if (graded) {
+                student.setWeightedSum(weightedSum);
+                student.setWeightTotal(weightTotal);
+                student.setAverage(average);
+            }
+            delta.getStudents().add(student);
+        }, classroomId);
+        delta.setStats(stats(averages.stream().mapToDouble(Double::doubleValue).toArray()));
+        return delta;
+    }
 
-        List<StudentGradeRowResponse> rows = classStudents.stream().map(cs -> {
-            Account student = cs.getStudent();
-            Map<Long, StudentGrade> studentGrades = gradeMap.getOrDefault(student.getId(), Collections.emptyMap());
+    private static GradeCellChangeResponse cellChange(Long studentId, Long columnId, Long gradeId,
+                                                      Double score, long version) {
+        GradeCellChangeResponse cell = new GradeCellChangeResponse();
+        cell.setStudentId(studentId);
+        cell.setColumnId(columnId);
+        cell.setGradeId(gradeId);
+        cell.setScore(score);
+        cell.setVersion(version);
+        return cell;
+    }
 
-            List<GradeEntryResponse> entries = columns.stream().map(col -> {
-                GradeEntryResponse entry = new GradeEntryResponse();
-                entry.setColumnId(col.getId());
-                StudentGrade sg = studentGrades.get(col.getId());
-                if (sg != null) {
-                    entry.setGradeId(sg.getId());
-                    entry.setScore(sg.getScore());
-                }
-                return entry;
-            }).collect(Collectors.toList());
+    public GradeBookResponse getGradeBook(Long classroomId) {
+        GradeBookMatrixResponse matrix = getGradeBookMatrix(classroomId);
+        List<GradeColumnResponse> columns = matrix.getColumns();
 
+        List<StudentGradeRowResponse> rows = new ArrayList<>(matrix.getRowCount());
+        for (int r = 0; r < matrix.getRowCount(); r++) {
+            List<GradeEntryResponse> entries = new ArrayList<>(columns.size());
+            for (int c = 0; c < columns.size(); c++) {
+                GradeEntryResponse entry = new GradeEntryResponse();
+                entry.setColumnId(columns.get(c).getId());
+                entry.setGradeId(matrix.getGradeId(r, c));
+                entry.setScore(matrix.getScore(r, c));
+                entries.add(entry);
+            }
             StudentGradeRowResponse row = new StudentGradeRowResponse();
-            row.setStudentId(student.getId());
-            row.setStudentName(student.getFullName());
-            row.setUsername(student.getUsername());
+            row.setStudentId(matrix.getStudentId(r));
+            row.setStudentName(matrix.getStudentName(r));
+            row.setUsername(matrix.getUsername(r));
             row.setGrades(entries);
-            return row;
-        }).collect(Collectors.toList());
+            row.setWeightedSum(matrix.getWeightedSum(r));
+            row.setWeightTotal(matrix.getWeightTotal(r));
+            row.setAverage(matrix.getAverage(r));
+            rows.add(row);
+        }
 
         GradeBookResponse response = new GradeBookResponse();
         response.setClassroomId(classroomId);
-        response.setClassroomName(classroom.getName());
-        response.setColumns(columnResponses);
+        response.setClassroomName(matrix.getClassroomName());
+        response.setFinalizedAt(matrix.getFinalizedAt());
+        response.setColumns(columns);
         response.setRows(rows);
+        response.setStats(matrix.getStats());
         return response;
     }
 
+    /**
+     * The gradebook assembled into dense arrays indexed by row (student) and
+     * column ordinal. Cells and totals are read as plain JDBC rows straight
+     * into the arrays, with primitive id-to-ordinal maps, so no entity or
+     * per-cell object is created.
+     */
+    public GradeBookMatrixResponse getGradeBookMatrix(Long classroomId) {
+        Classroom classroom = classroomRepository.findById(classroomId)
+            .orElseThrow(() -> new RuntimeException("Classroom not found"));
+        Optional<GradeBookSnapshots.Snapshot> snapshot = snapshots.find(classroomId);
+        if (snapshot.isPresent()) {
+            return matrixOf(snapshots.read(snapshot.get()));
+        }
+
+        List<GradeColumn> gradeColumns = gradeColumnRepository.findByClassroomIdOrderByOrderNumber(classroomId);
+        List<GradeColumnResponse> columns = gradeColumns.stream()
+            .map(this::mapToColumnResponse)
+            .collect(Collectors.toList());
+        LongIntHashMap columnOrdinals = new LongIntHashMap(columns.size());
+        for (int c = 0; c < columns.size(); c++) {
+            columnOrdinals.put(columns.get(c).getId(), c);
+        }
+
+        List<Long> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<String> usernames = new ArrayList<>();
+        jdbcTemplate.query("SELECT a.id, a.full_name, a.username FROM class_students cs " +
+                "JOIN accounts a ON a.id = cs.student_id WHERE cs.classroom_id = ? AND cs.is_active = true " +
+                "ORDER BY a.full_name, a.id", rs -> {
+            ids.add(rs.getLong(1));
+            names.add(rs.getString(2));
+            usernames.add(rs.getString(3));
+        }, classroomId);
+        int rowCount = ids.size();
+        long[] studentIds = new long[rowCount];
+        LongIntHashMap rowOrdinals = new LongIntHashMap(rowCount);
+        for (int r = 0; r < rowCount; r++) {
+            studentIds[r] = ids.get(r);
+            rowOrdinals.put(studentIds[r], r);
+        }
+
+        int columnCount = columns.size();
+        double[] scores = new double[rowCount * columnCount];
+        long[] gradeIds = new long[rowCount * columnCount];
+        Arrays.fill(scores, Double.NaN);
+        jdbcTemplate.query("SELECT student_id, grade_column_id, id, score FROM student_grades WHERE classroom_id = ?",
+            rs -> {
+                int r = rowOrdinals.get(rs.getLong(1), -1);
+                int c = columnOrdinals.get(rs.getLong(2), -1);
+                if (r < 0 || c < 0) return;
+                gradeIds[r * columnCount + c] = rs.getLong(3);
+                double score = rs.getDouble(4);
+                if (!rs.wasNull()) scores[r * columnCount + c] = score;
+            }, classroomId);
+        evaluateFormulas(classroomId, gradeColumns, scores, rowCount);
+
+        double[] weightedSums = new double[rowCount];
+        int[] weightTotals = new int[rowCount];
+        double[] averages = new double[rowCount];
+        Arrays.fill(weightedSums, Double.NaN);
+        Arrays.fill(averages, Double.NaN);
+        jdbcTemplate.query("SELECT student_id, weighted_sum, weight_total FROM student_grade_summaries " +
+                "WHERE classroom_id = ? AND weight_total > 0", rs -> {
+            int r = rowOrdinals.get(rs.getLong(1), -1);
+            if (r < 0) return;
+            weightedSums[r] = rs.getDouble(2);
+            weightTotals[r] = rs.getInt(3);
+            averages[r] = GradeSummaries.average(weightedSums[r], weightTotals[r]);
+        }, classroomId);
+
+        GradeBookMatrixResponse matrix = new GradeBookMatrixResponse(classroomId, classroom.getName(), columns,
+            studentIds, names.toArray(new String[0]), usernames.toArray(new String[0]),
+            scores, gradeIds, weightedSums, weightTotals, averages);
+        matrix.setStats(stats(averages));
+        return matrix;
+    }
+
     public GradeBookResponse getMyGradeBook(Long classroomId) {
         Classroom classroom = classroomRepository.findById(classroomId)
             .orElseThrow(() -> new RuntimeException("Classroom not found"));
@@ -204,6 +917,17 @@ public class GradeService {
         Account student = accountRepository.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("User not found"));
 
+        Optional<GradeBookSnapshots.Snapshot> snapshot = snapshots.find(classroomId);
+        if (snapshot.isPresent()) {
+            // The student's row of the finalized gradebook, without the class statistics
+            GradeBookResponse response = snapshots.read(snapshot.get());
+            response.setRows(response.getRows().stream()
+                .filter(row -> row.getStudentId().equals(student.getId()))
+                .collect(Collectors.toList()));
+            response.setStats(null);
+            return response;
+        }
+
         List<GradeColumn> columns = gradeColumnRepository.findByClassroomIdOrderByOrderNumber(classroomId);
         List<StudentGrade> myGrades = studentGradeRepository.findByClassroomIdAndStudentId(classroomId, student.getId());
         Map<Long, StudentGrade> gradeByColumnId = myGrades.stream()
@@ -213,22 +937,33 @@ public class GradeService {
             .map(this::mapToColumnResponse)
             .collect(Collectors.toList());
 
-        List<GradeEntryResponse> entries = columns.stream().map(col -> {
+        // The student's row as a one-row matrix, for the formula columns
+        double[] scores = new double[columns.size()];
+        for (int c = 0; c < columns.size(); c++) {
+            StudentGrade sg = gradeByColumnId.get(columns.get(c).getId());
+            scores[c] = sg != null && sg.getScore() != null ? sg.getScore() : Double.NaN;
+        }
+        evaluateFormulas(classroomId, columns, scores, 1);
+
+        List<GradeEntryResponse> entries = new ArrayList<>(columns.size());
+        for (int c = 0; c < columns.size(); c++) {
             GradeEntryResponse entry = new GradeEntryResponse();
-            entry.setColumnId(col.getId());
-            StudentGrade sg = gradeByColumnId.get(col.getId());
+            entry.setColumnId(columns.get(c).getId());
+            StudentGrade sg = gradeByColumnId.get(columns.get(c).getId());
             if (sg != null) {
                 entry.setGradeId(sg.getId());
-                entry.setScore(sg.getScore());
             }
-            return entry;
-        }).collect(Collectors.toList());
+            entry.setScore(Double.isNaN(scores[c]) ? null : scores[c]);
+            entries.add(entry);
+        }
 
         StudentGradeRowResponse row = new StudentGradeRowResponse();
         row.setStudentId(student.getId());
         row.setStudentName(student.getFullName());
         row.setUsername(student.getUsername());
         row.setGrades(entries);
+        setSummary(row, studentGradeSummaryRepository.findByClassroomIdAndStudentId(classroomId, student.getId())
+            .orElse(null));
 
         GradeBookResponse response = new GradeBookResponse();
         response.setClassroomId(classroomId);
@@ -238,6 +973,72 @@ public class GradeService {
         return response;
     }
 
+    // The matrix of a finalized gradebook, from its snapshot
+    private static GradeBookMatrixResponse matrixOf(GradeBookResponse gradeBook) {
+        List<GradeColumnResponse> columns = gradeBook.getColumns();
+        int columnCount = columns.size();
+        LongIntHashMap columnOrdinals = new LongIntHashMap(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            columnOrdinals.put(columns.get(c).getId(), c);
+        }
+        List<StudentGradeRowResponse> rows = gradeBook.getRows();
+        int rowCount = rows.size();
+        long[] studentIds = new long[rowCount];
+        String[] names = new String[rowCount];
+        String[] usernames = new String[rowCount];
+        double[] scores = new double[rowCount * columnCount];
+        long[] gradeIds = new long[rowCount * columnCount];
+        double[] weightedSums = new double[rowCount];
+        int[] weightTotals = new int[rowCount];
+        double[] averages = new double[rowCount];
+        Arrays.fill(scores, Double.NaN);
+        Arrays.fill(weightedSums, Double.NaN);
+        Arrays.fill(averages, Double.NaN);
+        for (int r = 0; r < rowCount; r++) {
+            StudentGradeRowResponse row = rows.get(r);
+            studentIds[r] = row.getStudentId();
+            names[r] = row.getStudentName();
+            usernames[r] = row.getUsername();
+            for (GradeEntryResponse entry : row.getGrades()) {
+                int c = columnOrdinals.get(entry.getColumnId(), -1);
+                if (c < 0) continue;
+                if (entry.getGradeId() != null) gradeIds[r * columnCount + c] = entry.getGradeId();
+                if (entry.getScore() != null) scores[r * columnCount + c] = entry.getScore();
+            }
+            if (row.getWeightedSum() != null) {
+                weightedSums[r] = row.getWeightedSum();
+                weightTotals[r] = row.getWeightTotal();
+                averages[r] = row.getAverage();
+            }
+        }
+        GradeBookMatrixResponse matrix = new GradeBookMatrixResponse(gradeBook.getClassroomId(),
+            gradeBook.getClassroomName(), columns, studentIds, names, usernames,
+            scores, gradeIds, weightedSums, weightTotals, averages);
+        matrix.setStats(gradeBook.getStats());
+        matrix.setVersion(gradeBook.getVersion());
+        matrix.setFinalizedAt(gradeBook.getFinalizedAt());
+        return matrix;
+    }
+
+    // Fills the formula columns of a row-major scores matrix over the columns
+    private void evaluateFormulas(Long classroomId, List<GradeColumn> columns, double[] scores, int rows) {
+        if (columns.stream().noneMatch(col -> col.getFormula() != null)) {
+            return;
+        }
+        GradeFormula[] formulas = formulaCache.get(classroomId, formulaColumns(columns));
+        for (int c = 0; c < formulas.length; c++) {
+            if (formulas[c] != null) {
+                formulas[c].evaluate(scores, rows, columns.size(), c);
+            }
+        }
+    }
+
+    private static List<GradeFormula.Column> formulaColumns(List<GradeColumn> columns) {
+        return columns.stream()
+            .map(GradeFormula.Column::of)
+            .collect(Collectors.toList());
+    }
+
     private GradeColumnResponse mapToColumnResponse(GradeColumn col) {
         GradeColumnResponse r = new GradeColumnResponse();
         r.setId(col.getId());
@@ -245,6 +1046,41 @@ public class GradeService {
         r.setType(col.getType().name());
         r.setOrderNumber(col.getOrderNumber());
         r.setIsCustom(col.getIsCustom());
+        r.setCoefficient(col.getType().getCoefficient());
+        r.setExamId(col.getSourceExam() != null ? col.getSourceExam().getId() : null);
+        r.setAssignmentId(col.getSourceAssignment() != null ? col.getSourceAssignment().getId() : null);
+        r.setFormula(col.getFormula());
         return r;
     }
+
+    private static void setSummary(StudentGradeRowResponse row, StudentGradeSummary summary) {
+        if (summary != null && summary.getWeightTotal() > 0) {
+            row.setWeightedSum(summary.getWeightedSum());
+            row.setWeightTotal(summary.getWeightTotal());
+            row.setAverage(GradeSummaries.average(summary.getWeightedSum(), summary.getWeightTotal()));
+        }
+    }
+
+    // Class statistics over the students' stored averages (NaN when none); nothing is recomputed from cells
+    private static GradeBookStatsResponse stats(double[] averages) {
+        GradeBookStatsResponse stats = new GradeBookStatsResponse();
+        stats.setStudentCount(averages.length);
+        double sum = 0;
+        for (double avg : averages) {
+            if (Double.isNaN(avg)) continue;
+            stats.setGradedCount(stats.getGradedCount() + 1);
+            sum += avg;
+            if (stats.getHighest() == null || avg > stats.getHighest()) stats.setHighest(avg);
+            if (stats.getLowest() == null || avg < stats.getLowest()) stats.setLowest(avg);
+            if (avg >= 8.0) stats.setExcellentCount(stats.getExcellentCount() + 1);
+            else if (avg >= 6.5) stats.setGoodCount(stats.getGoodCount() + 1);
+            else if (avg >= 5.0) stats.setAverageCount(stats.getAverageCount() + 1);
+            else if (avg >= 3.5) stats.setWeakCount(stats.getWeakCount() + 1);
+            else stats.setPoorCount(stats.getPoorCount() + 1);
+        }
+        if (stats.getGradedCount() > 0) {
+            stats.setClassAverage(Math.round(sum / stats.getGradedCount() * 100) / 100.0);
+        }
+        return stats;
+    }
 }
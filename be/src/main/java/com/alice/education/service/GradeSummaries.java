@@ -0,0 +1,121 @@
+package com.alice.education.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.alice.education.model.GradeType;
+
+/**
+ * Maintains {@code student_grade_summaries}, the per-student running totals
+ * behind the semester average: weighted_sum = sum(score * coefficient) and
+ * weight_total = sum(coefficient) over the student's scored cells.
+ *
+ * Grade writes that know each cell's old and new score add their deltas,
+ * which costs one upsert per student whatever the number of columns. Batch
+ * writes that only know the cells they matched (exam fills, regrades, column
+ * deletes) rebuild the affected classrooms from their cells instead.
+ */
+@Component
+public class GradeSummaries {
+
+    // Resets the sum when the last score goes, so float residue does not linger
+    private static final String ADD =
+            "INSERT INTO student_grade_summaries (classroom_id, student_id, weighted_sum, weight_total) " +
+            "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+            "weighted_sum = CASE WHEN weight_total + VALUES(weight_total) = 0 THEN 0 " +
+            "ELSE weighted_sum + VALUES(weighted_sum) END, " +
+            "weight_total = weight_total + VALUES(weight_total)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Collects the deltas of cell writes and applies them per student. */
+    public class Delta {
+
+        private final Map<List<Long>, double[]> byStudent = new HashMap<>();
+
+        private Delta() {}
+
+        /** Records one cell of the given type going from {@code before} to {@code after}. */
+        public Delta change(Long classroomId, Long studentId, GradeType type, Double before, Double after) {
+            int coefficient = type.getCoefficient();
+            double[] d = byStudent.computeIfAbsent(List.of(classroomId, studentId), k -> new double[2]);
+            if (before != null) {
+                d[0] -= before * coefficient;
+                d[1] -= coefficient;
+            }
+            if (after != null) {
+                d[0] += after * coefficient;
+                d[1] += coefficient;
+            }
+            return this;
+        }
+
+        public void apply() {
+            List<Object[]> args = new ArrayList<>(byStudent.size());
+            byStudent.forEach((key, d) -> {
+                if (d[0] != 0 || d[1] != 0) {
+                    args.add(new Object[]{key.get(0), key.get(1), d[0], (int) d[1]});
+                }
+            });
+            if (!args.isEmpty()) {
+                jdbcTemplate.batchUpdate(ADD, args);
+            }
+        }
+    }
+
+    public Delta delta() {
+        return new Delta();
+    }
+
+    /**
+     * Recomputes the totals of the given classrooms, or of all classrooms if
+     * null, from their cells. Finalized gradebooks have no cells and keep
+     * their totals.
+     */
+    public void rebuild(Collection<Long> classroomIds) {
+        if (classroomIds != null && classroomIds.isEmpty()) {
+            return;
+        }
+        String unfinalized = " NOT IN (SELECT id FROM classrooms WHERE gradebook_finalized_at IS NOT NULL)";
+        String filter = "";
+        Object[] args = new Object[0];
+        if (classroomIds != null) {
+            filter = " AND %s IN (" + String.join(",", Collections.nCopies(classroomIds.size(), "?")) + ")";
+            args = classroomIds.toArray();
+        }
+        jdbcTemplate.update("DELETE FROM student_grade_summaries WHERE classroom_id" + unfinalized +
+                filter.formatted("classroom_id"), args);
+        String coefficient = coefficientSql("c.type");
+        jdbcTemplate.update("INSERT INTO student_grade_summaries (classroom_id, student_id, weighted_sum, weight_total) " +
+                "SELECT g.classroom_id, g.student_id, SUM(g.score * " + coefficient + "), SUM(" + coefficient + ") " +
+                "FROM student_grades g JOIN grade_columns c ON c.id = g.grade_column_id " +
+                "WHERE g.score IS NOT NULL AND g.classroom_id" + unfinalized + filter.formatted("g.classroom_id") +
+                " GROUP BY g.classroom_id, g.student_id", args);
+    }
+
+    /** The semester average, rounded to one decimal as on report cards; null before any score. */
+    public static Double average(Double weightedSum, Integer weightTotal) {
+        if (weightedSum == null || weightTotal == null || weightTotal <= 0) {
+            return null;
+        }
+        return Math.round(weightedSum / weightTotal * 10) / 10.0;
+    }
+
+    // CASE expression mapping a grade_columns.type column to its coefficient
+    private static String coefficientSql(String column) {
+        StringBuilder sb = new StringBuilder("CASE ").append(column);
+        for (GradeType type : GradeType.values()) {
+            sb.append(" WHEN '").append(type.name()).append("' THEN ").append(type.getCoefficient());
+        }
+        return sb.append(" ELSE 0 END").toString();
+    }
+}
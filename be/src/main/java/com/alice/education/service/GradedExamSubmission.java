@@ -0,0 +1,28 @@
+package com.alice.education.service;
+
+/**
+ * An exam submission that has been graded against the compiled answer key but
+ * not persisted yet. The answer arrays are parallel and hold one entry per
+ * answered question. This record is also the write-ahead log format.
+ *
+ * {@code submissionId} is the id of the already inserted submission row, or 0
+ * when the row itself still has to be written (log records from older versions).
+ */
+public record GradedExamSubmission(
+        long submissionId,
+        long examId,
+        long studentId,
+        long submittedAtMillis,
+        int correctCount,
+        int totalCount,
+        double score,
+        long[] questionIds,
+        String[] selectedAnswers,
+        boolean[] correct
+) {
+
+    public GradedExamSubmission withSubmissionId(long id) {
+        return new GradedExamSubmission(id, examId, studentId, submittedAtMillis, correctCount, totalCount,
+                score, questionIds, selectedAnswers, correct);
+    }
+}
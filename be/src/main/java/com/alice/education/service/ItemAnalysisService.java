@@ -0,0 +1,236 @@
+package com.alice.education.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.alice.education.dto.ItemAnalysisResponse;
+import com.alice.education.dto.QuestionAnalysisResponse;
+import com.alice.education.model.QuestionStat;
+import com.alice.education.repository.QuestionRepository;
+import com.alice.education.repository.QuestionStatRepository;
+
+/**
+ * Per-question statistics of exams and assignments, read from the
+ * {@code question_stats} aggregates that {@link ItemStatsAccumulator} keeps up
+ * to date. The rebuild methods recompute the aggregates from the raw answers
+ * (answer rows or packed answers), for repairs and for data submitted before
+ * the aggregates existed.
+ */
+@Service
+public class ItemAnalysisService {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemAnalysisService.class);
+
+    private static final String STAT_COLUMNS =
+            "INSERT INTO question_stats (question_id, responses, correct_count, count_a, count_b, count_c, " +
+            "count_d, count_blank, score_sum, score_sq_sum, correct_score_sum) ";
+
+    // One response per (question, submission); a missing answer row counts as blank.
+    // Submissions with packed answers are added by addPacked().
+    private static final String STAT_SELECT =
+            "SELECT q.id, COUNT(*), " +
+            "SUM(CASE WHEN a.is_correct THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.selected_answer = 'A' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.selected_answer = 'B' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.selected_answer = 'C' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.selected_answer = 'D' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN a.selected_answer IN ('A', 'B', 'C', 'D') THEN 0 ELSE 1 END), " +
+            "SUM(s.score), SUM(s.score * s.score), " +
+            "SUM(CASE WHEN a.is_correct THEN s.score ELSE 0 END) ";
+
+    // A question is shared by every exam and assignment linking it. Answer rows
+    // match the linked version or an earlier version of the same lineage.
+    private static final String EXAM_SOURCE =
+            "FROM exam_questions l JOIN questions q ON q.id = l.question_id " +
+            "JOIN exam_submissions s ON s.exam_id = l.exam_id AND s.answer_data IS NULL " +
+            "LEFT JOIN exam_submission_answers a ON a.submission_id = s.id " +
+            "AND a.question_id IN (SELECT v.id FROM questions v WHERE v.lineage_id = q.lineage_id) ";
+
+    private static final String ASSIGNMENT_SOURCE =
+            "FROM assignment_questions l JOIN questions q ON q.id = l.question_id " +
+            "JOIN assignment_submissions s ON s.assignment_id = l.assignment_id AND s.answer_data IS NULL " +
+            "LEFT JOIN submission_answers a ON a.submission_id = s.id " +
+            "AND a.question_id IN (SELECT v.id FROM questions v WHERE v.lineage_id = q.lineage_id) ";
+
+    private static final String EXAM_QUESTIONS = "SELECT question_id FROM exam_questions WHERE exam_id = ?";
+
+    private static final String ASSIGNMENT_QUESTIONS =
+            "SELECT question_id FROM assignment_questions WHERE assignment_id = ?";
+
+    @Autowired
+    private QuestionStatRepository questionStatRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private AnswerKeyLayouts answerKeyLayouts;
+
+    @Autowired
+    private ItemStatsAccumulator accumulator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional(readOnly = true)
+    public ItemAnalysisResponse getExamAnalysis(Long examId) {
+        String title = answerKeyCache.getExamKey(examId).getTitle();
+        return toResponse(examId, title, questionStatRepository.findAnalysisByExamId(examId));
+    }
+
+    @Transactional(readOnly = true)
+    public ItemAnalysisResponse getAssignmentAnalysis(Long assignmentId) {
+        String title = answerKeyCache.getAssignmentKey(assignmentId).getTitle();
+        return toResponse(assignmentId, title, questionStatRepository.findAnalysisByAssignmentId(assignmentId));
+    }
+
+    @Transactional
+    public ItemAnalysisResponse rebuildExam(Long examId) {
+        String title = answerKeyCache.getExamKey(examId).getTitle();
+        rebuildQuestions(questionRepository.findIdsByExamId(examId), EXAM_QUESTIONS, examId);
+        return toResponse(examId, title, questionStatRepository.findAnalysisByExamId(examId));
+    }
+
+    @Transactional
+    public ItemAnalysisResponse rebuildAssignment(Long assignmentId) {
+        String title = answerKeyCache.getAssignmentKey(assignmentId).getTitle();
+        rebuildQuestions(questionRepository.findIdsByAssignmentId(assignmentId), ASSIGNMENT_QUESTIONS, assignmentId);
+        return toResponse(assignmentId, title, questionStatRepository.findAnalysisByAssignmentId(assignmentId));
+    }
+
+    // Recomputes the totals of one owner's questions from the submissions of
+    // every exam and assignment that uses them
+    private void rebuildQuestions(List<Long> ids, String questionsSql, Long ownerId) {
+        Set<Long> questionIds = new HashSet<>(ids);
+        accumulator.discard(questionIds);
+        String scope = "WHERE q.id IN (" + questionsSql + ") GROUP BY q.id" + ItemStatsAccumulator.MERGE;
+        jdbcTemplate.update("DELETE FROM question_stats WHERE question_id IN (" + questionsSql + ")", ownerId);
+        jdbcTemplate.update(STAT_COLUMNS + STAT_SELECT + EXAM_SOURCE + scope, ownerId);
+        jdbcTemplate.update(STAT_COLUMNS + STAT_SELECT + ASSIGNMENT_SOURCE + scope, ownerId);
+        for (Long examId : jdbcTemplate.queryForList("SELECT DISTINCT l.exam_id FROM exam_questions l " +
+                "WHERE l.question_id IN (" + questionsSql + ") AND EXISTS (SELECT 1 FROM exam_submissions s " +
+                "WHERE s.exam_id = l.exam_id AND s.answer_data IS NOT NULL)", Long.class, ownerId)) {
+            addPacked("exam_submissions", "exam_id", examId, answerKeyCache.getExamKey(examId), questionIds);
+        }
+        for (Long assignmentId : jdbcTemplate.queryForList("SELECT DISTINCT l.assignment_id " +
+                "FROM assignment_questions l WHERE l.question_id IN (" + questionsSql + ") " +
+                "AND EXISTS (SELECT 1 FROM assignment_submissions s " +
+                "WHERE s.assignment_id = l.assignment_id AND s.answer_data IS NOT NULL)", Long.class, ownerId)) {
+            addPacked("assignment_submissions", "assignment_id", assignmentId,
+                    answerKeyCache.getAssignmentKey(assignmentId), questionIds);
+        }
+    }
+
+    /**
+     * Recomputes every aggregate from the raw answers, nightly by default.
+     */
+    @Scheduled(cron = "${app.item-analysis.rebuild-cron:0 30 3 * * *}")
+    @Transactional
+    public void rebuildAll() {
+        try {
+            accumulator.discardAll();
+            jdbcTemplate.update("DELETE FROM question_stats");
+            int exams = jdbcTemplate.update(STAT_COLUMNS + STAT_SELECT + EXAM_SOURCE + "GROUP BY q.id" +
+                    ItemStatsAccumulator.MERGE);
+            int assignments = jdbcTemplate.update(STAT_COLUMNS + STAT_SELECT + ASSIGNMENT_SOURCE + "GROUP BY q.id" +
+                    ItemStatsAccumulator.MERGE);
+            for (Long examId : jdbcTemplate.queryForList(
+                    "SELECT DISTINCT exam_id FROM exam_submissions WHERE answer_data IS NOT NULL", Long.class)) {
+                addPacked("exam_submissions", "exam_id", examId, answerKeyCache.getExamKey(examId), null);
+            }
+            for (Long assignmentId : jdbcTemplate.queryForList(
+                    "SELECT DISTINCT assignment_id FROM assignment_submissions WHERE answer_data IS NOT NULL",
+                    Long.class)) {
+                addPacked("assignment_submissions", "assignment_id", assignmentId,
+                        answerKeyCache.getAssignmentKey(assignmentId), null);
+            }
+            log.info("Rebuilt item statistics of {} exam and {} assignment questions", exams, assignments);
+        } catch (Exception e) {
+            log.error("Error rebuilding item statistics: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    // Adds the owner's packed submissions, decoded against its current key;
+    // submissions packed against an unknown layout are left out
+    private void addPacked(String table, String ownerColumn, Long ownerId, AnswerKey key, Set<Long> questionIds) {
+        List<byte[]> selected = new ArrayList<>();
+        List<Double> scores = new ArrayList<>();
+        jdbcTemplate.query("SELECT answer_data, answer_key_hash, score FROM " + table + " WHERE " + ownerColumn +
+                " = ? AND answer_data IS NOT NULL", rs -> {
+                    byte[] answers = answerKeyLayouts.decode(rs.getBytes(1), rs.getLong(2), key);
+                    if (answers != null) {
+                        selected.add(answers);
+                        scores.add(rs.getDouble(3));
+                    }
+                }, ownerId);
+        accumulator.writeNow(key, selected, scores, questionIds);
+    }
+
+    private static ItemAnalysisResponse toResponse(Long id, String title, List<Object[]> rows) {
+        List<QuestionAnalysisResponse> questions = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            QuestionStat stat = (QuestionStat) row[3];
+            QuestionAnalysisResponse q = new QuestionAnalysisResponse();
+            q.setQuestionId((Long) row[0]);
+            q.setContent((String) row[1]);
+            q.setCorrectAnswer((String) row[2]);
+            if (stat == null) {
+                stat = new QuestionStat();
+            }
+            long n = stat.getResponses();
+            q.setResponses(n);
+            q.setCorrectCount(stat.getCorrectCount());
+            q.setCountA(stat.getCountA());
+            q.setCountB(stat.getCountB());
+            q.setCountC(stat.getCountC());
+            q.setCountD(stat.getCountD());
+            q.setCountBlank(stat.getCountBlank());
+            q.setPercentCorrect(n > 0 ? round(100.0 * stat.getCorrectCount() / n, 1) : null);
+            q.setDiscrimination(pointBiserial(stat));
+            questions.add(q);
+        }
+        ItemAnalysisResponse res = new ItemAnalysisResponse();
+        res.setId(id);
+        res.setTitle(title);
+        res.setQuestions(questions);
+        return res;
+    }
+
+    // r = (M1 - M0) / s * sqrt(p * q), from running sums only. Undefined when
+    // everybody (or nobody) got the item right or all scores are equal.
+    private static Double pointBiserial(QuestionStat stat) {
+        long n = stat.getResponses();
+        long n1 = stat.getCorrectCount();
+        if (n < 2 || n1 == 0 || n1 == n) {
+            return null;
+        }
+        double mean = stat.getScoreSum() / n;
+        double variance = stat.getScoreSqSum() / n - mean * mean;
+        if (variance <= 1e-12) {
+            return null;
+        }
+        double m1 = stat.getCorrectScoreSum() / n1;
+        double m0 = (stat.getScoreSum() - stat.getCorrectScoreSum()) / (n - n1);
+        double p = (double) n1 / n;
+        return round((m1 - m0) / Math.sqrt(variance) * Math.sqrt(p * (1 - p)), 3);
+    }
+
+    private static double round(double value, int decimals) {
+        double f = Math.pow(10, decimals);
+        return Math.round(value * f) / f;
+    }
+}
@@ -0,0 +1,199 @@
+package com.alice.education.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Collects per-question item-analysis deltas from submissions in memory and
+ * periodically adds them to the {@code question_stats} aggregate table.
+ *
+ * Counters are {@link LongAdder}/{@link DoubleAdder} cells, so concurrent
+ * submits touching the same question do not contend on a single value. A
+ * flush takes the accumulated deltas with {@code sumThenReset}; a submission
+ * racing with a flush may be split across two flushes but is never lost.
+ */
+@Component
+public class ItemStatsAccumulator {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemStatsAccumulator.class);
+
+    // Adds the inserted totals to an existing row; shared with the rebuilds
+    static final String MERGE = " ON DUPLICATE KEY UPDATE " +
+            "responses = responses + VALUES(responses), correct_count = correct_count + VALUES(correct_count), " +
+            "count_a = count_a + VALUES(count_a), count_b = count_b + VALUES(count_b), " +
+            "count_c = count_c + VALUES(count_c), count_d = count_d + VALUES(count_d), " +
+            "count_blank = count_blank + VALUES(count_blank), score_sum = score_sum + VALUES(score_sum), " +
+            "score_sq_sum = score_sq_sum + VALUES(score_sq_sum), " +
+            "correct_score_sum = correct_score_sum + VALUES(correct_score_sum)";
+
+    private static final String UPSERT =
+            "INSERT INTO question_stats (question_id, responses, correct_count, count_a, count_b, count_c, " +
+            "count_d, count_blank, score_sum, score_sq_sum, correct_score_sum) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)" + MERGE;
+
+    private static final class Cell {
+        final LongAdder responses = new LongAdder();
+        final LongAdder correct = new LongAdder();
+        // A, B, C, D, blank
+        final LongAdder[] choices = {new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder()};
+        final DoubleAdder scoreSum = new DoubleAdder();
+        final DoubleAdder scoreSqSum = new DoubleAdder();
+        final DoubleAdder correctScoreSum = new DoubleAdder();
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Cell> cells = new ConcurrentHashMap<>();
+
+    /**
+     * Records one graded submission. {@code selected[i]} is the encoded choice
+     * for key position {@code i}, or {@link AnswerKey#NO_ANSWER}. Inside a
+     * transaction the deltas are only applied once it commits.
+     */
+    public void record(AnswerKey key, byte[] selected, double score) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(key, selected, score);
+                }
+            });
+        } else {
+            apply(key, selected, score);
+        }
+    }
+
+    private void apply(AnswerKey key, byte[] selected, double score) {
+        for (int i = 0; i < key.size(); i++) {
+            Cell cell = cells.computeIfAbsent(key.questionIdAt(i), id -> new Cell());
+            byte choice = selected[i];
+            cell.responses.increment();
+            cell.choices[choice == AnswerKey.NO_ANSWER ? 4 : choice].increment();
+            cell.scoreSum.add(score);
+            cell.scoreSqSum.add(score * score);
+            if (key.isCorrect(i, choice)) {
+                cell.correct.increment();
+                cell.correctScoreSum.add(score);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.item-analysis.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    /**
+     * Adds everything accumulated so far to the aggregate table. On failure the
+     * deltas are put back and retried with the next flush.
+     */
+    public synchronized void flush() {
+        List<Long> ids = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<Long, Cell> e : cells.entrySet()) {
+            Cell c = e.getValue();
+            long responses = c.responses.sumThenReset();
+            if (responses == 0) continue;
+            ids.add(e.getKey());
+            rows.add(new Object[]{e.getKey(), responses, c.correct.sumThenReset(),
+                    c.choices[0].sumThenReset(), c.choices[1].sumThenReset(), c.choices[2].sumThenReset(),
+                    c.choices[3].sumThenReset(), c.choices[4].sumThenReset(),
+                    c.scoreSum.sumThenReset(), c.scoreSqSum.sumThenReset(), c.correctScoreSum.sumThenReset()});
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPSERT, rows);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to flush item statistics of {} questions, retrying later: {}", rows.size(), ex.getMessage());
+            for (int i = 0; i < rows.size(); i++) {
+                restore(cells.computeIfAbsent(ids.get(i), id -> new Cell()), rows.get(i));
+            }
+        }
+    }
+
+    /**
+     * Adds the given submissions to the aggregate table right away, in the
+     * caller's transaction; used by the rebuilds for packed answers.
+     * {@code selected.get(j)} holds submission j's choices by key position.
+     * Only questions in {@code questionIds} are written, or all if it is null.
+     */
+    public void writeNow(AnswerKey key, List<byte[]> selected, List<Double> scores, Set<Long> questionIds) {
+        if (selected.isEmpty()) {
+            return;
+        }
+        int n = key.size();
+        long[] correct = new long[n];
+        long[][] choices = new long[n][5];
+        double[] correctScoreSum = new double[n];
+        double scoreSum = 0;
+        double scoreSqSum = 0;
+        for (int j = 0; j < selected.size(); j++) {
+            byte[] answers = selected.get(j);
+            double score = scores.get(j);
+            scoreSum += score;
+            scoreSqSum += score * score;
+            for (int i = 0; i < n; i++) {
+                byte choice = answers[i];
+                choices[i][choice == AnswerKey.NO_ANSWER ? 4 : choice]++;
+                if (key.isCorrect(i, choice)) {
+                    correct[i]++;
+                    correctScoreSum[i] += score;
+                }
+            }
+        }
+        List<Object[]> rows = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            if (questionIds != null && !questionIds.contains(key.questionIdAt(i))) continue;
+            rows.add(new Object[]{key.questionIdAt(i), (long) selected.size(), correct[i],
+                    choices[i][0], choices[i][1], choices[i][2], choices[i][3], choices[i][4],
+                    scoreSum, scoreSqSum, correctScoreSum[i]});
+        }
+        jdbcTemplate.batchUpdate(UPSERT, rows);
+    }
+
+    /** Drops unflushed deltas of the given questions, before their totals are rebuilt. */
+    public synchronized void discard(Collection<Long> questionIds) {
+        questionIds.forEach(cells::remove);
+    }
+
+    /** Drops all unflushed deltas, before all totals are rebuilt. */
+    public synchronized void discardAll() {
+        cells.clear();
+    }
+
+    private static void restore(Cell c, Object[] row) {
+        c.responses.add((Long) row[1]);
+        c.correct.add((Long) row[2]);
+        for (int k = 0; k < 5; k++) {
+            c.choices[k].add((Long) row[3 + k]);
+        }
+        c.scoreSum.add((Double) row[8]);
+        c.scoreSqSum.add((Double) row[9]);
+        c.correctScoreSum.add((Double) row[10]);
+    }
+}
@@ -0,0 +1,36 @@
+package com.alice.education.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor of a keyset-paginated list: the sort it belongs to plus the
+ * (sort value, id) pair of the last row of the previous page.
+ */
+final class KeysetCursor {
+
+    record Position(String value, long id) {}
+
+    private KeysetCursor() {}
+
+    static String encode(String sort, boolean descending, String value, long id) {
+        // The value goes last so it may contain the separator
+        String raw = sort + "|" + (descending ? "D" : "A") + "|" + id + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor, rejecting one that was issued for a different sort.
+     */
+    static Position decode(String cursor, String sort, boolean descending) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 4);
+            if (parts.length == 4 && parts[0].equals(sort) && parts[1].equals(descending ? "D" : "A")) {
+                return new Position(parts[3], Long.parseLong(parts[2]));
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through
+        }
+        throw new RuntimeException("Cursor không hợp lệ");
+    }
+}
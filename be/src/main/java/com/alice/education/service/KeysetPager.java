@@ -0,0 +1,94 @@
+package com.alice.education.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import com.alice.education.dto.CursorPageResponse;
+
+import jakarta.persistence.criteria.Path;
+
+/**
+ * Keyset pagination over a {@link JpaSpecificationExecutor}.
+ *
+ * Rows are ordered by one non-null sort property and then by id; the next page
+ * is selected with "(key, id) after the last row" instead of an OFFSET, so a
+ * page costs the same wherever it is in the list. No count query is run.
+ */
+public final class KeysetPager {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * A sortable property: the name clients use, the entity property and its type
+     * (String, Long or LocalDateTime).
+     */
+    public record SortField(String name, String property, Class<?> type) {}
+
+    private KeysetPager() {}
+
+    /** The allowed field whose name matches {@code requested}, the first one by default. */
+    public static SortField resolve(String requested, SortField... allowed) {
+        for (SortField f : allowed) {
+            if (f.name().equalsIgnoreCase(requested)) {
+                return f;
+            }
+        }
+        return allowed[0];
+    }
+
+    public static <T, R> CursorPageResponse<R> page(JpaSpecificationExecutor<T> repository, Specification<T> filter,
+                                                    SortField sort, String direction, String cursor, Integer size,
+                                                    Function<List<T>, List<R>> mapper) {
+        boolean descending = !"asc".equalsIgnoreCase(direction);
+        int limit = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        Specification<T> spec = filter;
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor.Position after = KeysetCursor.decode(cursor, sort.name(), descending);
+            spec = spec.and(after(sort, descending, parse(sort, after.value()), after.id()));
+        }
+
+        Sort.Direction dir = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort order = Sort.by(dir, sort.property()).and(Sort.by(dir, "id"));
+        // One extra row tells whether another page exists
+        List<T> rows = repository.findBy(spec, q -> q.sortBy(order).limit(limit + 1).all());
+
+        String next = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            BeanWrapper last = PropertyAccessorFactory.forBeanPropertyAccess(rows.get(limit - 1));
+            next = KeysetCursor.encode(sort.name(), descending,
+                    String.valueOf(last.getPropertyValue(sort.property())), (Long) last.getPropertyValue("id"));
+        }
+        return new CursorPageResponse<>(mapper.apply(rows), next);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Specification<T> after(SortField sort, boolean descending, Comparable value, long id) {
+        return (root, query, cb) -> {
+            Path<Comparable> key = root.get(sort.property());
+            Path<Long> rowId = root.get("id");
+            return descending
+                    ? cb.or(cb.lessThan(key, value), cb.and(cb.equal(key, value), cb.lessThan(rowId, id)))
+                    : cb.or(cb.greaterThan(key, value), cb.and(cb.equal(key, value), cb.greaterThan(rowId, id)));
+        };
+    }
+
+    private static Comparable<?> parse(SortField sort, String value) {
+        try {
+            if (sort.type() == LocalDateTime.class) return LocalDateTime.parse(value);
+            if (sort.type() == Long.class) return Long.valueOf(value);
+            return value;
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Cursor không hợp lệ");
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.alice.education.service;
+
+/**
+ * Open-addressing map from positive long ids to int values, without boxing.
+ * Used to turn entity ids into array ordinals; 0 is reserved as the empty slot.
+ */
+final class LongIntHashMap {
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    void put(long key, int value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Key must be positive: " + key);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int slot = slot(key);
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /** The key's value, or {@code missing} if it is absent. */
+    int get(long key, int missing) {
+        if (key <= 0) {
+            return missing;
+        }
+        int slot = slot(key);
+        return keys[slot] == key ? values[slot] : missing;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // The key's slot, or the empty slot where it would go
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) (mix(key) & mask);
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // Sequence ids are dense; spread them so neighbouring ids do not cluster
+    private static long mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return key ^ (key >>> 32);
+    }
+}
@@ -0,0 +1,164 @@
+package com.alice.education.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Ends the dual-read period of packed answers: converts submissions stored as
+ * answer rows to packed answers, a batch at a time, and deletes their rows.
+ *
+ * Disabled by default. Submissions whose rows do not match the current answer
+ * key (questions not in the key) and exam submissions whose rows are still in
+ * the write-behind queue are skipped. Each table is scanned once per start.
+ */
+@Component
+public class PackedAnswerBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(PackedAnswerBackfill.class);
+
+    private enum Source {
+        EXAM("exam_submissions", "exam_submission_answers", "exam_id"),
+        ASSIGNMENT("assignment_submissions", "submission_answers", "assignment_id");
+
+        final String table;
+        final String answerTable;
+        final String ownerColumn;
+
+        Source(String table, String answerTable, String ownerColumn) {
+            this.table = table;
+            this.answerTable = answerTable;
+            this.ownerColumn = ownerColumn;
+        }
+    }
+
+    private record Row(long id, long ownerId, long studentId) {}
+
+    @Value("${app.submission.packed-backfill.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.submission.packed-backfill.batch-size:500}")
+    private int batchSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private AnswerKeyLayouts answerKeyLayouts;
+
+    @Autowired
+    private SubmissionIngestionService ingestionService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Last submission id looked at per table; -1 once the table is done
+    private final Map<Source, Long> cursors = new HashMap<>();
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        for (Source source : Source.values()) {
+            cursors.put(source, 0L);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.submission.packed-backfill.interval-ms:10000}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        for (Source source : Source.values()) {
+            long cursor = cursors.get(source);
+            if (cursor < 0) continue;
+            try {
+                Long next = transactionTemplate.execute(status -> convertBatch(source, cursor));
+                cursors.put(source, next != null ? next : -1L);
+                if (next == null) {
+                    log.info("Packed answer backfill of {} finished", source.table);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Packed answer backfill of {} failed, retrying: {}", source.table, e.getMessage());
+            }
+        }
+    }
+
+    // Returns the id to continue after, or null when there is nothing left
+    private Long convertBatch(Source source, long after) {
+        List<Row> rows = jdbcTemplate.query("SELECT id, " + source.ownerColumn + ", student_id FROM " +
+                        source.table + " WHERE answer_data IS NULL AND id > ? ORDER BY id LIMIT ?",
+                (rs, i) -> new Row(rs.getLong(1), rs.getLong(2), rs.getLong(3)), after, batchSize);
+        if (rows.isEmpty()) {
+            return null;
+        }
+
+        Map<Long, List<Object[]>> answers = new HashMap<>();
+        String ids = String.join(",", Collections.nCopies(rows.size(), "?"));
+        jdbcTemplate.query("SELECT submission_id, question_id, selected_answer FROM " + source.answerTable +
+                        " WHERE submission_id IN (" + ids + ")",
+                rs -> {
+                    answers.computeIfAbsent(rs.getLong(1), k -> new ArrayList<>())
+                            .add(new Object[]{rs.getLong(2), rs.getString(3)});
+                }, rows.stream().map(Row::id).toArray());
+
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (Row row : rows) {
+            if (source == Source.EXAM && ingestionService.isEnabled()
+                    && ingestionService.getPending(row.ownerId(), row.studentId()) != null) {
+                continue;
+            }
+            AnswerKey key;
+            try {
+                key = source == Source.EXAM ? answerKeyCache.getExamKey(row.ownerId())
+                        : answerKeyCache.getAssignmentKey(row.ownerId());
+            } catch (RuntimeException e) {
+                continue;
+            }
+            byte[] selected = toPositions(key, answers.getOrDefault(row.id(), List.of()));
+            if (selected == null) continue;
+            answerKeyLayouts.register(key);
+            updates.add(new Object[]{PackedAnswers.pack(selected), key.fingerprint(), row.id()});
+            deletes.add(new Object[]{row.id()});
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE " + source.table + " SET answer_data = ?, answer_key_hash = ? " +
+                    "WHERE id = ? AND answer_data IS NULL", updates);
+            jdbcTemplate.batchUpdate("DELETE FROM " + source.answerTable + " WHERE submission_id = ?", deletes);
+            log.info("Packed the answers of {} {}", updates.size(), source.table);
+        }
+        return rows.get(rows.size() - 1).id();
+    }
+
+    // Null if an answer row refers to a question outside the key
+    private static byte[] toPositions(AnswerKey key, List<Object[]> answerRows) {
+        byte[] selected = new byte[key.size()];
+        Arrays.fill(selected, AnswerKey.NO_ANSWER);
+        for (Object[] a : answerRows) {
+            int index = key.indexOf((Long) a[0]);
+            if (index < 0) return null;
+            selected[index] = AnswerKey.encode((String) a[1]);
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,77 @@
+package com.alice.education.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.alice.education.dto.SubmissionAnswerResult;
+
+/**
+ * Compact answer storage: the selected choices of a submission packed 3 bits per
+ * question, in answer key position order, into the submission row's
+ * {@code answer_data} column. Code 0 is a blank, 1-4 are A-D; correctness is
+ * not stored but derived from the key.
+ *
+ * A 40-question exam takes 15 bytes instead of 40 answer rows. Answers packed
+ * against an earlier key are read through {@link AnswerKeyLayouts}.
+ */
+public final class PackedAnswers {
+
+    private static final int BITS = 3;
+
+    private PackedAnswers() {}
+
+    /** Packs {@code selected[i]}, the encoded choice at key position {@code i}. */
+    public static byte[] pack(byte[] selected) {
+        byte[] data = new byte[(selected.length * BITS + 7) / 8];
+        for (int i = 0; i < selected.length; i++) {
+            int code = selected[i] == AnswerKey.NO_ANSWER ? 0 : selected[i] + 1;
+            int bit = i * BITS;
+            // MSB first; a code may straddle two bytes
+            int word = code << (16 - BITS - bit % 8);
+            data[bit / 8] |= (byte) (word >>> 8);
+            if (bit / 8 + 1 < data.length) {
+                data[bit / 8 + 1] |= (byte) word;
+            }
+        }
+        return data;
+    }
+
+    /** Unpacks {@code size} positions; missing trailing positions are blanks. */
+    public static byte[] unpack(byte[] data, int size) {
+        byte[] selected = new byte[size];
+        Arrays.fill(selected, AnswerKey.NO_ANSWER);
+        for (int i = 0; i < size; i++) {
+            int bit = i * BITS;
+            if (bit / 8 >= data.length) break;
+            int word = (data[bit / 8] & 0xff) << 8;
+            if (bit / 8 + 1 < data.length) {
+                word |= data[bit / 8 + 1] & 0xff;
+            }
+            int code = (word >>> (16 - BITS - bit % 8)) & ((1 << BITS) - 1);
+            if (code > 0) {
+                selected[i] = (byte) (code - 1);
+            }
+        }
+        return selected;
+    }
+
+    /** One result per answered key position of {@code selected}. */
+    public static List<SubmissionAnswerResult> results(AnswerKey key, byte[] selected, Map<Long, String> contents) {
+        List<SubmissionAnswerResult> results = new ArrayList<>();
+        for (int i = 0; i < selected.length; i++) {
+            if (selected[i] == AnswerKey.NO_ANSWER) continue;
+            SubmissionAnswerResult r = new SubmissionAnswerResult();
+            r.setQuestionId(key.questionIdAt(i));
+            if (contents != null) {
+                r.setQuestionContent(contents.get(r.getQuestionId()));
+            }
+            r.setSelectedAnswer(AnswerKey.decode(selected[i]));
+            r.setCorrectAnswer(AnswerKey.decode(key.correctAnswerAt(i)));
+            r.setIsCorrect(key.isCorrect(i, selected[i]));
+            results.add(r);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,188 @@
+package com.alice.education.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.alice.education.dto.QuestionRequest;
+import com.alice.education.dto.QuestionResponse;
+import com.alice.education.model.Account;
+import com.alice.education.model.Question;
+import com.alice.education.model.QuestionLink;
+import com.alice.education.repository.AccountRepository;
+import com.alice.education.repository.QuestionRepository;
+import com.alice.education.repository.SequenceIdAllocator;
+
+/**
+ * The shared question bank. Exams and assignments link bank questions instead
+ * of owning copies, and questions are never changed in place: editing one adds
+ * the next version of its lineage, which only the edited exam or assignment
+ * links. Other items and existing submissions keep the version they used.
+ */
+@Service
+public class QuestionBankService {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private SequenceIdAllocator idAllocator;
+
+    /**
+     * Makes {@code links} reference the requested questions, in request order.
+     * A request with the id of a bank question reuses it if its content is
+     * unchanged and otherwise adds a new version; a request without id adds a
+     * new question. Links that are kept only have their order updated, so an
+     * edit costs one question row and one link update per changed question.
+     */
+    public <L extends QuestionLink> void syncLinks(List<L> links, List<QuestionRequest> requested, Account author,
+                                                   BiFunction<Question, Integer, L> newLink) {
+        List<QuestionRequest> requests = requested != null ? requested : List.of();
+
+        Set<Long> baseIds = requests.stream().map(QuestionRequest::getId).filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Question> bases = new HashMap<>();
+        for (Question q : questionRepository.findAllById(baseIds)) {
+            bases.put(q.getId(), q);
+        }
+        Map<Long, Integer> latestVersions = new HashMap<>();
+        Set<Long> editedLineages = new HashSet<>();
+        int created = 0;
+        for (QuestionRequest r : requests) {
+            Question base = r.getId() != null ? bases.get(r.getId()) : null;
+            if (base == null) {
+                created++;
+            } else if (!sameContent(base, r)) {
+                editedLineages.add(base.getLineageId());
+            }
+        }
+        if (!editedLineages.isEmpty()) {
+            for (Object[] row : questionRepository.findLatestVersions(editedLineages)) {
+                latestVersions.put((Long) row[0], (Integer) row[1]);
+            }
+        }
+        long nextLineage = created > 0 ? idAllocator.reserve("questions_seq", created) : 0;
+
+        Map<Long, L> current = new HashMap<>();
+        for (L link : links) {
+            current.put(link.getQuestion().getId(), link);
+        }
+        Set<Long> usedLineages = new HashSet<>();
+        List<L> result = new ArrayList<>(requests.size());
+        int order = 1;
+        for (QuestionRequest r : requests) {
+            int orderNumber = r.getOrderNumber() != null ? r.getOrderNumber() : order;
+            order++;
+
+            Question base = r.getId() != null ? bases.get(r.getId()) : null;
+            Question target;
+            if (base != null && sameContent(base, r)) {
+                target = base;
+            } else if (base != null) {
+                int version = latestVersions.merge(base.getLineageId(), 1, Integer::sum);
+                target = questionRepository.save(newQuestion(r, base.getLineageId(), version, author));
+            } else {
+                target = questionRepository.save(newQuestion(r, nextLineage++, 1, author));
+            }
+            // Positions of the answer key are per lineage
+            if (!usedLineages.add(target.getLineageId())) {
+                throw new RuntimeException("Một câu hỏi chỉ được dùng một lần trong mỗi bài");
+            }
+
+            L link = current.remove(target.getId());
+            if (link == null) {
+                link = newLink.apply(target, orderNumber);
+            } else if (!Objects.equals(link.getOrderNumber(), orderNumber)) {
+                link.setOrderNumber(orderNumber);
+            }
+            result.add(link);
+        }
+        // Links left in current are dropped by orphan removal
+        links.clear();
+        links.addAll(result);
+    }
+
+    /** The latest version of every question the current teacher wrote, newest first. */
+    @Transactional(readOnly = true)
+    public List<QuestionResponse> getMyBank(Long beforeId, Integer size) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Account teacher = accountRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("Teacher not found"));
+        int limit = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        return questionRepository.findBankPage(teacher.getId(), beforeId != null ? beforeId : Long.MAX_VALUE,
+                        Limit.of(limit)).stream()
+                .map(QuestionBankService::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    /** All versions of the question's lineage, newest first. */
+    @Transactional(readOnly = true)
+    public List<QuestionResponse> getVersions(Long questionId) {
+        Question q = questionRepository.findById(questionId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy câu hỏi"));
+        return questionRepository.findByLineageIdOrderByVersionDesc(q.getLineageId()).stream()
+                .map(QuestionBankService::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    /** Maps a linked question; {@code orderNumber} comes from the link. */
+    public static QuestionResponse toResponse(Question q, Integer orderNumber, boolean includeAnswer) {
+        QuestionResponse qr = new QuestionResponse();
+        qr.setId(q.getId());
+        qr.setContent(q.getContent());
+        qr.setOptionA(q.getOptionA());
+        qr.setOptionB(q.getOptionB());
+        qr.setOptionC(q.getOptionC());
+        qr.setOptionD(q.getOptionD());
+        if (includeAnswer) qr.setCorrectAnswer(q.getCorrectAnswer());
+        qr.setOrderNumber(orderNumber);
+        qr.setLineageId(q.getLineageId());
+        qr.setVersion(q.getVersion());
+        return qr;
+    }
+
+    private static QuestionResponse toResponse(Question q) {
+        return toResponse(q, null, true);
+    }
+
+    private static Question newQuestion(QuestionRequest r, long lineageId, int version, Account author) {
+        Question q = new Question();
+        q.setContent(r.getContent());
+        q.setOptionA(r.getOptionA());
+        q.setOptionB(r.getOptionB());
+        q.setOptionC(r.getOptionC());
+        q.setOptionD(r.getOptionD());
+        q.setCorrectAnswer(r.getCorrectAnswer());
+        q.setLineageId(lineageId);
+        q.setVersion(version);
+        q.setCreatedBy(author);
+        return q;
+    }
+
+    private static boolean sameContent(Question q, QuestionRequest r) {
+        return Objects.equals(q.getContent(), r.getContent())
+                && Objects.equals(q.getOptionA(), r.getOptionA())
+                && Objects.equals(q.getOptionB(), r.getOptionB())
+                && Objects.equals(q.getOptionC(), r.getOptionC())
+                && Objects.equals(q.getOptionD(), r.getOptionD())
+                && Objects.equals(q.getCorrectAnswer(), r.getCorrectAnswer());
+    }
+}
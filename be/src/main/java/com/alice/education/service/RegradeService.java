@@ -0,0 +1,482 @@
+package com.alice.education.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alice.education.dto.RegradeStatusResponse;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Recomputes the scores of an exam's or assignment's submissions after its
+ * answer key changed.
+ *
+ * A job streams the submissions by id in chunks, scores each chunk in parallel
+ * against the current answer key and writes the changed scores back with JDBC
+ * batches, one transaction per chunk. Answer rows are matched to the key by
+ * question lineage and re-pointed to the current question versions; packed
+ * answers are repacked against the current key. Afterwards the gradebook cells
+ * that still hold a student's old exam score get the new one, and the item
+ * statistics are rebuilt. One job runs per exam or assignment; a key change
+ * during a job runs it once more when it is done.
+ *
+ * Exam submissions whose answer rows are still in the write-behind queue are
+ * set aside and regraded once the queue has written them.
+ */
+@Service
+public class RegradeService {
+
+    private static final Logger log = LoggerFactory.getLogger(RegradeService.class);
+
+    // How long a job waits for the write-behind queue before it runs again
+    private static final long WRITE_BEHIND_WAIT_MS = 10_000;
+
+    public enum Kind {
+        EXAM("exam_submissions", "exam_submission_answers", "exam_id", StudentFeedCache.Kind.EXAMS),
+        ASSIGNMENT("assignment_submissions", "submission_answers", "assignment_id", StudentFeedCache.Kind.ASSIGNMENTS);
+
+        final String table;
+        final String answerTable;
+        final String ownerColumn;
+        final StudentFeedCache.Kind feed;
+
+        Kind(String table, String answerTable, String ownerColumn, StudentFeedCache.Kind feed) {
+            this.table = table;
+            this.answerTable = answerTable;
+            this.ownerColumn = ownerColumn;
+            this.feed = feed;
+        }
+    }
+
+    private static final class Job {
+        final Kind kind;
+        final Long ownerId;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicLong processed = new AtomicLong();
+        final AtomicLong changed = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+        // (studentId, old score, new score) of the changed submissions
+        final List<Object[]> scoreChanges = Collections.synchronizedList(new ArrayList<>());
+        // Submissions whose answers were still queued for writing
+        final List<Submission> deferred = new ArrayList<>();
+        volatile String state = "RUNNING";
+        volatile long total;
+        volatile int gradesUpdated;
+        volatile LocalDateTime finishedAt;
+        volatile String error;
+        volatile boolean again;
+
+        Job(Kind kind, Long ownerId) {
+            this.kind = kind;
+            this.ownerId = ownerId;
+        }
+    }
+
+    private record Submission(long id, long studentId, byte[] answerData, Long answerKeyHash, int correctCount,
+                              double score, int totalCount) {}
+
+    private record AnswerRow(long id, long questionId, long lineageId, String selected, boolean correct) {}
+
+    @Value("${app.regrade.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.regrade.workers:4}")
+    private int workers;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private AnswerKeyLayouts answerKeyLayouts;
+
+    @Autowired
+    private SubmissionIngestionService ingestionService;
+
+    @Autowired
+    private GradeService gradeService;
+
+    @Autowired
+    private ItemAnalysisService itemAnalysisService;
+
+    @Autowired
+    private StudentFeedCache studentFeedCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private ExecutorService runner;
+    private ExecutorService scorers;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger threads = new AtomicInteger();
+        runner = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "regrade");
+            t.setDaemon(true);
+            return t;
+        });
+        scorers = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "regrade-worker-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        runner.shutdownNow();
+        scorers.shutdownNow();
+    }
+
+    /** Starts regrading the owner's submissions against its current answer key. */
+    public RegradeStatusResponse start(Kind kind, Long ownerId) {
+        Job job = new Job(kind, ownerId);
+        Job current = jobs.compute(name(kind, ownerId),
+                (k, previous) -> previous != null && "RUNNING".equals(previous.state) ? previous : job);
+        if (current != job) {
+            throw new RuntimeException("Đang chấm lại bài, vui lòng đợi");
+        }
+        runner.execute(() -> run(job));
+        return toResponse(job);
+    }
+
+    // Starts a job, or has the running one run once more when it is done
+    private void startOrRepeat(Kind kind, Long ownerId) {
+        Job job = new Job(kind, ownerId);
+        Job current = jobs.compute(name(kind, ownerId), (k, previous) -> {
+            if (previous != null && "RUNNING".equals(previous.state)) {
+                previous.again = true;
+                return previous;
+            }
+            return job;
+        });
+        if (current == job) {
+            runner.execute(() -> run(job));
+        }
+    }
+
+    public RegradeStatusResponse getStatus(Kind kind, Long ownerId) {
+        Job job = jobs.get(name(kind, ownerId));
+        if (job == null) {
+            throw new RuntimeException("Chưa có lượt chấm lại nào");
+        }
+        return toResponse(job);
+    }
+
+    /**
+     * Once the current transaction commits, starts a regrade if the owner's
+     * answer key now grades differently from {@code before}.
+     */
+    public void regradeIfChanged(Kind kind, Long ownerId, AnswerKey before) {
+        Runnable check = () -> {
+            if (!gradesAlike(before, currentKey(kind, ownerId))) {
+                startOrRepeat(kind, ownerId);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    check.run();
+                }
+            });
+        } else {
+            check.run();
+        }
+    }
+
+    private void run(Job job) {
+        Kind kind = job.kind;
+        String state;
+        try {
+            AnswerKey key = currentKey(kind, job.ownerId);
+            answerKeyLayouts.register(key);
+            job.total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + kind.table + " WHERE " +
+                    kind.ownerColumn + " = ?", Long.class, job.ownerId);
+            long after = 0;
+            while (true) {
+                long from = after;
+                Long next = transactionTemplate.execute(status -> regradeChunk(job, key, from));
+                if (next == null) break;
+                after = next;
+            }
+            if (!job.deferred.isEmpty()) {
+                regradeDeferred(job, key);
+            }
+            if (kind == Kind.EXAM && !job.scoreChanges.isEmpty()) {
+                job.gradesUpdated = gradeService.applyRegradedScores(job.ownerId, job.scoreChanges);
+            }
+            if (job.changed.get() > 0) {
+                if (kind == Kind.EXAM) {
+                    itemAnalysisService.rebuildExam(job.ownerId);
+                } else {
+                    itemAnalysisService.rebuildAssignment(job.ownerId);
+                }
+                studentFeedCache.evictKind(kind.feed);
+            }
+            state = "DONE";
+            log.info("Regraded {} {} of {} {}: {} changed, {} grades updated", job.processed.get(), kind.table,
+                    kind.ownerColumn, job.ownerId, job.changed.get(), job.gradesUpdated);
+        } catch (RuntimeException e) {
+            job.error = e.getMessage();
+            state = "FAILED";
+            log.error("Regrade of {} {} failed", kind.ownerColumn, job.ownerId, e);
+        }
+        job.finishedAt = LocalDateTime.now();
+        // Under the map's lock, so a key change either sees the job running and
+        // asks for another run, which is read here, or starts a new job
+        String outcome = state;
+        boolean[] again = new boolean[1];
+        jobs.compute(name(kind, job.ownerId), (k, current) -> {
+            job.state = outcome;
+            again[0] = job.again;
+            return current;
+        });
+        if (again[0]) {
+            startOrRepeat(kind, job.ownerId);
+        }
+    }
+
+    // Returns the id to continue after, or null when there is nothing left
+    private Long regradeChunk(Job job, AnswerKey key, long after) {
+        Kind kind = job.kind;
+        List<Submission> chunk = jdbcTemplate.query("SELECT id, student_id, answer_data, answer_key_hash, " +
+                        "correct_count, score, total_count FROM " + kind.table + " WHERE " + kind.ownerColumn +
+                        " = ? AND id > ? ORDER BY id LIMIT ?",
+                (rs, i) -> new Submission(rs.getLong(1), rs.getLong(2), rs.getBytes(3),
+                        (Long) rs.getObject(4, Long.class), rs.getInt(5), rs.getDouble(6), rs.getInt(7)),
+                job.ownerId, after, chunkSize);
+        if (chunk.isEmpty()) {
+            return null;
+        }
+
+        // Answers still in the write-behind queue are not in the tables yet
+        List<Submission> submissions = new ArrayList<>(chunk.size());
+        for (Submission s : chunk) {
+            if (isQueued(job, s)) {
+                job.deferred.add(s);
+            } else {
+                submissions.add(s);
+            }
+        }
+        regrade(job, key, submissions);
+        return chunk.get(chunk.size() - 1).id();
+    }
+
+    // Waits for the write-behind queue to write the deferred submissions'
+    // answers, then regrades them; if it has not by then, the job runs again
+    private void regradeDeferred(Job job, AnswerKey key) {
+        long deadline = System.currentTimeMillis() + WRITE_BEHIND_WAIT_MS;
+        while (job.deferred.stream().anyMatch(s -> isQueued(job, s)) && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Regrade interrupted", e);
+            }
+        }
+        List<Long> ready = new ArrayList<>();
+        for (Submission s : job.deferred) {
+            if (!isQueued(job, s)) {
+                ready.add(s.id());
+            }
+        }
+        if (ready.size() < job.deferred.size()) {
+            log.warn("Answers of {} {} of {} {} are still queued; regrading again", job.deferred.size() - ready.size(),
+                    job.kind.table, job.kind.ownerColumn, job.ownerId);
+            job.again = true;
+        }
+        for (int from = 0; from < ready.size(); from += chunkSize) {
+            List<Long> ids = ready.subList(from, Math.min(ready.size(), from + chunkSize));
+            transactionTemplate.executeWithoutResult(status -> regrade(job, key, jdbcTemplate.query(
+                    "SELECT id, student_id, answer_data, answer_key_hash, correct_count, score, total_count FROM " +
+                            job.kind.table + " WHERE id IN (" + String.join(",", Collections.nCopies(ids.size(), "?")) +
+                            ")", (rs, i) -> new Submission(rs.getLong(1), rs.getLong(2), rs.getBytes(3),
+                            (Long) rs.getObject(4, Long.class), rs.getInt(5), rs.getDouble(6), rs.getInt(7)),
+                    ids.toArray())));
+        }
+    }
+
+    private boolean isQueued(Job job, Submission s) {
+        return job.kind == Kind.EXAM && s.answerData() == null && ingestionService.isEnabled()
+                && ingestionService.getPending(job.ownerId, s.studentId()) != null;
+    }
+
+    private void regrade(Job job, AnswerKey key, List<Submission> submissions) {
+        Kind kind = job.kind;
+        Map<Long, List<AnswerRow>> answerRows = loadAnswerRows(kind, submissions);
+
+        int n = submissions.size();
+        byte[][] selected = new byte[n][];
+        int[] correct = new int[n];
+        inParallel(n, i -> {
+            Submission s = submissions.get(i);
+            selected[i] = s.answerData() != null
+                    ? answerKeyLayouts.decode(s.answerData(), s.answerKeyHash(), key)
+                    : positions(key, answerRows.getOrDefault(s.id(), List.of()));
+            correct[i] = selected[i] != null ? key.countCorrect(selected[i]) : -1;
+        });
+
+        List<Object[]> submissionUpdates = new ArrayList<>();
+        List<Object[]> answerUpdates = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Submission s = submissions.get(i);
+            if (correct[i] < 0) {
+                // Packed against a layout that is no longer known
+                job.skipped.incrementAndGet();
+                continue;
+            }
+            double score = key.score(correct[i]);
+            boolean repack = s.answerData() != null && !Objects.equals(s.answerKeyHash(), key.fingerprint());
+            if (correct[i] != s.correctCount() || score != s.score() || key.size() != s.totalCount() || repack) {
+                submissionUpdates.add(new Object[]{correct[i], key.size(), score,
+                        s.answerData() != null ? PackedAnswers.pack(selected[i]) : null,
+                        s.answerData() != null ? key.fingerprint() : null, s.id()});
+            }
+            if (score != s.score()) {
+                job.changed.incrementAndGet();
+                job.scoreChanges.add(new Object[]{s.studentId(), s.score(), score});
+            }
+            for (AnswerRow a : answerRows.getOrDefault(s.id(), List.of())) {
+                int index = key.indexOfLineage(a.lineageId());
+                if (index < 0) continue;
+                boolean isCorrect = key.isCorrect(index, AnswerKey.encode(a.selected()));
+                if (a.questionId() != key.questionIdAt(index) || a.correct() != isCorrect) {
+                    answerUpdates.add(new Object[]{key.questionIdAt(index), isCorrect, a.id()});
+                }
+            }
+        }
+        if (!submissionUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE " + kind.table + " SET correct_count = ?, total_count = ?, score = ?, " +
+                    "answer_data = ?, answer_key_hash = ? WHERE id = ?", submissionUpdates);
+        }
+        if (!answerUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE " + kind.answerTable + " SET question_id = ?, is_correct = ? " +
+                    "WHERE id = ?", answerUpdates);
+        }
+        job.processed.addAndGet(submissions.size());
+    }
+
+    private Map<Long, List<AnswerRow>> loadAnswerRows(Kind kind, List<Submission> submissions) {
+        Object[] ids = submissions.stream().filter(s -> s.answerData() == null).map(Submission::id).toArray();
+        Map<Long, List<AnswerRow>> rows = new HashMap<>();
+        if (ids.length == 0) {
+            return rows;
+        }
+        jdbcTemplate.query("SELECT a.submission_id, a.id, a.question_id, q.lineage_id, a.selected_answer, " +
+                        "a.is_correct FROM " + kind.answerTable + " a JOIN questions q ON q.id = a.question_id " +
+                        "WHERE a.submission_id IN (" + String.join(",", Collections.nCopies(ids.length, "?")) + ")",
+                rs -> {
+                    rows.computeIfAbsent(rs.getLong(1), k -> new ArrayList<>()).add(new AnswerRow(
+                            rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getString(5), rs.getBoolean(6)));
+                }, ids);
+        return rows;
+    }
+
+    // Choices by key position; answers to questions no longer in the key are dropped
+    private static byte[] positions(AnswerKey key, List<AnswerRow> rows) {
+        byte[] selected = new byte[key.size()];
+        Arrays.fill(selected, AnswerKey.NO_ANSWER);
+        for (AnswerRow a : rows) {
+            int index = key.indexOfLineage(a.lineageId());
+            if (index >= 0) {
+                selected[index] = AnswerKey.encode(a.selected());
+            }
+        }
+        return selected;
+    }
+
+    // Runs body(0 .. n-1) split into one slice per worker
+    private void inParallel(int n, IntConsumer body) {
+        int slice = Math.max(1, (n + workers - 1) / workers);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int start = 0; start < n; start += slice) {
+            int from = start;
+            int to = Math.min(n, start + slice);
+            tasks.add(() -> {
+                for (int i = from; i < to; i++) body.accept(i);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> f : scorers.invokeAll(tasks)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Regrade interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private AnswerKey currentKey(Kind kind, Long ownerId) {
+        return kind == Kind.EXAM ? answerKeyCache.getExamKey(ownerId) : answerKeyCache.getAssignmentKey(ownerId);
+    }
+
+    // Same questions (by lineage) with the same correct answers
+    private static boolean gradesAlike(AnswerKey a, AnswerKey b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (a.lineageIdAt(i) != b.lineageIdAt(i) || a.correctAnswerAt(i) != b.correctAnswerAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String name(Kind kind, Long ownerId) {
+        return kind.name() + ":" + ownerId;
+    }
+
+    private static RegradeStatusResponse toResponse(Job job) {
+        RegradeStatusResponse res = new RegradeStatusResponse();
+        res.setState(job.state);
+        res.setOwnerId(job.ownerId);
+        res.setTotal(job.total);
+        res.setProcessed(job.processed.get());
+        res.setChanged(job.changed.get());
+        res.setSkipped(job.skipped.get());
+        res.setGradesUpdated(job.gradesUpdated);
+        res.setStartedAt(job.startedAt);
+        res.setFinishedAt(job.finishedAt);
+        res.setError(job.error);
+        return res;
+    }
+}
@@ -0,0 +1,93 @@
+package com.alice.education.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.alice.education.dto.StudentWorkItemResponse;
+
+/**
+ * Caches each student's enrolled-assignment and enrolled-exam feeds.
+ *
+ * A student's feed is evicted when they submit. All feeds of a kind are
+ * evicted when an assignment/exam is created, changed or deleted, and all feeds
+ * when enrollments or classrooms change. Entries also expire after a TTL, as a
+ * backstop for changes made outside these services.
+ */
+@Component
+public class StudentFeedCache {
+
+    public enum Kind { ASSIGNMENTS, EXAMS }
+
+    private record Entry(List<StudentWorkItemResponse> items, long expiresAt) {}
+
+    @Value("${app.student-feed.ttl-ms:300000}")
+    private long ttlMs;
+
+    @Value("${app.student-feed.max-entries:20000}")
+    private int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Bumped on every eviction; a load that started before it is not cached.
+    private final AtomicLong generation = new AtomicLong();
+
+    public List<StudentWorkItemResponse> get(Kind kind, String username, Supplier<List<StudentWorkItemResponse>> loader) {
+        String key = key(kind, username);
+        Entry entry = entries.get(key);
+        long now = System.currentTimeMillis();
+        if (entry != null && entry.expiresAt() > now) {
+            return entry.items();
+        }
+        long gen = generation.get();
+        List<StudentWorkItemResponse> items = List.copyOf(loader.get());
+        if (generation.get() == gen) {
+            if (entries.size() >= maxEntries) {
+                entries.clear();
+            }
+            entries.put(key, new Entry(items, now + ttlMs));
+        }
+        return items;
+    }
+
+    public void evictStudent(Kind kind, String username) {
+        String key = key(kind, username);
+        afterCommit(() -> entries.remove(key));
+    }
+
+    public void evictKind(Kind kind) {
+        String prefix = kind.name() + ":";
+        afterCommit(() -> entries.keySet().removeIf(k -> k.startsWith(prefix)));
+    }
+
+    public void evictAll() {
+        afterCommit(entries::clear);
+    }
+
+    // Evict now and again after commit, so a concurrent reader cannot re-cache
+    // the pre-commit state.
+    private void afterCommit(Runnable eviction) {
+        generation.incrementAndGet();
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private static String key(Kind kind, String username) {
+        return kind.name() + ":" + username;
+    }
+}
@@ -34,24 +34,28 @@ public class SubjectService {
         return mapToResponse(savedSubject);
     }
 
+    @Transactional(readOnly = true)
     public SubjectResponse getSubjectById(Long id) {
         Subject subject = subjectRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Subject not found with id: " + id));
         return mapToResponse(subject);
     }
 
+    @Transactional(readOnly = true)
     public List<SubjectResponse> getAllSubjects() {
         return subjectRepository.findAll().stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<SubjectResponse> getActiveSubjects() {
         return subjectRepository.findByIsActiveTrue().stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<SubjectResponse> searchSubjects(String keyword) {
         return subjectRepository.findByNameContainingIgnoreCase(keyword).stream()
                 .map(this::mapToResponse)
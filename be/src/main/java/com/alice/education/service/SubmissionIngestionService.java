@@ -0,0 +1,435 @@
+package com.alice.education.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alice.education.repository.SequenceIdAllocator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind persistence for exam submissions.
+ *
+ * Submissions are graded synchronously by {@link ExamSubmissionService}, which
+ * also inserts the submission row itself so the one-attempt constraint is
+ * enforced before the student gets an answer. Once that row has committed, the
+ * per-question answers are appended to a local write-ahead log and handed to a
+ * bounded queue. A single flusher thread drains the queue and inserts them
+ * with JDBC batches, one transaction per batch. The log is truncated once
+ * everything it holds has been committed and is replayed on startup otherwise.
+ *
+ * Only used when answers are stored as rows; with
+ * {@code app.submission.packed-answers} on (the default) they travel in the
+ * submission row, and neither the log nor the flusher is started.
+ */
+@Service
+public class SubmissionIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(SubmissionIngestionService.class);
+
+    private static final String WAL_FILE = "exam-submissions.wal";
+
+    private static final String INSERT_SUBMISSION =
+            "INSERT INTO exam_submissions (id, exam_id, student_id, correct_count, total_count, score, " +
+            "submitted_at, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ANSWER =
+            "INSERT INTO exam_submission_answers (id, submission_id, question_id, selected_answer, is_correct) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    public enum Result { ACCEPTED, DUPLICATE, FULL }
+
+    private record Entry(GradedExamSubmission submission, boolean replayed) {}
+
+    @Value("${app.submission.write-behind.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.submission.packed-answers:true}")
+    private boolean packedAnswers;
+
+    @Value("${app.submission.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.submission.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.submission.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${app.submission.write-behind.wal-dir:data/submission-wal}")
+    private String walDir;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SequenceIdAllocator idAllocator;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // examId:studentId -> submission that is queued or being flushed
+    private final Map<String, GradedExamSubmission> pending = new ConcurrentHashMap<>();
+
+    private final Object walLock = new Object();
+    private final Object syncLock = new Object();
+
+    private BlockingQueue<Entry> queue;
+    private TransactionTemplate transactionTemplate;
+    private FileChannel wal;
+    // Logical byte counts since startup; they keep growing across truncations.
+    private volatile long appendedBytes;
+    private long syncedBytes;
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (packedAnswers) {
+            enabled = false;
+        }
+        if (!enabled) {
+            return;
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        List<GradedExamSubmission> replay;
+        try {
+            Path dir = Paths.get(walDir);
+            Files.createDirectories(dir);
+            Path file = dir.resolve(WAL_FILE);
+            replay = readWal(file);
+            wal = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            appendedBytes = wal.size();
+            syncedBytes = appendedBytes;
+            wal.position(appendedBytes);
+        } catch (IOException e) {
+            log.error("Cannot open submission write-ahead log in {}, falling back to synchronous writes: {}",
+                    walDir, e.getMessage());
+            enabled = false;
+            return;
+        }
+
+        queue = new LinkedBlockingQueue<>(Math.max(queueCapacity, replay.size() + queueCapacity));
+        for (GradedExamSubmission s : replay) {
+            pending.put(key(s.examId(), s.studentId()), s);
+            queue.add(new Entry(s, true));
+        }
+        if (!replay.isEmpty()) {
+            log.info("Replaying {} exam submissions from the write-ahead log", replay.size());
+        }
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "submission-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(30_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            wal.close();
+        } catch (IOException e) {
+            log.warn("Error closing submission write-ahead log: {}", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public GradedExamSubmission getPending(Long examId, Long studentId) {
+        return pending.get(key(examId, studentId));
+    }
+
+    /**
+     * Takes the answers of a graded submission whose row has committed: logs and
+     * queues them, or inserts them right away in their own transaction when the
+     * queue is saturated. Called outside the submit transaction, so the log is
+     * never synced while a database connection is held, and a rolled back submit
+     * leaves nothing in it.
+     */
+    public void enqueueOrWrite(GradedExamSubmission submission) {
+        if (enqueue(submission) != Result.FULL) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(List.of(new Entry(submission, false))));
+        } catch (RuntimeException e) {
+            log.error("Failed to store the answers of exam submission {}: {}",
+                    submission.submissionId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Durably logs the answers of a graded submission, whose row has already
+     * been committed, and queues them for batched insertion. Returns
+     * {@link Result#FULL} when the queue is saturated, in which case the caller
+     * must persist the answers itself.
+     */
+    public Result enqueue(GradedExamSubmission submission) {
+        String k = key(submission.examId(), submission.studentId());
+        if (pending.putIfAbsent(k, submission) != null) {
+            return Result.DUPLICATE;
+        }
+        byte[] line;
+        try {
+            line = (objectMapper.writeValueAsString(submission) + "\n").getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            pending.remove(k);
+            log.error("Cannot serialize exam submission for the write-ahead log: {}", e.getMessage());
+            return Result.FULL;
+        }
+        long position;
+        synchronized (walLock) {
+            if (queue.remainingCapacity() == 0) {
+                pending.remove(k);
+                return Result.FULL;
+            }
+            try {
+                ByteBuffer buf = ByteBuffer.wrap(line);
+                while (buf.hasRemaining()) {
+                    wal.write(buf);
+                }
+                appendedBytes += line.length;
+            } catch (IOException e) {
+                // Still queued and flushed, only without the crash-recovery guarantee.
+                log.error("Failed to append exam submission to the write-ahead log: {}", e.getMessage());
+            }
+            position = appendedBytes;
+            queue.add(new Entry(submission, false));
+        }
+        try {
+            sync(position);
+        } catch (IOException e) {
+            log.error("Failed to sync the submission write-ahead log: {}", e.getMessage());
+        }
+        return Result.ACCEPTED;
+    }
+
+    // Group commit: whoever holds the lock forces everything appended so far,
+    // so callers queued behind it usually find their bytes already synced.
+    private void sync(long position) throws IOException {
+        synchronized (syncLock) {
+            if (syncedBytes >= position) {
+                return;
+            }
+            long target = appendedBytes;
+            wal.force(false);
+            syncedBytes = target;
+        }
+    }
+
+    private void flushLoop() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                if (flush(batch)) {
+                    for (Entry e : batch) {
+                        pending.remove(key(e.submission().examId(), e.submission().studentId()));
+                    }
+                    checkpoint();
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                if (!running && queue.isEmpty()) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the batch, retrying with backoff while the database is unavailable.
+     * Returns false only when shutting down with the batch still unwritten, in
+     * which case it stays in the log for the next start.
+     */
+    private boolean flush(List<Entry> batch) {
+        long backoff = 500;
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(batch));
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                flushIndividually(batch);
+                return true;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.error("Stopping with {} exam submissions unflushed; they remain in the write-ahead log",
+                            batch.size() + queue.size());
+                    return false;
+                }
+                log.warn("Exam submission flush failed, retrying in {} ms: {}", backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    // re-checked at the top of the loop
+                }
+                backoff = Math.min(backoff * 2, 30_000);
+            }
+        }
+    }
+
+    // A constraint violation poisons the whole batch; isolate the offending rows.
+    private void flushIndividually(List<Entry> batch) {
+        for (Entry e : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(List.of(e)));
+            } catch (DataIntegrityViolationException ex) {
+                log.error("Dropping exam submission exam={} student={}: {}",
+                        e.submission().examId(), e.submission().studentId(), ex.getMessage());
+            }
+        }
+    }
+
+    private void insert(List<Entry> batch) {
+        List<GradedExamSubmission> rows = new ArrayList<>(batch.size());
+        for (Entry e : batch) {
+            GradedExamSubmission s = e.submission();
+            if (e.replayed() && alreadyStored(s)) {
+                continue;
+            }
+            rows.add(s);
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        // Ids come from the entity sequences, so rows need no generated-key
+        // round trip and the driver can rewrite each batch into multi-row inserts.
+        long[] submissionIds = new long[rows.size()];
+        int headerCount = 0;
+        int answerCount = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            submissionIds[i] = rows.get(i).submissionId();
+            if (submissionIds[i] == 0) headerCount++;
+            answerCount += rows.get(i).questionIds().length;
+        }
+        if (headerCount > 0) {
+            // Only log records written before submission rows were inserted up front
+            long nextId = idAllocator.reserve("exam_submissions_seq", headerCount);
+            List<Object[]> submissionArgs = new ArrayList<>(headerCount);
+            for (int i = 0; i < rows.size(); i++) {
+                if (submissionIds[i] != 0) continue;
+                GradedExamSubmission s = rows.get(i);
+                LocalDateTime at = toDateTime(s.submittedAtMillis());
+                submissionIds[i] = nextId++;
+                submissionArgs.add(new Object[]{submissionIds[i], s.examId(), s.studentId(),
+                        s.correctCount(), s.totalCount(), s.score(), at, at, at});
+            }
+            jdbcTemplate.batchUpdate(INSERT_SUBMISSION, submissionArgs);
+        }
+
+        if (answerCount == 0) {
+            return;
+        }
+        long answerId = idAllocator.reserve("exam_submission_answers_seq", answerCount);
+        List<Object[]> answerArgs = new ArrayList<>(answerCount);
+        for (int i = 0; i < rows.size(); i++) {
+            GradedExamSubmission s = rows.get(i);
+            for (int a = 0; a < s.questionIds().length; a++) {
+                answerArgs.add(new Object[]{answerId++, submissionIds[i], s.questionIds()[a],
+                        s.selectedAnswers()[a], s.correct()[a]});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_ANSWER, answerArgs);
+    }
+
+    private boolean alreadyStored(GradedExamSubmission s) {
+        if (s.submissionId() != 0) {
+            Integer count = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM exam_submission_answers WHERE submission_id = ?",
+                    Integer.class, s.submissionId());
+            return count != null && count > 0;
+        }
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM exam_submissions WHERE exam_id = ? AND student_id = ?",
+                Integer.class, s.examId(), s.studentId());
+        return count != null && count > 0;
+    }
+
+    // Everything in the log is committed once the queue is empty after a flush.
+    private void checkpoint() {
+        synchronized (walLock) {
+            if (!queue.isEmpty()) {
+                return;
+            }
+            try {
+                wal.truncate(0);
+                wal.position(0);
+            } catch (IOException e) {
+                log.warn("Failed to truncate submission write-ahead log: {}", e.getMessage());
+            }
+        }
+    }
+
+    private List<GradedExamSubmission> readWal(Path file) throws IOException {
+        List<GradedExamSubmission> entries = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return entries;
+        }
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) continue;
+            try {
+                entries.add(objectMapper.readValue(line, GradedExamSubmission.class));
+            } catch (IOException e) {
+                // A torn final record from a crash mid-append was never acknowledged.
+                log.warn("Skipping unreadable write-ahead log record: {}", e.getMessage());
+            }
+        }
+        return entries;
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static String key(long examId, long studentId) {
+        return examId + ":" + studentId;
+    }
+}
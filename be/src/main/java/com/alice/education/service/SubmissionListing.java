@@ -0,0 +1,113 @@
+package com.alice.education.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.alice.education.repository.ClassStudentRepository;
+import com.alice.education.repository.SubmissionListingRepository;
+import com.alice.education.repository.SubmissionListingRepository.SortKey;
+import com.alice.education.repository.SubmissionListingRepository.Source;
+
+/**
+ * Submission summaries for the teacher views of an exam or assignment.
+ *
+ * A page costs two queries whatever its size: the summary rows, and the
+ * classroom name of every student on the page.
+ */
+@Component
+public class SubmissionListing {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * A summary row. correct_count, total_count and score are NOT NULL columns
+     * set by every writer (submit, the write-behind insert, regrade), so they
+     * map to primitives and the score keyset never compares against NULL.
+     */
+    public record Row(long id, long studentId, String studentName, int correctCount, int totalCount,
+                      double score, LocalDateTime submittedAt, LocalDateTime createdAt, String classroomName) {}
+
+    public record Page(List<Row> rows, String nextCursor) {}
+
+    @Autowired
+    private SubmissionListingRepository listingRepository;
+
+    @Autowired
+    private ClassStudentRepository classStudentRepository;
+
+    public List<Row> all(Source source, Long ownerId) {
+        return toRows(source, ownerId,
+                listingRepository.findPage(source, ownerId, SortKey.TIME, true, null, null, 0));
+    }
+
+    /**
+     * @param sort      "time" (default) or "score"
+     * @param direction "desc" (default) or "asc"
+     * @param cursor    {@code nextCursor} of the previous page, null for the first one
+     */
+    public Page page(Source source, Long ownerId, String sort, String direction, String cursor, Integer size) {
+        SortKey key = "score".equalsIgnoreCase(sort) ? SortKey.SCORE : SortKey.TIME;
+        boolean descending = !"asc".equalsIgnoreCase(direction);
+        int limit = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        Object afterValue = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            KeysetCursor.Position after = KeysetCursor.decode(cursor, key.name(), descending);
+            try {
+                afterValue = key == SortKey.SCORE ? Double.valueOf(after.value()) : LocalDateTime.parse(after.value());
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Cursor không hợp lệ");
+            }
+            afterId = after.id();
+        }
+
+        // One extra row tells whether another page exists
+        List<Object[]> raw = listingRepository.findPage(source, ownerId, key, descending, afterValue, afterId, limit + 1);
+        boolean hasMore = raw.size() > limit;
+        List<Row> rows = toRows(source, ownerId, hasMore ? raw.subList(0, limit) : raw);
+
+        String next = null;
+        if (hasMore) {
+            Row last = rows.get(rows.size() - 1);
+            String value = key == SortKey.SCORE ? Double.toString(last.score()) : last.submittedAt().toString();
+            next = KeysetCursor.encode(key.name(), descending, value, last.id());
+        }
+        return new Page(rows, next);
+    }
+
+    private List<Row> toRows(Source source, Long ownerId, List<Object[]> raw) {
+        if (raw.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> studentIds = new LinkedHashSet<>();
+        for (Object[] r : raw) {
+            studentIds.add((Long) r[1]);
+        }
+        List<Object[]> names = source == Source.EXAM
+                ? classStudentRepository.findClassroomNamesForExam(ownerId, studentIds)
+                : classStudentRepository.findClassroomNamesForAssignment(ownerId, studentIds);
+        Map<Long, String> classroomNames = new HashMap<>();
+        for (Object[] n : names) {
+            classroomNames.putIfAbsent((Long) n[0], (String) n[1]);
+        }
+
+        List<Row> rows = new ArrayList<>(raw.size());
+        for (Object[] r : raw) {
+            Long studentId = (Long) r[1];
+            rows.add(new Row((Long) r[0], studentId, (String) r[2], (Integer) r[3], (Integer) r[4],
+                    (Double) r[5], (LocalDateTime) r[6], (LocalDateTime) r[7],
+                    classroomNames.getOrDefault(studentId, "—")));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,11 @@
+package com.alice.education.service;
+
+/**
+ * Published when a student's exam or assignment submission has been graded
+ * and stored, inside the submitting transaction. Grade columns linked to the
+ * exam or assignment pick it up after commit.
+ */
+public record SubmissionScoredEvent(Source source, Long sourceId, Long studentId, double score) {
+
+    public enum Source { EXAM, ASSIGNMENT }
+}
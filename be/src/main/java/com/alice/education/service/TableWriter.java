@@ -0,0 +1,30 @@
+package com.alice.education.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Writes a table row by row to an output stream, holding nothing but the
+ * current row, so exports use constant memory whatever their size.
+ * Cells may be strings, numbers, date-times or null.
+ */
+public interface TableWriter extends Closeable {
+
+    DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    void row(List<?> cells) throws IOException;
+
+    /** Finishes the document; does not close the underlying stream. */
+    @Override
+    void close() throws IOException;
+
+    static String text(Object cell) {
+        if (cell == null) return "";
+        if (cell instanceof LocalDateTime t) return DATE_TIME.format(t);
+        if (cell instanceof Double d && d == Math.rint(d) && !Double.isInfinite(d)) return Long.toString(d.longValue());
+        return cell.toString();
+    }
+}
@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -12,9 +13,11 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.alice.education.dto.CursorPageResponse;
 import com.alice.education.dto.TextbookRequest;
 import com.alice.education.dto.TextbookResponse;
 import com.alice.education.model.Subject;
@@ -25,6 +28,12 @@ import com.alice.education.repository.TextbookRepository;
 @Service
 public class TextbookService {
 
+    private static final KeysetPager.SortField[] SORT_FIELDS = {
+            new KeysetPager.SortField("createdAt", "createdAt", LocalDateTime.class),
+            new KeysetPager.SortField("title", "title", String.class),
+            new KeysetPager.SortField("id", "id", Long.class)
+    };
+
     @Autowired
     private TextbookRepository textbookRepository;
 
@@ -51,30 +60,48 @@ public class TextbookService {
         return mapToResponse(savedTextbook);
     }
 
+    @Transactional(readOnly = true)
     public TextbookResponse getTextbookById(Long id) {
         Textbook textbook = textbookRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Textbook not found with id: " + id));
         return mapToResponse(textbook);
     }
 
+    @Transactional(readOnly = true)
     public List<TextbookResponse> getAllTextbooks() {
         return textbookRepository.findAll().stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageResponse<TextbookResponse> getTextbookPage(Long subjectId, Boolean active, Integer grade,
+                                                                String sort, String direction, String cursor,
+                                                                Integer size) {
+        Specification<Textbook> filter = CatalogFilters.of(Textbook.class)
+                .equal(subjectId, "subject", "id")
+                .equal(active, "isActive")
+                .equal(grade, "grade")
+                .build();
+        return KeysetPager.page(textbookRepository, filter, KeysetPager.resolve(sort, SORT_FIELDS),
+                direction, cursor, size, rows -> rows.stream().map(this::mapToResponse).collect(Collectors.toList()));
+    }
+
+    @Transactional(readOnly = true)
     public List<TextbookResponse> getTextbooksBySubject(Long subjectId) {
         return textbookRepository.findBySubjectId(subjectId).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<TextbookResponse> getActiveTextbooks() {
         return textbookRepository.findByIsActiveTrue().stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<TextbookResponse> searchTextbooks(String keyword) {
         return textbookRepository.findByTitleContainingIgnoreCase(keyword).stream()
                 .map(this::mapToResponse)
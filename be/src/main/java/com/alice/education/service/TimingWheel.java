@@ -0,0 +1,217 @@
+package com.alice.education.service;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hierarchical hashed timing wheel.
+ *
+ * Four wheels of 64 slots each; a timer sits in the lowest wheel whose span
+ * covers its remaining delay and moves down one wheel whenever the higher
+ * wheel's slot comes round. Slots are doubly linked lists, so scheduling and
+ * cancelling are O(1) whatever the number of pending timers. Timers beyond the
+ * top wheel's span (64^4 ticks) wait in an overflow list that is re-examined
+ * once per top-wheel slot. Expired tasks run on the given executor.
+ */
+public final class TimingWheel {
+
+    private static final Logger log = LoggerFactory.getLogger(TimingWheel.class);
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    public interface Timeout {
+        long deadlineMillis();
+
+        /** Returns false if the timer already fired or was cancelled. */
+        boolean cancel();
+    }
+
+    private final class Node implements Timeout {
+        final long deadlineMillis;
+        final long deadlineTick;
+        final Runnable task;
+        Slot slot;
+        Node prev;
+        Node next;
+
+        Node(long deadlineMillis, long deadlineTick, Runnable task) {
+            this.deadlineMillis = deadlineMillis;
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+
+        @Override
+        public long deadlineMillis() {
+            return deadlineMillis;
+        }
+
+        @Override
+        public boolean cancel() {
+            synchronized (TimingWheel.this) {
+                if (slot == null) return false;
+                slot.remove(this);
+                size--;
+                return true;
+            }
+        }
+    }
+
+    private static final class Slot {
+        Node head;
+        Node tail;
+
+        void add(Node n) {
+            n.slot = this;
+            n.prev = tail;
+            n.next = null;
+            if (tail == null) head = n; else tail.next = n;
+            tail = n;
+        }
+
+        void remove(Node n) {
+            if (n.prev == null) head = n.next; else n.prev.next = n.next;
+            if (n.next == null) tail = n.prev; else n.next.prev = n.prev;
+            n.slot = null;
+            n.prev = null;
+            n.next = null;
+        }
+
+        /** Unlinks and returns all nodes. */
+        Node drain() {
+            Node first = head;
+            for (Node n = first; n != null; n = n.next) n.slot = null;
+            head = null;
+            tail = null;
+            return first;
+        }
+    }
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Executor executor;
+    private final Slot[][] wheels = new Slot[LEVELS][SLOTS];
+    private final Slot overflow = new Slot();
+    private final Thread worker;
+    private long currentTick;
+    private int size;
+    private volatile boolean running = true;
+
+    public TimingWheel(long tickMillis, Executor executor, String threadName) {
+        this(tickMillis, System.currentTimeMillis(), executor, threadName);
+    }
+
+    // Without a thread name no worker is started and the caller drives tick()
+    TimingWheel(long tickMillis, long startMillis, Executor executor, String threadName) {
+        this.tickMillis = tickMillis;
+        this.executor = executor;
+        this.startMillis = startMillis;
+        for (Slot[] wheel : wheels) {
+            for (int i = 0; i < SLOTS; i++) wheel[i] = new Slot();
+        }
+        if (threadName != null) {
+            worker = new Thread(this::run, threadName);
+            worker.setDaemon(true);
+            worker.start();
+        } else {
+            worker = null;
+        }
+    }
+
+    /** Runs {@code task} at {@code deadlineMillis}, or on the next tick if that is already past. */
+    public synchronized Timeout schedule(long deadlineMillis, Runnable task) {
+        long tick = Math.max(Math.ceilDiv(deadlineMillis - startMillis, tickMillis), currentTick + 1);
+        Node node = new Node(deadlineMillis, tick, task);
+        place(node);
+        size++;
+        return node;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void place(Node n) {
+        long delay = n.deadlineTick - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delay < 1L << (BITS * (level + 1))) {
+                wheels[level][(int) (n.deadlineTick >>> (BITS * level)) & MASK].add(n);
+                return;
+            }
+        }
+        overflow.add(n);
+    }
+
+    private void run() {
+        while (running) {
+            long next = startMillis + (currentTick + 1) * tickMillis;
+            long wait = next - System.currentTimeMillis();
+            if (wait > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    if (!running) return;
+                    continue;
+                }
+            }
+            tick();
+        }
+    }
+
+    /** Moves one tick forward and hands the expired tasks to the executor. */
+    void tick() {
+        for (Node n = advance(); n != null; ) {
+            Node following = n.next;
+            n.next = null;
+            fire(n);
+            n = following;
+        }
+    }
+
+    // Moves one tick forward and returns the expired nodes as a linked chain
+    private synchronized Node advance() {
+        long tick = ++currentTick;
+        // Higher wheels first, so their timers can still land in the slots
+        // cascaded below during this tick
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((tick & ((1L << (BITS * level)) - 1)) == 0) {
+                if (level == LEVELS - 1) {
+                    cascade(overflow);
+                }
+                cascade(wheels[level][(int) (tick >>> (BITS * level)) & MASK]);
+            }
+        }
+        Node expired = wheels[0][(int) tick & MASK].drain();
+        for (Node n = expired; n != null; n = n.next) size--;
+        return expired;
+    }
+
+    private void cascade(Slot slot) {
+        for (Node n = slot.drain(); n != null; ) {
+            Node following = n.next;
+            place(n);
+            n = following;
+        }
+    }
+
+    private void fire(Node n) {
+        try {
+            executor.execute(n.task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Timer task rejected: {}", e.getMessage());
+        }
+    }
+}
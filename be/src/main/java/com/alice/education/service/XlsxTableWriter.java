@@ -0,0 +1,122 @@
+package com.alice.education.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Minimal streaming XLSX writer: one worksheet, written as XML straight into
+ * the zip entry while rows arrive. Strings are inline strings, so there is no
+ * shared-string table to keep in memory; numbers are numeric cells and
+ * date-times are written as text.
+ */
+public class XlsxTableWriter implements TableWriter {
+
+    private final ZipOutputStream zip;
+    private final Writer out;
+    private int rowNumber;
+
+    public XlsxTableWriter(OutputStream stream, String sheetName) throws IOException {
+        zip = new ZipOutputStream(stream, StandardCharsets.UTF_8);
+        out = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 16 * 1024);
+
+        entry("[Content_Types].xml",
+                "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">" +
+                "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>" +
+                "<Default Extension=\"xml\" ContentType=\"application/xml\"/>" +
+                "<Override PartName=\"/xl/workbook.xml\" " +
+                "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>" +
+                "<Override PartName=\"/xl/worksheets/sheet1.xml\" " +
+                "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>" +
+                "</Types>");
+        entry("_rels/.rels",
+                "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">" +
+                "<Relationship Id=\"rId1\" Target=\"xl/workbook.xml\" Type=\"http://schemas.openxmlformats.org/" +
+                "officeDocument/2006/relationships/officeDocument\"/></Relationships>");
+        entry("xl/workbook.xml",
+                "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" " +
+                "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">" +
+                "<sheets><sheet name=\"" + escape(sheetTitle(sheetName)) + "\" sheetId=\"1\" r:id=\"rId1\"/></sheets>" +
+                "</workbook>");
+        entry("xl/_rels/workbook.xml.rels",
+                "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">" +
+                "<Relationship Id=\"rId1\" Target=\"worksheets/sheet1.xml\" Type=\"http://schemas.openxmlformats.org/" +
+                "officeDocument/2006/relationships/worksheet\"/></Relationships>");
+
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" +
+                "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+    }
+
+    @Override
+    public void row(List<?> cells) throws IOException {
+        rowNumber++;
+        out.write("<row r=\"");
+        out.write(Integer.toString(rowNumber));
+        out.write("\">");
+        for (Object cell : cells) {
+            if (cell == null) {
+                out.write("<c/>");
+            } else if (cell instanceof Number n && Double.isFinite(n.doubleValue())) {
+                out.write("<c><v>");
+                out.write(TableWriter.text(n));
+                out.write("</v></c>");
+            } else {
+                out.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                out.write(escape(TableWriter.text(cell)));
+                out.write("</t></is></c>");
+            }
+        }
+        out.write("</row>");
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.write("</sheetData></worksheet>");
+        out.flush();
+        zip.closeEntry();
+        zip.finish();
+    }
+
+    private void entry(String name, String xml) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+        out.write(xml);
+        out.flush();
+        zip.closeEntry();
+    }
+
+    // Sheet names: at most 31 characters, none of : \ / ? * [ ]
+    private static String sheetTitle(String name) {
+        String title = name == null || name.isBlank() ? "Sheet1" : name.replaceAll("[:\\\\/?*\\[\\]]", " ").trim();
+        return title.length() > 31 ? title.substring(0, 31) : title;
+    }
+
+    // XML escape; characters not allowed in XML 1.0 are dropped
+    private static String escape(String s) {
+        StringBuilder sb = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            String replacement = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                default -> c < 0x20 && c != '\t' && c != '\n' && c != '\r' ? "" : null;
+            };
+            if (replacement != null && sb == null) {
+                sb = new StringBuilder(s.length() + 16).append(s, 0, i);
+            }
+            if (sb != null) {
+                if (replacement != null) sb.append(replacement); else sb.append(c);
+            }
+        }
+        return sb != null ? sb.toString() : s;
+    }
+}
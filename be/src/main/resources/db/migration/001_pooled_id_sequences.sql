@@ -0,0 +1,73 @@
+-- Pooled sequence tables backing the SEQUENCE id generators (allocationSize = 50).
+-- MySQL has no native sequences, so Hibernate emulates each one with a single-row
+-- <table>_seq table. Run this once against an existing database before deploying;
+-- it seeds every sequence past the current MAX(id) of its table so new ids never
+-- collide with rows created under IDENTITY generation.
+
+CREATE TABLE IF NOT EXISTS accounts_seq (next_val BIGINT);
+INSERT INTO accounts_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM accounts_seq);
+UPDATE accounts_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM accounts);
+
+CREATE TABLE IF NOT EXISTS assignments_seq (next_val BIGINT);
+INSERT INTO assignments_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM assignments_seq);
+UPDATE assignments_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM assignments);
+
+CREATE TABLE IF NOT EXISTS assignment_submissions_seq (next_val BIGINT);
+INSERT INTO assignment_submissions_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM assignment_submissions_seq);
+UPDATE assignment_submissions_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM assignment_submissions);
+
+CREATE TABLE IF NOT EXISTS chapters_seq (next_val BIGINT);
+INSERT INTO chapters_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM chapters_seq);
+UPDATE chapters_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM chapters);
+
+CREATE TABLE IF NOT EXISTS class_students_seq (next_val BIGINT);
+INSERT INTO class_students_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM class_students_seq);
+UPDATE class_students_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM class_students);
+
+CREATE TABLE IF NOT EXISTS classrooms_seq (next_val BIGINT);
+INSERT INTO classrooms_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM classrooms_seq);
+UPDATE classrooms_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM classrooms);
+
+CREATE TABLE IF NOT EXISTS exams_seq (next_val BIGINT);
+INSERT INTO exams_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM exams_seq);
+UPDATE exams_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM exams);
+
+CREATE TABLE IF NOT EXISTS exam_submissions_seq (next_val BIGINT);
+INSERT INTO exam_submissions_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM exam_submissions_seq);
+UPDATE exam_submissions_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM exam_submissions);
+
+CREATE TABLE IF NOT EXISTS exam_submission_answers_seq (next_val BIGINT);
+INSERT INTO exam_submission_answers_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM exam_submission_answers_seq);
+UPDATE exam_submission_answers_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM exam_submission_answers);
+
+CREATE TABLE IF NOT EXISTS grade_columns_seq (next_val BIGINT);
+INSERT INTO grade_columns_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM grade_columns_seq);
+UPDATE grade_columns_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM grade_columns);
+
+CREATE TABLE IF NOT EXISTS password_reset_tokens_seq (next_val BIGINT);
+INSERT INTO password_reset_tokens_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM password_reset_tokens_seq);
+UPDATE password_reset_tokens_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM password_reset_tokens);
+
+CREATE TABLE IF NOT EXISTS questions_seq (next_val BIGINT);
+INSERT INTO questions_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM questions_seq);
+UPDATE questions_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM questions);
+
+CREATE TABLE IF NOT EXISTS student_grades_seq (next_val BIGINT);
+INSERT INTO student_grades_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM student_grades_seq);
+UPDATE student_grades_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM student_grades);
+
+CREATE TABLE IF NOT EXISTS subjects_seq (next_val BIGINT);
+INSERT INTO subjects_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM subjects_seq);
+UPDATE subjects_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM subjects);
+
+CREATE TABLE IF NOT EXISTS submission_answers_seq (next_val BIGINT);
+INSERT INTO submission_answers_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM submission_answers_seq);
+UPDATE submission_answers_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM submission_answers);
+
+CREATE TABLE IF NOT EXISTS textbooks_seq (next_val BIGINT);
+INSERT INTO textbooks_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM textbooks_seq);
+UPDATE textbooks_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM textbooks);
+
+CREATE TABLE IF NOT EXISTS verification_tokens_seq (next_val BIGINT);
+INSERT INTO verification_tokens_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM verification_tokens_seq);
+UPDATE verification_tokens_seq SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM verification_tokens);
@@ -0,0 +1,15 @@
+-- One attempt per student and exam, enforced by the database instead of a
+-- check-then-insert in ExamSubmissionService. Existing duplicates (from
+-- double clicks or retries) are removed first, keeping the earliest attempt.
+
+ALTER TABLE exam_submissions ADD COLUMN idempotency_key VARCHAR(100) NULL;
+
+DELETE a FROM exam_submission_answers a
+JOIN exam_submissions s ON s.id = a.submission_id
+JOIN exam_submissions k ON k.exam_id = s.exam_id AND k.student_id = s.student_id AND k.id < s.id;
+
+DELETE s FROM exam_submissions s
+JOIN exam_submissions k ON k.exam_id = s.exam_id AND k.student_id = s.student_id AND k.id < s.id;
+
+ALTER TABLE exam_submissions
+    ADD CONSTRAINT uk_exam_submissions_exam_student UNIQUE (exam_id, student_id);
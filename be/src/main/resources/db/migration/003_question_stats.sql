@@ -0,0 +1,17 @@
+-- Per-question item-analysis aggregates, maintained incrementally at submit
+-- time. After creating the table, trigger the rebuild (or wait for the nightly
+-- rebuild job) to backfill statistics of existing submissions.
+
+CREATE TABLE IF NOT EXISTS question_stats (
+    question_id       BIGINT NOT NULL PRIMARY KEY,
+    responses         BIGINT NOT NULL DEFAULT 0,
+    correct_count     BIGINT NOT NULL DEFAULT 0,
+    count_a           BIGINT NOT NULL DEFAULT 0,
+    count_b           BIGINT NOT NULL DEFAULT 0,
+    count_c           BIGINT NOT NULL DEFAULT 0,
+    count_d           BIGINT NOT NULL DEFAULT 0,
+    count_blank       BIGINT NOT NULL DEFAULT 0,
+    score_sum         DOUBLE NOT NULL DEFAULT 0,
+    score_sq_sum      DOUBLE NOT NULL DEFAULT 0,
+    correct_score_sum DOUBLE NOT NULL DEFAULT 0
+);
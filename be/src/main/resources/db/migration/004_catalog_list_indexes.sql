@@ -0,0 +1,14 @@
+-- Composite indexes behind the filtered, keyset-paginated catalog lists.
+-- InnoDB appends the primary key to every secondary index, so each one also
+-- covers the (created_at, id) ordering used for the page cursor.
+
+CREATE INDEX idx_assignments_teacher_created ON assignments (teacher_id, created_at);
+CREATE INDEX idx_assignments_active_created ON assignments (is_active, created_at);
+CREATE INDEX idx_exams_teacher_created ON exams (teacher_id, created_at);
+CREATE INDEX idx_exams_active_created ON exams (is_active, created_at);
+CREATE INDEX idx_classrooms_subject_year ON classrooms (subject_id, school_year);
+CREATE INDEX idx_classrooms_teacher_created ON classrooms (teacher_id, created_at);
+CREATE INDEX idx_classrooms_year_created ON classrooms (school_year, created_at);
+CREATE INDEX idx_textbooks_subject_active_created ON textbooks (subject_id, is_active, created_at);
+CREATE INDEX idx_chapters_active_created ON chapters (is_active, created_at);
+CREATE INDEX idx_accounts_role_created ON accounts (role, created_at);
@@ -0,0 +1,21 @@
+-- Server-side exam sessions (start, autosave, expiry). One session per student
+-- and exam, like exam_submissions.
+
+CREATE TABLE IF NOT EXISTS exam_sessions (
+    id         BIGINT      NOT NULL PRIMARY KEY,
+    exam_id    BIGINT      NOT NULL,
+    student_id BIGINT      NOT NULL,
+    status     VARCHAR(20) NOT NULL,
+    started_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    answers    TEXT        NULL,
+    saved_at   DATETIME(6) NULL,
+    CONSTRAINT uk_exam_sessions_exam_student UNIQUE (exam_id, student_id),
+    CONSTRAINT fk_exam_sessions_exam FOREIGN KEY (exam_id) REFERENCES exams (id),
+    CONSTRAINT fk_exam_sessions_student FOREIGN KEY (student_id) REFERENCES accounts (id)
+);
+
+CREATE INDEX idx_exam_sessions_status_expires ON exam_sessions (status, expires_at);
+
+CREATE TABLE IF NOT EXISTS exam_sessions_seq (next_val BIGINT);
+INSERT INTO exam_sessions_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM exam_sessions_seq);
@@ -0,0 +1,14 @@
+-- Exam start dates and the deadline timers' bookkeeping, plus the link from a
+-- grade column to the exam whose scores fill it.
+
+ALTER TABLE exams ADD COLUMN start_date DATETIME(6) NULL;
+ALTER TABLE exams ADD COLUMN opened_at DATETIME(6) NULL;
+ALTER TABLE exams ADD COLUMN closed_at DATETIME(6) NULL;
+
+-- Exams already past their due date count as closed, so the first startup
+-- does not deactivate them retroactively.
+UPDATE exams SET closed_at = due_date WHERE due_date < NOW();
+
+ALTER TABLE grade_columns ADD COLUMN source_exam_id BIGINT NULL;
+ALTER TABLE grade_columns ADD CONSTRAINT fk_grade_columns_source_exam
+    FOREIGN KEY (source_exam_id) REFERENCES exams (id);
@@ -0,0 +1,10 @@
+-- Packed answer storage: selected answers 3 bits per answer key position on the
+-- submission row, instead of one answer row per question. Submissions written
+-- before stay readable from their answer rows (dual read) until the backfill
+-- (app.submission.packed-backfill.enabled) has converted them.
+
+ALTER TABLE exam_submissions ADD COLUMN answer_data VARBINARY(512) NULL;
+ALTER TABLE exam_submissions ADD COLUMN answer_key_hash BIGINT NULL;
+
+ALTER TABLE assignment_submissions ADD COLUMN answer_data VARBINARY(512) NULL;
+ALTER TABLE assignment_submissions ADD COLUMN answer_key_hash BIGINT NULL;
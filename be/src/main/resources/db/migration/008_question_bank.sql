@@ -0,0 +1,63 @@
+-- Shared question bank: questions become immutable, versioned rows that exams
+-- and assignments reference through ordered link tables, instead of each
+-- owning private copies. Every existing question starts its own lineage
+-- (lineage_id = id), so answer keys keep their positions and fingerprints.
+
+ALTER TABLE questions ADD COLUMN lineage_id BIGINT NULL;
+ALTER TABLE questions ADD COLUMN version INT NOT NULL DEFAULT 1;
+ALTER TABLE questions ADD COLUMN created_by BIGINT NULL;
+ALTER TABLE questions ADD COLUMN created_at DATETIME(6) NULL;
+ALTER TABLE questions ADD CONSTRAINT fk_questions_created_by FOREIGN KEY (created_by) REFERENCES accounts (id);
+
+UPDATE questions SET lineage_id = id;
+UPDATE questions q JOIN exams e ON e.id = q.exam_id SET q.created_by = e.teacher_id, q.created_at = e.created_at;
+UPDATE questions q JOIN assignments a ON a.id = q.assignment_id
+    SET q.created_by = a.teacher_id, q.created_at = a.created_at;
+ALTER TABLE questions MODIFY lineage_id BIGINT NOT NULL;
+
+CREATE INDEX idx_questions_lineage_version ON questions (lineage_id, version);
+CREATE INDEX idx_questions_created_by ON questions (created_by, id);
+
+CREATE TABLE IF NOT EXISTS exam_questions (
+    id           BIGINT NOT NULL PRIMARY KEY,
+    exam_id      BIGINT NOT NULL,
+    question_id  BIGINT NOT NULL,
+    order_number INT    NOT NULL,
+    CONSTRAINT uk_exam_questions_exam_question UNIQUE (exam_id, question_id),
+    CONSTRAINT fk_exam_questions_exam FOREIGN KEY (exam_id) REFERENCES exams (id),
+    CONSTRAINT fk_exam_questions_question FOREIGN KEY (question_id) REFERENCES questions (id)
+);
+CREATE INDEX idx_exam_questions_question ON exam_questions (question_id);
+
+CREATE TABLE IF NOT EXISTS assignment_questions (
+    id            BIGINT NOT NULL PRIMARY KEY,
+    assignment_id BIGINT NOT NULL,
+    question_id   BIGINT NOT NULL,
+    order_number  INT    NOT NULL,
+    CONSTRAINT uk_assignment_questions_assignment_question UNIQUE (assignment_id, question_id),
+    CONSTRAINT fk_assignment_questions_assignment FOREIGN KEY (assignment_id) REFERENCES assignments (id),
+    CONSTRAINT fk_assignment_questions_question FOREIGN KEY (question_id) REFERENCES questions (id)
+);
+CREATE INDEX idx_assignment_questions_question ON assignment_questions (question_id);
+
+-- Link ids reuse the question ids, which are unique already
+INSERT INTO exam_questions (id, exam_id, question_id, order_number)
+    SELECT id, exam_id, id, COALESCE(order_number, 0) FROM questions WHERE exam_id IS NOT NULL;
+INSERT INTO assignment_questions (id, assignment_id, question_id, order_number)
+    SELECT id, assignment_id, id, COALESCE(order_number, 0) FROM questions WHERE assignment_id IS NOT NULL;
+
+CREATE TABLE IF NOT EXISTS exam_questions_seq (next_val BIGINT);
+INSERT INTO exam_questions_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM exam_questions;
+CREATE TABLE IF NOT EXISTS assignment_questions_seq (next_val BIGINT);
+INSERT INTO assignment_questions_seq (next_val) SELECT COALESCE(MAX(id), 0) + 1 FROM assignment_questions;
+
+-- The old owner columns are no longer mapped; clear them so deleting an exam
+-- or assignment is not blocked by the questions it used
+ALTER TABLE questions MODIFY order_number INT NULL;
+UPDATE questions SET exam_id = NULL, assignment_id = NULL;
+
+-- Lineage layouts of answer keys that packed answers refer to
+CREATE TABLE IF NOT EXISTS answer_key_layouts (
+    hash        BIGINT NOT NULL PRIMARY KEY,
+    lineage_ids TEXT   NOT NULL
+);
@@ -0,0 +1,5 @@
+-- Gradebooks are stored sparsely: only cells holding a score have a row, empty
+-- cells are synthesized when a gradebook is read. Drop the placeholder rows
+-- that used to be created for every student x column.
+
+DELETE FROM student_grades WHERE score IS NULL;
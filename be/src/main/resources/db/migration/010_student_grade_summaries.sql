@@ -0,0 +1,21 @@
+-- Running semester-average totals per student and classroom. Coefficients by
+-- grade type: QUIZ_15 x1, TEST_45 x2, MIDTERM x2, FINAL x3. Grade writes keep
+-- the totals current by delta; this fills them for the existing cells.
+
+CREATE TABLE IF NOT EXISTS student_grade_summaries (
+    classroom_id BIGINT NOT NULL,
+    student_id   BIGINT NOT NULL,
+    weighted_sum DOUBLE NOT NULL DEFAULT 0,
+    weight_total INT    NOT NULL DEFAULT 0,
+    PRIMARY KEY (classroom_id, student_id)
+);
+
+INSERT INTO student_grade_summaries (classroom_id, student_id, weighted_sum, weight_total)
+    SELECT g.classroom_id, g.student_id,
+           SUM(g.score * CASE c.type WHEN 'QUIZ_15' THEN 1 WHEN 'TEST_45' THEN 2
+                                     WHEN 'MIDTERM' THEN 2 WHEN 'FINAL' THEN 3 ELSE 0 END),
+           SUM(CASE c.type WHEN 'QUIZ_15' THEN 1 WHEN 'TEST_45' THEN 2
+                           WHEN 'MIDTERM' THEN 2 WHEN 'FINAL' THEN 3 ELSE 0 END)
+    FROM student_grades g JOIN grade_columns c ON c.id = g.grade_column_id
+    WHERE g.score IS NOT NULL
+    GROUP BY g.classroom_id, g.student_id;
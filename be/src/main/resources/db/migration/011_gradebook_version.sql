@@ -0,0 +1,6 @@
+-- Per-classroom gradebook version, bumped with every change to the classroom's
+-- grade columns, cells, averages or roster. It is the ETag of the gradebook
+-- and the key of its cached responses. Not mapped on Classroom, so saving the
+-- entity never writes back a stale value.
+
+ALTER TABLE classrooms ADD COLUMN gradebook_version BIGINT NOT NULL DEFAULT 0;
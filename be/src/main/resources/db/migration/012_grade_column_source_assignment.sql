@@ -0,0 +1,6 @@
+-- Grade columns can be linked to an assignment as well as to an exam; the
+-- linked column follows each student's best score as submissions arrive.
+
+ALTER TABLE grade_columns ADD COLUMN source_assignment_id BIGINT NULL;
+ALTER TABLE grade_columns ADD CONSTRAINT fk_grade_columns_source_assignment
+    FOREIGN KEY (source_assignment_id) REFERENCES assignments (id);
@@ -0,0 +1,4 @@
+-- Formula grade columns: computed from the classroom's other columns when the
+-- gradebook is read, never stored in student_grades.
+
+ALTER TABLE grade_columns ADD COLUMN formula VARCHAR(500) NULL;
@@ -0,0 +1,22 @@
+-- Cell versions and the gradebook change log. A cell's version is the
+-- gradebook version that last wrote it, so an editor holding an older
+-- gradebook version can be told the cell has changed since. The log records
+-- each cell write by gradebook version and serves gradebook deltas; a write
+-- that changed no cell leaves one row without a cell, so that every version
+-- made by cell writes is in the log. It is pruned after a retention period.
+
+ALTER TABLE student_grades ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+CREATE INDEX idx_student_grades_classroom_version ON student_grades (classroom_id, version);
+
+CREATE TABLE IF NOT EXISTS grade_change_log (
+    id              BIGINT      NOT NULL AUTO_INCREMENT,
+    classroom_id    BIGINT      NOT NULL,
+    version         BIGINT      NOT NULL,
+    grade_column_id BIGINT      NULL,
+    student_id      BIGINT      NULL,
+    score           DOUBLE      NULL,
+    changed_at      DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_grade_change_log_classroom_version (classroom_id, version),
+    KEY idx_grade_change_log_changed_at (changed_at)
+);
@@ -0,0 +1,19 @@
+-- Finalized gradebooks. Finalizing a classroom's gradebook stores it as one
+-- gzip-compressed snapshot (the gradebook response as served, averages and
+-- statistics included, plus the raw cells for a reopen) and removes its cells
+-- from student_grades; reads are served from the snapshot until the gradebook
+-- is reopened. The flag on classrooms sits on the row every grade writer
+-- locks first, so a writer sees a finalize that committed before its lock.
+
+ALTER TABLE classrooms ADD COLUMN gradebook_finalized_at DATETIME(6) NULL;
+
+CREATE TABLE IF NOT EXISTS grade_book_snapshots (
+    classroom_id BIGINT      NOT NULL,
+    version      BIGINT      NOT NULL,
+    finalized_at DATETIME(6) NOT NULL,
+    finalized_by BIGINT      NOT NULL,
+    grade_book   MEDIUMBLOB  NOT NULL,
+    cells        MEDIUMBLOB  NOT NULL,
+    PRIMARY KEY (classroom_id),
+    CONSTRAINT fk_grade_book_snapshots_classroom FOREIGN KEY (classroom_id) REFERENCES classrooms (id)
+);
@@ -0,0 +1,16 @@
+-- Composite indexes for the other sorts the catalog lists accept (title, name,
+-- fullName, username). Each one leads with the filter column of an index from
+-- 004, so a filtered page sorted by that field reads (filter, sort key, id) in
+-- order. Sorting by id alone is served by the filter column's own index, which
+-- InnoDB keeps in primary-key order.
+
+CREATE INDEX idx_assignments_teacher_title ON assignments (teacher_id, title, id);
+CREATE INDEX idx_assignments_active_title ON assignments (is_active, title, id);
+CREATE INDEX idx_exams_teacher_title ON exams (teacher_id, title, id);
+CREATE INDEX idx_exams_active_title ON exams (is_active, title, id);
+CREATE INDEX idx_classrooms_teacher_name ON classrooms (teacher_id, name, id);
+CREATE INDEX idx_classrooms_year_name ON classrooms (school_year, name, id);
+CREATE INDEX idx_textbooks_subject_active_title ON textbooks (subject_id, is_active, title, id);
+CREATE INDEX idx_chapters_active_title ON chapters (is_active, title, id);
+CREATE INDEX idx_accounts_role_full_name ON accounts (role, full_name, id);
+CREATE INDEX idx_accounts_role_username ON accounts (role, username, id);
@@ -0,0 +1,99 @@
+package com.alice.education;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Starts the application without its web server for a JMH benchmark, on the
+ * test database (src/test/resources). Set BENCHMARK_JDBC_URL, with
+ * BENCHMARK_JDBC_USER and BENCHMARK_JDBC_PASSWORD, to run against a scratch
+ * MySQL schema instead; its tables are dropped and recreated, with the
+ * non-entity ones from test-schema.sql.
+ *
+ * The in-memory database answers without a network round trip, which is
+ * what batching and fewer queries save. {@link #start(long, String...)} adds
+ * one: every statement execution and commit waits the given time first.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {}
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        return start(0, properties);
+    }
+
+    public static ConfigurableApplicationContext start(long roundTripMicros, String... properties) {
+        Stream<String> args = Arrays.stream(properties).map(p -> "--" + p);
+        String url = System.getenv("BENCHMARK_JDBC_URL");
+        if (url != null) {
+            args = Stream.concat(args, Stream.of(
+                    "--spring.datasource.url=" + url,
+                    "--spring.datasource.username=" + System.getenv().getOrDefault("BENCHMARK_JDBC_USER", "root"),
+                    "--spring.datasource.password=" + System.getenv().getOrDefault("BENCHMARK_JDBC_PASSWORD", "")));
+        }
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(EducationApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false);
+        if (roundTripMicros > 0) {
+            builder.initializers(context -> context.getBeanFactory()
+                    .addBeanPostProcessor(roundTrip(roundTripMicros * 1000)));
+        }
+        return builder.run(Stream.concat(args, Stream.of("--logging.level.root=WARN")).toArray(String[]::new));
+    }
+
+    private static BeanPostProcessor roundTrip(long nanos) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                return new DelegatingDataSource(dataSource) {
+                    @Override
+                    public Connection getConnection() throws SQLException {
+                        return delayed(Connection.class, super.getConnection(), nanos);
+                    }
+                };
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T delayed(Class<T> type, T target, long nanos) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("execute") || name.equals("commit")) {
+                long end = System.nanoTime() + nanos;
+                while (System.nanoTime() < end) {
+                    Thread.onSpinWait();
+                }
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            // Statements come from the connection; wrap them too
+            if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                return delayed((Class<Statement>) method.getReturnType(), statement, nanos);
+            }
+            return result;
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
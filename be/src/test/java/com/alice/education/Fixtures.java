@@ -0,0 +1,89 @@
+package com.alice.education;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.context.ApplicationContext;
+
+import com.alice.education.model.Account;
+import com.alice.education.model.Classroom;
+import com.alice.education.model.Provider;
+import com.alice.education.model.Question;
+import com.alice.education.model.Role;
+import com.alice.education.model.Subject;
+import com.alice.education.repository.AccountRepository;
+import com.alice.education.repository.ClassroomRepository;
+import com.alice.education.repository.QuestionRepository;
+import com.alice.education.repository.SubjectRepository;
+
+/**
+ * Builds rows for tests and benchmarks that run against the test database.
+ * Names are unique per JVM, so fixtures of several tests can share one context.
+ */
+public class Fixtures {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final AccountRepository accountRepository;
+    private final SubjectRepository subjectRepository;
+    private final ClassroomRepository classroomRepository;
+    private final QuestionRepository questionRepository;
+
+    public Fixtures(ApplicationContext context) {
+        accountRepository = context.getBean(AccountRepository.class);
+        subjectRepository = context.getBean(SubjectRepository.class);
+        classroomRepository = context.getBean(ClassroomRepository.class);
+        questionRepository = context.getBean(QuestionRepository.class);
+    }
+
+    public Account account(Role role) {
+        String username = role.name().toLowerCase() + SEQUENCE.incrementAndGet();
+        Account account = new Account(username, username, "{noop}secret", username + "@example.com",
+                role, Provider.LOCAL);
+        account.setIsActive(true);
+        return accountRepository.save(account);
+    }
+
+    public List<Account> students(int count) {
+        List<Account> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            students.add(account(Role.CUSTOMER));
+        }
+        return students;
+    }
+
+    public Classroom classroom(Account teacher, List<Account> students) {
+        Subject subject = subjectRepository.save(new Subject("Toán " + SEQUENCE.incrementAndGet(), null, 10));
+        Classroom classroom = new Classroom("10A" + SEQUENCE.incrementAndGet(), "10", "2025-2026", teacher, subject);
+        students.forEach(classroom::addStudent);
+        return classroomRepository.save(classroom);
+    }
+
+    /** Unsaved questions; the i-th question's correct answer is "ABCD"[i % 4]. */
+    public static List<Question> newQuestions(int count, Account author) {
+        List<Question> questions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Question question = new Question();
+            question.setContent("Câu " + (i + 1));
+            question.setOptionA("A");
+            question.setOptionB("B");
+            question.setOptionC("C");
+            question.setOptionD("D");
+            question.setCorrectAnswer("ABCD".substring(i % 4, i % 4 + 1));
+            question.setLineageId(0L);
+            question.setCreatedBy(author);
+            questions.add(question);
+        }
+        return questions;
+    }
+
+    /** Saved questions, each its own lineage. */
+    public List<Question> questions(int count, Account author) {
+        List<Question> questions = questionRepository.saveAll(newQuestions(count, author));
+        for (Question question : questions) {
+            question.setLineageId(question.getId());
+        }
+        return questionRepository.saveAll(questions);
+    }
+}
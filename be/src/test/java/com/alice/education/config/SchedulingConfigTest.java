@@ -0,0 +1,40 @@
+package com.alice.education.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@SpringBootTest
+class SchedulingConfigTest {
+
+    @Autowired
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    @Test
+    void aLongJobDoesNotHoldUpTheOthers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch ran = new CountDownLatch(1);
+        taskScheduler.schedule(() -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, Instant.now());
+        taskScheduler.schedule(ran::countDown, Instant.now().plusMillis(50));
+
+        try {
+            assertThat(ran.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            release.countDown();
+        }
+        assertThat(taskScheduler.getPoolSize()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,55 @@
+package com.alice.education.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import com.alice.education.service.ExportService;
+
+class WebConfigTest {
+
+    private static final long DEFAULT_TIMEOUT = 30_000;
+    private static final long EXPORT_TIMEOUT = 600_000;
+
+    @Test
+    void exportsGetTheExportTimeout() throws Exception {
+        MockHttpServletRequest request = startAsync(true);
+
+        assertThat(request.getAsyncContext().getTimeout()).isEqualTo(EXPORT_TIMEOUT);
+    }
+
+    @Test
+    void otherAsyncResponsesKeepTheDefault() throws Exception {
+        MockHttpServletRequest request = startAsync(false);
+
+        assertThat(request.getAsyncContext().getTimeout()).isEqualTo(DEFAULT_TIMEOUT);
+    }
+
+    // Starts async processing the way a StreamingResponseBody return value does
+    private static MockHttpServletRequest startAsync(boolean export) throws Exception {
+        WebConfig config = new WebConfig();
+        ReflectionTestUtils.setField(config, "exportTimeoutMs", EXPORT_TIMEOUT);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        if (export) {
+            request.setAttribute(ExportService.EXPORT_ATTRIBUTE, Boolean.TRUE);
+        }
+        StandardServletAsyncWebRequest asyncRequest =
+                new StandardServletAsyncWebRequest(request, new MockHttpServletResponse());
+        asyncRequest.setTimeout(DEFAULT_TIMEOUT);
+        WebAsyncManager manager = WebAsyncUtils.getAsyncManager(request);
+        manager.setAsyncWebRequest(asyncRequest);
+        manager.setTaskExecutor(new SimpleAsyncTaskExecutor());
+        manager.registerCallableInterceptor("export-timeout", config.exportTimeout());
+
+        manager.startCallableProcessing(() -> null);
+        return request;
+    }
+}
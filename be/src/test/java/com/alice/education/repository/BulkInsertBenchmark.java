@@ -0,0 +1,183 @@
+package com.alice.education.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alice.education.BenchmarkContext;
+import com.alice.education.Fixtures;
+import com.alice.education.model.Account;
+import com.alice.education.model.Classroom;
+import com.alice.education.model.Exam;
+import com.alice.education.model.ExamQuestion;
+import com.alice.education.model.ExamSubmission;
+import com.alice.education.model.ExamSubmissionAnswer;
+import com.alice.education.model.GradeColumn;
+import com.alice.education.model.GradeType;
+import com.alice.education.model.Question;
+import com.alice.education.model.Role;
+import com.alice.education.model.StudentGrade;
+
+/**
+ * The bulk insert paths with JDBC batching (pooled sequence ids, batch size
+ * 50) against one statement per row ({@code batchSize=1}, which is what
+ * IDENTITY ids forced; it still skips their generated-key reads, so it
+ * understates the old cost), with a database round trip of
+ * {@code roundTripMicros}:
+ * <ul>
+ *   <li>{@code examWithQuestions}: createExam with 40 new questions</li>
+ *   <li>{@code columnWithCells}: a grade column with a cell for each of 45 students</li>
+ *   <li>{@code submissionWithAnswers}: a submission with 40 answer rows</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    private static final int QUESTIONS = 40;
+    private static final int STUDENTS = 45;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    @Param({"200"})
+    private long roundTripMicros;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private ExamRepository examRepository;
+    private ExamSubmissionRepository submissionRepository;
+    private GradeColumnRepository gradeColumnRepository;
+    private StudentGradeRepository studentGradeRepository;
+
+    private Account teacher;
+    private List<Account> students;
+    private Classroom classroom;
+    private List<Question> questions;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(roundTripMicros, "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        examRepository = context.getBean(ExamRepository.class);
+        submissionRepository = context.getBean(ExamSubmissionRepository.class);
+        gradeColumnRepository = context.getBean(GradeColumnRepository.class);
+        studentGradeRepository = context.getBean(StudentGradeRepository.class);
+
+        Fixtures fixtures = new Fixtures(context);
+        teacher = fixtures.account(Role.TEACHER);
+        students = fixtures.students(STUDENTS);
+        classroom = fixtures.classroom(teacher, students);
+        questions = fixtures.questions(QUESTIONS, teacher);
+    }
+
+    // Keeps the tables at their setup size
+    @TearDown(Level.Iteration)
+    public void clear() {
+        jdbcTemplate.update("DELETE FROM exam_submission_answers");
+        jdbcTemplate.update("DELETE FROM exam_submissions");
+        jdbcTemplate.update("DELETE FROM student_grades");
+        jdbcTemplate.update("DELETE FROM grade_columns");
+        jdbcTemplate.update("DELETE FROM exam_questions");
+        jdbcTemplate.update("DELETE FROM exams");
+        jdbcTemplate.update("DELETE FROM questions WHERE id NOT IN (" +
+                String.join(",", questions.stream().map(q -> q.getId().toString()).toList()) + ")");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Exam examWithQuestions() {
+        return transactionTemplate.execute(status -> {
+            Exam exam = exam();
+            List<Question> created = Fixtures.newQuestions(QUESTIONS, teacher);
+            for (int i = 0; i < created.size(); i++) {
+                exam.getQuestionLinks().add(new ExamQuestion(exam, created.get(i), i + 1));
+            }
+            context.getBean(QuestionRepository.class).saveAll(created);
+            return examRepository.save(exam);
+        });
+    }
+
+    @Benchmark
+    public List<StudentGrade> columnWithCells() {
+        return transactionTemplate.execute(status -> {
+            GradeColumn column = new GradeColumn();
+            column.setClassroom(classroom);
+            column.setName("Kiểm tra 15 phút");
+            column.setType(GradeType.QUIZ_15);
+            column.setIsCustom(true);
+            gradeColumnRepository.save(column);
+            List<StudentGrade> cells = new ArrayList<>(STUDENTS);
+            for (Account student : students) {
+                StudentGrade cell = new StudentGrade();
+                cell.setGradeColumn(column);
+                cell.setStudent(student);
+                cell.setClassroom(classroom);
+                cell.setScore(8.5);
+                cells.add(cell);
+            }
+            return studentGradeRepository.saveAll(cells);
+        });
+    }
+
+    @Benchmark
+    public ExamSubmission submissionWithAnswers() {
+        return transactionTemplate.execute(status -> {
+            // A new exam each time, as the student may submit once per exam
+            Exam exam = examRepository.save(exam());
+            ExamSubmission submission = new ExamSubmission();
+            submission.setExam(exam);
+            submission.setStudent(students.get(0));
+            submission.setSubmittedAt(LocalDateTime.now());
+            submission.setTotalCount(QUESTIONS);
+            submission.setCorrectCount(QUESTIONS / 4);
+            submission.setScore(2.5);
+            for (int i = 0; i < QUESTIONS; i++) {
+                ExamSubmissionAnswer answer = new ExamSubmissionAnswer();
+                answer.setSubmission(submission);
+                answer.setQuestion(questions.get(i));
+                answer.setSelectedAnswer("A");
+                answer.setIsCorrect(i % 4 == 0);
+                submission.getAnswers().add(answer);
+            }
+            return submissionRepository.save(submission);
+        });
+    }
+
+    private Exam exam() {
+        Exam exam = new Exam();
+        exam.setTitle("Kiểm tra 45 phút");
+        exam.setExamType(GradeType.TEST_45);
+        exam.setTeacher(teacher);
+        return exam;
+    }
+}
@@ -0,0 +1,98 @@
+package com.alice.education.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alice.education.Fixtures;
+import com.alice.education.model.Account;
+import com.alice.education.model.Classroom;
+import com.alice.education.model.GradeColumn;
+import com.alice.education.model.GradeType;
+import com.alice.education.model.Role;
+import com.alice.education.model.StudentGrade;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+class JdbcBatchingTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private GradeColumnRepository gradeColumnRepository;
+
+    @Autowired
+    private StudentGradeRepository studentGradeRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    private Statistics statistics;
+    private Account teacher;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        teacher = new Fixtures(context).account(Role.TEACHER);
+    }
+
+    @Test
+    void cellsOfANewColumnAreInsertedInOneBatch() {
+        Fixtures fixtures = new Fixtures(context);
+        List<Account> students = fixtures.students(45);
+        Classroom classroom = fixtures.classroom(teacher, students);
+
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            GradeColumn column = new GradeColumn();
+            column.setClassroom(classroom);
+            column.setName("Kiểm tra 15 phút");
+            column.setType(GradeType.QUIZ_15);
+            gradeColumnRepository.save(column);
+            List<StudentGrade> cells = new ArrayList<>();
+            for (Account student : students) {
+                StudentGrade cell = new StudentGrade();
+                cell.setGradeColumn(column);
+                cell.setStudent(student);
+                cell.setClassroom(classroom);
+                cell.setScore(8.0);
+                cells.add(cell);
+            }
+            studentGradeRepository.saveAll(cells);
+        });
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(46);
+        // One statement per table, plus at most one id block per sequence
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    void questionsOfAnExamAreInsertedInBatches() {
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status ->
+                questionRepository.saveAll(Fixtures.newQuestions(120, teacher)));
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(120);
+        // Three batches of 50, plus the id blocks
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(9);
+    }
+}
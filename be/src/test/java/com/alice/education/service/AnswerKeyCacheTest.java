@@ -0,0 +1,117 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.alice.education.repository.AssignmentRepository;
+import com.alice.education.repository.ExamRepository;
+import com.alice.education.repository.QuestionRepository;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AnswerKeyCacheTest {
+
+    @Mock
+    private QuestionRepository questionRepository;
+
+    @Mock
+    private ExamRepository examRepository;
+
+    @Mock
+    private AssignmentRepository assignmentRepository;
+
+    @InjectMocks
+    private AnswerKeyCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+        cache.init();
+        when(examRepository.findStatusById(anyLong())).thenAnswer(inv -> statusRow());
+        when(questionRepository.findAnswerKeyByExamId(anyLong())).thenAnswer(inv -> {
+            Long examId = inv.getArgument(0);
+            return rows(new Object[]{examId * 10, examId * 10, "A"});
+        });
+    }
+
+    @Test
+    void compilesOncePerExam() {
+        AnswerKey first = cache.getExamKey(1L);
+        AnswerKey second = cache.getExamKey(1L);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.indexOf(10)).isZero();
+        verify(questionRepository, times(1)).findAnswerKeyByExamId(1L);
+    }
+
+    @Test
+    void dropsTheLeastRecentlyUsedKeyPastTheBound() {
+        cache.getExamKey(1L);
+        cache.getExamKey(2L);
+        cache.getExamKey(1L);
+        cache.getExamKey(3L);
+
+        cache.getExamKey(1L);
+        cache.getExamKey(2L);
+
+        verify(questionRepository, times(1)).findAnswerKeyByExamId(1L);
+        verify(questionRepository, times(2)).findAnswerKeyByExamId(2L);
+    }
+
+    @Test
+    void evictionRecompiles() {
+        AnswerKey before = cache.getExamKey(1L);
+        cache.evictExam(1L);
+
+        assertThat(cache.getExamKey(1L)).isNotSameAs(before);
+        verify(questionRepository, times(2)).findAnswerKeyByExamId(1L);
+    }
+
+    @Test
+    void keyCompiledAcrossAnEvictionIsNotCached() {
+        when(questionRepository.findAnswerKeyByExamId(1L)).thenAnswer(inv -> {
+            // The exam is edited while its old questions are being read
+            cache.evictExam(1L);
+            return rows(new Object[]{10L, 10L, "A"});
+        });
+
+        cache.getExamKey(1L);
+        cache.getExamKey(1L);
+
+        verify(questionRepository, times(2)).findAnswerKeyByExamId(1L);
+    }
+
+    @Test
+    void missingExamIsRejectedAndNotCached() {
+        when(examRepository.findStatusById(9L)).thenReturn(List.of());
+
+        assertThatThrownBy(() -> cache.getExamKey(9L)).hasMessage("Bài kiểm tra không tồn tại");
+        assertThatThrownBy(() -> cache.getExamKey(9L)).hasMessage("Bài kiểm tra không tồn tại");
+        verify(examRepository, times(2)).findStatusById(9L);
+    }
+
+    private static List<Object[]> statusRow() {
+        return rows(new Object[]{Boolean.TRUE, null, "Kiểm tra"});
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
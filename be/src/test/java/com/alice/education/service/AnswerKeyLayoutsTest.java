@@ -0,0 +1,103 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alice.education.Fixtures;
+import com.alice.education.dto.SubmissionAnswerRequest;
+import com.alice.education.dto.SubmitExamRequest;
+import com.alice.education.model.Account;
+import com.alice.education.model.Exam;
+import com.alice.education.model.ExamQuestion;
+import com.alice.education.model.Question;
+import com.alice.education.model.Role;
+import com.alice.education.repository.ExamRepository;
+
+@SpringBootTest
+class AnswerKeyLayoutsTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private ExamSubmissionService submissionService;
+
+    @Autowired
+    private AnswerKeyLayouts layouts;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void layoutOfARolledBackSubmitIsWrittenByTheNextOne() {
+        Fixtures fixtures = new Fixtures(context);
+        Account teacher = fixtures.account(Role.TEACHER);
+        List<Question> questions = fixtures.questions(3, teacher);
+        Exam exam = new Exam();
+        exam.setTitle("Kiểm tra 15 phút");
+        exam.setTeacher(teacher);
+        for (int i = 0; i < questions.size(); i++) {
+            exam.getQuestionLinks().add(new ExamQuestion(exam, questions.get(i), i + 1));
+        }
+        Long examId = examRepository.save(exam).getId();
+        SubmitExamRequest request = new SubmitExamRequest();
+        request.setAnswers(new ArrayList<>());
+        String[] choices = {"A", "D", "C"};
+        for (int i = 0; i < questions.size(); i++) {
+            SubmissionAnswerRequest answer = new SubmissionAnswerRequest();
+            answer.setQuestionId(questions.get(i).getId());
+            answer.setSelectedAnswer(choices[i]);
+            request.getAnswers().add(answer);
+        }
+
+        // The first submit of this key rolls back, layout row included
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            submissionService.submitExpiredSession(fixtures.account(Role.CUSTOMER).getUsername(), examId,
+                    request, null);
+            status.setRollbackOnly();
+        });
+        submissionService.submitExpiredSession(fixtures.account(Role.CUSTOMER).getUsername(), examId, request, null);
+        // As after a restart
+        ((Map<?, ?>) ReflectionTestUtils.getField(layouts, "layouts")).clear();
+
+        Map<String, Object> stored = jdbcTemplate.queryForMap(
+                "SELECT answer_data, answer_key_hash FROM exam_submissions WHERE exam_id = ?", examId);
+        // The exam after a question was added: a different key, the old answers move over by lineage
+        long[] ids = new long[4];
+        long[] lineages = new long[4];
+        for (int i = 0; i < 3; i++) {
+            ids[i] = questions.get(i).getId();
+            lineages[i] = questions.get(i).getLineageId();
+        }
+        ids[3] = Long.MAX_VALUE;
+        lineages[3] = Long.MAX_VALUE;
+        AnswerKey changed = AnswerKey.compile(ids, lineages, new String[]{"A", "B", "C", "D"}, true, null, "");
+
+        byte[] selected = layouts.decode((byte[]) stored.get("answer_data"), (Long) stored.get("answer_key_hash"),
+                changed);
+
+        assertThat(selected).isNotNull();
+        for (int i = 0; i < 3; i++) {
+            assertThat(AnswerKey.decode(selected[changed.indexOf(ids[i])])).isEqualTo(choices[i]);
+        }
+        assertThat(selected[changed.indexOf(Long.MAX_VALUE)]).isEqualTo(AnswerKey.NO_ANSWER);
+    }
+}
@@ -0,0 +1,64 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class AnswerKeyTest {
+
+    // Rows arrive in query order; the key orders positions by lineage
+    private final AnswerKey key = AnswerKey.compile(
+            new long[]{30, 10, 20}, new long[]{3, 1, 2}, new String[]{"C", "A", "B"}, true, null, "Kiểm tra");
+
+    @Test
+    void positionsFollowLineageOrder() {
+        assertThat(key.size()).isEqualTo(3);
+        assertThat(key.indexOf(10)).isZero();
+        assertThat(key.indexOf(20)).isEqualTo(1);
+        assertThat(key.indexOf(30)).isEqualTo(2);
+        assertThat(key.indexOf(99)).isNegative();
+        assertThat(key.indexOfLineage(3)).isEqualTo(2);
+        assertThat(key.questionIdAt(1)).isEqualTo(20);
+        assertThat(key.correctAnswerAt(2)).isEqualTo(AnswerKey.encode("C"));
+    }
+
+    @Test
+    void gradesEncodedAnswers() {
+        byte[] selected = {AnswerKey.encode("A"), AnswerKey.encode("D"), AnswerKey.NO_ANSWER};
+        assertThat(key.isCorrect(0, selected[0])).isTrue();
+        assertThat(key.isCorrect(1, selected[1])).isFalse();
+        assertThat(key.isCorrect(2, AnswerKey.NO_ANSWER)).isFalse();
+        assertThat(key.countCorrect(selected)).isEqualTo(1);
+        assertThat(key.score(1)).isEqualTo(3.33);
+        assertThat(key.score(3)).isEqualTo(10.0);
+    }
+
+    @Test
+    void encodesOnlyTheFourChoices() {
+        assertThat(AnswerKey.encode("A")).isZero();
+        assertThat(AnswerKey.encode("D")).isEqualTo((byte) 3);
+        assertThat(AnswerKey.encode("E")).isEqualTo(AnswerKey.NO_ANSWER);
+        assertThat(AnswerKey.encode("a")).isEqualTo(AnswerKey.NO_ANSWER);
+        assertThat(AnswerKey.encode("AB")).isEqualTo(AnswerKey.NO_ANSWER);
+        assertThat(AnswerKey.encode(null)).isEqualTo(AnswerKey.NO_ANSWER);
+        assertThat(AnswerKey.decode(AnswerKey.encode("B"))).isEqualTo("B");
+        assertThat(AnswerKey.decode(AnswerKey.NO_ANSWER)).isNull();
+    }
+
+    @Test
+    void fingerprintDependsOnLineagesOnly() {
+        AnswerKey edited = AnswerKey.compile(
+                new long[]{31, 10, 20}, new long[]{3, 1, 2}, new String[]{"D", "A", "B"}, false, null, "Khác");
+        AnswerKey regrouped = AnswerKey.compile(
+                new long[]{30, 10, 40}, new long[]{3, 1, 4}, new String[]{"C", "A", "B"}, true, null, "Kiểm tra");
+        assertThat(edited.fingerprint()).isEqualTo(key.fingerprint());
+        assertThat(regrouped.fingerprint()).isNotEqualTo(key.fingerprint());
+    }
+
+    @Test
+    void emptyKeyScoresZero() {
+        AnswerKey empty = AnswerKey.compile(new long[0], new long[0], new String[0], true, null, "Trống");
+        assertThat(empty.score(0)).isZero();
+        assertThat(empty.countCorrect(new byte[0])).isZero();
+    }
+}
@@ -0,0 +1,123 @@
+package com.alice.education.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alice.education.BenchmarkContext;
+import com.alice.education.Fixtures;
+import com.alice.education.dto.ExamResponse;
+import com.alice.education.model.Account;
+import com.alice.education.model.Classroom;
+import com.alice.education.model.Exam;
+import com.alice.education.model.ExamQuestion;
+import com.alice.education.model.GradeType;
+import com.alice.education.model.Question;
+import com.alice.education.model.Role;
+import com.alice.education.repository.ExamRepository;
+import com.alice.education.repository.QuestionRepository;
+
+/**
+ * The exam list endpoint over {@code EXAMS} exams of {@code QUESTIONS}
+ * questions, each assigned to two classrooms, with a database round trip of
+ * {@code roundTripMicros}:
+ * <ul>
+ *   <li>{@code entities}: the list as it was built before the summary
+ *   projections, every exam loaded and mapped with its questions</li>
+ *   <li>{@code summaries}: {@link ExamService#getAllExams()}</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExamListBenchmark {
+
+    private static final int EXAMS = 30;
+    private static final int QUESTIONS = 40;
+
+    @Param({"200"})
+    private long roundTripMicros;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnly;
+    private ExamRepository examRepository;
+    private ExamService examService;
+    private ExamService target;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(roundTripMicros);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        examRepository = context.getBean(ExamRepository.class);
+        examService = context.getBean(ExamService.class);
+        target = AopTestUtils.getTargetObject(examService);
+
+        Fixtures fixtures = new Fixtures(context);
+        Account teacher = fixtures.account(Role.TEACHER);
+        List<Account> students = fixtures.students(5);
+        Classroom first = fixtures.classroom(teacher, students);
+        Classroom second = fixtures.classroom(teacher, students);
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        tx.executeWithoutResult(status -> {
+            List<Exam> exams = new ArrayList<>(EXAMS);
+            for (int e = 0; e < EXAMS; e++) {
+                List<Question> questions = context.getBean(QuestionRepository.class)
+                        .saveAll(Fixtures.newQuestions(QUESTIONS, teacher));
+                Exam exam = new Exam();
+                exam.setTitle("Kiểm tra " + e);
+                exam.setExamType(GradeType.TEST_45);
+                exam.setTeacher(teacher);
+                exam.getClassrooms().add(first);
+                exam.getClassrooms().add(second);
+                for (int i = 0; i < questions.size(); i++) {
+                    exam.getQuestionLinks().add(new ExamQuestion(exam, questions.get(i), i + 1));
+                }
+                exams.add(exam);
+            }
+            examRepository.saveAll(exams);
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ExamResponse> entities() {
+        return readOnly.execute(status -> {
+            List<ExamResponse> responses = new ArrayList<>();
+            for (Exam exam : examRepository.findAll()) {
+                responses.add(ReflectionTestUtils.invokeMethod(target, "mapToResponse", exam, true));
+            }
+            return responses;
+        });
+    }
+
+    @Benchmark
+    public List<ExamResponse> summaries() {
+        return examService.getAllExams();
+    }
+}
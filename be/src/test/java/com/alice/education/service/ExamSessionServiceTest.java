@@ -0,0 +1,116 @@
+package com.alice.education.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.alice.education.dto.SubmitExamRequest;
+import com.alice.education.model.ExamSessionStatus;
+import com.alice.education.service.ExamSessionStore.LiveSession;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ExamSessionServiceTest {
+
+    private static final long SESSION = 7;
+    private static final long EXAM = 3;
+    private static final long STUDENT = 11;
+
+    @Mock
+    private ExamSessionStore store;
+
+    @Mock
+    private ExamSubmissionService submissionService;
+
+    @Mock
+    private DeadlineTimers timers;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ExamSessionService service;
+
+    private LiveSession live;
+
+    @BeforeEach
+    void setUp() {
+        service.init();
+        AnswerKey key = AnswerKey.compile(new long[]{1}, new long[]{1}, new String[]{"A"}, true, null, "Kiểm tra");
+        live = new LiveSession(SESSION, EXAM, STUDENT, "student", 0, 1, key);
+    }
+
+    @Test
+    void constraintViolationClosesTheSession() {
+        failSubmitWith(new DataIntegrityViolationException("chk_exam_submissions_score"));
+
+        autoSubmit();
+
+        verify(timers, never()).schedule(anyString(), anyLong(), any());
+        verify(store).finish(EXAM, STUDENT, ExamSessionStatus.EXPIRED);
+        verify(store).discard(EXAM, STUDENT);
+    }
+
+    @Test
+    void lockTimeoutIsRetried() {
+        failSubmitWith(new CannotAcquireLockException("Lock wait timeout exceeded"));
+
+        autoSubmit();
+
+        verify(timers).schedule(eq("exam-session:" + SESSION), anyLong(), any());
+        verify(store, never()).finish(anyLong(), anyLong(), any());
+        verify(store, never()).discard(anyLong(), anyLong());
+    }
+
+    @Test
+    void databaseDownIsRetried() {
+        failSubmitWith(new CannotGetJdbcConnectionException("Connection refused", new SQLException()));
+        autoSubmit();
+        failSubmitWith(new CannotCreateTransactionException("Could not open JPA EntityManager"));
+        autoSubmit();
+
+        verify(timers, times(2)).schedule(eq("exam-session:" + SESSION), anyLong(), any());
+        verify(store, never()).finish(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void alreadySubmittedClosesTheSession() {
+        failSubmitWith(new RuntimeException("Bạn đã nộp bài kiểm tra này rồi"));
+
+        autoSubmit();
+
+        verify(timers, never()).schedule(anyString(), anyLong(), any());
+        verify(store).finish(EXAM, STUDENT, ExamSessionStatus.EXPIRED);
+    }
+
+    private void failSubmitWith(RuntimeException e) {
+        when(submissionService.submitExpiredSession(eq("student"), eq(EXAM), any(SubmitExamRequest.class),
+                eq("session-" + SESSION))).thenThrow(e);
+    }
+
+    private void autoSubmit() {
+        ReflectionTestUtils.invokeMethod(service, "autoSubmit", live);
+    }
+}
@@ -0,0 +1,206 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.alice.education.Fixtures;
+import com.alice.education.dto.ExamSubmissionResponse;
+import com.alice.education.dto.SubmissionAnswerRequest;
+import com.alice.education.dto.SubmissionAnswerResult;
+import com.alice.education.dto.SubmissionResponse;
+import com.alice.education.dto.SubmitAssignmentRequest;
+import com.alice.education.dto.SubmitExamRequest;
+import com.alice.education.model.Account;
+import com.alice.education.model.Assignment;
+import com.alice.education.model.AssignmentQuestion;
+import com.alice.education.model.Exam;
+import com.alice.education.model.ExamQuestion;
+import com.alice.education.model.Question;
+import com.alice.education.model.Role;
+import com.alice.education.repository.AssignmentRepository;
+import com.alice.education.repository.ExamRepository;
+
+@SpringBootTest
+class ExamSubmissionServiceTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+
+    @Autowired
+    private ExamSubmissionService submissionService;
+
+    @Autowired
+    private AssignmentSubmissionService assignmentSubmissionService;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Fixtures fixtures;
+    private Account teacher;
+    private Account student;
+    // Correct answers A, B, C, D
+    private List<Question> questions;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new Fixtures(context);
+        teacher = fixtures.account(Role.TEACHER);
+        student = fixtures.account(Role.CUSTOMER);
+        questions = fixtures.questions(4, teacher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void examQuestionSentTwiceKeepsItsLastAnswerAndCountsOnce() {
+        Long examId = exam();
+
+        ExamSubmissionResponse response = submissionService.submitExpiredSession(student.getUsername(), examId,
+                exam(answer(0, "A"), answer(0, "A"), answer(0, "A"), answer(0, "A"), answer(0, "A"),
+                        answer(1, "A"), answer(1, "B"), answer(2, "A")), null);
+
+        assertThat(response.getCorrectCount()).isEqualTo(2);
+        assertThat(response.getTotalCount()).isEqualTo(4);
+        assertThat(response.getScore()).isEqualTo(5.0);
+        assertThat(response.getAnswers()).extracting(SubmissionAnswerResult::getSelectedAnswer)
+                .containsExactly("A", "B", "A");
+        assertThat(jdbcTemplate.queryForObject("SELECT correct_count FROM exam_submissions WHERE exam_id = ?",
+                Integer.class, examId)).isEqualTo(2);
+    }
+
+    @Test
+    void assignmentQuestionSentTwiceKeepsItsLastAnswerAndCountsOnce() {
+        Assignment assignment = new Assignment();
+        assignment.setTitle("Bài tập về nhà");
+        assignment.setTeacher(teacher);
+        for (int i = 0; i < questions.size(); i++) {
+            assignment.getQuestionLinks().add(new AssignmentQuestion(assignment, questions.get(i), i + 1));
+        }
+        Long assignmentId = assignmentRepository.save(assignment).getId();
+        SubmitAssignmentRequest request = new SubmitAssignmentRequest();
+        request.setAnswers(new ArrayList<>(List.of(answer(3, "D"), answer(3, "D"), answer(3, "D"),
+                answer(3, "D"), answer(3, "D"), answer(2, "C"), answer(2, "A"))));
+        login(student);
+
+        SubmissionResponse response = assignmentSubmissionService.submitAssignment(assignmentId, request);
+
+        assertThat(response.getCorrectCount()).isEqualTo(1);
+        assertThat(response.getScore()).isEqualTo(2.5);
+    }
+
+    @Test
+    void retryWithTheSameKeyGetsTheStoredResultAfterTheDeadline() {
+        Long examId = exam();
+        login(student);
+        ExamSubmissionResponse first = submissionService.submitExam(examId,
+                exam(answer(0, "A"), answer(1, "B"), answer(2, "A")), "retry-1");
+
+        // The deadline passes and the exam is closed before the retry arrives
+        jdbcTemplate.update("UPDATE exams SET due_date = ?, is_active = false WHERE id = ?",
+                LocalDateTime.now().minusDays(1), examId);
+        answerKeyCache.evictExam(examId);
+        ExamSubmissionResponse retry = submissionService.submitExam(examId,
+                exam(answer(0, "A"), answer(1, "B"), answer(2, "A")), "retry-1");
+
+        assertThat(retry.getId()).isEqualTo(first.getId());
+        assertThat(retry.getScore()).isEqualTo(first.getScore()).isEqualTo(5.0);
+        assertThat(retry.getAnswers()).extracting(SubmissionAnswerResult::getSelectedAnswer)
+                .containsExactly("A", "B", "A");
+        assertThatThrownBy(() -> submissionService.submitExam(examId, exam(answer(0, "A")), "retry-2"))
+                .hasMessage("Bài kiểm tra không còn hoạt động");
+        jdbcTemplate.update("UPDATE exams SET is_active = true WHERE id = ?", examId);
+        answerKeyCache.evictExam(examId);
+        assertThatThrownBy(() -> submissionService.submitExam(examId, exam(answer(0, "A")), "retry-2"))
+                .hasMessage("Đã hết hạn nộp bài");
+    }
+
+    @Test
+    void duplicateKeyMapsToTheStoredResultAndOtherKeysAreRejected() {
+        Long examId = exam();
+        login(student);
+        ExamSubmissionResponse first = submissionService.submitExam(examId,
+                exam(answer(0, "A"), answer(1, "B")), "submit-1");
+
+        // A retry carrying different answers still gets the stored attempt
+        ExamSubmissionResponse retry = submissionService.submitExam(examId,
+                exam(answer(0, "A"), answer(1, "B"), answer(2, "C"), answer(3, "D")), "submit-1");
+
+        assertThat(retry.getId()).isEqualTo(first.getId());
+        assertThat(retry.getCorrectCount()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM exam_submissions WHERE exam_id = ?",
+                Long.class, examId)).isEqualTo(1);
+        assertThatThrownBy(() -> submissionService.submitExam(examId, exam(answer(0, "A")), "submit-2"))
+                .hasMessage("Bạn đã nộp bài kiểm tra này rồi");
+        assertThatThrownBy(() -> submissionService.submitExam(examId, exam(answer(0, "A")), null))
+                .hasMessage("Bạn đã nộp bài kiểm tra này rồi");
+    }
+
+    @Test
+    void expiredSessionRetriedAfterTheDeadlineGetsTheStoredResult() {
+        Long examId = exam();
+        jdbcTemplate.update("UPDATE exams SET due_date = ? WHERE id = ?", LocalDateTime.now().minusDays(1), examId);
+        answerKeyCache.evictExam(examId);
+
+        ExamSubmissionResponse first = submissionService.submitExpiredSession(student.getUsername(), examId,
+                exam(answer(0, "A")), "session-41");
+        ExamSubmissionResponse retry = submissionService.submitExpiredSession(student.getUsername(), examId,
+                exam(answer(0, "A")), "session-41");
+
+        assertThat(retry.getId()).isEqualTo(first.getId());
+        assertThat(retry.getScore()).isEqualTo(2.5);
+    }
+
+    private static void login(Account account) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(account.getUsername(), null, List.of()));
+    }
+
+    private Long exam() {
+        Exam exam = new Exam();
+        exam.setTitle("Kiểm tra 15 phút");
+        exam.setTeacher(teacher);
+        for (int i = 0; i < questions.size(); i++) {
+            exam.getQuestionLinks().add(new ExamQuestion(exam, questions.get(i), i + 1));
+        }
+        return examRepository.save(exam).getId();
+    }
+
+    private static SubmitExamRequest exam(SubmissionAnswerRequest... answers) {
+        SubmitExamRequest request = new SubmitExamRequest();
+        request.setAnswers(new ArrayList<>(List.of(answers)));
+        return request;
+    }
+
+    private SubmissionAnswerRequest answer(int question, String choice) {
+        SubmissionAnswerRequest answer = new SubmissionAnswerRequest();
+        answer.setQuestionId(questions.get(question).getId());
+        answer.setSelectedAnswer(choice);
+        return answer;
+    }
+}
@@ -0,0 +1,108 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.alice.education.Fixtures;
+import com.alice.education.model.Account;
+import com.alice.education.model.Assignment;
+import com.alice.education.model.Classroom;
+import com.alice.education.model.Exam;
+import com.alice.education.model.Role;
+import com.alice.education.repository.AssignmentRepository;
+import com.alice.education.repository.ExamRepository;
+
+@SpringBootTest
+class ExportServiceTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+
+    @Autowired
+    private ExportService exportService;
+
+    private Fixtures fixtures;
+    private Account teacher;
+    private Long classroomId;
+    private Long examId;
+    private Long assignmentId;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new Fixtures(context);
+        teacher = fixtures.account(Role.TEACHER);
+        Classroom classroom = fixtures.classroom(teacher, fixtures.students(2));
+        classroomId = classroom.getId();
+        Exam exam = new Exam();
+        exam.setTitle("Kiểm tra giữa kỳ");
+        exam.setTeacher(teacher);
+        examId = examRepository.save(exam).getId();
+        Assignment assignment = new Assignment();
+        assignment.setTitle("Bài tập tuần 1");
+        assignment.setTeacher(teacher);
+        assignmentId = assignmentRepository.save(assignment).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void anotherTeacherCannotExportTheClassroomOrItsWork() {
+        login(fixtures.account(Role.TEACHER), "ROLE_TEACHER");
+
+        assertThatThrownBy(() -> exportService.gradeBook(classroomId, ExportFormat.CSV))
+                .hasMessage("Bạn không có quyền xuất dữ liệu này");
+        assertThatThrownBy(() -> exportService.examSubmissions(examId, ExportFormat.CSV))
+                .hasMessage("Bạn không có quyền xuất dữ liệu này");
+        assertThatThrownBy(() -> exportService.assignmentSubmissions(assignmentId, ExportFormat.CSV))
+                .hasMessage("Bạn không có quyền xuất dữ liệu này");
+    }
+
+    // The body itself streams with MySQL's row-by-row fetch size, so only the
+    // checks on the request thread run here
+    @Test
+    void ownerAndAdminExport() {
+        login(teacher, "ROLE_TEACHER");
+        assertThat(exportService.gradeBook(classroomId, ExportFormat.CSV).baseName()).startsWith("bang-diem-");
+        assertThat(exportService.examSubmissions(examId, ExportFormat.CSV).baseName())
+                .isEqualTo("bai-kiem-tra-Kiểm tra giữa kỳ");
+
+        login(fixtures.account(Role.ADMIN), "ROLE_ADMIN");
+        assertThat(exportService.gradeBook(classroomId, ExportFormat.CSV).baseName()).startsWith("bang-diem-");
+        assertThat(exportService.assignmentSubmissions(assignmentId, ExportFormat.XLSX).baseName())
+                .isEqualTo("bai-tap-Bài tập tuần 1");
+    }
+
+    @Test
+    void missingExamIsReportedBeforeTheOwnerCheck() {
+        login(teacher, "ROLE_TEACHER");
+
+        assertThatThrownBy(() -> exportService.examSubmissions(-1L, ExportFormat.CSV))
+                .hasMessage("Bài kiểm tra không tồn tại");
+    }
+
+    private static void login(Account account, String authority) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                account.getUsername(), null, List.of(new SimpleGrantedAuthority(authority))));
+    }
+}
@@ -0,0 +1,245 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.alice.education.Fixtures;
+import com.alice.education.dto.BulkGradeUpdateRequest;
+import com.alice.education.dto.ClassroomScoreResponse;
+import com.alice.education.dto.GradeCellRequest;
+import com.alice.education.dto.GradeDistributionResponse;
+import com.alice.education.model.Account;
+import com.alice.education.model.Classroom;
+import com.alice.education.model.GradeColumn;
+import com.alice.education.model.GradeType;
+import com.alice.education.model.Role;
+import com.alice.education.repository.GradeColumnRepository;
+
+@SpringBootTest
+class GradeAnalyticsTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private GradeAnalytics gradeAnalytics;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private GradeService gradeService;
+
+    @Autowired
+    private GradeColumnRepository gradeColumnRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Random random = new Random(46);
+    private Fixtures fixtures;
+    private Account teacher;
+    private GradeAnalytics analytics;
+    private Object streaming;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new Fixtures(context);
+        teacher = fixtures.account(Role.TEACHER);
+        login(teacher);
+        // H2 rejects the MySQL streaming fetch size, so segments load through a plain template
+        analytics = AopTestUtils.getTargetObject(gradeAnalytics);
+        streaming = ReflectionTestUtils.getField(analytics, "streaming");
+        ReflectionTestUtils.setField(analytics, "streaming", jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(analytics, "streaming", streaming);
+        ReflectionTestUtils.setField(analytics, "loaded", false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void distributionMatchesANaiveComputationOverEveryScore() {
+        Classroom first = fixtures.classroom(teacher, fixtures.students(20));
+        Classroom second = fixtures.classroom(teacher, fixtures.students(15));
+        Long subjectId = first.getSubject().getId();
+        jdbcTemplate.update("UPDATE classrooms SET subject_id = ? WHERE id = ?", subjectId, second.getId());
+        List<Double> firstScores = grade(first, GradeType.QUIZ_15);
+        List<Double> secondScores = grade(second, GradeType.QUIZ_15);
+        reload();
+
+        List<GradeDistributionResponse> result = analytics.query(subjectId, null, null, GradeType.QUIZ_15, 5.0, 10);
+
+        List<Double> all = new ArrayList<>(firstScores);
+        all.addAll(secondScores);
+        Collections.sort(all);
+        assertThat(result).hasSize(1);
+        GradeDistributionResponse d = result.get(0);
+        assertThat(d.getClassroomCount()).isEqualTo(2);
+        assertThat(d.getScoreCount()).isEqualTo(all.size());
+        assertThat(d.getMean()).isEqualTo(round2(mean(all)));
+        assertThat(d.getPassRate()).isEqualTo(passRate(all, 5.0));
+        assertThat(d.getHistogram()).containsExactly(histogram(all));
+        assertThat(new double[] {d.getP10(), d.getP25(), d.getMedian(), d.getP75(), d.getP90()}).containsExactly(
+                percentile(all, 0.10), percentile(all, 0.25), percentile(all, 0.50),
+                percentile(all, 0.75), percentile(all, 0.90));
+        assertThat(d.getTopClassrooms()).extracting(ClassroomScoreResponse::getClassroomId).containsExactlyElementsOf(
+                round2(mean(firstScores)) >= round2(mean(secondScores))
+                        ? List.of(first.getId(), second.getId()) : List.of(second.getId(), first.getId()));
+        assertThat(d.getTopClassrooms()).filteredOn(c -> c.getClassroomId().equals(first.getId()))
+                .singleElement().satisfies(c -> {
+                    assertThat(c.getScoreCount()).isEqualTo(firstScores.size());
+                    assertThat(c.getMean()).isEqualTo(round2(mean(firstScores)));
+                    assertThat(c.getPassRate()).isEqualTo(passRate(firstScores, 5.0));
+                });
+    }
+
+    @Test
+    void singleScoreAndBoundaryScoresLandInTheirBuckets() {
+        List<Account> students = fixtures.students(3);
+        Classroom classroom = fixtures.classroom(teacher, students);
+        List<GradeColumn> columns = columns(classroom, GradeType.FINAL);
+        bulk(classroom, cell(students.get(0), columns.get(0), 10.0), cell(students.get(1), columns.get(0), 0.0),
+                cell(students.get(2), columns.get(0), 9.0));
+        reload();
+
+        GradeDistributionResponse d = analytics.query(classroom.getSubject().getId(), null, null,
+                GradeType.FINAL, 10.0, 10).get(0);
+
+        assertThat(d.getHistogram()).containsExactly(1, 0, 0, 0, 0, 0, 0, 0, 0, 2);
+        assertThat(d.getP10()).isEqualTo(0.0);
+        assertThat(d.getMedian()).isEqualTo(9.0);
+        assertThat(d.getP90()).isEqualTo(10.0);
+        assertThat(d.getPassRate()).isEqualTo(33.3);
+    }
+
+    @Test
+    void emptyClassroomsAndAllEmptyColumnsHaveNoDistribution() {
+        Classroom empty = fixtures.classroom(teacher, List.of());
+        gradeService.initializeGradeColumns(empty);
+        Classroom graded = fixtures.classroom(teacher, fixtures.students(4));
+        grade(graded, GradeType.QUIZ_15);
+        // Every midterm cell is written, then cleared again
+        List<GradeColumn> midterm = columns(graded, GradeType.MIDTERM);
+        List<GradeCellRequest> cells = new ArrayList<>();
+        graded.getClassStudents().forEach(cs -> cells.add(cell(cs.getStudent(), midterm.get(0), 7.0)));
+        bulk(graded, cells.toArray(GradeCellRequest[]::new));
+        cells.forEach(c -> c.setScore(null));
+        bulk(graded, cells.toArray(GradeCellRequest[]::new));
+        reload();
+
+        assertThat(analytics.query(empty.getSubject().getId(), null, null, null, 5.0, 10)).isEmpty();
+        assertThat(analytics.query(graded.getSubject().getId(), null, null, GradeType.MIDTERM, 5.0, 10)).isEmpty();
+        assertThat(analytics.query(graded.getSubject().getId(), null, null, null, 5.0, 10))
+                .extracting(GradeDistributionResponse::getType).containsExactly("QUIZ_15");
+    }
+
+    @Test
+    void passScoreMustBeANumberFromZeroToTen() {
+        for (double passScore : new double[] {Double.NaN, -0.5, 10.5}) {
+            assertThatThrownBy(() -> dashboardService.getGradeAnalytics(null, null, null, null, passScore, 5))
+                    .hasMessage("Điểm đạt phải nằm trong khoảng 0 - 10");
+        }
+    }
+
+    // Random scores in steps of 0.25 for the type's columns, leaving some cells empty
+    private List<Double> grade(Classroom classroom, GradeType type) {
+        gradeService.initializeGradeColumns(classroom);
+        List<Double> scores = new ArrayList<>();
+        List<GradeCellRequest> cells = new ArrayList<>();
+        for (GradeColumn column : columns(classroom, type)) {
+            classroom.getClassStudents().forEach(cs -> {
+                if (random.nextInt(5) > 0) {
+                    double score = random.nextInt(41) / 4.0;
+                    scores.add(score);
+                    cells.add(cell(cs.getStudent(), column, score));
+                }
+            });
+        }
+        bulk(classroom, cells.toArray(GradeCellRequest[]::new));
+        return scores;
+    }
+
+    private List<GradeColumn> columns(Classroom classroom, GradeType type) {
+        if (gradeColumnRepository.findByClassroomIdOrderByOrderNumber(classroom.getId()).isEmpty()) {
+            gradeService.initializeGradeColumns(classroom);
+        }
+        return gradeColumnRepository.findByClassroomIdOrderByOrderNumber(classroom.getId()).stream()
+                .filter(c -> c.getType() == type)
+                .toList();
+    }
+
+    private void bulk(Classroom classroom, GradeCellRequest... cells) {
+        BulkGradeUpdateRequest request = new BulkGradeUpdateRequest();
+        request.setCells(new ArrayList<>(List.of(cells)));
+        gradeService.bulkUpdateGrades(classroom.getId(), request);
+    }
+
+    private void reload() {
+        ReflectionTestUtils.invokeMethod(analytics, "reloadAll");
+    }
+
+    private static GradeCellRequest cell(Account student, GradeColumn column, Double score) {
+        GradeCellRequest cell = new GradeCellRequest();
+        cell.setStudentId(student.getId());
+        cell.setColumnId(column.getId());
+        cell.setScore(score);
+        return cell;
+    }
+
+    private static double mean(List<Double> scores) {
+        return scores.stream().mapToDouble(Double::doubleValue).average().orElseThrow();
+    }
+
+    private static double passRate(List<Double> scores, double passScore) {
+        long passed = scores.stream().filter(s -> s >= passScore).count();
+        return Math.round(passed * 1000.0 / scores.size()) / 10.0;
+    }
+
+    // Ten buckets of one point each; a 10 goes with the 9s
+    private static int[] histogram(List<Double> scores) {
+        int[] buckets = new int[10];
+        for (double score : scores) {
+            buckets[Math.min((int) score, 9)]++;
+        }
+        return buckets;
+    }
+
+    // Nearest rank: the smallest score with at least that share of scores at or below it
+    private static double percentile(List<Double> sorted, double rank) {
+        for (double score : sorted) {
+            if (sorted.stream().filter(s -> s <= score).count() >= rank * sorted.size()) {
+                return score;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static void login(Account account) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(account.getUsername(), null, List.of()));
+    }
+}
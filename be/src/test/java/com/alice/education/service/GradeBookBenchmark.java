@@ -0,0 +1,208 @@
+package com.alice.education.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alice.education.BenchmarkContext;
+import com.alice.education.Fixtures;
+import com.alice.education.dto.AddGradeColumnRequest;
+import com.alice.education.dto.GradeBookResponse;
+import com.alice.education.dto.GradeBookStatsResponse;
+import com.alice.education.dto.GradeColumnResponse;
+import com.alice.education.dto.GradeEntryResponse;
+import com.alice.education.dto.StudentGradeRowResponse;
+import com.alice.education.model.Account;
+import com.alice.education.model.ClassStudent;
+import com.alice.education.model.Classroom;
+import com.alice.education.model.GradeColumn;
+import com.alice.education.model.Role;
+import com.alice.education.model.StudentGrade;
+import com.alice.education.model.StudentGradeSummary;
+import com.alice.education.repository.ClassStudentRepository;
+import com.alice.education.repository.ClassroomRepository;
+import com.alice.education.repository.GradeColumnRepository;
+import com.alice.education.repository.StudentGradeRepository;
+import com.alice.education.repository.StudentGradeSummaryRepository;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * One gradebook of {@code STUDENTS} students and {@code COLUMNS} columns,
+ * {@code SCORED} of the cells holding a score, read and serialized to JSON,
+ * with a database round trip of {@code roundTripMicros}:
+ * <ul>
+ *   <li>{@code entities}: the gradebook as it was built before the dense
+ *   arrays, from StudentGrade entities in nested boxed maps</li>
+ *   <li>{@code gradeBook}: {@link GradeService#getGradeBook}, the same
+ *   response mapped from the arrays</li>
+ *   <li>{@code matrix}: {@link GradeService#getGradeBookMatrix}, the compact
+ *   matrix serialized straight from the arrays</li>
+ * </ul>
+ * Run with -prof gc for the allocation per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GradeBookBenchmark {
+
+    private static final int STUDENTS = 60;
+    private static final int COLUMNS = 30;
+    private static final double SCORED = 0.7;
+
+    @Param({"200"})
+    private long roundTripMicros;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnly;
+    private JsonMapper jsonMapper;
+    private GradeService gradeService;
+    private GradeService target;
+    private Long classroomId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(roundTripMicros);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        jsonMapper = context.getBean(JsonMapper.class);
+        gradeService = context.getBean(GradeService.class);
+        target = AopTestUtils.getTargetObject(gradeService);
+
+        Fixtures fixtures = new Fixtures(context);
+        List<Account> students = fixtures.students(STUDENTS);
+        Classroom classroom = fixtures.classroom(fixtures.account(Role.TEACHER), students);
+        classroomId = classroom.getId();
+        gradeService.initializeGradeColumns(classroom);
+        for (int c = 7; c < COLUMNS; c++) {
+            AddGradeColumnRequest request = new AddGradeColumnRequest();
+            request.setName("Kiểm tra miệng " + c);
+            request.setType("QUIZ_15");
+            gradeService.addCustomColumn(classroomId, request);
+        }
+        Random random = new Random(42);
+        List<Object[]> cells = new ArrayList<>();
+        long id = 1_000_000_000L;
+        for (GradeColumn column : context.getBean(GradeColumnRepository.class)
+                .findByClassroomIdOrderByOrderNumber(classroomId)) {
+            for (Account student : students) {
+                if (random.nextDouble() < SCORED) {
+                    cells.add(new Object[]{id++, column.getId(), classroomId, student.getId(),
+                            (double) random.nextInt(21) / 2});
+                }
+            }
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate("INSERT INTO student_grades " +
+                "(id, grade_column_id, classroom_id, student_id, score, version, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, 0, NOW(6))", cells);
+        gradeService.rebuildAllSummaries();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] entities() {
+        return jsonMapper.writeValueAsBytes(readOnly.execute(status -> {
+            Classroom classroom = context.getBean(ClassroomRepository.class).findById(classroomId).orElseThrow();
+            List<GradeColumn> columns = context.getBean(GradeColumnRepository.class)
+                    .findByClassroomIdOrderByOrderNumber(classroomId);
+            List<ClassStudent> classStudents = context.getBean(ClassStudentRepository.class)
+                    .findActiveStudentsByClassroomId(classroomId);
+            Map<Long, Map<Long, StudentGrade>> gradeMap = new HashMap<>();
+            for (StudentGrade sg : context.getBean(StudentGradeRepository.class).findByClassroomId(classroomId)) {
+                gradeMap.computeIfAbsent(sg.getStudent().getId(), k -> new HashMap<>())
+                        .put(sg.getGradeColumn().getId(), sg);
+            }
+            Map<Long, StudentGradeSummary> summaries = new HashMap<>();
+            for (StudentGradeSummary summary : context.getBean(StudentGradeSummaryRepository.class)
+                    .findByClassroomId(classroomId)) {
+                summaries.put(summary.getStudentId(), summary);
+            }
+            List<GradeColumnResponse> columnResponses = new ArrayList<>();
+            for (GradeColumn column : columns) {
+                columnResponses.add(ReflectionTestUtils.invokeMethod(target, "mapToColumnResponse", column));
+            }
+
+            List<StudentGradeRowResponse> rows = new ArrayList<>();
+            double[] averages = new double[classStudents.size()];
+            for (ClassStudent cs : classStudents) {
+                Account student = cs.getStudent();
+                Map<Long, StudentGrade> studentGrades = gradeMap.getOrDefault(student.getId(),
+                        Collections.emptyMap());
+                List<GradeEntryResponse> entries = new ArrayList<>();
+                for (GradeColumn column : columns) {
+                    GradeEntryResponse entry = new GradeEntryResponse();
+                    entry.setColumnId(column.getId());
+                    StudentGrade sg = studentGrades.get(column.getId());
+                    if (sg != null) {
+                        entry.setGradeId(sg.getId());
+                        entry.setScore(sg.getScore());
+                    }
+                    entries.add(entry);
+                }
+                StudentGradeRowResponse row = new StudentGradeRowResponse();
+                row.setStudentId(student.getId());
+                row.setStudentName(student.getFullName());
+                row.setUsername(student.getUsername());
+                row.setGrades(entries);
+                StudentGradeSummary summary = summaries.get(student.getId());
+                averages[rows.size()] = Double.NaN;
+                if (summary != null && summary.getWeightTotal() > 0) {
+                    row.setWeightedSum(summary.getWeightedSum());
+                    row.setWeightTotal(summary.getWeightTotal());
+                    row.setAverage(GradeSummaries.average(summary.getWeightedSum(), summary.getWeightTotal()));
+                    averages[rows.size()] = row.getAverage();
+                }
+                rows.add(row);
+            }
+
+            GradeBookResponse response = new GradeBookResponse();
+            response.setClassroomId(classroomId);
+            response.setClassroomName(classroom.getName());
+            response.setColumns(columnResponses);
+            response.setRows(rows);
+            response.setStats(ReflectionTestUtils.<GradeBookStatsResponse>invokeMethod(GradeService.class,
+                    "stats", averages));
+            return response;
+        }));
+    }
+
+    @Benchmark
+    public byte[] gradeBook() {
+        return jsonMapper.writeValueAsBytes(gradeService.getGradeBook(classroomId));
+    }
+
+    @Benchmark
+    public byte[] matrix() {
+        return jsonMapper.writeValueAsBytes(gradeService.getGradeBookMatrix(classroomId));
+    }
+}
@@ -0,0 +1,84 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.alice.education.Fixtures;
+import com.alice.education.model.Role;
+
+@SpringBootTest
+class GradeBookCacheTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private GradeBookCache gradeBookCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long classroomId;
+
+    @BeforeEach
+    void setUp() {
+        Fixtures fixtures = new Fixtures(context);
+        classroomId = fixtures.classroom(fixtures.account(Role.TEACHER), List.of()).getId();
+    }
+
+    @Test
+    void bodyLoadedWhileAnEditCommitsIsNotCachedUnderTheOlderVersion() {
+        long before = gradeBookCache.currentVersion(classroomId);
+        List<Long> loads = new ArrayList<>();
+
+        GradeBookCache.Entry entry = gradeBookCache.get(classroomId, "full", version -> {
+            loads.add(version);
+            if (loads.size() == 1) {
+                // An edit from another instance commits between the version read and the data reads
+                jdbcTemplate.update("UPDATE classrooms SET gradebook_version = gradebook_version + 1 WHERE id = ?",
+                        classroomId);
+            }
+            return Map.of("version", version);
+        });
+
+        assertThat(loads).containsExactly(before, before + 1);
+        assertThat(entry.etag()).startsWith("\"" + classroomId + "-" + (before + 1) + "-");
+        assertThat(new String(entry.body())).isEqualTo("{\"version\":" + (before + 1) + "}");
+        GradeBookCache.Entry again = gradeBookCache.get(classroomId, "full", version -> {
+            loads.add(version);
+            return Map.of("version", version);
+        });
+        assertThat(again).isSameAs(entry);
+        assertThat(loads).hasSize(2);
+    }
+
+    @Test
+    void gradebookThatKeepsChangingIsServedUncached() {
+        List<Long> loads = new ArrayList<>();
+
+        GradeBookCache.Entry entry = gradeBookCache.get(classroomId, "full", version -> {
+            loads.add(version);
+            jdbcTemplate.update("UPDATE classrooms SET gradebook_version = gradebook_version + 1 WHERE id = ?",
+                    classroomId);
+            return Map.of("version", version);
+        });
+        gradeBookCache.get(classroomId, "full", version -> {
+            loads.add(version);
+            return Map.of("version", version);
+        });
+
+        assertThat(loads).hasSize(4);
+        assertThat(new String(entry.body())).isEqualTo("{\"version\":" + loads.get(2) + "}");
+        assertThat(loads.get(3)).isEqualTo(gradeBookCache.currentVersion(classroomId));
+    }
+}
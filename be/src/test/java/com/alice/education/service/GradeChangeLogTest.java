@@ -0,0 +1,64 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.alice.education.Fixtures;
+import com.alice.education.model.Role;
+
+@SpringBootTest
+class GradeChangeLogTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private GradeChangeLog changeLog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long classroomId;
+
+    @BeforeEach
+    void setUp() {
+        Fixtures fixtures = new Fixtures(context);
+        classroomId = fixtures.classroom(fixtures.account(Role.TEACHER), List.of()).getId();
+    }
+
+    @Test
+    void pruneDeletesEntriesPastRetentionInBatches() {
+        // More than one prune batch of old entries, and a few recent ones
+        insert(5003, LocalDateTime.now().minusDays(3));
+        insert(2, LocalDateTime.now().minusMinutes(5));
+
+        changeLog.prune();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM grade_change_log WHERE classroom_id = ?",
+                Long.class, classroomId)).isEqualTo(2);
+        assertThat(changeLog.since(classroomId, 0, Long.MAX_VALUE)).extracting(e -> e[0])
+                .containsExactly(5004L, 5005L);
+    }
+
+    private void insert(int count, LocalDateTime changedAt) {
+        long first = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(version), 0) FROM grade_change_log " +
+                "WHERE classroom_id = ?", Long.class, classroomId) + 1;
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{classroomId, first + i, Timestamp.valueOf(changedAt)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO grade_change_log (classroom_id, version, changed_at) VALUES (?, ?, ?)",
+                rows);
+    }
+}
@@ -0,0 +1,98 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.alice.education.model.GradeType;
+
+class GradeFormulaTest {
+
+    private static final double E = Double.NaN;
+
+    private static final List<GradeFormula.Column> COLUMNS = List.of(
+            new GradeFormula.Column(1, "15p lần 1", GradeType.QUIZ_15, null),
+            new GradeFormula.Column(2, "15p lần 2", GradeType.QUIZ_15, null),
+            new GradeFormula.Column(3, "45p lần 1", GradeType.TEST_45, null),
+            new GradeFormula.Column(4, "Giữa kỳ", GradeType.MIDTERM, null),
+            new GradeFormula.Column(5, "Cuối kỳ", GradeType.FINAL, null),
+            new GradeFormula.Column(6, "TB", GradeType.QUIZ_15, "avg(QUIZ_15)"));
+
+    // Three students; the last has no scores, and the formula column is computed into
+    private static final double[] SCORES = {
+            8, 6, 7, 5, 9, E,
+            E, 4, E, 6, E, E,
+            E, E, E, E, E, E,
+    };
+
+    @Test
+    void aggregatesSkipEmptyCellsAndGroupsLeaveOutFormulaColumns() {
+        GradeFormula avg = GradeFormula.compile("avg(QUIZ_15)", COLUMNS);
+
+        assertThat(avg.getReferences()).containsExactly(1L, 2L);
+        assertThat(evaluate(avg)).containsExactly(7.0, 4.0, E);
+        assertThat(evaluate("MIN(quiz_15)")).containsExactly(6.0, 4.0, E);
+        assertThat(evaluate("max([Giữa kỳ], [15p lần 2] + 1, 3)")).containsExactly(7.0, 6.0, 3.0);
+        assertThat(evaluate("sum(QUIZ_15, [Cuối kỳ])")).containsExactly(23.0, 4.0, E);
+        assertThat(evaluate("count(QUIZ_15, [Cuối kỳ])")).containsExactly(3.0, 1.0, 0.0);
+    }
+
+    @Test
+    void emptyCellsAndDivisionByZeroMakeArithmeticEmpty() {
+        assertThat(evaluate("round((sum(TEST_45) + 2 * [Cuối kỳ]) / (count(TEST_45) + 2), 1)"))
+                .containsExactly(8.3, E, E);
+        assertThat(evaluate("[Cuối kỳ] / ([Giữa kỳ] - 5)")).containsExactly(E, E, E);
+        assertThat(evaluate("[Giữa kỳ] / count(TEST_45)")).containsExactly(5.0, E, E);
+    }
+
+    @Test
+    void operatorsFollowPrecedenceAndResultsKeepTwoDecimals() {
+        assertThat(evaluate("[Giữa kỳ] - -[15p lần 1] * 2 / 4")).containsExactly(9.0, E, E);
+        assertThat(evaluate("(1 + 2) * 3 - 4 / 8")).containsExactly(8.5, 8.5, 8.5);
+        assertThat(evaluate("10 / 3")).containsExactly(3.33, 3.33, 3.33);
+        assertThat(evaluate("round(10 / 3)")).containsExactly(3.0, 3.0, 3.0);
+        assertThat(GradeFormula.compile("[ giữa KỲ ] + 1", COLUMNS).getReferences()).containsExactly(4L);
+    }
+
+    @Test
+    void invalidFormulasAreRejectedWithTheFirstError() {
+        assertError(" ", "Công thức không được để trống");
+        assertError("[Thi lại]", "không có cột [Thi lại]");
+        assertError("[TB] + 1", "không được dùng cột công thức [TB]");
+        assertError("[Giữa kỳ", "thiếu dấu ']'");
+        assertError("QUIZ_15 + 1", "nhóm cột chỉ dùng được trong avg, sum, min, max, count");
+        assertError("TB + 1", "không rõ 'TB'; tên cột phải đặt trong [ ]");
+        assertError("median(QUIZ_15)", "hàm không được hỗ trợ 'median'");
+        assertError("round([Giữa kỳ], 5)", "số chữ số làm tròn phải là số nguyên từ 0 đến 4");
+        assertError("([Giữa kỳ] + 1", "thiếu dấu ')'");
+        assertError("1 +", "công thức kết thúc đột ngột");
+        assertThatThrownBy(() -> GradeFormula.compile("1 + )", COLUMNS))
+                .hasMessage("Công thức không hợp lệ: ký tự không hợp lệ ')' (vị trí 5)");
+        assertThatThrownBy(() -> GradeFormula.compile("1 2", COLUMNS))
+                .hasMessage("Công thức không hợp lệ: ký tự thừa '2' (vị trí 3)");
+    }
+
+    private static double[] evaluate(String formula) {
+        return evaluate(GradeFormula.compile(formula, COLUMNS));
+    }
+
+    // The formula column of each student, computed into a copy of the scores
+    private static double[] evaluate(GradeFormula formula) {
+        int cols = COLUMNS.size();
+        int rows = SCORES.length / cols;
+        double[] scores = SCORES.clone();
+        formula.evaluate(scores, rows, cols, cols - 1);
+        double[] column = new double[rows];
+        for (int r = 0; r < rows; r++) {
+            column[r] = scores[r * cols + cols - 1];
+        }
+        return column;
+    }
+
+    private static void assertError(String formula, String message) {
+        assertThatThrownBy(() -> GradeFormula.compile(formula, COLUMNS)).hasMessageContaining(message);
+    }
+}
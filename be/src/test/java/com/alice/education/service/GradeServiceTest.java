@@ -0,0 +1,378 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.alice.education.Fixtures;
+import com.alice.education.dto.AddGradeColumnRequest;
+import com.alice.education.dto.BulkGradeUpdateRequest;
+import com.alice.education.dto.BulkGradeUpdateResponse;
+import com.alice.education.dto.GradeBookDeltaResponse;
+import com.alice.education.dto.GradeBookResponse;
+import com.alice.education.dto.GradeCellChangeResponse;
+import com.alice.education.dto.GradeCellRequest;
+import com.alice.education.dto.GradeCellResult;
+import com.alice.education.dto.GradeColumnResponse;
+import com.alice.education.dto.GradeEntryResponse;
+import com.alice.education.dto.StudentGradeRowResponse;
+import com.alice.education.dto.UpdateGradeRequest;
+import com.alice.education.model.Account;
+import com.alice.education.model.Classroom;
+import com.alice.education.model.GradeColumn;
+import com.alice.education.model.Role;
+import com.alice.education.repository.GradeColumnRepository;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+@SpringBootTest
+class GradeServiceTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private GradeService gradeService;
+
+    @Autowired
+    private GradeColumnRepository gradeColumnRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private GradeBookCache gradeBookCache;
+
+    private Fixtures fixtures;
+    private Account teacher;
+    private List<Account> students;
+    private Classroom classroom;
+    // The default columns: three 15-minute quizzes, two 45-minute tests, midterm, final
+    private List<GradeColumn> columns;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new Fixtures(context);
+        teacher = fixtures.account(Role.TEACHER);
+        students = fixtures.students(3);
+        classroom = fixtures.classroom(teacher, students);
+        gradeService.initializeGradeColumns(classroom);
+        columns = gradeColumnRepository.findByClassroomIdOrderByOrderNumber(classroom.getId());
+        login(teacher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void bulkUpdateWritesValidCellsAndReportsTheRest() {
+        bulk(cell(0, 0, 5.0), cell(1, 0, 6.0));
+        Classroom other = fixtures.classroom(teacher, List.of());
+        gradeService.initializeGradeColumns(other);
+        Long foreignColumn = gradeColumnRepository.findByClassroomIdOrderByOrderNumber(other.getId()).get(0).getId();
+        Long formulaColumn = addColumn("TB 15p", "avg(QUIZ_15)").getId();
+
+        BulkGradeUpdateResponse response = bulk(
+                cell(0, 0, 7.5),                                  // updates an existing cell
+                cell(2, 0, 8.0),                                  // inserts a new one
+                cell(1, 0, null),                                 // clears one
+                cell(2, 1, 10.0),
+                cell(2, 1, 9.0),                                  // same cell twice
+                cell(0, 1, 10.5),
+                cell(0, 2, -0.5),
+                cell(0, 3, Double.NaN),
+                raw(students.get(0).getId(), foreignColumn, 5.0),
+                raw(fixtures.account(Role.CUSTOMER).getId(), columns.get(0).getId(), 5.0),
+                raw(null, columns.get(0).getId(), 5.0),
+                raw(students.get(0).getId(), formulaColumn, 5.0));
+
+        assertThat(response.getUpdated()).isEqualTo(4);
+        assertThat(response.getFailed()).isEqualTo(8);
+        assertThat(response.getResults()).extracting(GradeCellResult::isSuccess)
+                .containsExactly(true, true, true, true, false, false, false, false, false, false, false, false);
+        assertThat(response.getResults().subList(4, 12)).extracting(GradeCellResult::getMessage).containsExactly(
+                "Ô điểm bị trùng trong yêu cầu",
+                "Điểm phải nằm trong khoảng từ 0 đến 10",
+                "Điểm phải nằm trong khoảng từ 0 đến 10",
+                "Điểm phải nằm trong khoảng từ 0 đến 10",
+                "Cột điểm không thuộc lớp học",
+                "Học sinh không thuộc lớp học",
+                "Thiếu học sinh hoặc cột điểm",
+                "Cột công thức được tính tự động, không nhập điểm được");
+        assertThat(score(0, 0)).isEqualTo(7.5);
+        assertThat(score(2, 0)).isEqualTo(8.0);
+        assertThat(score(1, 0)).isNull();
+        assertThat(score(2, 1)).isEqualTo(10.0);
+        assertThat(score(0, 1)).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM student_grades WHERE classroom_id = ?",
+                Long.class, classroom.getId())).isEqualTo(3);
+        // Inserted cells report their new ids
+        assertThat(response.getResults().get(1).getGradeId()).isEqualTo(jdbcTemplate.queryForObject(
+                "SELECT id FROM student_grades WHERE grade_column_id = ? AND student_id = ?", Long.class,
+                columns.get(0).getId(), students.get(2).getId()));
+    }
+
+    @Test
+    void bulkUpdateReportsCellsChangedSinceTheExpectedVersion() {
+        long seen = bulk(cell(0, 0, 5.0)).getResults().get(0).getVersion();
+        long changed = bulk(cell(0, 0, 6.0)).getResults().get(0).getVersion();
+
+        GradeCellRequest stale = cell(0, 0, 9.0);
+        stale.setExpectedVersion(seen);
+        GradeCellRequest current = cell(1, 0, 9.0);
+        current.setExpectedVersion(seen);
+        BulkGradeUpdateResponse response = bulk(stale, current);
+
+        GradeCellResult conflict = response.getResults().get(0);
+        assertThat(conflict.isSuccess()).isFalse();
+        assertThat(conflict.isConflict()).isTrue();
+        assertThat(conflict.getScore()).isEqualTo(6.0);
+        assertThat(conflict.getVersion()).isEqualTo(changed);
+        assertThat(response.getResults().get(1).isSuccess()).isTrue();
+        assertThat(score(0, 0)).isEqualTo(6.0);
+        assertThat(score(1, 0)).isEqualTo(9.0);
+    }
+
+    @Test
+    void bulkUpdateIsRefusedWholeForOtherTeachersAndOversizedRequests() {
+        login(fixtures.account(Role.TEACHER));
+        assertThatThrownBy(() -> bulk(cell(0, 0, 5.0)))
+                .hasMessage("Bạn không có quyền sửa bảng điểm của lớp này");
+
+        login(teacher);
+        GradeCellRequest[] tooMany = new GradeCellRequest[5001];
+        for (int i = 0; i < tooMany.length; i++) {
+            tooMany[i] = cell(0, 0, 5.0);
+        }
+        assertThatThrownBy(() -> bulk(tooMany)).hasMessageContaining("tối đa 5000");
+        assertThat(score(0, 0)).isNull();
+    }
+
+    @Test
+    void matrixMatchesTheGradebookCellForCell() {
+        Long formulaColumn = addColumn("TB 15p", "avg(QUIZ_15)").getId();
+        // The third student has no scores at all
+        bulk(cell(0, 0, 6.0), cell(0, 1, 9.0), cell(0, 5, 7.5), cell(1, 2, 4.0), cell(1, 6, 8.25));
+
+        JsonNode matrix = jsonMapper.readTree(jsonMapper.writeValueAsBytes(
+                gradeService.getGradeBookMatrix(classroom.getId())));
+        GradeBookResponse gradeBook = gradeService.getGradeBook(classroom.getId());
+
+        List<GradeColumnResponse> columnHeader = gradeBook.getColumns();
+        assertThat(matrix.get("columns")).hasSize(8);
+        assertThat(columnHeader).hasSize(8);
+        assertThat(matrix.get("rows")).hasSize(3);
+        assertThat(gradeBook.getRows()).hasSize(3);
+        for (int r = 0; r < 3; r++) {
+            JsonNode row = matrix.get("rows").get(r);
+            StudentGradeRowResponse expected = gradeBook.getRows().get(r);
+            assertThat(row.get("studentId").longValue()).isEqualTo(expected.getStudentId());
+            assertThat(row.get("username").stringValue()).isEqualTo(expected.getUsername());
+            assertThat(nullable(row.get("average"))).isEqualTo(expected.getAverage());
+            assertThat(nullable(row.get("weightedSum"))).isEqualTo(expected.getWeightedSum());
+            for (int c = 0; c < 8; c++) {
+                GradeEntryResponse entry = expected.getGrades().get(c);
+                assertThat(matrix.get("columns").get(c).get("id").longValue()).isEqualTo(columnHeader.get(c).getId());
+                assertThat(entry.getColumnId()).isEqualTo(columnHeader.get(c).getId());
+                assertThat(nullable(row.get("scores").get(c))).as("score (%d, %d)", r, c).isEqualTo(entry.getScore());
+                JsonNode gradeId = row.get("gradeIds").get(c);
+                assertThat(gradeId.isNull() ? null : gradeId.longValue()).as("grade id (%d, %d)", r, c)
+                        .isEqualTo(entry.getGradeId());
+            }
+        }
+
+        // And both agree with the cells as stored
+        StudentGradeRowResponse first = row(gradeBook, 0);
+        assertThat(first.getGrades()).extracting(GradeEntryResponse::getScore)
+                .containsExactly(6.0, 9.0, null, null, null, 7.5, null, 7.5);
+        assertThat(first.getGrades().get(0).getGradeId()).isNotNull();
+        assertThat(first.getGrades().get(7).getColumnId()).isEqualTo(formulaColumn);
+        assertThat(first.getGrades().get(7).getGradeId()).isNull();
+        assertThat(row(gradeBook, 1).getGrades()).extracting(GradeEntryResponse::getScore)
+                .containsExactly(null, null, 4.0, null, null, null, 8.25, 4.0);
+        assertThat(row(gradeBook, 2).getGrades()).allSatisfy(entry -> {
+            assertThat(entry.getScore()).isNull();
+            assertThat(entry.getGradeId()).isNull();
+        });
+        assertThat(row(gradeBook, 2).getAverage()).isNull();
+    }
+
+    @Test
+    void singleCellUpdateIsRefusedForOtherTeachers() {
+        GradeCellResult written = bulk(cell(0, 0, 5.0)).getResults().get(0);
+        long version = gradeBookCache.currentVersion(classroom.getId());
+        UpdateGradeRequest request = new UpdateGradeRequest();
+        request.setScore(9.0);
+
+        login(fixtures.account(Role.TEACHER));
+        assertThatThrownBy(() -> gradeService.updateGrade(written.getGradeId(), request))
+                .hasMessage("Bạn không có quyền sửa bảng điểm của lớp này");
+        request.setScore(null);
+        assertThatThrownBy(() -> gradeService.updateGrade(written.getGradeId(), request))
+                .hasMessage("Bạn không có quyền sửa bảng điểm của lớp này");
+
+        assertThat(score(0, 0)).isEqualTo(5.0);
+        assertThat(gradeBookCache.currentVersion(classroom.getId())).isEqualTo(version);
+        login(teacher);
+        request.setScore(9.0);
+        assertThat(gradeService.updateGrade(written.getGradeId(), request).getScore()).isEqualTo(9.0);
+    }
+
+    @Test
+    void changesAreServedAsADeltaUntilAVersionIsMissingFromTheLog() {
+        long start = gradeBookCache.currentVersion(classroom.getId());
+        List<GradeCellResult> written = bulk(cell(0, 0, 5.0), cell(1, 0, 6.0)).getResults();
+        long edited = update(written.get(0).getGradeId(), 7.0);
+        long cleared = update(written.get(1).getGradeId(), null);
+
+        GradeBookDeltaResponse delta = gradeService.getGradeBookChanges(classroom.getId(), start);
+        assertThat(delta.isFull()).isFalse();
+        assertThat(delta.getVersion()).isEqualTo(cleared);
+        assertThat(delta.getCells()).extracting(GradeCellChangeResponse::getStudentId,
+                        GradeCellChangeResponse::getColumnId, GradeCellChangeResponse::getScore,
+                        GradeCellChangeResponse::getVersion)
+                .containsExactly(
+                        tuple(students.get(0).getId(), columns.get(0).getId(), 7.0, edited),
+                        tuple(students.get(1).getId(), columns.get(0).getId(), null, cleared));
+        assertThat(gradeService.getGradeBookChanges(classroom.getId(), edited).getCells())
+                .extracting(GradeCellChangeResponse::getStudentId).containsExactly(students.get(1).getId());
+        GradeBookDeltaResponse current = gradeService.getGradeBookChanges(classroom.getId(), cleared);
+        assertThat(current.isFull()).isFalse();
+        assertThat(current.getCells()).isEmpty();
+
+        // Adding a column bumps the version without a log entry
+        addColumn("Kiểm tra miệng", null);
+        assertThat(gradeService.getGradeBookChanges(classroom.getId(), start).isFull()).isTrue();
+        assertThat(gradeService.getGradeBookChanges(classroom.getId(), cleared).isFull()).isTrue();
+        long now = gradeBookCache.currentVersion(classroom.getId());
+        assertThat(gradeService.getGradeBookChanges(classroom.getId(), now).isFull()).isFalse();
+        assertThat(gradeService.getGradeBookChanges(classroom.getId(), now + 1).isFull()).isTrue();
+    }
+
+    @Test
+    void reopeningAFinalizedGradebookRestoresItsCells() {
+        addColumn("TB 15p", "avg(QUIZ_15)");
+        bulk(cell(0, 0, 6.0), cell(0, 1, 9.0), cell(0, 5, 7.5), cell(1, 2, 4.0), cell(1, 6, 8.25), cell(2, 3, 10.0));
+        String cellsQuery = "SELECT id, grade_column_id, student_id, score FROM student_grades " +
+                "WHERE classroom_id = ? ORDER BY id";
+        String summariesQuery = "SELECT student_id, weighted_sum, weight_total FROM student_grade_summaries " +
+                "WHERE classroom_id = ? ORDER BY student_id";
+        List<Map<String, Object>> cells = jdbcTemplate.queryForList(cellsQuery, classroom.getId());
+        List<Map<String, Object>> summaries = jdbcTemplate.queryForList(summariesQuery, classroom.getId());
+        List<String> gradeBook = entries(gradeService.getGradeBook(classroom.getId()));
+        long before = gradeBookCache.currentVersion(classroom.getId());
+
+        GradeBookResponse finalized = gradeService.finalizeGradeBook(classroom.getId());
+
+        assertThat(finalized.getFinalizedAt()).isNotNull();
+        assertThat(jdbcTemplate.queryForList(cellsQuery, classroom.getId())).isEmpty();
+        assertThat(entries(gradeService.getGradeBook(classroom.getId()))).isEqualTo(gradeBook);
+        assertThat(gradeService.getGradeBook(classroom.getId()).getFinalizedAt()).isNotNull();
+        assertThat(gradeService.getGradeBookChanges(classroom.getId(), before).isFull()).isTrue();
+        assertThatThrownBy(() -> bulk(cell(0, 0, 1.0))).hasMessage("Bảng điểm đã chốt, cần mở lại trước khi sửa");
+        login(fixtures.account(Role.TEACHER));
+        assertThatThrownBy(() -> gradeService.reopenGradeBook(classroom.getId()))
+                .hasMessage("Bạn không có quyền sửa bảng điểm của lớp này");
+        login(teacher);
+
+        GradeBookResponse reopened = gradeService.reopenGradeBook(classroom.getId());
+
+        assertThat(reopened.getFinalizedAt()).isNull();
+        assertThat(entries(reopened)).isEqualTo(gradeBook);
+        assertThat(jdbcTemplate.queryForList(cellsQuery, classroom.getId())).isEqualTo(cells);
+        assertThat(jdbcTemplate.queryForList(summariesQuery, classroom.getId())).isEqualTo(summaries);
+        assertThatThrownBy(() -> gradeService.reopenGradeBook(classroom.getId()))
+                .hasMessage("Bảng điểm chưa được chốt");
+        // Editable again, the restored cells included
+        assertThat(update((Long) cells.get(0).get("id"), 3.0)).isGreaterThan(before);
+        assertThat(score(0, 0)).isEqualTo(3.0);
+    }
+
+    // Every cell of the gradebook as studentId:columnId:gradeId:score, with the row totals
+    private static List<String> entries(GradeBookResponse gradeBook) {
+        List<String> entries = new ArrayList<>();
+        for (StudentGradeRowResponse row : gradeBook.getRows()) {
+            for (GradeEntryResponse entry : row.getGrades()) {
+                entries.add(row.getStudentId() + ":" + entry.getColumnId() + ":" + entry.getGradeId() + ":" +
+                        entry.getScore());
+            }
+            entries.add(row.getStudentId() + ":" + row.getWeightedSum() + ":" + row.getWeightTotal() + ":" +
+                    row.getAverage());
+        }
+        return entries;
+    }
+
+    private long update(Long gradeId, Double score) {
+        UpdateGradeRequest request = new UpdateGradeRequest();
+        request.setScore(score);
+        return gradeService.updateGrade(gradeId, request).getVersion();
+    }
+
+    private StudentGradeRowResponse row(GradeBookResponse gradeBook, int student) {
+        return gradeBook.getRows().stream()
+                .filter(row -> row.getStudentId().equals(students.get(student).getId()))
+                .findFirst().orElseThrow();
+    }
+
+    private static Double nullable(JsonNode value) {
+        return value.isNull() ? null : value.doubleValue();
+    }
+
+    private BulkGradeUpdateResponse bulk(GradeCellRequest... cells) {
+        BulkGradeUpdateRequest request = new BulkGradeUpdateRequest();
+        request.setCells(new ArrayList<>(List.of(cells)));
+        return gradeService.bulkUpdateGrades(classroom.getId(), request);
+    }
+
+    private GradeCellRequest cell(int student, int column, Double score) {
+        return raw(students.get(student).getId(), columns.get(column).getId(), score);
+    }
+
+    private static GradeCellRequest raw(Long studentId, Long columnId, Double score) {
+        GradeCellRequest cell = new GradeCellRequest();
+        cell.setStudentId(studentId);
+        cell.setColumnId(columnId);
+        cell.setScore(score);
+        return cell;
+    }
+
+    private GradeColumn addColumn(String name, String formula) {
+        AddGradeColumnRequest request = new AddGradeColumnRequest();
+        request.setName(name);
+        request.setType("QUIZ_15");
+        request.setFormula(formula);
+        return gradeColumnRepository.findById(gradeService.addCustomColumn(classroom.getId(), request).getId())
+                .orElseThrow();
+    }
+
+    private Double score(int student, int column) {
+        return jdbcTemplate.query("SELECT score FROM student_grades WHERE grade_column_id = ? AND student_id = ?",
+                (rs, i) -> rs.getObject(1, Double.class), columns.get(column).getId(), students.get(student).getId())
+                .stream().findFirst().orElse(null);
+    }
+
+    private static void login(Account account) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(account.getUsername(), null, List.of()));
+    }
+}
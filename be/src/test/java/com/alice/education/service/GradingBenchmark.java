@@ -0,0 +1,97 @@
+package com.alice.education.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alice.education.dto.SubmissionAnswerRequest;
+import com.alice.education.model.Question;
+
+/**
+ * Grading one submission: the entity path (map the exam's questions by id,
+ * compare answer strings) against a compiled {@link AnswerKey}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GradingBenchmark {
+
+    @Param({"100"})
+    private int questions;
+
+    private List<Question> entities;
+    private AnswerKey key;
+    private List<SubmissionAnswerRequest> answers;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        String[] letters = {"A", "B", "C", "D"};
+        entities = new ArrayList<>(questions);
+        answers = new ArrayList<>(questions);
+        long[] ids = new long[questions];
+        String[] correct = new String[questions];
+        for (int i = 0; i < questions; i++) {
+            Question question = new Question();
+            question.setId(1000L + i * 7);
+            question.setLineageId(question.getId());
+            question.setCorrectAnswer(letters[random.nextInt(4)]);
+            entities.add(question);
+            ids[i] = question.getId();
+            correct[i] = question.getCorrectAnswer();
+
+            SubmissionAnswerRequest answer = new SubmissionAnswerRequest();
+            answer.setQuestionId(question.getId());
+            // Strings from the request body, not the interned literals
+            answer.setSelectedAnswer(new String(letters[random.nextInt(4)]));
+            answers.add(answer);
+        }
+        key = AnswerKey.compile(ids, ids, correct, true, null, "Kiểm tra");
+    }
+
+    @Benchmark
+    public int entityMap() {
+        Map<Long, Question> questionMap = entities.stream()
+                .collect(Collectors.toMap(Question::getId, q -> q));
+        int correctCount = 0;
+        for (SubmissionAnswerRequest ansReq : answers) {
+            Question question = questionMap.get(ansReq.getQuestionId());
+            if (question == null) continue;
+            if (ansReq.getSelectedAnswer() != null && ansReq.getSelectedAnswer().equals(question.getCorrectAnswer())) {
+                correctCount++;
+            }
+        }
+        return correctCount;
+    }
+
+    @Benchmark
+    public int compiledKey() {
+        int correctCount = 0;
+        for (SubmissionAnswerRequest ansReq : answers) {
+            int index = key.indexOf(ansReq.getQuestionId());
+            if (index < 0) continue;
+            if (key.isCorrect(index, AnswerKey.encode(ansReq.getSelectedAnswer()))) {
+                correctCount++;
+            }
+        }
+        return correctCount;
+    }
+}
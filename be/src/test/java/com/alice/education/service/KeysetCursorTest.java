@@ -0,0 +1,48 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.Test;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsTheSortValueAndId() {
+        String cursor = KeysetCursor.encode("title", true, "Đề 1 | học kỳ I", 42);
+
+        KeysetCursor.Position position = KeysetCursor.decode(cursor, "title", true);
+
+        assertThat(position.value()).isEqualTo("Đề 1 | học kỳ I");
+        assertThat(position.id()).isEqualTo(42);
+        assertThat(cursor).doesNotContain("=", "+", "/");
+    }
+
+    @Test
+    void rejectsACursorOfAnotherSortOrDirection() {
+        String cursor = KeysetCursor.encode("title", true, "Đề 1", 42);
+
+        assertInvalid(() -> KeysetCursor.decode(cursor, "createdAt", true));
+        assertInvalid(() -> KeysetCursor.decode(cursor, "title", false));
+    }
+
+    @Test
+    void rejectsTamperedAndMalformedCursors() {
+        assertInvalid(() -> KeysetCursor.decode("not base64!", "title", true));
+        assertInvalid(() -> KeysetCursor.decode(encode("title|D|abc|Đề 1"), "title", true));
+        assertInvalid(() -> KeysetCursor.decode(encode("title|D|42"), "title", true));
+        assertInvalid(() -> KeysetCursor.decode("", "title", true));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertInvalid(ThrowingCallable decode) {
+        assertThatThrownBy(decode).isInstanceOf(RuntimeException.class).hasMessage("Cursor không hợp lệ");
+    }
+}
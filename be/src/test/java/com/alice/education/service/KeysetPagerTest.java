@@ -0,0 +1,114 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.alice.education.Fixtures;
+import com.alice.education.dto.CursorPageResponse;
+import com.alice.education.model.Account;
+import com.alice.education.model.Exam;
+import com.alice.education.model.Role;
+import com.alice.education.repository.ExamRepository;
+
+@SpringBootTest
+class KeysetPagerTest {
+
+    private static final KeysetPager.SortField CREATED_AT =
+            new KeysetPager.SortField("createdAt", "createdAt", LocalDateTime.class);
+    private static final KeysetPager.SortField TITLE = new KeysetPager.SortField("title", "title", String.class);
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Account teacher;
+    private Specification<Exam> byTeacher;
+    private final List<Exam> exams = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        teacher = new Fixtures(context).account(Role.TEACHER);
+        byTeacher = CatalogFilters.of(Exam.class).equal(teacher.getId(), "teacher", "id").build();
+        // Titles repeat and every exam shares one created_at, so pages split inside ties
+        String[] titles = {"Đề B", "Đề A", "Đề B", "Đề A", "Đề B", "Đề C", "Đề A"};
+        for (String title : titles) {
+            Exam exam = new Exam();
+            exam.setTitle(title);
+            exam.setTeacher(teacher);
+            exams.add(examRepository.save(exam));
+        }
+        jdbcTemplate.update("UPDATE exams SET created_at = ? WHERE teacher_id = ?",
+                LocalDateTime.of(2025, 9, 5, 7, 30), teacher.getId());
+    }
+
+    @Test
+    void walksTiesOnTheSortFieldByIdInBothDirections() {
+        Comparator<Exam> byTitleThenId = Comparator.comparing(Exam::getTitle).thenComparing(Exam::getId);
+
+        assertThat(walk(TITLE, "asc", 2)).containsExactlyElementsOf(ids(byTitleThenId));
+        assertThat(walk(TITLE, "desc", 3)).containsExactlyElementsOf(ids(byTitleThenId.reversed()));
+        assertThat(walk(CREATED_AT, "desc", 2)).containsExactlyElementsOf(
+                ids(Comparator.comparing(Exam::getId).reversed()));
+    }
+
+    @Test
+    void lastPageHasNoCursorAndPageSizeIsClamped() {
+        CursorPageResponse<Long> all = page(TITLE, "asc", null, 500);
+        assertThat(all.getItems()).hasSize(exams.size());
+        assertThat(all.getNextCursor()).isNull();
+
+        CursorPageResponse<Long> one = page(TITLE, "asc", null, 0);
+        assertThat(one.getItems()).hasSize(1);
+        assertThat(one.getNextCursor()).isNotNull();
+    }
+
+    @Test
+    void rejectsACursorOfAnotherSortOrWithAValueOfTheWrongType() {
+        String titleCursor = page(TITLE, "asc", null, 2).getNextCursor();
+
+        assertThatThrownBy(() -> page(TITLE, "desc", titleCursor, 2)).hasMessage("Cursor không hợp lệ");
+        assertThatThrownBy(() -> page(CREATED_AT, "asc", titleCursor, 2)).hasMessage("Cursor không hợp lệ");
+        String forged = KeysetCursor.encode("createdAt", true, "hôm qua", exams.get(0).getId());
+        assertThatThrownBy(() -> page(CREATED_AT, "desc", forged, 2)).hasMessage("Cursor không hợp lệ");
+    }
+
+    // Every id, following the next cursor page by page
+    private List<Long> walk(KeysetPager.SortField sort, String direction, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageResponse<Long> page = page(sort, direction, cursor, size);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(size);
+            ids.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private CursorPageResponse<Long> page(KeysetPager.SortField sort, String direction, String cursor, int size) {
+        return KeysetPager.page(examRepository, byTeacher, sort, direction, cursor, size,
+                rows -> rows.stream().map(Exam::getId).toList());
+    }
+
+    private List<Long> ids(Comparator<Exam> order) {
+        return exams.stream().sorted(order).map(Exam::getId).toList();
+    }
+}
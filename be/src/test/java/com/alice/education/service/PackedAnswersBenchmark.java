@@ -0,0 +1,156 @@
+package com.alice.education.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.alice.education.BenchmarkContext;
+import com.alice.education.Fixtures;
+import com.alice.education.dto.ExamSubmissionResponse;
+import com.alice.education.dto.SubmissionAnswerRequest;
+import com.alice.education.dto.SubmitExamRequest;
+import com.alice.education.model.Account;
+import com.alice.education.model.Exam;
+import com.alice.education.model.ExamQuestion;
+import com.alice.education.model.GradeType;
+import com.alice.education.model.Question;
+import com.alice.education.model.Role;
+import com.alice.education.repository.ExamRepository;
+
+/**
+ * Exam submits of {@code QUESTIONS} answers with answer rows
+ * ({@code packedAnswers=false}, written inline, without the write-behind
+ * queue) against packed answers, with a database round trip of
+ * {@code roundTripMicros}. The setup also stores {@code STORED} submissions
+ * and prints the space their tables take per submission, as the database
+ * reports it (H2 in a temporary file, or MySQL's table statistics).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PackedAnswersBenchmark {
+
+    private static final int QUESTIONS = 40;
+    private static final int STUDENTS = 4000;
+    private static final int STORED = 2000;
+
+    @Param({"false", "true"})
+    private boolean packedAnswers;
+
+    @Param({"200"})
+    private long roundTripMicros;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private ExamSubmissionService submissionService;
+    private List<Account> students;
+    private Long examId;
+    private SubmitExamRequest request;
+    private int next;
+    private Path database;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<String> properties = new ArrayList<>(List.of("app.submission.packed-answers=" + packedAnswers,
+                "app.submission.write-behind.enabled=false"));
+        if (System.getenv("BENCHMARK_JDBC_URL") == null) {
+            // A file database, as H2 reports no space used in memory
+            database = Files.createTempDirectory("packed-answers");
+            properties.add("spring.datasource.url=jdbc:h2:file:" + database.resolve("education") +
+                    ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_ON_EXIT=FALSE");
+        }
+        context = BenchmarkContext.start(roundTripMicros, properties.toArray(String[]::new));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        submissionService = context.getBean(ExamSubmissionService.class);
+
+        Fixtures fixtures = new Fixtures(context);
+        Account teacher = fixtures.account(Role.TEACHER);
+        students = fixtures.students(STUDENTS);
+        List<Question> questions = fixtures.questions(QUESTIONS, teacher);
+        Exam exam = new Exam();
+        exam.setTitle("Kiểm tra 45 phút");
+        exam.setExamType(GradeType.TEST_45);
+        exam.setTeacher(teacher);
+        for (int i = 0; i < questions.size(); i++) {
+            exam.getQuestionLinks().add(new ExamQuestion(exam, questions.get(i), i + 1));
+        }
+        examId = context.getBean(ExamRepository.class).save(exam).getId();
+
+        // Every answer filled in, a quarter of them right
+        request = new SubmitExamRequest();
+        request.setAnswers(new ArrayList<>());
+        for (Question question : questions) {
+            SubmissionAnswerRequest answer = new SubmissionAnswerRequest();
+            answer.setQuestionId(question.getId());
+            answer.setSelectedAnswer("A");
+            request.getAnswers().add(answer);
+        }
+
+        for (int i = 0; i < STORED; i++) {
+            submit();
+        }
+        long bytes = tableBytes("exam_submissions") + tableBytes("exam_submission_answers");
+        long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM exam_submission_answers", Long.class);
+        System.out.printf("%n%d submissions of %d answers (packedAnswers=%s): %d answer rows, %d bytes, " +
+                "%d per submission%n", STORED, QUESTIONS, packedAnswers, rows, bytes, bytes / STORED);
+        clear();
+    }
+
+    // Frees the students for the next iteration
+    @TearDown(Level.Iteration)
+    public void clear() {
+        jdbcTemplate.update("DELETE FROM exam_submission_answers");
+        jdbcTemplate.update("DELETE FROM exam_submissions");
+        next = 0;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        if (database != null) {
+            try (Stream<Path> files = Files.list(database)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(database);
+        }
+    }
+
+    private long tableBytes(String table) {
+        if (database == null) {
+            jdbcTemplate.execute("ANALYZE TABLE " + table);
+            return jdbcTemplate.queryForObject("SELECT data_length + index_length FROM information_schema.tables " +
+                    "WHERE table_schema = DATABASE() AND table_name = ?", Long.class, table);
+        }
+        return jdbcTemplate.queryForObject("SELECT DISK_SPACE_USED(?)", Long.class, table);
+    }
+
+    @Benchmark
+    public ExamSubmissionResponse submit() {
+        return submissionService.submitExpiredSession(students.get(next++).getUsername(), examId, request, null);
+    }
+}
@@ -0,0 +1,69 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.alice.education.dto.SubmissionAnswerResult;
+
+class PackedAnswersTest {
+
+    @Test
+    void roundTripsEveryLengthAndChoice() {
+        Random random = new Random(42);
+        for (int size = 0; size <= 130; size++) {
+            for (int trial = 0; trial < 20; trial++) {
+                byte[] selected = new byte[size];
+                for (int i = 0; i < size; i++) {
+                    selected[i] = (byte) (random.nextInt(5) - 1);
+                }
+
+                byte[] data = PackedAnswers.pack(selected);
+
+                assertThat(data).hasSize((size * 3 + 7) / 8);
+                assertThat(PackedAnswers.unpack(data, size)).as("size %d", size).isEqualTo(selected);
+            }
+        }
+    }
+
+    @Test
+    void codesStraddlingBytesKeepTheirNeighbours() {
+        // Position 2 spans bits 6-8, across the first two bytes
+        byte[] selected = {3, 3, 2, 3, 3, 3, 3, 3};
+
+        assertThat(PackedAnswers.unpack(PackedAnswers.pack(selected), 8)).isEqualTo(selected);
+        byte[] blanks = new byte[8];
+        Arrays.fill(blanks, AnswerKey.NO_ANSWER);
+        assertThat(PackedAnswers.pack(blanks)).containsOnly(0);
+    }
+
+    @Test
+    void positionsBeyondThePackedDataAreBlanks() {
+        byte[] selected = {0, 1, 2};
+
+        byte[] unpacked = PackedAnswers.unpack(PackedAnswers.pack(selected), 6);
+
+        assertThat(unpacked).containsExactly(0, 1, 2, AnswerKey.NO_ANSWER, AnswerKey.NO_ANSWER, AnswerKey.NO_ANSWER);
+    }
+
+    @Test
+    void resultsDeriveCorrectnessFromTheKey() {
+        AnswerKey key = AnswerKey.compile(new long[]{10, 20, 30}, new long[]{10, 20, 30},
+                new String[]{"A", "B", "C"}, true, null, "Kiểm tra");
+        byte[] selected = {AnswerKey.encode("A"), AnswerKey.NO_ANSWER, AnswerKey.encode("D")};
+
+        List<SubmissionAnswerResult> results = PackedAnswers.results(key,
+                PackedAnswers.unpack(PackedAnswers.pack(selected), 3), Map.of(10L, "Câu 1", 30L, "Câu 3"));
+
+        assertThat(results).extracting(SubmissionAnswerResult::getQuestionId).containsExactly(10L, 30L);
+        assertThat(results).extracting(SubmissionAnswerResult::getQuestionContent).containsExactly("Câu 1", "Câu 3");
+        assertThat(results).extracting(SubmissionAnswerResult::getSelectedAnswer).containsExactly("A", "D");
+        assertThat(results).extracting(SubmissionAnswerResult::getCorrectAnswer).containsExactly("A", "C");
+        assertThat(results).extracting(SubmissionAnswerResult::getIsCorrect).containsExactly(true, false);
+    }
+}
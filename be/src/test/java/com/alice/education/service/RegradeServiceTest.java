@@ -0,0 +1,218 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.alice.education.Fixtures;
+import com.alice.education.dto.RegradeStatusResponse;
+import com.alice.education.dto.SubmissionAnswerRequest;
+import com.alice.education.dto.SubmitExamRequest;
+import com.alice.education.model.Account;
+import com.alice.education.model.Classroom;
+import com.alice.education.model.Exam;
+import com.alice.education.model.ExamQuestion;
+import com.alice.education.model.GradeColumn;
+import com.alice.education.model.GradeType;
+import com.alice.education.model.Question;
+import com.alice.education.model.Role;
+import com.alice.education.model.StudentGrade;
+import com.alice.education.repository.ExamRepository;
+import com.alice.education.repository.GradeColumnRepository;
+import com.alice.education.repository.StudentGradeRepository;
+
+@SpringBootTest
+class RegradeServiceTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private GradeColumnRepository gradeColumnRepository;
+
+    @Autowired
+    private StudentGradeRepository studentGradeRepository;
+
+    @Autowired
+    private ExamSubmissionService submissionService;
+
+    @Autowired
+    private RegradeService regradeService;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Account first;
+    private Account second;
+    private Classroom classroom;
+    private List<Question> questions;
+    private Long examId;
+
+    @BeforeEach
+    void setUp() {
+        Fixtures fixtures = new Fixtures(context);
+        Account teacher = fixtures.account(Role.TEACHER);
+        first = fixtures.account(Role.CUSTOMER);
+        second = fixtures.account(Role.CUSTOMER);
+        classroom = fixtures.classroom(teacher, List.of(first, second));
+        // Correct answers A, B, C, D
+        questions = fixtures.questions(4, teacher);
+        Exam exam = new Exam();
+        exam.setTitle("Kiểm tra 45 phút");
+        exam.setExamType(GradeType.TEST_45);
+        exam.setTeacher(teacher);
+        exam.getClassrooms().add(classroom);
+        for (int i = 0; i < questions.size(); i++) {
+            exam.getQuestionLinks().add(new ExamQuestion(exam, questions.get(i), i + 1));
+        }
+        examId = examRepository.save(exam).getId();
+    }
+
+    @Test
+    void correctedAnswerUpdatesScoresAndGradebook() {
+        submit(first, "A", "B", "C", "A");
+        submit(second, "A", "A", "A", "A");
+        GradeColumn column = column();
+        cell(column, first, 7.5);
+        cell(column, second, 2.5);
+
+        correctLastQuestionTo("A");
+        RegradeStatusResponse status = regrade();
+
+        assertThat(status.getState()).isEqualTo("DONE");
+        assertThat(status.getProcessed()).isEqualTo(2);
+        assertThat(status.getChanged()).isEqualTo(2);
+        assertThat(status.getSkipped()).isZero();
+        assertThat(status.getGradesUpdated()).isEqualTo(2);
+        assertThat(stored(first)).containsExactly(4, 10.0);
+        assertThat(stored(second)).containsExactly(2, 5.0);
+        assertThat(gradebookScore(column, first)).isEqualTo(10.0);
+        assertThat(gradebookScore(column, second)).isEqualTo(5.0);
+    }
+
+    @Test
+    void submissionStillInTheWriteBehindQueueIsRegradedOnceWritten() throws Exception {
+        Object submitter = AopTestUtils.getTargetObject(submissionService);
+        Object regrader = AopTestUtils.getTargetObject(regradeService);
+        Object ingestion = ReflectionTestUtils.getField(regrader, "ingestionService");
+        // Answer rows, as written without packed answers
+        ReflectionTestUtils.setField(submitter, "packedAnswers", false);
+        try {
+            submit(first, "A", "B", "C", "A");
+            submit(second, "A", "A", "A", "A");
+
+            // The second student's answers are queued until the flag is cleared
+            AtomicBoolean queued = new AtomicBoolean(true);
+            SubmissionIngestionService queue = mock(SubmissionIngestionService.class);
+            GradedExamSubmission pending = mock(GradedExamSubmission.class);
+            when(queue.isEnabled()).thenReturn(true);
+            when(queue.getPending(eq(examId), anyLong())).thenAnswer(inv ->
+                    queued.get() && inv.getArgument(1).equals(second.getId()) ? pending : null);
+            ReflectionTestUtils.setField(regrader, "ingestionService", queue);
+            Thread flusher = new Thread(() -> {
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                queued.set(false);
+            });
+            flusher.start();
+
+            correctLastQuestionTo("A");
+            RegradeStatusResponse status = regrade();
+            flusher.join();
+
+            assertThat(status.getState()).isEqualTo("DONE");
+            assertThat(status.getProcessed()).isEqualTo(2);
+            assertThat(status.getSkipped()).isZero();
+            assertThat(stored(first)).containsExactly(4, 10.0);
+            assertThat(stored(second)).containsExactly(2, 5.0);
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM exam_submission_answers a " +
+                    "JOIN exam_submissions s ON s.id = a.submission_id " +
+                    "WHERE s.exam_id = ? AND a.is_correct", Long.class, examId)).isEqualTo(6);
+        } finally {
+            ReflectionTestUtils.setField(submitter, "packedAnswers", true);
+            ReflectionTestUtils.setField(regrader, "ingestionService", ingestion);
+        }
+    }
+
+    private void submit(Account student, String... choices) {
+        SubmitExamRequest request = new SubmitExamRequest();
+        request.setAnswers(new ArrayList<>());
+        for (int i = 0; i < choices.length; i++) {
+            SubmissionAnswerRequest answer = new SubmissionAnswerRequest();
+            answer.setQuestionId(questions.get(i).getId());
+            answer.setSelectedAnswer(choices[i]);
+            request.getAnswers().add(answer);
+        }
+        submissionService.submitExpiredSession(student.getUsername(), examId, request, null);
+    }
+
+    private GradeColumn column() {
+        GradeColumn column = new GradeColumn();
+        column.setClassroom(classroom);
+        column.setName("Kiểm tra 45 phút");
+        column.setType(GradeType.TEST_45);
+        column.setIsCustom(false);
+        column.setSourceExam(examRepository.getReferenceById(examId));
+        return gradeColumnRepository.save(column);
+    }
+
+    private void cell(GradeColumn column, Account student, double score) {
+        StudentGrade cell = new StudentGrade();
+        cell.setGradeColumn(column);
+        cell.setStudent(student);
+        cell.setClassroom(classroom);
+        cell.setScore(score);
+        studentGradeRepository.save(cell);
+    }
+
+    private void correctLastQuestionTo(String answer) {
+        jdbcTemplate.update("UPDATE questions SET correct_answer = ? WHERE id = ?", answer, questions.get(3).getId());
+        answerKeyCache.evictExam(examId);
+    }
+
+    private RegradeStatusResponse regrade() {
+        regradeService.start(RegradeService.Kind.EXAM, examId);
+        long deadline = System.currentTimeMillis() + 30_000;
+        RegradeStatusResponse status = regradeService.getStatus(RegradeService.Kind.EXAM, examId);
+        while ("RUNNING".equals(status.getState()) && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+            status = regradeService.getStatus(RegradeService.Kind.EXAM, examId);
+        }
+        return status;
+    }
+
+    private List<Object> stored(Account student) {
+        return jdbcTemplate.queryForObject("SELECT correct_count, score FROM exam_submissions " +
+                "WHERE exam_id = ? AND student_id = ?", (rs, i) -> List.of(rs.getInt(1), rs.getDouble(2)),
+                examId, student.getId());
+    }
+
+    private Double gradebookScore(GradeColumn column, Account student) {
+        return jdbcTemplate.queryForObject("SELECT score FROM student_grades WHERE grade_column_id = ? " +
+                "AND student_id = ?", Double.class, column.getId(), student.getId());
+    }
+}
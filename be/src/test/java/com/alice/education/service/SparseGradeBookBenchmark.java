@@ -0,0 +1,195 @@
+package com.alice.education.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alice.education.BenchmarkContext;
+import com.alice.education.Fixtures;
+import com.alice.education.dto.AddGradeColumnRequest;
+import com.alice.education.dto.GradeColumnResponse;
+import com.alice.education.model.Account;
+import com.alice.education.model.ClassStudent;
+import com.alice.education.model.Classroom;
+import com.alice.education.model.GradeColumn;
+import com.alice.education.model.Role;
+import com.alice.education.model.StudentGrade;
+import com.alice.education.repository.ClassStudentRepository;
+import com.alice.education.repository.ClassroomRepository;
+import com.alice.education.repository.GradeColumnRepository;
+import com.alice.education.repository.StudentGradeRepository;
+
+/**
+ * A school of {@code CLASSES} classrooms of {@code STUDENTS} students and
+ * ten columns, {@code SCORED} of the cells holding a score, stored densely
+ * (a row for every cell, as before sparse storage) or sparsely (a row for
+ * every scored cell). The setup prints the rows and the space student_grades
+ * takes, as the database reports it (H2 in a temporary file, or MySQL's
+ * table statistics); the benchmark adds a column, which densely also
+ * inserts an empty cell for every active student, as addCustomColumn did.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SparseGradeBookBenchmark {
+
+    private static final int CLASSES = 40;
+    private static final int STUDENTS = 45;
+    private static final double SCORED = 0.4;
+
+    @Param({"false", "true"})
+    private boolean sparse;
+
+    @Param({"200"})
+    private long roundTripMicros;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private GradeService gradeService;
+    private ClassStudentRepository classStudentRepository;
+    private ClassroomRepository classroomRepository;
+    private StudentGradeRepository studentGradeRepository;
+    private List<Long> classroomIds;
+    private int next;
+    private int added;
+    private Path database;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<String> properties = new ArrayList<>();
+        if (System.getenv("BENCHMARK_JDBC_URL") == null) {
+            // A file database, as H2 reports no space used in memory
+            database = Files.createTempDirectory("sparse-gradebook");
+            properties.add("spring.datasource.url=jdbc:h2:file:" + database.resolve("education") +
+                    ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_ON_EXIT=FALSE");
+        }
+        context = BenchmarkContext.start(roundTripMicros, properties.toArray(String[]::new));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        gradeService = context.getBean(GradeService.class);
+        classStudentRepository = context.getBean(ClassStudentRepository.class);
+        classroomRepository = context.getBean(ClassroomRepository.class);
+        studentGradeRepository = context.getBean(StudentGradeRepository.class);
+        GradeColumnRepository gradeColumnRepository = context.getBean(GradeColumnRepository.class);
+
+        Fixtures fixtures = new Fixtures(context);
+        Account teacher = fixtures.account(Role.TEACHER);
+        Random random = new Random(42);
+        List<Object[]> cells = new ArrayList<>();
+        long id = 1_000_000_000L;
+        classroomIds = new ArrayList<>(CLASSES);
+        for (int c = 0; c < CLASSES; c++) {
+            List<Account> students = fixtures.students(STUDENTS);
+            Classroom classroom = fixtures.classroom(teacher, students);
+            gradeService.initializeGradeColumns(classroom);
+            for (int i = 0; i < 3; i++) {
+                addColumn(classroom.getId());
+            }
+            classroomIds.add(classroom.getId());
+            for (GradeColumn column : gradeColumnRepository.findByClassroomIdOrderByOrderNumber(classroom.getId())) {
+                for (Account student : students) {
+                    boolean scored = random.nextDouble() < SCORED;
+                    if (scored || !sparse) {
+                        cells.add(new Object[]{id++, column.getId(), classroom.getId(), student.getId(),
+                                scored ? (double) random.nextInt(21) / 2 : null});
+                    }
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO student_grades " +
+                "(id, grade_column_id, classroom_id, student_id, score, version, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, 0, NOW(6))", cells);
+        long bytes = tableBytes("student_grades");
+        System.out.printf("%n%d classrooms x %d students x 10 columns (sparse=%s): %d rows, %d bytes%n",
+                CLASSES, STUDENTS, sparse, cells.size(), bytes);
+    }
+
+    // Removes the columns added by the iteration, so every iteration starts from the same gradebooks
+    @TearDown(Level.Iteration)
+    public void clear() {
+        String added = "SELECT id FROM grade_columns WHERE is_custom AND order_number > 10";
+        jdbcTemplate.update("DELETE FROM student_grades WHERE grade_column_id IN (" + added + ")");
+        jdbcTemplate.update("DELETE FROM grade_columns WHERE id IN (SELECT id FROM (" + added + ") a)");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        if (database != null) {
+            try (Stream<Path> files = Files.list(database)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(database);
+        }
+    }
+
+    private long tableBytes(String table) {
+        if (database == null) {
+            jdbcTemplate.execute("ANALYZE TABLE " + table);
+            return jdbcTemplate.queryForObject("SELECT data_length + index_length FROM information_schema.tables " +
+                    "WHERE table_schema = DATABASE() AND table_name = ?", Long.class, table);
+        }
+        // Writes out the pages of recent inserts, which are not counted before
+        jdbcTemplate.execute("CHECKPOINT");
+        return jdbcTemplate.queryForObject("SELECT DISK_SPACE_USED(?)", Long.class, table);
+    }
+
+    private GradeColumnResponse addColumn(Long classroomId) {
+        AddGradeColumnRequest request = new AddGradeColumnRequest();
+        request.setName("Kiểm tra miệng " + ++added);
+        request.setType("QUIZ_15");
+        return gradeService.addCustomColumn(classroomId, request);
+    }
+
+    @Benchmark
+    public GradeColumnResponse addColumn() {
+        Long classroomId = classroomIds.get(next++ % CLASSES);
+        return transactionTemplate.execute(status -> {
+            GradeColumnResponse column = addColumn(classroomId);
+            if (!sparse) {
+                // The empty cells addCustomColumn inserted before sparse storage
+                Classroom classroom = classroomRepository.getReferenceById(classroomId);
+                GradeColumn saved = context.getBean(GradeColumnRepository.class).getReferenceById(column.getId());
+                List<StudentGrade> created = new ArrayList<>();
+                for (ClassStudent cs : classStudentRepository.findActiveStudentsByClassroomId(classroomId)) {
+                    StudentGrade grade = new StudentGrade();
+                    grade.setGradeColumn(saved);
+                    grade.setStudent(cs.getStudent());
+                    grade.setClassroom(classroom);
+                    created.add(grade);
+                }
+                studentGradeRepository.saveAll(created);
+            }
+            return column;
+        });
+    }
+}
@@ -0,0 +1,239 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.alice.education.Fixtures;
+import com.alice.education.dto.RegradeStatusResponse;
+import com.alice.education.dto.StudentWorkItemResponse;
+import com.alice.education.dto.SubmissionAnswerRequest;
+import com.alice.education.dto.SubmitExamRequest;
+import com.alice.education.model.Account;
+import com.alice.education.model.Classroom;
+import com.alice.education.model.Exam;
+import com.alice.education.model.ExamQuestion;
+import com.alice.education.model.Question;
+import com.alice.education.model.Role;
+import com.alice.education.repository.ExamRepository;
+
+@SpringBootTest
+class StudentFeedCacheTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private ExamSubmissionService submissionService;
+
+    @Autowired
+    private RegradeService regradeService;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Account first;
+    private Account second;
+    // Correct answers A, B, C, D
+    private List<Question> questions;
+    private Long examId;
+
+    @BeforeEach
+    void setUp() {
+        Fixtures fixtures = new Fixtures(context);
+        Account teacher = fixtures.account(Role.TEACHER);
+        first = fixtures.account(Role.CUSTOMER);
+        second = fixtures.account(Role.CUSTOMER);
+        Classroom classroom = fixtures.classroom(teacher, List.of(first, second));
+        questions = fixtures.questions(4, teacher);
+        Exam exam = new Exam();
+        exam.setTitle("Kiểm tra 15 phút");
+        exam.setTeacher(teacher);
+        exam.setIsActive(true);
+        exam.setDueDate(LocalDateTime.now().plusDays(1));
+        exam.getClassrooms().add(classroom);
+        for (int i = 0; i < questions.size(); i++) {
+            exam.getQuestionLinks().add(new ExamQuestion(exam, questions.get(i), i + 1));
+        }
+        examId = examRepository.save(exam).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void submitEvictsOnlyTheSubmittersFeed() {
+        assertThat(feed(first).getSubmissionCount()).isZero();
+        List<StudentWorkItemResponse> secondFeed = feedOf(second);
+
+        submit(first, "A", "B", "C", "A");
+
+        assertThat(feed(first).getSubmissionCount()).isEqualTo(1);
+        assertThat(feed(first).getBestScore()).isEqualTo(7.5);
+        assertThat(feedOf(second)).isSameAs(secondFeed);
+    }
+
+    @Test
+    void regradeEvictsEveryExamFeed() {
+        submit(first, "A", "B", "C", "A");
+        submit(second, "A", "A", "A", "A");
+        assertThat(feed(first).getBestScore()).isEqualTo(7.5);
+        assertThat(feed(second).getBestScore()).isEqualTo(2.5);
+
+        jdbcTemplate.update("UPDATE questions SET correct_answer = 'A' WHERE id = ?", questions.get(3).getId());
+        answerKeyCache.evictExam(examId);
+        assertThat(regrade().getState()).isEqualTo("DONE");
+
+        assertThat(feed(first).getBestScore()).isEqualTo(10.0);
+        assertThat(feed(second).getBestScore()).isEqualTo(5.0);
+    }
+
+    @Test
+    void evictionsReachTheirKindAndStudentOnly() {
+        StudentFeedCache cache = cache(300_000, 100);
+        List<Integer> loads = new ArrayList<>();
+        load(cache, StudentFeedCache.Kind.EXAMS, "an", loads);
+        load(cache, StudentFeedCache.Kind.EXAMS, "binh", loads);
+        load(cache, StudentFeedCache.Kind.ASSIGNMENTS, "an", loads);
+
+        cache.evictStudent(StudentFeedCache.Kind.EXAMS, "an");
+        load(cache, StudentFeedCache.Kind.EXAMS, "an", loads);
+        load(cache, StudentFeedCache.Kind.EXAMS, "binh", loads);
+        load(cache, StudentFeedCache.Kind.ASSIGNMENTS, "an", loads);
+        assertThat(loads).containsExactly(1, 2, 3, 4);
+
+        cache.evictKind(StudentFeedCache.Kind.EXAMS);
+        load(cache, StudentFeedCache.Kind.EXAMS, "an", loads);
+        load(cache, StudentFeedCache.Kind.EXAMS, "binh", loads);
+        load(cache, StudentFeedCache.Kind.ASSIGNMENTS, "an", loads);
+        assertThat(loads).containsExactly(1, 2, 3, 4, 5, 6);
+
+        cache.evictAll();
+        load(cache, StudentFeedCache.Kind.ASSIGNMENTS, "an", loads);
+        assertThat(loads).containsExactly(1, 2, 3, 4, 5, 6, 7);
+    }
+
+    @Test
+    void entriesExpireAndAFullCacheStartsOver() {
+        StudentFeedCache expiring = cache(0, 100);
+        List<Integer> loads = new ArrayList<>();
+        load(expiring, StudentFeedCache.Kind.EXAMS, "an", loads);
+        load(expiring, StudentFeedCache.Kind.EXAMS, "an", loads);
+        assertThat(loads).containsExactly(1, 2);
+
+        StudentFeedCache small = cache(300_000, 2);
+        loads.clear();
+        load(small, StudentFeedCache.Kind.EXAMS, "an", loads);
+        load(small, StudentFeedCache.Kind.EXAMS, "binh", loads);
+        // The third entry clears the other two
+        load(small, StudentFeedCache.Kind.EXAMS, "chi", loads);
+        load(small, StudentFeedCache.Kind.EXAMS, "chi", loads);
+        load(small, StudentFeedCache.Kind.EXAMS, "an", loads);
+        assertThat(loads).containsExactly(1, 2, 3, 4);
+    }
+
+    @Test
+    void feedReadBeforeTheEvictingTransactionCommitsIsNotKept() {
+        StudentFeedCache cache = cache(300_000, 100);
+        List<Integer> loads = new ArrayList<>();
+
+        // A reader between the eviction and the commit loads, and caches, the old state
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            cache.evictStudent(StudentFeedCache.Kind.EXAMS, "an");
+            load(cache, StudentFeedCache.Kind.EXAMS, "an", loads);
+        });
+        load(cache, StudentFeedCache.Kind.EXAMS, "an", loads);
+        assertThat(loads).containsExactly(1, 2);
+
+        // An eviction while a load runs keeps that load out of the cache
+        cache.get(StudentFeedCache.Kind.EXAMS, "binh", () -> {
+            loads.add(loads.size() + 1);
+            cache.evictKind(StudentFeedCache.Kind.ASSIGNMENTS);
+            return List.of();
+        });
+        load(cache, StudentFeedCache.Kind.EXAMS, "binh", loads);
+        assertThat(loads).containsExactly(1, 2, 3, 4);
+    }
+
+    private StudentWorkItemResponse feed(Account student) {
+        return feedOf(student).stream().filter(i -> i.getId().equals(examId)).findFirst().orElseThrow();
+    }
+
+    private List<StudentWorkItemResponse> feedOf(Account student) {
+        login(student);
+        return examService.getEnrolledExams();
+    }
+
+    private void submit(Account student, String... choices) {
+        SubmitExamRequest request = new SubmitExamRequest();
+        request.setAnswers(new ArrayList<>());
+        for (int i = 0; i < choices.length; i++) {
+            SubmissionAnswerRequest answer = new SubmissionAnswerRequest();
+            answer.setQuestionId(questions.get(i).getId());
+            answer.setSelectedAnswer(choices[i]);
+            request.getAnswers().add(answer);
+        }
+        login(student);
+        submissionService.submitExam(examId, request, null);
+    }
+
+    private RegradeStatusResponse regrade() {
+        regradeService.start(RegradeService.Kind.EXAM, examId);
+        long deadline = System.currentTimeMillis() + 30_000;
+        RegradeStatusResponse status = regradeService.getStatus(RegradeService.Kind.EXAM, examId);
+        while ("RUNNING".equals(status.getState()) && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+            status = regradeService.getStatus(RegradeService.Kind.EXAM, examId);
+        }
+        return status;
+    }
+
+    private static StudentFeedCache cache(long ttlMs, int maxEntries) {
+        StudentFeedCache cache = new StudentFeedCache();
+        ReflectionTestUtils.setField(cache, "ttlMs", ttlMs);
+        ReflectionTestUtils.setField(cache, "maxEntries", maxEntries);
+        return cache;
+    }
+
+    // Records a load whenever the feed is not served from the cache
+    private static void load(StudentFeedCache cache, StudentFeedCache.Kind kind, String username, List<Integer> loads) {
+        cache.get(kind, username, () -> {
+            loads.add(loads.size() + 1);
+            return List.of();
+        });
+    }
+
+    private static void login(Account account) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(account.getUsername(), null, List.of()));
+    }
+}
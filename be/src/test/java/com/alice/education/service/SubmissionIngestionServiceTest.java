@@ -0,0 +1,183 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.alice.education.repository.SequenceIdAllocator;
+
+class SubmissionIngestionServiceTest {
+
+    private static final int QUESTIONS = 40;
+
+    @TempDir
+    Path walDir;
+
+    private final List<SubmissionIngestionService> started = new ArrayList<>();
+
+    // Answer rows per JDBC batch, as written by the flusher
+    private final List<List<Object[]>> answerBatches = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicBoolean databaseDown = new AtomicBoolean();
+
+    @AfterEach
+    void tearDown() {
+        started.forEach(SubmissionIngestionService::stop);
+    }
+
+    @Test
+    void absorbsTwoThousandSimultaneousSubmits() throws Exception {
+        SubmissionIngestionService service = start(false);
+        int submits = 2000;
+        ExecutorService students = Executors.newFixedThreadPool(200);
+        CountDownLatch deadline = new CountDownLatch(1);
+        for (int i = 0; i < submits; i++) {
+            long studentId = i + 1;
+            students.submit(() -> {
+                deadline.await();
+                service.enqueueOrWrite(submission(studentId, studentId));
+                return null;
+            });
+        }
+        deadline.countDown();
+        students.shutdown();
+        assertThat(students.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        awaitUntil(() -> answerRows() == submits * QUESTIONS);
+        awaitUntil(() -> walSize() == 0);
+        for (long studentId = 1; studentId <= submits; studentId++) {
+            assertThat(service.getPending(7L, studentId)).isNull();
+        }
+        // Answers arrive in a few multi-row batches, not one insert per submit
+        assertThat(answerBatches.size()).isLessThan(submits / 10);
+        assertThat(answerBatches.stream().flatMap(List::stream).map(row -> row[1]).distinct().count())
+                .isEqualTo(submits);
+    }
+
+    @Test
+    void replaysLoggedAnswersAfterARestart() throws Exception {
+        databaseDown.set(true);
+        SubmissionIngestionService crashed = start(false);
+        for (long studentId = 1; studentId <= 3; studentId++) {
+            crashed.enqueueOrWrite(submission(studentId, 100 + studentId));
+        }
+        crashed.stop();
+        started.remove(crashed);
+        assertThat(walSize()).isPositive();
+        assertThat(answerBatches).isEmpty();
+
+        databaseDown.set(false);
+        SubmissionIngestionService restarted = start(false);
+
+        awaitUntil(() -> answerRows() == 3 * QUESTIONS);
+        awaitUntil(() -> walSize() == 0);
+        assertThat(answerBatches.stream().flatMap(List::stream).map(row -> row[1]).distinct())
+                .containsExactlyInAnyOrder(101L, 102L, 103L);
+        assertThat(restarted.getPending(7L, 1L)).isNull();
+    }
+
+    @Test
+    void staysOffWhileAnswersArePacked() {
+        SubmissionIngestionService service = start(true);
+
+        assertThat(service.isEnabled()).isFalse();
+        assertThat(walDir.resolve("wal")).doesNotExist();
+    }
+
+    private SubmissionIngestionService start(boolean packedAnswers) {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            if (databaseDown.get()) {
+                throw new DataAccessResourceFailureException("Communications link failure");
+            }
+            String sql = inv.getArgument(0);
+            List<Object[]> rows = inv.getArgument(1);
+            if (sql.startsWith("INSERT INTO exam_submission_answers")) {
+                answerBatches.add(rows);
+            }
+            return new int[rows.size()];
+        });
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+        AtomicLong nextId = new AtomicLong(1);
+        SequenceIdAllocator idAllocator = mock(SequenceIdAllocator.class);
+        when(idAllocator.reserve(anyString(), anyInt()))
+                .thenAnswer(inv -> nextId.getAndAdd(inv.<Integer>getArgument(1)));
+
+        SubmissionIngestionService service = new SubmissionIngestionService();
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "packedAnswers", packedAnswers);
+        ReflectionTestUtils.setField(service, "queueCapacity", 10000);
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+        ReflectionTestUtils.setField(service, "flushIntervalMs", 20L);
+        ReflectionTestUtils.setField(service, "walDir", walDir.resolve("wal").toString());
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(service, "idAllocator", idAllocator);
+        service.start();
+        started.add(service);
+        return service;
+    }
+
+    private static GradedExamSubmission submission(long studentId, long submissionId) {
+        long[] questionIds = new long[QUESTIONS];
+        String[] selected = new String[QUESTIONS];
+        boolean[] correct = new boolean[QUESTIONS];
+        for (int i = 0; i < QUESTIONS; i++) {
+            questionIds[i] = 1000 + i;
+            selected[i] = "ABCD".substring(i % 4, i % 4 + 1);
+            correct[i] = i % 4 == 0;
+        }
+        return new GradedExamSubmission(submissionId, 7L, studentId, System.currentTimeMillis(),
+                QUESTIONS / 4, QUESTIONS, 2.5, questionIds, selected, correct);
+    }
+
+    private int answerRows() {
+        synchronized (answerBatches) {
+            return answerBatches.stream().mapToInt(List::size).sum();
+        }
+    }
+
+    private long walSize() throws Exception {
+        Path file = walDir.resolve("wal").resolve("exam-submissions.wal");
+        return Files.exists(file) ? Files.size(file) : 0;
+    }
+
+    private static void awaitUntil(Check check) throws Exception {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!check.done()) {
+            assertThat(System.currentTimeMillis()).as("timed out").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        boolean done() throws Exception;
+    }
+}
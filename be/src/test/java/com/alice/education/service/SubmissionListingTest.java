@@ -0,0 +1,99 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import com.alice.education.Fixtures;
+import com.alice.education.model.Account;
+import com.alice.education.model.Exam;
+import com.alice.education.model.ExamSubmission;
+import com.alice.education.model.Role;
+import com.alice.education.repository.ExamRepository;
+import com.alice.education.repository.ExamSubmissionRepository;
+import com.alice.education.repository.SubmissionListingRepository.Source;
+
+@SpringBootTest
+class SubmissionListingTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private ExamSubmissionRepository submissionRepository;
+
+    @Autowired
+    private SubmissionListing listing;
+
+    private Exam exam;
+    private final List<ExamSubmission> submissions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Fixtures fixtures = new Fixtures(context);
+        exam = new Exam();
+        exam.setTitle("Kiểm tra 45 phút");
+        exam.setTeacher(fixtures.account(Role.TEACHER));
+        exam = examRepository.save(exam);
+
+        // Ties on score and on submission time cross page boundaries
+        double[] scores = {8.0, 5.0, 8.0, 10.0, 8.0, 5.0, 0.0};
+        LocalDateTime at = LocalDateTime.of(2026, 5, 20, 9, 0);
+        for (int i = 0; i < scores.length; i++) {
+            ExamSubmission submission = new ExamSubmission();
+            submission.setExam(exam);
+            submission.setStudent(fixtures.account(Role.CUSTOMER));
+            submission.setTotalCount(10);
+            submission.setCorrectCount((int) scores[i]);
+            submission.setScore(scores[i]);
+            submission.setSubmittedAt(at.plusMinutes(i / 2));
+            submissions.add(submissionRepository.save(submission));
+        }
+    }
+
+    @Test
+    void pagesByScoreVisitEveryRowOnceInKeysetOrder() {
+        List<SubmissionListing.Row> rows = allPages("score", "desc");
+
+        assertThat(rows).extracting(SubmissionListing.Row::score)
+                .containsExactly(10.0, 8.0, 8.0, 8.0, 5.0, 5.0, 0.0);
+        assertThat(rows).extracting(SubmissionListing.Row::id).doesNotHaveDuplicates();
+        // Ties are ordered by id, in the direction of the sort
+        assertThat(rows.subList(1, 4)).extracting(SubmissionListing.Row::id)
+                .containsExactly(submissions.get(4).getId(), submissions.get(2).getId(), submissions.get(0).getId());
+        assertThat(rows.get(0).correctCount()).isEqualTo(10);
+        assertThat(rows.get(0).totalCount()).isEqualTo(10);
+    }
+
+    @Test
+    void pagesByTimeAscendingMatchTheFullListReversed() {
+        List<SubmissionListing.Row> rows = allPages("time", "asc");
+        List<SubmissionListing.Row> all = new ArrayList<>(listing.all(Source.EXAM, exam.getId()));
+
+        assertThat(rows).extracting(SubmissionListing.Row::id)
+                .containsExactlyElementsOf(all.reversed().stream().map(SubmissionListing.Row::id).toList());
+    }
+
+    private List<SubmissionListing.Row> allPages(String sort, String direction) {
+        List<SubmissionListing.Row> rows = new ArrayList<>();
+        String cursor = null;
+        do {
+            SubmissionListing.Page page = listing.page(Source.EXAM, exam.getId(), sort, direction, cursor, 2);
+            assertThat(page.rows()).hasSizeLessThanOrEqualTo(2);
+            rows.addAll(page.rows());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return rows;
+    }
+}
@@ -0,0 +1,120 @@
+package com.alice.education.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Drives the wheel tick by tick (1 ms ticks from time 0, so a deadline in
+ * milliseconds is its tick) and checks that every timer fires on its own tick,
+ * across the slot and wheel boundaries at 64, 64^2, 64^3 and 64^4 ticks.
+ */
+class TimingWheelTest {
+
+    private static final long L1 = 64;
+    private static final long L2 = 64 * 64;
+    private static final long L3 = 64 * 64 * 64;
+    private static final long L4 = 64L * 64 * 64 * 64;
+
+    private TimingWheel wheel;
+    private long now;
+    private final List<long[]> fired = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        wheel = new TimingWheel(1, 0, Runnable::run, null);
+        now = 0;
+        fired.clear();
+    }
+
+    @Test
+    void firesOnTheDeadlineTickAcrossWheelBoundaries() {
+        long[] delays = {1, 2, L1 - 1, L1, L1 + 1, 2 * L1, L2 - 1, L2, L2 + 1, L2 + L1 + 7,
+                L3 - 1, L3, L3 + 1, 5 * L3 + 3 * L2 + 2 * L1 + 1};
+        // Not aligned to any slot, so deadlines straddle the higher slots
+        advanceTo(L1 + 37);
+        long start = now;
+        for (long delay : delays) {
+            schedule(start + delay);
+        }
+
+        advanceTo(start + delays[delays.length - 1]);
+
+        assertThat(fired).hasSize(delays.length);
+        for (long[] f : fired) {
+            assertThat(f[1]).as("fired at").isEqualTo(f[0]);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void timerOneSpanAheadWaitsForItsOwnTurnOfTheSlot() {
+        // Same slot index on the second wheel as the current tick, but 64 of its slots ahead
+        advanceTo(L2 + 5);
+        long deadline = now + L2 - 1;
+        schedule(deadline);
+
+        advanceTo(deadline - 1);
+        assertThat(fired).isEmpty();
+        advanceTo(deadline);
+        assertThat(fired).containsExactly(new long[]{deadline, deadline});
+    }
+
+    @Test
+    void timersBeyondTheTopWheelWaitInTheOverflow() {
+        advanceTo(3);
+        long deadline = now + L4 + L3 + 11;
+        schedule(deadline);
+        schedule(now + L4 - 1);
+
+        advanceTo(deadline);
+
+        assertThat(fired).hasSize(2);
+        assertThat(fired.get(0)[1]).isEqualTo(fired.get(0)[0]);
+        assertThat(fired.get(1)[1]).isEqualTo(deadline);
+    }
+
+    @Test
+    void pastDeadlineFiresOnTheNextTick() {
+        advanceTo(100);
+        schedule(10);
+
+        advanceTo(101);
+
+        assertThat(fired).hasSize(1);
+        assertThat(fired.get(0)[1]).isEqualTo(101);
+    }
+
+    @Test
+    void cancelledTimerDoesNotFire() {
+        TimingWheel.Timeout near = schedule(now + 10);
+        TimingWheel.Timeout far = schedule(now + L2 + 10);
+        schedule(now + L2 + 11);
+
+        assertThat(near.cancel()).isTrue();
+        assertThat(far.cancel()).isTrue();
+        assertThat(far.cancel()).isFalse();
+        assertThat(wheel.size()).isEqualTo(1);
+
+        advanceTo(L2 + 20);
+
+        assertThat(fired).hasSize(1);
+        assertThat(fired.get(0)[0]).isEqualTo(L2 + 11);
+    }
+
+    // Records {deadline, tick it fired on}
+    private TimingWheel.Timeout schedule(long deadline) {
+        return wheel.schedule(deadline, () -> fired.add(new long[]{deadline, now}));
+    }
+
+    private void advanceTo(long tick) {
+        while (now < tick) {
+            now++;
+            wheel.tick();
+        }
+    }
+}
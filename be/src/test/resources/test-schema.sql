@@ -0,0 +1,30 @@
+-- What db/migration creates besides the entity tables, in H2's MySQL mode.
+
+ALTER TABLE classrooms ADD COLUMN gradebook_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE classrooms ADD COLUMN gradebook_finalized_at DATETIME(6) NULL;
+
+CREATE INDEX idx_student_grades_classroom_version ON student_grades (classroom_id, version);
+
+CREATE TABLE IF NOT EXISTS grade_change_log (
+    id              BIGINT      NOT NULL AUTO_INCREMENT,
+    classroom_id    BIGINT      NOT NULL,
+    version         BIGINT      NOT NULL,
+    grade_column_id BIGINT      NULL,
+    student_id      BIGINT      NULL,
+    score           DOUBLE      NULL,
+    changed_at      DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+CREATE INDEX idx_grade_change_log_classroom_version ON grade_change_log (classroom_id, version);
+CREATE INDEX idx_grade_change_log_changed_at ON grade_change_log (changed_at);
+
+CREATE TABLE IF NOT EXISTS grade_book_snapshots (
+    classroom_id BIGINT      NOT NULL,
+    version      BIGINT      NOT NULL,
+    finalized_at DATETIME(6) NOT NULL,
+    finalized_by BIGINT      NOT NULL,
+    grade_book   MEDIUMBLOB  NOT NULL,
+    cells        MEDIUMBLOB  NOT NULL,
+    PRIMARY KEY (classroom_id),
+    CONSTRAINT fk_grade_book_snapshots_classroom FOREIGN KEY (classroom_id) REFERENCES classrooms (id)
+);
@@ -38,7 +38,16 @@ const DoExamPage = () => {
   const selectedRef = useRef<Record<number, string>>({})
   const hasSubmittedRef = useRef(false)
   const examRef = useRef<ExamResponse | null>(null)
+  // Same key for every retry of this attempt, so a retried submit returns the stored result
+  const submitKeyRef = useRef(
+    typeof crypto.randomUUID === 'function'
+      ? crypto.randomUUID()
+      : `${Date.now()}-${Math.random().toString(36).slice(2)}`
+  )
   const questionRefs = useRef<Record<number, HTMLDivElement | null>>({})
+  // Server-side session: answers are autosaved and submitted by the server when time is up
+  const sessionIdRef = useRef<number | null>(null)
+  const dirtyRef = useRef(false)
   const examId = Number(id)
 
   const shouldBlock = useCallback(() => {
@@ -95,6 +104,7 @@ const DoExamPage = () => {
   const handleSelect = (questionId: number, answer: string) => {
     const updated = { ...selectedRef.current, [questionId]: answer }
     selectedRef.current = updated
+    dirtyRef.current = true
     setSelected(updated)
   }
 
@@ -113,7 +123,7 @@ const DoExamPage = () => {
         selectedAnswer: selectedRef.current[q.id] ?? null,
       })) as SubmitExamRequest['answers']
 
-      const res = await examAPI.submit(examId, { answers })
+      const res = await examAPI.submit(examId, { answers }, submitKeyRef.current)
       setSubmission(res.data.data)
       if (isAuto) {
         toast.info('⏱️ Bài kiểm tra đã được nộp tự động.')
@@ -147,9 +157,21 @@ const DoExamPage = () => {
         if (subs.length > 0) {
           setSubmission(subs[0])
           hasSubmittedRef.current = true
-        } else if (examData.duration) {
-          // Only start timer if not yet submitted
-          setTimeLeft(examData.duration * 60)
+        } else {
+          // Start or resume the attempt; the server owns the remaining time
+          try {
+            const session = (await examAPI.startSession(examId)).data.data
+            sessionIdRef.current = session.id
+            const restored: Record<number, string> = {}
+            session.answers?.forEach(a => {
+              if (a.selectedAnswer) restored[a.questionId] = a.selectedAnswer
+            })
+            selectedRef.current = restored
+            setSelected(restored)
+            setTimeLeft(Math.max(session.remainingSeconds, 1))
+          } catch {
+            if (examData.duration) setTimeLeft(examData.duration * 60)
+          }
         }
       } catch {
         toast.error('Không tải được bài kiểm tra')
@@ -161,6 +183,25 @@ const DoExamPage = () => {
     load()
   }, [examId])
 
+  // ── Autosave every 10 seconds while answers change ───────────────────────
+  useEffect(() => {
+    const interval = setInterval(async () => {
+      const sessionId = sessionIdRef.current
+      if (!sessionId || !dirtyRef.current || hasSubmittedRef.current) return
+      dirtyRef.current = false
+      const answers = Object.entries(selectedRef.current).map(([questionId, selectedAnswer]) => ({
+        questionId: Number(questionId),
+        selectedAnswer,
+      }))
+      try {
+        await examAPI.autosave(sessionId, { answers })
+      } catch {
+        dirtyRef.current = true
+      }
+    }, 10000)
+    return () => clearInterval(interval)
+  }, [])
+
   // ── Countdown timer ──────────────────────────────────────────────────────
   useEffect(() => {
     if (timeLeft === null || timerStarted.current || hasSubmittedRef.current) return
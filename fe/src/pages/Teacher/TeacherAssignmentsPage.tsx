@@ -110,7 +110,15 @@ const TeacherAssignmentsPage = () => {
     setShowModal(true)
   }
 
-  const handleEdit = (a: AssignmentResponse) => {
+  // List rows carry no questions; the form is filled from the full bài tập
+  const handleEdit = async (item: AssignmentResponse) => {
+    let a: AssignmentResponse
+    try {
+      a = (await assignmentAPI.getById(item.id)).data.data
+    } catch (error: any) {
+      toast.error(error.response?.data?.message || 'Lỗi khi tải bài tập')
+      return
+    }
     setEditingId(a.id)
     setFormData({
       title: a.title,
@@ -119,6 +127,7 @@ const TeacherAssignmentsPage = () => {
       classroomIds: a.classroomIds || [],
       questions: a.questions.length > 0
         ? a.questions.map(q => ({
+            id: q.id,
             content: q.content,
             optionA: q.optionA,
             optionB: q.optionB,
@@ -250,8 +259,13 @@ const TeacherAssignmentsPage = () => {
     setShowSubmissionsModal(true)
     setSubmissionsLoading(true)
     try {
-      const res = await assignmentAPI.getAllSubmissions(a.id)
+      const [res, detail] = await Promise.all([
+        assignmentAPI.getAllSubmissions(a.id),
+        assignmentAPI.getById(a.id),
+      ])
       setAllSubmissions(res.data.data || [])
+      // Question texts for the answer detail view
+      setSubmissionsAssignment(detail.data.data)
     } catch (error: any) {
       toast.error(error.response?.data?.message || 'Lỗi khi tải bài nộp')
     } finally {
@@ -260,6 +274,17 @@ const TeacherAssignmentsPage = () => {
   }
 
   // Question builder helpers
+  // The submission list carries summaries only; answers are loaded per submission
+  const handleViewDetail = async (submissionId: number) => {
+    try {
+      const res = await assignmentAPI.getSubmissionDetail(submissionId)
+      setDetailSubmission(res.data.data)
+      setShowDetailModal(true)
+    } catch (error: any) {
+      toast.error(error.response?.data?.message || 'Lỗi khi tải bài nộp')
+    }
+  }
+
   const addQuestion = () =>
     setFormData(f => ({ ...f, questions: [...f.questions, EMPTY_QUESTION()] }))
 
@@ -869,7 +894,7 @@ const TeacherAssignmentsPage = () => {
                           <td>
                             <button
                               style={{ padding: '0.3rem 0.7rem', border: '2px solid var(--dark)', borderRadius: 8, background: 'var(--bg)', cursor: 'pointer', fontWeight: 600, fontSize: '0.8rem', boxShadow: '2px 2px 0 var(--dark)' }}
-                              onClick={() => { setDetailSubmission(s); setShowDetailModal(true) }}
+                              onClick={() => handleViewDetail(s.id)}
                             >📌 Xem</button>
                           </td>
                         </tr>
@@ -67,6 +67,7 @@ const TeacherExamsPage = () => {
     title: '',
     description: '',
     dueDate: '',
+    startDate: '',
     duration: 15,
     examType: 'QUIZ_15',
     classroomIds: [],
@@ -104,6 +105,7 @@ const TeacherExamsPage = () => {
       title: '',
       description: '',
       dueDate: '',
+      startDate: '',
       duration: 15,
       examType: 'QUIZ_15',
       classroomIds: [],
@@ -116,17 +118,27 @@ const TeacherExamsPage = () => {
     setShowModal(true)
   }
 
-  const handleEdit = (e: ExamResponse) => {
+  // List rows carry no questions; the form is filled from the full bài kiểm tra
+  const handleEdit = async (item: ExamResponse) => {
+    let e: ExamResponse
+    try {
+      e = (await examAPI.getById(item.id)).data.data
+    } catch (error: any) {
+      toast.error(error.response?.data?.message || 'Lỗi khi tải bài kiểm tra')
+      return
+    }
     setEditingId(e.id)
     setFormData({
       title: e.title,
       description: e.description || '',
       dueDate: e.dueDate ? e.dueDate.slice(0, 16) : '',
+      startDate: e.startDate ? e.startDate.slice(0, 16) : '',
       duration: e.duration,
       examType: e.examType || 'QUIZ_15',
       classroomIds: e.classroomIds || [],
       questions: e.questions.length > 0
         ? e.questions.map(q => ({
+            id: q.id,
             content: q.content,
             optionA: q.optionA,
             optionB: q.optionB,
@@ -209,6 +221,7 @@ const TeacherExamsPage = () => {
       const payload: ExamRequest = {
         ...formData,
         dueDate: formData.dueDate || undefined,
+        startDate: formData.startDate || undefined,
         questions: formData.questions.map((q, i) => ({ ...q, orderNumber: i + 1 })),
       }
       if (editingId) {
@@ -261,8 +274,13 @@ const TeacherExamsPage = () => {
     setShowSubmissionsModal(true)
     setSubmissionsLoading(true)
     try {
-      const res = await examAPI.getAllSubmissions(e.id)
+      const [res, detail] = await Promise.all([
+        examAPI.getAllSubmissions(e.id),
+        examAPI.getById(e.id),
+      ])
       setAllSubmissions(res.data.data || [])
+      // Question texts for the answer detail view
+      setSubmissionsExam(detail.data.data)
     } catch (error: any) {
       toast.error(error.response?.data?.message || 'Lỗi khi tải bài nộp')
     } finally {
@@ -270,6 +288,17 @@ const TeacherExamsPage = () => {
     }
   }
 
+  // The submission list carries summaries only; answers are loaded per submission
+  const handleViewDetail = async (submissionId: number) => {
+    try {
+      const res = await examAPI.getSubmissionDetail(submissionId)
+      setDetailSubmission(res.data.data)
+      setShowDetailModal(true)
+    } catch (error: any) {
+      toast.error(error.response?.data?.message || 'Lỗi khi tải bài nộp')
+    }
+  }
+
   const addQuestion = () =>
     setFormData(f => ({ ...f, questions: [...f.questions, EMPTY_QUESTION()] }))
 
@@ -527,6 +556,14 @@ const TeacherExamsPage = () => {
                     onChange={e => setFormData(f => ({ ...f, dueDate: e.target.value }))}
                   />
                 </div>
+                <div className={styles.formGroup}>
+                  <label>Mở lúc (tùy chọn)</label>
+                  <input
+                    type="datetime-local"
+                    value={formData.startDate}
+                    onChange={e => setFormData(f => ({ ...f, startDate: e.target.value }))}
+                  />
+                </div>
               </div>
 
               <div className={styles.formGroup}>
@@ -915,7 +952,7 @@ const TeacherExamsPage = () => {
                           <td>
                             <button
                               style={{ padding: '0.3rem 0.7rem', border: '2px solid var(--dark)', borderRadius: 8, background: 'var(--bg)', cursor: 'pointer', fontWeight: 600, fontSize: '0.8rem', boxShadow: '2px 2px 0 var(--dark)' }}
-                              onClick={() => { setDetailSubmission(s); setShowDetailModal(true) }}
+                              onClick={() => handleViewDetail(s.id)}
                             >📌 Xem</button>
                           </td>
                         </tr>
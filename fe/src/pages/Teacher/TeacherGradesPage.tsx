@@ -182,25 +182,43 @@ const TeacherGradesPage = () => {
       }
       score = parsed
     }
-    if (editingCell.gradeId === null) {
-      toast.error('Không tìm thấy ô điểm, hãy thử tải lại trang')
-      setEditingCell(null)
-      return
-    }
     try {
-      const res = await gradeAPI.updateGrade(editingCell.gradeId, score)
-      const updated = res.data.data
+      // Empty cells are not stored yet; they are created through the bulk endpoint
+      let updated: { gradeId: number | null; score: number | null }
+      if (editingCell.gradeId === null) {
+        const res = await gradeAPI.bulkUpdateGrades(gradeBook.classroomId, [
+          { studentId: editingCell.studentId, columnId: editingCell.columnId, score },
+        ])
+        const result = res.data.data.results[0]
+        if (!result.success) {
+          toast.error(result.message || 'Lỗi khi lưu điểm')
+          return
+        }
+        updated = result
+      } else {
+        updated = (await gradeAPI.updateGrade(editingCell.gradeId, score)).data.data
+      }
       setGradeBook(prev => {
         if (!prev) return prev
+        const coefficient = prev.columns.find(c => c.id === editingCell.columnId)?.coefficient ?? 1
         return {
           ...prev,
           rows: prev.rows.map(row => {
             if (row.studentId !== editingCell.studentId) return row
+            // Mirror the server's running totals so the average column stays current
+            const before = row.grades.find(g => g.columnId === editingCell.columnId)?.score ?? null
+            let weightedSum = row.weightedSum ?? 0
+            let weightTotal = row.weightTotal ?? 0
+            if (before !== null) { weightedSum -= before * coefficient; weightTotal -= coefficient }
+            if (updated.score !== null) { weightedSum += updated.score * coefficient; weightTotal += coefficient }
             return {
               ...row,
+              weightedSum: weightTotal > 0 ? weightedSum : null,
+              weightTotal: weightTotal > 0 ? weightTotal : null,
+              average: weightTotal > 0 ? Math.round(weightedSum / weightTotal * 10) / 10 : null,
               grades: row.grades.map(g =>
                 g.columnId === editingCell.columnId
-                  ? { ...g, score: updated.score }
+                  ? { ...g, gradeId: updated.gradeId, score: updated.score }
                   : g
               ),
             }
@@ -471,6 +489,11 @@ const TeacherGradesPage = () => {
                           </div>
                         </th>
                       ))}
+                      <th className={gradeStyles.colHeader} title="Điểm trung bình có hệ số">
+                        <div className={gradeStyles.colHeaderInner}>
+                          <span className={gradeStyles.colName}>ĐTB</span>
+                        </div>
+                      </th>
                     </tr>
                   </thead>
                   <tbody>
@@ -519,6 +542,13 @@ const TeacherGradesPage = () => {
                             </td>
                           )
                         })}
+                        <td className={gradeStyles.scoreCell}>
+                          <span className={gradeStyles.scoreValue} style={{ color: getScoreColor(row.average) }}>
+                            {row.average !== null && row.average !== undefined
+                              ? row.average.toFixed(1)
+                              : <span className={gradeStyles.emptyScore}>—</span>}
+                          </span>
+                        </td>
                       </tr>
                     ))}
                   </tbody>
@@ -526,6 +556,14 @@ const TeacherGradesPage = () => {
               </div>
             )}
 
+            {gradeBook.stats && gradeBook.stats.classAverage !== null && (
+              <div className={gradeStyles.hint}>
+                ĐTB lớp: <strong>{gradeBook.stats.classAverage}</strong> · Cao nhất: {gradeBook.stats.highest} ·
+                Thấp nhất: {gradeBook.stats.lowest} · Giỏi {gradeBook.stats.excellentCount} · Khá {gradeBook.stats.goodCount} ·
+                TB {gradeBook.stats.averageCount} · Yếu {gradeBook.stats.weakCount} · Kém {gradeBook.stats.poorCount}
+              </div>
+            )}
+
             <div className={gradeStyles.hint}>
               💡 Click vào ô điểm để chỉnh sửa. Nhấn <kbd>Enter</kbd> để lưu, <kbd>Esc</kbd> để huỷ.
             </div>
@@ -15,6 +15,8 @@ export interface QuestionResponse {
   optionD: string
   correctAnswer: string
   orderNumber: number
+  lineageId?: number
+  version?: number
 }
 
 export interface AssignmentResponse {
@@ -35,6 +37,7 @@ export interface AssignmentResponse {
 }
 
 export interface QuestionRequest {
+  id?: number
   content: string
   optionA: string
   optionB: string
@@ -120,6 +123,9 @@ const assignmentAPI = {
 
   getAllSubmissions: (id: number) =>
     api.get<ApiResponse<SubmissionResponse[]>>(`/assignments/${id}/submissions`),
+
+  getSubmissionDetail: (submissionId: number) =>
+    api.get<ApiResponse<SubmissionResponse>>(`/assignments/submissions/${submissionId}`),
 }
 
 export default assignmentAPI
@@ -18,6 +18,41 @@ export interface DashboardStats {
   recentActivities: RecentActivity[]
 }
 
+export interface ClassroomScore {
+  classroomId: number
+  classroomName: string
+  scoreCount: number
+  mean: number
+  passRate: number
+}
+
+export interface GradeDistribution {
+  subjectId: number
+  subjectName: string
+  gradeLevel: string | null
+  type: string
+  classroomCount: number
+  scoreCount: number
+  mean: number
+  passRate: number
+  p10: number
+  p25: number
+  median: number
+  p75: number
+  p90: number
+  histogram: number[]
+  topClassrooms: ClassroomScore[]
+}
+
+export interface GradeAnalyticsParams {
+  subjectId?: number
+  gradeLevel?: string
+  schoolYear?: string
+  type?: string
+  passScore?: number
+  top?: number
+}
+
 interface ApiResponse<T> {
   success: boolean
   message: string
@@ -25,7 +60,9 @@ interface ApiResponse<T> {
 }
 
 const dashboardAPI = {
-  getStats: () => api.get<ApiResponse<DashboardStats>>('/dashboard/stats')
+  getStats: () => api.get<ApiResponse<DashboardStats>>('/dashboard/stats'),
+  getGradeAnalytics: (params: GradeAnalyticsParams = {}) =>
+    api.get<ApiResponse<GradeDistribution[]>>('/dashboard/grade-analytics', { params })
 }
 
 export default dashboardAPI
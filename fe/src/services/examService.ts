@@ -15,6 +15,8 @@ export interface QuestionResponse {
   optionD: string
   correctAnswer: string
   orderNumber: number
+  lineageId?: number
+  version?: number
 }
 
 export interface ExamResponse {
@@ -22,6 +24,7 @@ export interface ExamResponse {
   title: string
   description: string
   dueDate: string | null
+  startDate?: string | null
   duration: number
   examType: string | null
   isActive: boolean
@@ -63,7 +66,18 @@ export interface SubmitExamRequest {
   answers: { questionId: number; selectedAnswer: string | null }[]
 }
 
+export interface ExamSessionResponse {
+  id: number
+  examId: number
+  status: 'IN_PROGRESS' | 'SUBMITTED' | 'EXPIRED'
+  startedAt: string
+  expiresAt: string
+  remainingSeconds: number
+  answers?: { questionId: number; selectedAnswer: string | null }[]
+}
+
 export interface QuestionRequest {
+  id?: number
   content: string
   optionA: string
   optionB: string
@@ -77,6 +91,7 @@ export interface ExamRequest {
   title: string
   description?: string
   dueDate?: string
+  startDate?: string
   duration: number
   examType?: string
   classroomIds: number[]
@@ -132,14 +147,24 @@ const examAPI = {
   delete: (id: number) =>
     api.delete<ApiResponse<void>>(`/exams/${id}`),
 
-  submit: (id: number, data: SubmitExamRequest) =>
-    api.post<ApiResponse<ExamSubmissionResponse>>(`/exams/${id}/submit`, data),
+  startSession: (id: number) =>
+    api.post<ApiResponse<ExamSessionResponse>>(`/exams/${id}/session`, {}),
+
+  autosave: (sessionId: number, data: SubmitExamRequest) =>
+    api.put<ApiResponse<ExamSessionResponse>>(`/exams/sessions/${sessionId}/answers`, data),
+
+  submit: (id: number, data: SubmitExamRequest, idempotencyKey?: string) =>
+    api.post<ApiResponse<ExamSubmissionResponse>>(`/exams/${id}/submit`, data,
+      idempotencyKey ? { headers: { 'Idempotency-Key': idempotencyKey } } : undefined),
 
   getMySubmissions: (id: number) =>
     api.get<ApiResponse<ExamSubmissionResponse[]>>(`/exams/${id}/my-submissions`),
 
   getAllSubmissions: (id: number) =>
     api.get<ApiResponse<ExamSubmissionResponse[]>>(`/exams/${id}/submissions`),
+
+  getSubmissionDetail: (submissionId: number) =>
+    api.get<ApiResponse<ExamSubmissionResponse>>(`/exams/submissions/${submissionId}`),
 }
 
 export default examAPI
@@ -12,12 +12,17 @@ export interface GradeColumnResponse {
   type: string
   orderNumber: number
   isCustom: boolean
+  coefficient: number
+  examId: number | null
+  assignmentId: number | null
+  formula: string | null
 }
 
 export interface GradeEntryResponse {
   gradeId: number | null
   columnId: number
   score: number | null
+  version?: number | null
 }
 
 export interface StudentGradeRowResponse {
@@ -25,30 +30,130 @@ export interface StudentGradeRowResponse {
   studentName: string
   username: string
   grades: GradeEntryResponse[]
+  weightedSum: number | null
+  weightTotal: number | null
+  average: number | null
+}
+
+export interface GradeBookStatsResponse {
+  studentCount: number
+  gradedCount: number
+  classAverage: number | null
+  highest: number | null
+  lowest: number | null
+  excellentCount: number
+  goodCount: number
+  averageCount: number
+  weakCount: number
+  poorCount: number
 }
 
 export interface GradeBookResponse {
   classroomId: number
   classroomName: string
+  version: number
+  // Set once the gradebook is finalized; it cannot be edited until reopened
+  finalizedAt: string | null
   columns: GradeColumnResponse[]
   rows: StudentGradeRowResponse[]
+  stats: GradeBookStatsResponse
+}
+
+export interface GradeBookMatrixRow {
+  studentId: number
+  studentName: string
+  username: string
+  scores: (number | null)[]
+  gradeIds: (number | null)[]
+  weightedSum: number | null
+  weightTotal: number | null
+  average: number | null
+}
+
+// Same gradebook as GradeBookResponse; scores and gradeIds follow the column order
+export interface GradeBookMatrixResponse {
+  classroomId: number
+  classroomName: string
+  version: number
+  finalizedAt: string | null
+  columns: GradeColumnResponse[]
+  rows: GradeBookMatrixRow[]
+  stats: GradeBookStatsResponse
+}
+
+export interface GradeCellRequest {
+  studentId: number
+  columnId: number
+  score: number | null
+  // Gradebook version the edit was based on; a cell changed since is rejected as a conflict
+  expectedVersion?: number | null
+}
+
+export interface GradeCellResult {
+  studentId: number
+  columnId: number
+  gradeId: number | null
+  score: number | null
+  version: number | null
+  success: boolean
+  conflict: boolean
+  message: string | null
+}
+
+export interface GradeCellChangeResponse {
+  studentId: number
+  columnId: number
+  gradeId: number | null
+  score: number | null
+  version: number
+}
+
+// Changes since a version; when full is set the gradebook must be reloaded instead
+export interface GradeBookDeltaResponse {
+  classroomId: number
+  version: number
+  full: boolean
+  cells: GradeCellChangeResponse[]
+  students: StudentGradeRowResponse[]
+  stats: GradeBookStatsResponse | null
+}
+
+export interface BulkGradeUpdateResponse {
+  updated: number
+  failed: number
+  results: GradeCellResult[]
 }
 
 const gradeAPI = {
   getGradeBook: (classroomId: number) =>
     api.get<ApiResponse<GradeBookResponse>>(`/grades/classroom/${classroomId}`),
 
+  getGradeBookMatrix: (classroomId: number) =>
+    api.get<ApiResponse<GradeBookMatrixResponse>>(`/grades/classroom/${classroomId}/matrix`),
+
+  getChanges: (classroomId: number, since: number) =>
+    api.get<ApiResponse<GradeBookDeltaResponse>>(`/grades/classroom/${classroomId}/changes`, { params: { since } }),
+
   getMyGradeBook: (classroomId: number) =>
     api.get<ApiResponse<GradeBookResponse>>(`/grades/classroom/${classroomId}/my`),
 
-  addColumn: (classroomId: number, data: { name: string; type: string; examId?: number | null }) =>
+  addColumn: (classroomId: number, data: { name: string; type: string; examId?: number | null; assignmentId?: number | null; formula?: string | null }) =>
     api.post<ApiResponse<GradeColumnResponse>>(`/grades/classroom/${classroomId}/columns`, data),
 
   deleteColumn: (columnId: number) =>
     api.delete<ApiResponse<void>>(`/grades/columns/${columnId}`),
 
-  updateGrade: (gradeId: number, score: number | null) =>
-    api.put<ApiResponse<GradeEntryResponse>>(`/grades/${gradeId}`, { score }),
+  updateGrade: (gradeId: number, score: number | null, expectedVersion?: number | null) =>
+    api.put<ApiResponse<GradeEntryResponse>>(`/grades/${gradeId}`, { score, expectedVersion }),
+
+  bulkUpdateGrades: (classroomId: number, cells: GradeCellRequest[]) =>
+    api.put<ApiResponse<BulkGradeUpdateResponse>>(`/grades/classroom/${classroomId}/cells`, { cells }),
+
+  finalizeGradeBook: (classroomId: number) =>
+    api.post<ApiResponse<GradeBookResponse>>(`/grades/classroom/${classroomId}/finalize`),
+
+  reopenGradeBook: (classroomId: number) =>
+    api.post<ApiResponse<GradeBookResponse>>(`/grades/classroom/${classroomId}/reopen`),
 }
 
 export const GRADE_TYPE_LABELS: Record<string, string> = {